@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.algorithms.gp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dllearner.core.AbstractLearningProblem;
+import org.dllearner.core.owl.Description;
+import org.dllearner.learningproblems.ScorePosNeg;
+import org.dllearner.utilities.owl.ConceptComparator;
+
+/**
+ * Computes the fitness of the program trees of the GP algorithm.
+ *
+ * The trees of a generation are created first (all random decisions are
+ * made by the GP algorithm in its own thread) and then evaluated together,
+ * i.e. the evaluation can be done in parallel without changing the result
+ * of a seeded run. The scores of structurally identical trees are cached:
+ * the cache keeps the trees which were evaluated or looked up in the current
+ * or the previous generation.
+ *
+ */
+public class FitnessEvaluator {
+
+	private AbstractLearningProblem learningProblem;
+
+	private int nrOfThreads;
+	private ExecutorService executor;
+
+	private ConceptComparator conceptComparator = new ConceptComparator();
+	private Map<Description,ScorePosNeg> cache = new TreeMap<Description,ScorePosNeg>(conceptComparator);
+	private Map<Description,ScorePosNeg> previousCache = new TreeMap<Description,ScorePosNeg>(conceptComparator);
+
+	private int requests = 0;
+	private int cacheHits = 0;
+
+	// trees which are not in the cache (reused between generations)
+	private List<Description> missingTrees = new ArrayList<Description>();
+	private List<Integer> missingPositions = new ArrayList<Integer>();
+
+	public FitnessEvaluator(AbstractLearningProblem learningProblem, int nrOfThreads) {
+		this.learningProblem = learningProblem;
+		this.nrOfThreads = Math.max(1, nrOfThreads);
+		if(this.nrOfThreads > 1)
+			executor = Executors.newFixedThreadPool(this.nrOfThreads);
+	}
+
+	/**
+	 * Computes the score of a single tree.
+	 * @param tree The program tree.
+	 * @return The score of the tree.
+	 */
+	public ScorePosNeg evaluate(Description tree) {
+		requests++;
+		ScorePosNeg score = lookup(tree);
+		if(score == null) {
+			score = GPUtilities.calculateFitness(learningProblem, tree);
+			cache.put((Description) tree.clone(), score);
+		} else
+			cacheHits++;
+		return score;
+	}
+
+	/**
+	 * Computes the scores of the first <code>n</code> trees. Trees which are
+	 * not in the cache are evaluated in parallel. Structurally identical trees
+	 * are evaluated only once.
+	 * @param trees The program trees.
+	 * @param scores The array in which the scores are stored.
+	 * @param n The number of trees.
+	 */
+	public void evaluate(Description[] trees, ScorePosNeg[] scores, int n) {
+		missingTrees.clear();
+		missingPositions.clear();
+
+		// trees which are not in the cache, the first occurrence of a tree
+		// is evaluated (its score is not set yet)
+		Map<Description,Integer> pending = new TreeMap<Description,Integer>(conceptComparator);
+		for(int i=0; i<n; i++) {
+			requests++;
+			scores[i] = lookup(trees[i]);
+			if(scores[i] != null) {
+				cacheHits++;
+			} else if(!pending.containsKey(trees[i])) {
+				pending.put(trees[i], i);
+				missingTrees.add(trees[i]);
+				missingPositions.add(i);
+			} else
+				cacheHits++;
+		}
+
+		if(executor == null || missingTrees.size() < 2) {
+			for(int i=0; i<missingTrees.size(); i++)
+				scores[missingPositions.get(i)] = GPUtilities.calculateFitness(learningProblem, missingTrees.get(i));
+		} else {
+			// each task evaluates every nrOfThreads-th missing tree
+			List<Future<?>> futures = new ArrayList<Future<?>>(nrOfThreads);
+			final ScorePosNeg[] results = scores;
+			for(int t=0; t<nrOfThreads && t<missingTrees.size(); t++) {
+				final int start = t;
+				futures.add(executor.submit(new Callable<Object>() {
+					public Object call() {
+						for(int i=start; i<missingTrees.size(); i+=nrOfThreads)
+							results[missingPositions.get(i)] = GPUtilities.calculateFitness(learningProblem, missingTrees.get(i));
+						return null;
+					}
+				}));
+			}
+			try {
+				for(Future<?> future : futures)
+					future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Fitness evaluation interrupted", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Fitness evaluation failed", e.getCause());
+			}
+		}
+
+		for(int i=0; i<missingTrees.size(); i++)
+			cache.put((Description) missingTrees.get(i).clone(), scores[missingPositions.get(i)]);
+
+		// copies of trees evaluated in this call
+		for(int i=0; i<n; i++) {
+			if(scores[i] == null)
+				scores[i] = scores[pending.get(trees[i])];
+		}
+	}
+
+	private ScorePosNeg lookup(Description tree) {
+		ScorePosNeg score = cache.get(tree);
+		if(score == null) {
+			score = previousCache.remove(tree);
+			if(score != null)
+				cache.put((Description) tree.clone(), score);
+		}
+		return score;
+	}
+
+	/**
+	 * Starts a new generation: trees which have not been used in the
+	 * last two generations are removed from the cache.
+	 */
+	public void nextGeneration() {
+		Map<Description,ScorePosNeg> tmp = previousCache;
+		previousCache = cache;
+		cache = tmp;
+		cache.clear();
+	}
+
+	/**
+	 * Stops the threads used for the evaluation.
+	 */
+	public void shutdown() {
+		if(executor != null)
+			executor.shutdown();
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+	public int getRequests() {
+		return requests;
+	}
+
+	public int getCacheHits() {
+		return cacheHits;
+	}
+
+}
@@ -110,6 +110,8 @@ public class GP extends AbstractCELA {
 	private int initMinDepth = 4;
 	private int initMaxDepth = 6;
 	private int maxConceptLength = 75;
+	private int numberOfThreads = 1;
+	private int seed = -1;
 //	private boolean useMultiStructures = true;    	
     	
     private Program[] individuals;
@@ -120,7 +122,16 @@ public class GP extends AbstractCELA {
 
     private Comparator<Program> fitnessComparator;
     
-    private static Random rand = new Random();
+    private Random rand = new Random();
+    
+    private FitnessEvaluator fitnessEvaluator;
+    
+    // arrays reused in each generation
+    private Description[] newTrees;
+    private ScorePosNeg[] newScores;
+    private int[] newTreePositions;
+    private double[] lookupTable;
+    private int[] randomIndividuals;
     
     private long startTime;
 
@@ -205,6 +216,10 @@ public class GP extends AbstractCELA {
 		IntegerConfigOption max = new IntegerConfigOption("maxConceptLength", "maximum concept length (higher length means lowest possible fitness)", 75);
 		max.setLowerLimit(1);
 		options.add(max);		
+		IntegerConfigOption threads = new IntegerConfigOption("numberOfThreads", "number of threads used to compute the fitness of the individuals of a generation (the learning problem and reasoner have to support concurrent score computations if this is higher than 1)", 1);
+		threads.setLowerLimit(1);
+		options.add(threads);
+		options.add(new IntegerConfigOption("seed", "seed of the random number generator, a run is reproducible if a seed is given (values lower than 0 mean that no seed is used)", -1));
 //		options.add(new BooleanConfigOption("useMultiStructures", "specifies whether to use e.g. (a AND b AND c) instead of ((A and b) and c) - there is no apparent reason to set this to false", true));
 		return options;
 	}
@@ -259,6 +274,10 @@ public class GP extends AbstractCELA {
 			initMaxDepth = (Integer) entry.getValue();
 		} else if(name.equals("maxConceptLength")) {
 			maxConceptLength = (Integer) entry.getValue();
+		} else if(name.equals("numberOfThreads")) {
+			numberOfThreads = (Integer) entry.getValue();
+		} else if(name.equals("seed")) {
+			seed = (Integer) entry.getValue();
 		}		
 		
 	}
@@ -296,8 +315,18 @@ public class GP extends AbstractCELA {
     	System.out.println("probability of hill climbing: " + df.format(hillClimbingProbability*100) + "%");
     	System.out.println("probability of refinement: " + df.format(refinementProbability*100) + "%");     	
     	System.out.println("number of post convergence generations: " + postConvergenceGenerations);
+    	System.out.println("number of threads for fitness evaluation: " + numberOfThreads);
+    	if(seed >= 0)
+    		System.out.println("random seed: " + seed);
     	System.out.println();
     	
+    	// all random decisions are made in this thread, such that the parallel
+    	// fitness evaluation does not change the result of a seeded run
+    	rand = (seed >= 0) ? new Random(seed) : new Random();
+    	GPUtilities.setRandom(rand);
+    	psi.setRandom(rand);
+    	fitnessEvaluator = new FitnessEvaluator(learningProblem, numberOfThreads);
+    	
         // represents the individuals in the current run
         individuals = new Program[numberOfIndividuals];
 
@@ -370,6 +399,10 @@ public class GP extends AbstractCELA {
         int[] selectedIndividuals = new int[numberOfSelectedIndividuals];
         Program[] newIndividuals = new Program[numberOfNewIndividuals];
         Program[] tmp = new Program[2];
+        Description[] tmpTrees;
+        newTrees = new Description[numberOfNewIndividuals];
+        newScores = new ScorePosNeg[numberOfNewIndividuals];
+        newTreePositions = new int[numberOfNewIndividuals];
 
         // long startTime = System.currentTimeMillis();
 
@@ -406,11 +439,13 @@ public class GP extends AbstractCELA {
             }
             
             // apply the configured selection algorithm
-            selectedIndividuals = selectIndividuals(generation);
+            selectIndividuals(generation, selectedIndividuals);
 
-            // produce offspring
+            // produce offspring (the trees created by crossover and mutation
+            // are evaluated together after all offspring has been produced)
+            int nrOfNewTrees = 0;
             for (int i = 0; i < numberOfSelectedIndividuals; i++) {
-            	double rand = Math.random();
+            	double rand = this.rand.nextDouble();
             	
             	double crossoverBoundary = crossoverProbability;
             	double mutationBoundary = crossoverBoundary + mutationProbability;
@@ -422,14 +457,23 @@ public class GP extends AbstractCELA {
             	// dann wird stattdessen reproduction genommen)
                 if (rand < crossoverBoundary && i+1 != numberOfSelectedIndividuals) {
                     // crossover
-                    tmp = GPUtilities.crossover(learningProblem,
-                            individuals[selectedIndividuals[i]],
-                            individuals[selectedIndividuals[i + 1]]);
-
-                    //System.out.println(tmp[0].getTree());
-                    
-                    newIndividuals[i] = tmp[0];
-                    newIndividuals[i + 1] = tmp[1];
+                	if(adc) {
+	                    tmp = GPUtilities.crossover(learningProblem,
+	                            individuals[selectedIndividuals[i]],
+	                            individuals[selectedIndividuals[i + 1]]);
+	
+	                    //System.out.println(tmp[0].getTree());
+	                    
+	                    newIndividuals[i] = tmp[0];
+	                    newIndividuals[i + 1] = tmp[1];
+                	} else {
+                		tmpTrees = GPUtilities.crossoverTrees(individuals[selectedIndividuals[i]],
+                				individuals[selectedIndividuals[i + 1]]);
+                		newTrees[nrOfNewTrees] = tmpTrees[0];
+                		newTreePositions[nrOfNewTrees++] = i;
+                		newTrees[nrOfNewTrees] = tmpTrees[1];
+                		newTreePositions[nrOfNewTrees++] = i + 1;
+                	}
                     
                     // Incrementing i here is a significant code change! (2007/08/31)
                     // This is done, because crossover uses two individuals as input and 
@@ -438,7 +482,12 @@ public class GP extends AbstractCELA {
                     i++;
                 // mutation
                 }  else if(rand >= crossoverBoundary && rand < mutationBoundary) {
-                	newIndividuals[i] = GPUtilities.mutation(learningProblem, reasoner, individuals[selectedIndividuals[i]]);
+                	if(adc) {
+                		newIndividuals[i] = GPUtilities.mutation(learningProblem, reasoner, individuals[selectedIndividuals[i]]);
+                	} else {
+                		newTrees[nrOfNewTrees] = GPUtilities.mutationTree(learningProblem, reasoner, individuals[selectedIndividuals[i]]);
+                		newTreePositions[nrOfNewTrees++] = i;
+                	}
                 // hill climbing
                 } else if(rand >= mutationBoundary && rand < hillClimbingBoundary) {
                 	// System.out.println("hill climbing");
@@ -470,6 +519,14 @@ public class GP extends AbstractCELA {
                     newIndividuals[i+1] = Utilities.mutation(newIndividuals[i + 1]);
                 */
             }
+            
+            // compute the fitness of the new trees
+            fitnessEvaluator.evaluate(newTrees, newScores, nrOfNewTrees);
+            for (int i = 0; i < nrOfNewTrees; i++) {
+            	newIndividuals[newTreePositions[i]] = new Program(newScores[i], newTrees[i]);
+            	newTrees[i] = null;
+            	newScores[i] = null;
+            }
 
             // update fittest individual
             Program chr = getFittestIndividual();
@@ -513,10 +570,11 @@ public class GP extends AbstractCELA {
             for(int i=0; i<numberOfIndividuals; i++) {
             	if(individuals[i].getTree().getLength()>maxConceptLength) {
             		System.out.println("Warning: GP produced concept longer then " + maxConceptLength + ". Replacing it with TOP.");
-            		individuals[i] = GPUtilities.createProgram(learningProblem, new Thing());
+            		individuals[i] = createProgram(new Thing());
             	}            		
             }
             
+            fitnessEvaluator.nextGeneration();
             generation++;
         } while ( (useFixedNumberOfGenerations && generation < generations)
         	|| (!useFixedNumberOfGenerations && (generation - fittestIndividualGeneration < postConvergenceGenerations)));
@@ -524,6 +582,7 @@ public class GP extends AbstractCELA {
         // fittestIndividual.optimize();        
         
         long endTime = System.nanoTime(); // .currentTimeMillis();
+        fitnessEvaluator.shutdown();
         // R�ckgabewert des Algorithmus speichern
         bestScore = fittestIndividual.getScore();
         bestConcept = fittestIndividual.getTree();
@@ -561,10 +620,11 @@ public class GP extends AbstractCELA {
                 + fittestIndividualGeneration + " generations");
         System.out.println("runtime in ms: " + Helper.prettyPrintNanoSeconds(endTime - startTime));
         System.out.println("fitness evaluations: "
-                + GPUtilities.fitnessEvaluations);
+                + GPUtilities.fitnessEvaluations.get() + " (" + fitnessEvaluator.getCacheHits() 
+                + " of " + fitnessEvaluator.getRequests() + " fitness requests answered by the cache)");
         if(refinementProbability > 0) {
-        	System.out.println("operator applications: " + psi.getNrOfRequests() + " psi, " + GPUtilities.crossover + " crossover, " +
-        			GPUtilities.mutation + " mutation, " + GPUtilities.hillClimbing + " hillClimbing");
+        	System.out.println("operator applications: " + psi.getNrOfRequests() + " psi, " + GPUtilities.crossover.get() + " crossover, " +
+        			GPUtilities.mutation.get() + " mutation, " + GPUtilities.hillClimbing.get() + " hillClimbing");
         }
         
         //System.out.println("invalid-to-valid transformations by FROG optimization: "
@@ -598,6 +658,8 @@ public class GP extends AbstractCELA {
         // trees are created by the ramped half and half method with a tree depth
         // between 6 and 9
     	
+    	Description[] initialTrees = new Description[numberOfIndividuals];
+    	
     	// Lookuptable generieren
     	double[] functionValues = new double[initMaxDepth-initMinDepth+1];
     	double functionSum = 0;
@@ -610,17 +672,32 @@ public class GP extends AbstractCELA {
     	
     	// function-based-half-and-half
     	for(int i = 0; i< numberOfIndividuals; i++) {
-        	boolean grow = (Math.random()>0.5);
+        	boolean grow = (rand.nextDouble()>0.5);
         	
         	int depth = getLookupTablePosition(functionValues,rand.nextDouble()*functionSum) + initMinDepth;
         	// int depth = rand.nextInt(initMaxDepth-initMinDepth)+initMinDepth;
         	
-        	if(grow)
-        		individuals[i] = GPUtilities.createGrowRandomProgram(learningProblem, reasoner, depth, adc);
-        	else
-        		individuals[i] = GPUtilities.createFullRandomProgram(learningProblem, reasoner, depth, adc);		
+        	if(adc) {
+	        	if(grow)
+	        		individuals[i] = GPUtilities.createGrowRandomProgram(learningProblem, reasoner, depth, adc);
+	        	else
+	        		individuals[i] = GPUtilities.createFullRandomProgram(learningProblem, reasoner, depth, adc);
+        	} else {
+        		// the trees are evaluated together below
+	        	if(grow)
+	        		initialTrees[i] = GPUtilities.createGrowRandomTree(learningProblem, reasoner, depth, false);
+	        	else
+	        		initialTrees[i] = GPUtilities.createFullRandomTree(learningProblem, reasoner, depth, false);
+        	}
     	}    	
     	
+    	if(!adc) {
+    		ScorePosNeg[] initialScores = new ScorePosNeg[numberOfIndividuals];
+    		fitnessEvaluator.evaluate(initialTrees, initialScores, numberOfIndividuals);
+    		for(int i = 0; i< numberOfIndividuals; i++)
+    			individuals[i] = new Program(initialScores[i], initialTrees[i]);
+    	}
+    	
     	/*
     	for(int i = 0; i< numberOfIndividuals; i++) {
         	double nr = Math.random();
@@ -664,6 +741,10 @@ public class GP extends AbstractCELA {
         */
     }
     
+    private Program createProgram(Description tree) {
+    	return new Program(fitnessEvaluator.evaluate(tree), tree);
+    }
+    
     private double initFunction(int x) {
     	// Funktion f(x)=x
     	return 1;
@@ -688,8 +769,8 @@ public class GP extends AbstractCELA {
     // TODO: man muss �berlegen, ob es Vorteile hat hier direkt Programme zu
     // kopieren => dann m�sste man bei Crossover und Mutation nicht aufpassen,
     // dass man keine Programmb�ume modifiziert
-    private int[] selectIndividuals(int generation) {
-        int[] positions = new int[numberOfSelectedIndividuals];
+    // (the positions are stored in the given array, which is reused in each generation)
+    private int[] selectIndividuals(int generation, int[] positions) {
         if (selectionType == SelectionType.FPS) {
 
             // select individuals according to FPS
@@ -699,12 +780,12 @@ public class GP extends AbstractCELA {
 
             for (int i = 0; i < numberOfSelectedIndividuals; i++) {
                 // create a random number between 0 and fitness sum
-                rand = Math.random() * fitnessSum;
+                rand = this.rand.nextDouble() * fitnessSum;
                 positions[i] = getLookupTablePosition(lookupTable, rand);
             }
         } else if (selectionType == SelectionType.RANK_SELECTION) {
             int individualsForRankSelection = getIndividualsForRankSelection(generation);
-            double[] lookupTable = new double[individualsForRankSelection];
+            double[] lookupTable = getLookupTable(individualsForRankSelection);
             double sum = 0;
             double rand, val;
             // create a lookup-table
@@ -723,14 +804,15 @@ public class GP extends AbstractCELA {
 
             for (int i = 0; i < numberOfSelectedIndividuals; i++) {
                 // create a random number between 0 and sum
-                rand = Math.random() * sum;
+                rand = this.rand.nextDouble() * sum;
                 positions[i] = numberOfIndividuals - individualsForRankSelection
                         + getLookupTablePosition(lookupTable, rand);
             }
         } else if (selectionType == SelectionType.TOURNAMENT_SELECTION) {
         	for(int i = 0; i < numberOfSelectedIndividuals; i++) {
             	// choose the appropriate number of individuals randomly
-            	int[] randomIndividuals = new int[tournamentSize];
+            	if(randomIndividuals == null || randomIndividuals.length != tournamentSize)
+            		randomIndividuals = new int[tournamentSize];
             	for(int j=0; j<tournamentSize; j++) {
             		randomIndividuals[j] = rand.nextInt(numberOfIndividuals);
             	}
@@ -755,7 +837,7 @@ public class GP extends AbstractCELA {
         // such that we can later easily determine, which individual we
         // have chosen (the last entry in the lookup table is the sum
         // of the fitness of all individuals)
-        double[] lookupTable = new double[numberOfIndividuals];
+        double[] lookupTable = getLookupTable(numberOfIndividuals);
         double sum = 0, fitness;
 
         // sum up the fitness for all individuals
@@ -770,6 +852,14 @@ public class GP extends AbstractCELA {
         return lookupTable;
     }
 
+    // the lookup table is reused, its size only changes if the number of
+    // individuals used for rank selection changes
+    private double[] getLookupTable(int size) {
+    	if(lookupTable == null || lookupTable.length != size)
+    		lookupTable = new double[size];
+    	return lookupTable;
+    }
+
     private int getLookupTablePosition(double[] lookupTable, double rand) {
         // look up the position of the random number in the table
         // for (int i = 0; i < numberOfIndividuals; i++) {
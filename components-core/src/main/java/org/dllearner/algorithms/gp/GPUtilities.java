@@ -20,6 +20,7 @@
 package org.dllearner.algorithms.gp;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dllearner.core.AbstractLearningProblem;
 import org.dllearner.core.AbstractReasonerComponent;
@@ -61,14 +62,24 @@ import org.dllearner.utilities.datastructures.SortedSetTuple;
  */
 public class GPUtilities {
 
-	public static int fitnessEvaluations = 0;
-	public static int crossover = 0;
-	public static int mutation = 0;
-	public static int hillClimbing = 0;
+	// fitness evaluations can be done by several threads (see FitnessEvaluator)
+	public static final AtomicInteger fitnessEvaluations = new AtomicInteger();
+	public static final AtomicInteger crossover = new AtomicInteger();
+	public static final AtomicInteger mutation = new AtomicInteger();
+	public static final AtomicInteger hillClimbing = new AtomicInteger();
 	
     private static Random rand = new Random();
     
-    private static ScorePosNeg calculateFitness(AbstractLearningProblem learningProblem, Description hypothesis) {
+    /**
+     * Sets the random number generator used by the operators, e.g. a seeded
+     * one to make runs reproducible.
+     * @param random The random number generator.
+     */
+    public static void setRandom(Random random) {
+    	rand = random;
+    }
+    
+    static ScorePosNeg calculateFitness(AbstractLearningProblem learningProblem, Description hypothesis) {
     	return calculateFitness(learningProblem, hypothesis, null);
     }
     
@@ -132,7 +143,7 @@ public class GPUtilities {
 		if(hypothesis.getNumberOfNodes()>50)
 			fitness -= 10;
 		*/
-		fitnessEvaluations++;
+		fitnessEvaluations.incrementAndGet();
 		
 		return score;
 	}    
@@ -150,11 +161,11 @@ public class GPUtilities {
      * @param p The program to be mutated.
      */
     public static Program mutation(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, Program p) {
-    	mutation++;
+    	mutation.incrementAndGet();
     	if(p.getAdc() != null) {
     		// TODO: hier kann man noch mehr Feinabstimmung machen, d.h.
     		// Mutation abh�ngig von Knotenanzahl
-    		if(Math.random()<0.5) {
+    		if(rand.nextDouble()<0.5) {
     			Description mainTree = mutation(learningProblem, rs, p.getTree(),true);
     			Description adc = p.getAdc();
     			ScorePosNeg score = calculateFitness(learningProblem,mainTree,adc);
@@ -173,6 +184,17 @@ public class GPUtilities {
     	}
     }
 
+    /**
+     * Perform a point mutation on the tree of the given program (without ADC)
+     * without computing the fitness of the result.
+     * @param p The program to be mutated.
+     * @return The mutated tree.
+     */
+    public static Description mutationTree(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, Program p) {
+    	mutation.incrementAndGet();
+    	return mutation(learningProblem, rs, p.getTree(), false);
+    }
+
     private static Description mutation(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, Description tree, boolean useADC) {
     	// auch bei Mutation muss darauf geachtet werden, dass 
     	// Baum nicht modifiziert wird (sonst w�rde man automatisch auch
@@ -243,14 +265,14 @@ public class GPUtilities {
      * @return A two-element array containing the offpsring.
      */
     public static Program[] crossover(AbstractLearningProblem learningProblem, Program p1, Program p2) {
-    	crossover++;
+    	crossover.incrementAndGet();
     	if(p1.getAdc() != null) {
     		Description[] pt;
     		Program result[] = new Program[2];
     		
     		// es wird entweder ADC oder Hauptbaum einem Crossover
     		// unterzogen und dann ein neues Programm erstellt
-    		if(Math.random()<0.5) {
+    		if(rand.nextDouble()<0.5) {
     			pt = crossover(p1.getTree(), p2.getTree()); 
     			result[0] = createProgram(learningProblem, pt[0], p1.getAdc());
                 result[1] = createProgram(learningProblem, pt[1], p2.getAdc());
@@ -269,6 +291,18 @@ public class GPUtilities {
     	}
     }
 
+    /**
+     * Perform crossover on the trees of two programs (without ADC) without
+     * computing the fitness of the offspring.
+     * @param p1 First parent.
+     * @param p2 Second parent.
+     * @return A two-element array containing the trees of the offspring.
+     */
+    public static Description[] crossoverTrees(Program p1, Program p2) {
+    	crossover.incrementAndGet();
+    	return crossover(p1.getTree(), p2.getTree());
+    }
+
     private static Description[] crossover(Description tree1, Description tree2) {
         Description tree1cloned = (Description) tree1.clone();
         Description tree2cloned = (Description) tree2.clone();
@@ -319,7 +353,7 @@ public class GPUtilities {
     // m�sste auch mit ADC funktionieren, da nur am Hauptbaum etwas 
     // ver�ndert wird
     public static Program hillClimbing(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, Program p) {
-    	hillClimbing++;
+    	hillClimbing.incrementAndGet();
     	// checken, ob Bedingungen f�r hill-climbing erf�llt sind
     	if(!rs.getReasonerType().equals(ReasonerType.FAST_RETRIEVAL)
     			|| !(p.getScore() instanceof ScoreThreeValued)) {
@@ -643,7 +677,7 @@ public class GPUtilities {
     		return createProgram(learningProblem, createFullRandomTree(learningProblem, rs, depth, false));
     }
 
-    private static Description createFullRandomTree(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, int depth, boolean useADC) {
+    public static Description createFullRandomTree(AbstractLearningProblem learningProblem, AbstractReasonerComponent rs, int depth, boolean useADC) {
         // FlatABox abox = FlatABox.getInstance();
         int numberOfRoles = rs.getObjectProperties().size(); //  abox.roles.size();
         
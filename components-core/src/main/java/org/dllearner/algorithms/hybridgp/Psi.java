@@ -110,7 +110,7 @@ public class Psi implements GeneticRefinementOperator {
 			
 		// System.out.println(upwardProbability);
 		
-		boolean downward = (Math.random()<=downwardProbability);
+		boolean downward = (random.nextDouble()<=downwardProbability);
 		
 		// someTimeStart = System.nanoTime();
 		// downward oder upward refinement operator anwenden
@@ -264,6 +264,15 @@ public class Psi implements GeneticRefinementOperator {
 	
 	// gibt die Größe des Caches zurück (gutes Maß um zu sehen, ob überhaupt
 	// neue Konzepte erforscht werden)
+	/**
+	 * Sets the random number generator, e.g. a seeded one to make runs
+	 * reproducible.
+	 * @param random The random number generator.
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+	
 	public int getCacheSize() {
 		return evalCache.size();
 	}
@@ -20,14 +20,13 @@
 package org.dllearner.algorithms.ocel;
 
 import java.text.DecimalFormat;
+import java.util.BitSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.dllearner.algorithms.SearchTreeNode;
 import org.dllearner.core.owl.Description;
-import org.dllearner.core.owl.Individual;
 import org.dllearner.utilities.owl.ConceptComparator;
 
 /**
@@ -48,11 +47,12 @@ public class ExampleBasedNode implements SearchTreeNode {
 	
 	private static DecimalFormat df = new DecimalFormat();
 	
-	// example based variables
-	private Set<Individual> coveredPositives;
-	private Set<Individual> coveredNegatives;
-//	private int coveredPositiveSize;
-//	private int coveredNegativeSize;
+	// example based variables (positions of the covered examples in the
+	// example lists, see RefinementEvaluator)
+	private BitSet coveredPositives;
+	private BitSet coveredNegatives;
+	private int coveredPositiveSize;
+	private int coveredNegativeSize;
 	
 	// the method by which quality was evaluated in this node
 	public enum QualityEvaluationMethod { START, REASONER, TOO_WEAK_LIST, OVERLY_GENERAL_LIST };
@@ -121,9 +121,11 @@ public class ExampleBasedNode implements SearchTreeNode {
 		this.qualityEvaluationMethod = qualityEvaluationMethod;
 	}
 
-	public void setCoveredExamples(Set<Individual> coveredPositives, Set<Individual> coveredNegatives) {
+	public void setCoveredExamples(BitSet coveredPositives, BitSet coveredNegatives) {
 		this.coveredPositives = coveredPositives;
 		this.coveredNegatives = coveredNegatives;
+		coveredPositiveSize = coveredPositives.cardinality();
+		coveredNegativeSize = coveredNegatives.cardinality();
 		isQualityEvaluated = true;
 //		exampleMemoryCounter += coveredPositives.size() * 4;
 //		exampleMemoryCounter += coveredNegatives.size() * 4;
@@ -136,7 +138,7 @@ public class ExampleBasedNode implements SearchTreeNode {
 		if(isTooWeak)
 			ret += "tw";
 		else
-			ret += coveredNegatives.size();
+			ret += coveredNegativeSize;
 		ret += ", he:" + horizontalExpansion + ", children:" + children.size() + "]";
 		return ret;
 	}
@@ -184,15 +186,15 @@ public class ExampleBasedNode implements SearchTreeNode {
 		if(isTooWeak)
 			ret += "q:tw";
 		else {
-			double accuracy = 100 * (coveredPositives.size() + nrOfNegativeExamples - coveredNegatives.size())/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
+			double accuracy = 100 * (coveredPositiveSize + nrOfNegativeExamples - coveredNegativeSize)/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
 			ret += "acc:" + df.format(accuracy) + "% ";			
 			
 			// comment this out to display the heuristic score with default parameters
 			double heuristicScore = MultiHeuristic.getNodeScore(this, nrOfPositiveExamples, nrOfNegativeExamples, negativeWeight, startNodeBonus, expansionPenaltyFactor, negationPenalty);
 			ret += "h:" +df.format(heuristicScore) + " ";
 			
-			int wrongPositives = nrOfPositiveExamples - coveredPositives.size();
-			ret += "q:" + wrongPositives + "p-" + coveredNegatives.size() + "n";
+			int wrongPositives = nrOfPositiveExamples - coveredPositiveSize;
+			ret += "q:" + wrongPositives + "p-" + coveredNegativeSize + "n";
 		}
 		
 		ret += " ("+qualityEvaluationMethod+"), he:" + horizontalExpansion;
@@ -207,15 +209,15 @@ public class ExampleBasedNode implements SearchTreeNode {
 		if(isTooWeak)
 			ret += "q:tw";
 		else {
-			double accuracy = 100 * (coveredPositives.size() + nrOfNegativeExamples - coveredNegatives.size())/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
+			double accuracy = 100 * (coveredPositiveSize + nrOfNegativeExamples - coveredNegativeSize)/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
 			ret += "<b>acc: " + df.format(accuracy) + "% </b>";			
 			
 			// comment this out to display the heuristic score with default parameters
 			double heuristicScore = MultiHeuristic.getNodeScore(this, nrOfPositiveExamples, nrOfNegativeExamples, negativeWeight, startNodeBonus, expansionPenaltyFactor, negationPenalty);
 			ret += "h:" +df.format(heuristicScore) + " ";
 			
-			int wrongPositives = nrOfPositiveExamples - coveredPositives.size();
-			ret += "q:" + wrongPositives + "p-" + coveredNegatives.size() + "n";
+			int wrongPositives = nrOfPositiveExamples - coveredPositiveSize;
+			ret += "q:" + wrongPositives + "p-" + coveredNegativeSize + "n";
 		}
 		
 		ret += " ("+qualityEvaluationMethod+"), he:" + horizontalExpansion;
@@ -231,15 +233,15 @@ public class ExampleBasedNode implements SearchTreeNode {
 		if(isTooWeak)
 			ret += "q:tw";
 		else {
-			double accuracy = 100 * (coveredPositives.size() + nrOfNegativeExamples - coveredNegatives.size())/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
+			double accuracy = 100 * (coveredPositiveSize + nrOfNegativeExamples - coveredNegativeSize)/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
 			ret += "acc:" + df.format(accuracy) + "% ";			
 			
 			// comment this out to display the heuristic score with default parameters
 			double heuristicScore = MultiHeuristic.getNodeScore(this, nrOfPositiveExamples, nrOfNegativeExamples, negativeWeight, startNodeBonus, expansionPenaltyFactor, negationPenalty);
 			ret += "h:" +df.format(heuristicScore) + " ";
 			
-			int wrongPositives = nrOfPositiveExamples - coveredPositives.size();
-			ret += "q:" + wrongPositives + "p-" + coveredNegatives.size() + "n";
+			int wrongPositives = nrOfPositiveExamples - coveredPositiveSize;
+			ret += "q:" + wrongPositives + "p-" + coveredNegativeSize + "n";
 		}
 		
 		ret += " ("+qualityEvaluationMethod+"), he:" + horizontalExpansion;
@@ -249,7 +251,7 @@ public class ExampleBasedNode implements SearchTreeNode {
 	}
 	
 	public double getAccuracy(int nrOfPositiveExamples, int nrOfNegativeExamples) {
-		return (coveredPositives.size() + nrOfNegativeExamples - coveredNegatives.size())/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
+		return (coveredPositiveSize + nrOfNegativeExamples - coveredNegativeSize)/(double)(nrOfPositiveExamples+nrOfNegativeExamples);
 	}
 	
 	/**
@@ -258,17 +260,33 @@ public class ExampleBasedNode implements SearchTreeNode {
 	 * @return Number of covered positives minus number of covered negatives.
 	 */
 	public int getCovPosMinusCovNeg() {
-		return coveredPositives.size() - coveredNegatives.size();
+		return coveredPositiveSize - coveredNegativeSize;
 	}
 	
-	public Set<Individual> getCoveredPositives() {
+	/**
+	 * @return The positions of the covered positive examples (must not be
+	 * modified).
+	 */
+	public BitSet getCoveredPositives() {
 		return coveredPositives;
 	}	
 	
-	public Set<Individual> getCoveredNegatives() {
+	/**
+	 * @return The positions of the covered negative examples (must not be
+	 * modified).
+	 */
+	public BitSet getCoveredNegatives() {
 		return coveredNegatives;
 	}
 	
+	public int getNrOfCoveredPositives() {
+		return coveredPositiveSize;
+	}
+	
+	public int getNrOfCoveredNegatives() {
+		return coveredNegativeSize;
+	}
+	
 	public SortedSet<ExampleBasedNode> getChildren() {
 		return children;
 	}
@@ -154,11 +154,11 @@ public class MultiHeuristic implements ExampleBasedHeuristic, Component {
 	}
 
 	public double getNodeScore(ExampleBasedNode node) {
-		double accuracy = getWeightedAccuracy(node.getCoveredPositives().size(),node.getCoveredNegatives().size());
+		double accuracy = getWeightedAccuracy(node.getNrOfCoveredPositives(),node.getNrOfCoveredNegatives());
 		ExampleBasedNode parent = node.getParent();
 		double gain = 0;
 		if(parent != null) {
-			double parentAccuracy =  getWeightedAccuracy(parent.getCoveredPositives().size(),parent.getCoveredNegatives().size());
+			double parentAccuracy =  getWeightedAccuracy(parent.getNrOfCoveredPositives(),parent.getNrOfCoveredNegatives());
 			gain = accuracy - parentAccuracy;
 		} else {
 			accuracy += startNodeBonus;
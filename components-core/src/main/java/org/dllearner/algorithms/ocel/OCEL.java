@@ -150,6 +150,7 @@ public class OCEL extends AbstractCELA implements OCELMBean {
 	private double expansionPenaltyFactor = 0.02;
 	private int negationPenalty = 0;
 	private boolean terminateOnNoiseReached = true;
+	private int numberOfThreads = 1;
 	
 	private LongWrapper totalRefinement = new LongWrapper(0);
 	
@@ -236,6 +237,7 @@ public class OCEL extends AbstractCELA implements OCELMBean {
 		options.add(new DoubleConfigOption("negativeWeight", "Used to penalise errors on negative examples different from those of positive examples (lower = less importance for negatives).",1.0));
 		options.add(new DoubleConfigOption("startNodeBonus", "You can use this to give a heuristic bonus on the start node (= initially broader exploration of search space).",0.0));
 		options.add(new IntegerConfigOption("negationPenalty", "Penalty on negations (TODO: better explanation).", 0));
+		options.add(new IntegerConfigOption("numberOfThreads", "number of threads used to evaluate the refinements of a node (the reasoner has to support concurrent instance checks if this is higher than 1)", 1));
 		options.add(CommonConfigOptions.getExpansionPenaltyFactor(0.02));
 		options.add(CommonConfigOptions.getInstanceBasedDisjoints());
 		return options;
@@ -401,6 +403,7 @@ public class OCEL extends AbstractCELA implements OCELMBean {
 				negationPenalty,
 				totalRefinement
 		);
+		algorithm.setNumberOfThreads(numberOfThreads);
 		// note: used concepts and roles do not need to be passed
 		// as argument, because it is sufficient to prepare the
 		// concept and role hierarchy accordingly
@@ -720,6 +723,14 @@ public class OCEL extends AbstractCELA implements OCELMBean {
 		this.terminateOnNoiseReached = terminateOnNoiseReached;
 	}
 
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
     @Autowired(required=false)
 	public void setHeuristic(ExampleBasedHeuristic heuristic) {
 		this.heuristic = heuristic;
@@ -21,6 +21,8 @@ package org.dllearner.algorithms.ocel;
 
 import java.io.File;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -29,6 +31,7 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentSkipListSet;
 
@@ -203,6 +206,8 @@ public class ROLearner2 {
 	private long algorithmStartTime;
 	private long propernessCalcTimeNs = 0;
 	private long propernessCalcReasoningTimeNs = 0;
+	// time for evaluating the proper refinements of a node together
+	private long batchEvaluationTimeNs = 0;
 	private long childConceptsDeletionTimeNs = 0;
 	private long refinementCalcTimeNs = 0;
 	private long redundancyCheckTimeNs = 0;
@@ -226,6 +231,10 @@ public class ROLearner2 {
 	private LongWrapper totalRefinement;
 	private long countTotalRefinement=0;
 
+	// computes the examples covered by refinements
+	private RefinementEvaluator evaluator;
+	private int numberOfThreads = 1;
+
 	public ROLearner2(
 //			OCELConfigurator configurator,
 			AbstractLearningProblem learningProblem,
@@ -309,11 +318,13 @@ public class ROLearner2 {
 		conceptTestsOverlyGeneralList = 0;
 		propernessCalcTimeNs = 0;
 		propernessCalcReasoningTimeNs = 0;
+		batchEvaluationTimeNs = 0;
 		childConceptsDeletionTimeNs = 0;
 		refinementCalcTimeNs = 0;
 		redundancyCheckTimeNs = 0;
 		evaluateSetCreationTimeNs = 0;
 		improperConceptsRemovalTimeNs = 0;
+		evaluator = new RefinementEvaluator(rs, positiveExamples, negativeExamples, numberOfThreads);
 		
 		Monitor totalLearningTime = JamonMonitorLogger.getTimeMonitor(OCEL.class, "totalLearningTime")
 				.start();
@@ -379,12 +390,12 @@ public class ROLearner2 {
 		// start search with start class
 		if (startDescription == null) {
 			startNode = new ExampleBasedNode(Thing.instance, negativeWeight, startNodeBonus, expansionPenaltyFactor, negationPenalty);
-			startNode.setCoveredExamples(positiveExamples, negativeExamples);
+			startNode.setCoveredExamples(evaluator.getAllPositives(), evaluator.getAllNegatives());
 		} else {
 			startNode = new ExampleBasedNode(startDescription,  negativeWeight, startNodeBonus, expansionPenaltyFactor, negationPenalty);
 			Set<Individual> coveredNegatives = rs.hasType(startDescription, negativeExamples);
 			Set<Individual> coveredPositives = rs.hasType(startDescription, positiveExamples);
-			startNode.setCoveredExamples(coveredPositives, coveredNegatives);
+			startNode.setCoveredExamples(evaluator.toPositiveBitSet(coveredPositives), evaluator.toNegativeBitSet(coveredNegatives));
 		}
 
 		candidates.add(startNode);
@@ -446,8 +457,8 @@ public class ROLearner2 {
 				// no handling needed, it will just look ugly in the output
 				logger.info("more accurate ("+acc+") class expression found: " + candidatesStable.last().getConcept().toManchesterSyntaxString(baseURI, prefixes));
 				if(logger.isTraceEnabled()){
-					logger.trace(Helper.difference(positiveExamples,bestNodeStable.getCoveredNegatives()));
-					logger.trace(Helper.difference(negativeExamples,bestNodeStable.getCoveredNegatives()));
+					logger.trace(Helper.difference(positiveExamples,evaluator.toPositiveExamples(bestNodeStable.getCoveredPositives())));
+					logger.trace(Helper.difference(negativeExamples,evaluator.toNegativeExamples(bestNodeStable.getCoveredNegatives())));
 				}
 				printBestSolutions(5, false);
 				printStatistics(false);
@@ -539,6 +550,7 @@ public class ROLearner2 {
             logger.info(rs.toString());
 		}		
 
+		evaluator.shutdown();
 		totalLearningTime.stop();
 		isRunning = false;
 		
@@ -739,6 +751,28 @@ public class ROLearner2 {
 		refinements.removeAll(properConcepts);
 		improperConceptsRemovalTimeNs += System.nanoTime() - improperConceptsRemovalTimeNsStart;
 
+		// the proper concepts which will (most likely) be evaluated by the
+		// reasoner below are evaluated together, restricted to the examples
+		// covered by the node; the few which turn out to be redundant are
+		// evaluated in vain, because the recursive calls below can add
+		// refinements to the list of proper refinements
+		long batchEvaluationTimeNsStart = System.nanoTime();
+		List<Description> toEvaluateByReasoner = new ArrayList<Description>();
+		for (Description refinement : properConcepts) {
+			if (!properRefinements.contains(refinement)
+					&& !(useOverlyGeneralList && refinement instanceof Union && containsOverlyGeneralElement((Union) refinement))) {
+				toEvaluateByReasoner.add(refinement);
+			}
+		}
+		Map<Description, RefinementEvaluator.Coverage> coverages = new TreeMap<Description, RefinementEvaluator.Coverage>(conceptComparator);
+		if (!toEvaluateByReasoner.isEmpty()) {
+			List<RefinementEvaluator.Coverage> result = evaluator.evaluate(node, toEvaluateByReasoner, allowedMisclassifications);
+			for (int i = 0; i < toEvaluateByReasoner.size(); i++) {
+				coverages.put(toEvaluateByReasoner.get(i), result.get(i));
+			}
+		}
+		batchEvaluationTimeNs += System.nanoTime() - batchEvaluationTimeNsStart;
+
 		// if(refinements.size()<10)
 		// System.out.println("refinements: " + refinements);
 		// else
@@ -776,7 +810,7 @@ public class ROLearner2 {
 						qualityKnown = true;
 						newNode
 								.setQualityEvaluationMethod(ExampleBasedNode.QualityEvaluationMethod.OVERLY_GENERAL_LIST);
-						newNode.setCoveredExamples(positiveExamples, negativeExamples);
+						newNode.setCoveredExamples(evaluator.getAllPositives(), evaluator.getAllNegatives());
 					}
 
 				}
@@ -788,49 +822,15 @@ public class ROLearner2 {
 
 					// quality = coveredNegativesOrTooWeak(refinement);
 
-					// determine individuals which have not been covered yet
-					// (more efficient than full retrieval)
-					Set<Individual> coveredPositives = node.getCoveredPositives();
-					Set<Individual> newlyCoveredPositives = new HashSet<Individual>();
-
-					// calculate how many pos. examples are not covered by the
-					// parent node of the refinement
-					int misclassifiedPositives = nrOfPositiveExamples - coveredPositives.size();
-
-					// iterate through all covered examples (examples which are
-					// not
-					// covered do not need to be tested, because they remain
-					// uncovered);
-					// DIG will be slow if we send each reasoner request
-					// individually
-					// (however if we send everything in one request, too many
-					// instance checks
-					// are performed => rely on fast instance checker)
-					for (Individual i : coveredPositives) {
-						// TODO: move code to a separate function
-						if (quality != -1) {
-							boolean covered = rs.hasType(refinement, i);
-							if (!covered)
-								misclassifiedPositives++;
-							else
-								newlyCoveredPositives.add(i);
-
-							if (misclassifiedPositives > allowedMisclassifications)
-								quality = -1;
-
-						}
+					// the examples which are not covered by the parent node
+					// do not need to be tested, because they remain uncovered
+					// (usually the refinement has already been evaluated above)
+					RefinementEvaluator.Coverage coverage = coverages.get(refinement);
+					if (coverage == null) {
+						coverage = evaluator.evaluate(node, refinement, allowedMisclassifications);
 					}
-
-					Set<Individual> newlyCoveredNegatives = null;
-					if (quality != -1) {
-						Set<Individual> coveredNegatives = node.getCoveredNegatives();
-						newlyCoveredNegatives = new HashSet<Individual>();
-
-						for (Individual i : coveredNegatives) {
-							boolean covered = rs.hasType(refinement, i);
-							if (covered)
-								newlyCoveredNegatives.add(i);
-						}
+					if (coverage.isTooWeak()) {
+						quality = -1;
 					}
 
 					propernessCalcReasoningTimeNs += System.nanoTime() - propCalcReasoningStart2;
@@ -839,9 +839,9 @@ public class ROLearner2 {
 					if (quality != -1) {
 						// quality is the number of misclassifications (if it is
 						// not too weak)
-						quality = (nrOfPositiveExamples - newlyCoveredPositives.size())
-								+ newlyCoveredNegatives.size();
-						newNode.setCoveredExamples(newlyCoveredPositives, newlyCoveredNegatives);
+						newNode.setCoveredExamples(coverage.getCoveredPositives(), coverage.getCoveredNegatives());
+						quality = (nrOfPositiveExamples - newNode.getNrOfCoveredPositives())
+								+ newNode.getNrOfCoveredNegatives();
 					}
 
 				}
@@ -860,7 +860,7 @@ public class ROLearner2 {
 
 					// we need to make sure that all positives are covered
 					// before adding something to the overly general list
-					if ((newNode.getCoveredPositives().size() == nrOfPositiveExamples)
+					if ((newNode.getNrOfCoveredPositives() == nrOfPositiveExamples)
 							&& quality == nrOfNegativeExamples)
 						overlyGeneralList.add(refinement);
 
@@ -954,8 +954,8 @@ public class ROLearner2 {
 			logger.debug(bestNodeString);
 			logger.trace(bestNode.getStats(nrOfPositiveExamples, nrOfNegativeExamples));
 			logger.debug(bestNodeStringKBSyntax);
-			if (bestNode.getCoveredNegatives().size() <= 5)
-				logger.trace("covered negs: " + bestNode.getCoveredNegatives());
+			if (bestNode.getNrOfCoveredNegatives() <= 5)
+				logger.trace("covered negs: " + evaluator.toNegativeExamples(bestNode.getCoveredNegatives()));
 			String expandedNodeString = "next expanded node: "
 					+ candidates.last().getShortDescription(nrOfPositiveExamples,
 							nrOfNegativeExamples, baseURI, prefixes);
@@ -981,8 +981,9 @@ public class ROLearner2 {
 
 			long reasoningTime = rs.getOverallReasoningTimeNs();
 			double reasoningPercentage = 100 * reasoningTime / (double) algorithmRuntime;
-			long propWithoutReasoning = propernessCalcTimeNs - propernessCalcReasoningTimeNs;
+			long propWithoutReasoning = propernessCalcTimeNs - propernessCalcReasoningTimeNs - batchEvaluationTimeNs;
 			double propPercentage = 100 * propWithoutReasoning / (double) algorithmRuntime;
+			double batchEvaluationPercentage = 100 * batchEvaluationTimeNs / (double) algorithmRuntime;
 			double deletionPercentage = 100 * childConceptsDeletionTimeNs
 					/ (double) algorithmRuntime;
 			long subTime = rs.getSubsumptionReasoningTimeNs();
@@ -1009,6 +1010,7 @@ public class ROLearner2 {
 			logger.debug("   subsumption check time: " + df.format(subPercentage) + "%");
 			logger.debug("proper calculation percentage (wo. reasoning): "
 					+ df.format(propPercentage) + "%");
+			logger.debug("batch evaluation percentage: " + df.format(batchEvaluationPercentage) + "%");
 			logger.debug("   deletion time percentage: " + df.format(deletionPercentage) + "%");
 			logger.debug("   refinement calculation percentage: " + df.format(refinementPercentage)
 					+ "%");
@@ -1080,11 +1082,12 @@ public class ROLearner2 {
 		// ExampleBasedNode startNode = candidatesStable.last();
 		ExampleBasedNode startNode = findBestTraversalStartNode();
 		Description currentDescription = startNode.getConcept();
-		Set<Individual> currentCoveredPos = startNode.getCoveredPositives();
-		Set<Individual> currentCoveredNeg = startNode.getCoveredNegatives();
+		BitSet currentCoveredPos = startNode.getCoveredPositives();
+		BitSet currentCoveredNeg = startNode.getCoveredNegatives();
+		int currentCoveredPosSize = startNode.getNrOfCoveredPositives();
 		double currentAccuracy = startNode.getAccuracy(nrOfPositiveExamples, nrOfNegativeExamples);
-		int currentMisclassifications = nrOfPositiveExamples - currentCoveredPos.size()
-				+ currentCoveredNeg.size();
+		int currentMisclassifications = nrOfPositiveExamples - currentCoveredPosSize
+				+ startNode.getNrOfCoveredNegatives();
 		logger.debug("tree traversal start node "
 				+ startNode
 						.getShortDescription(nrOfPositiveExamples, nrOfNegativeExamples, baseURI, prefixes));
@@ -1094,20 +1097,21 @@ public class ROLearner2 {
 		NavigableSet<ExampleBasedNode> reverseView = candidatesStable.descendingSet();
 		for (ExampleBasedNode currNode : reverseView) {
 			// compute covered positives and negatives
-			SortedSet<Individual> newCoveredPositives = new TreeSet<Individual>(currentCoveredPos);
-			newCoveredPositives.retainAll(currNode.getCoveredPositives());
-			SortedSet<Individual> newCoveredNegatives = new TreeSet<Individual>(currentCoveredNeg);
-			newCoveredNegatives.retainAll(currNode.getCoveredNegatives());
+			BitSet newCoveredPositives = (BitSet) currentCoveredPos.clone();
+			newCoveredPositives.and(currNode.getCoveredPositives());
+			BitSet newCoveredNegatives = (BitSet) currentCoveredNeg.clone();
+			newCoveredNegatives.and(currNode.getCoveredNegatives());
+			int newCoveredPositivesSize = newCoveredPositives.cardinality();
+			int newCoveredNegativesSize = newCoveredNegatives.cardinality();
 
 			// compute the accuracy we would get by adding this node
-			double accuracy = (newCoveredPositives.size() + nrOfNegativeExamples - newCoveredNegatives
-					.size())
+			double accuracy = (newCoveredPositivesSize + nrOfNegativeExamples - newCoveredNegativesSize)
 					/ (double) (nrOfPositiveExamples + nrOfNegativeExamples);
-			int misclassifications = nrOfPositiveExamples - newCoveredPositives.size()
-					+ newCoveredNegatives.size();
-			int misclassifiedPositives = nrOfPositiveExamples - newCoveredPositives.size();
+			int misclassifications = nrOfPositiveExamples - newCoveredPositivesSize
+					+ newCoveredNegativesSize;
+			int misclassifiedPositives = nrOfPositiveExamples - newCoveredPositivesSize;
 
-			int lostPositives = currentCoveredPos.size() - newCoveredPositives.size();
+			int lostPositives = currentCoveredPosSize - newCoveredPositivesSize;
 
 			// TODO: maybe we should also consider a minimum improvement when
 			// adding something
@@ -1140,6 +1144,7 @@ public class ROLearner2 {
 				currentDescription = mc;
 				currentCoveredPos = newCoveredPositives;
 				currentCoveredNeg = newCoveredNegatives;
+				currentCoveredPosSize = newCoveredPositivesSize;
 				currentMisclassifications = misclassifications;
 				currentAccuracy = accuracy;
 
@@ -1166,8 +1171,8 @@ public class ROLearner2 {
 		ExampleBasedNode currNode = null;
 		NavigableSet<ExampleBasedNode> reverseView = candidatesStable.descendingSet();
 		for (ExampleBasedNode node : reverseView) {
-			int score = 2 * node.getCoveredPositives().size()
-					+ (nrOfNegativeExamples - node.getCoveredNegatives().size());
+			int score = 2 * node.getNrOfCoveredPositives()
+					+ (nrOfNegativeExamples - node.getNrOfCoveredNegatives());
 			if (score > currScore) {
 				currScore = score;
 				currNode = node;
@@ -1193,15 +1198,13 @@ public class ROLearner2 {
 			// (avoids to use only the most promising node + all its refinements
 			// with equal accuracy)
 			boolean hasAccuracyGain = (node.getParent() == null)
-					|| (node.getCoveredPositives().size() != node.getParent().getCoveredPositives()
-							.size())
-					|| (node.getCoveredNegatives().size() != node.getParent().getCoveredNegatives()
-							.size());
+					|| (node.getNrOfCoveredPositives() != node.getParent().getNrOfCoveredPositives())
+					|| (node.getNrOfCoveredNegatives() != node.getParent().getNrOfCoveredNegatives());
 			// second criterion: uncovered positives; it does not make much
 			// sense to pick nodes with
 			// low potential for reaching a solution (already at the limit of
 			// misclassified positives)
-			int misclassifiedPositives = nrOfPositiveExamples - node.getCoveredPositives().size();
+			int misclassifiedPositives = nrOfPositiveExamples - node.getNrOfCoveredPositives();
 			boolean hasRefinementPotential = (misclassifiedPositives <= Math
 					.floor(0.65d * allowedMisclassifications));
 			boolean keep = hasAccuracyGain && hasRefinementPotential;
@@ -1398,6 +1401,18 @@ public class ROLearner2 {
 	public boolean isRunning() {
 		return isRunning;
 	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * @param numberOfThreads Number of threads used to evaluate the
+	 * refinements of a node (takes effect when the algorithm is started).
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
 	
 	public NavigableSet<ExampleBasedNode> getCandidatesStable() { 
 		return this.candidatesStable;
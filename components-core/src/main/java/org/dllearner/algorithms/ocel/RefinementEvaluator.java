@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.algorithms.ocel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Computes the examples covered by the refinements of a node in the search
+ * tree. Examples which are not covered by the node cannot be covered by its
+ * refinements, so only the examples covered by the node are checked, and
+ * this is done for all examples at once (i.e. with one retrieval per
+ * refinement for reasoners like the fast instance checker). The refinements
+ * of a node can be evaluated in parallel.
+ *
+ * Covered examples are stored as bit sets over the positions of the examples
+ * in the positive and negative example lists. The bit sets returned by this
+ * class are shared and must not be modified.
+ *
+ */
+public class RefinementEvaluator {
+
+	/**
+	 * The examples covered by a refinement, or the information that the
+	 * refinement is too weak, i.e. misclassifies more positive examples than
+	 * allowed (the covered examples are not computed then).
+	 */
+	public static class Coverage {
+
+		public static final Coverage TOO_WEAK = new Coverage(null, null);
+
+		private BitSet coveredPositives;
+		private BitSet coveredNegatives;
+
+		public Coverage(BitSet coveredPositives, BitSet coveredNegatives) {
+			this.coveredPositives = coveredPositives;
+			this.coveredNegatives = coveredNegatives;
+		}
+
+		public boolean isTooWeak() {
+			return this == TOO_WEAK;
+		}
+
+		public BitSet getCoveredPositives() {
+			return coveredPositives;
+		}
+
+		public BitSet getCoveredNegatives() {
+			return coveredNegatives;
+		}
+	}
+
+	private AbstractReasonerComponent rs;
+
+	private Individual[] positiveExamples;
+	private Individual[] negativeExamples;
+	private Map<Individual, Integer> positivePositions = new HashMap<Individual, Integer>();
+	private Map<Individual, Integer> negativePositions = new HashMap<Individual, Integer>();
+	private BitSet allPositives;
+	private BitSet allNegatives;
+
+	private int nrOfThreads;
+	private ExecutorService executor;
+
+	// the covered examples of the node evaluated last (all refinements of a
+	// node are usually evaluated one after another)
+	private ExampleBasedNode lastNode;
+	private Set<Individual> lastNodePositives;
+	private Set<Individual> lastNodeNegatives;
+
+	public RefinementEvaluator(AbstractReasonerComponent rs, Collection<Individual> positiveExamples, Collection<Individual> negativeExamples, int nrOfThreads) {
+		this.rs = rs;
+		this.positiveExamples = positiveExamples.toArray(new Individual[positiveExamples.size()]);
+		this.negativeExamples = negativeExamples.toArray(new Individual[negativeExamples.size()]);
+		for(int i=0; i<this.positiveExamples.length; i++)
+			positivePositions.put(this.positiveExamples[i], i);
+		for(int i=0; i<this.negativeExamples.length; i++)
+			negativePositions.put(this.negativeExamples[i], i);
+		allPositives = new BitSet(this.positiveExamples.length);
+		allPositives.set(0, this.positiveExamples.length);
+		allNegatives = new BitSet(this.negativeExamples.length);
+		allNegatives.set(0, this.negativeExamples.length);
+		this.nrOfThreads = Math.max(1, nrOfThreads);
+	}
+
+	/**
+	 * Computes the examples covered by a refinement of a node.
+	 * @param node A node of the search tree.
+	 * @param refinement A refinement of the concept of the node.
+	 * @param allowedMisclassifications The maximum number of positive
+	 * examples which may not be covered.
+	 * @return The covered examples or {@link Coverage#TOO_WEAK}.
+	 */
+	public Coverage evaluate(ExampleBasedNode node, Description refinement, int allowedMisclassifications) {
+		prepare(node);
+		return evaluate(lastNodePositives, lastNodeNegatives, refinement, allowedMisclassifications);
+	}
+
+	/**
+	 * Computes the examples covered by several refinements of a node, the
+	 * refinements are evaluated in parallel if more than one thread is used.
+	 * @param node A node of the search tree.
+	 * @param refinements Refinements of the concept of the node.
+	 * @param allowedMisclassifications The maximum number of positive
+	 * examples which may not be covered.
+	 * @return The covered examples (or {@link Coverage#TOO_WEAK}) of each
+	 * refinement, in the order of the refinements.
+	 */
+	public List<Coverage> evaluate(ExampleBasedNode node, final List<Description> refinements, final int allowedMisclassifications) {
+		prepare(node);
+		final Set<Individual> nodePositives = lastNodePositives;
+		final Set<Individual> nodeNegatives = lastNodeNegatives;
+		final Coverage[] coverages = new Coverage[refinements.size()];
+
+		if(nrOfThreads == 1 || refinements.size() < 2) {
+			for(int i=0; i<coverages.length; i++)
+				coverages[i] = evaluate(nodePositives, nodeNegatives, refinements.get(i), allowedMisclassifications);
+		} else {
+			// each task evaluates every nrOfThreads-th refinement
+			List<Future<?>> futures = new ArrayList<Future<?>>(nrOfThreads);
+			for(int t=0; t<nrOfThreads && t<coverages.length; t++) {
+				final int start = t;
+				futures.add(getExecutor().submit(new Callable<Object>() {
+					public Object call() {
+						for(int i=start; i<coverages.length; i+=nrOfThreads)
+							coverages[i] = evaluate(nodePositives, nodeNegatives, refinements.get(i), allowedMisclassifications);
+						return null;
+					}
+				}));
+			}
+			try {
+				for(Future<?> future : futures)
+					future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Evaluation of refinements interrupted", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Evaluation of refinements failed", e.getCause());
+			}
+		}
+
+		List<Coverage> result = new ArrayList<Coverage>(coverages.length);
+		for(Coverage coverage : coverages)
+			result.add(coverage);
+		return result;
+	}
+
+	private Coverage evaluate(Set<Individual> nodePositives, Set<Individual> nodeNegatives, Description refinement, int allowedMisclassifications) {
+		SortedSet<Individual> coveredPositives = rs.hasType(refinement, nodePositives);
+		if(positiveExamples.length - coveredPositives.size() > allowedMisclassifications)
+			return Coverage.TOO_WEAK;
+		SortedSet<Individual> coveredNegatives = rs.hasType(refinement, nodeNegatives);
+		return new Coverage(toBitSet(coveredPositives, positivePositions), toBitSet(coveredNegatives, negativePositions));
+	}
+
+	private void prepare(ExampleBasedNode node) {
+		if(node != lastNode) {
+			lastNodePositives = toPositiveExamples(node.getCoveredPositives());
+			lastNodeNegatives = toNegativeExamples(node.getCoveredNegatives());
+			lastNode = node;
+		}
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if(executor == null) {
+			executor = Executors.newFixedThreadPool(nrOfThreads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "OCEL-refinement-evaluation");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the threads used for the evaluation.
+	 */
+	public synchronized void shutdown() {
+		if(executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+		lastNode = null;
+		lastNodePositives = null;
+		lastNodeNegatives = null;
+	}
+
+	private static BitSet toBitSet(Set<Individual> individuals, Map<Individual, Integer> positions) {
+		BitSet bits = new BitSet(positions.size());
+		for(Individual individual : individuals)
+			bits.set(positions.get(individual));
+		return bits;
+	}
+
+	private static SortedSet<Individual> toIndividuals(BitSet bits, Individual[] examples) {
+		SortedSet<Individual> individuals = new TreeSet<Individual>();
+		for(int i=bits.nextSetBit(0); i>=0; i=bits.nextSetBit(i+1))
+			individuals.add(examples[i]);
+		return individuals;
+	}
+
+	/**
+	 * @param positives Positive examples.
+	 * @return The positions of the examples as bit set.
+	 */
+	public BitSet toPositiveBitSet(Set<Individual> positives) {
+		return toBitSet(positives, positivePositions);
+	}
+
+	/**
+	 * @param negatives Negative examples.
+	 * @return The positions of the examples as bit set.
+	 */
+	public BitSet toNegativeBitSet(Set<Individual> negatives) {
+		return toBitSet(negatives, negativePositions);
+	}
+
+	/**
+	 * @param positives Positions of positive examples.
+	 * @return The examples at the positions.
+	 */
+	public SortedSet<Individual> toPositiveExamples(BitSet positives) {
+		return toIndividuals(positives, positiveExamples);
+	}
+
+	/**
+	 * @param negatives Positions of negative examples.
+	 * @return The examples at the positions.
+	 */
+	public SortedSet<Individual> toNegativeExamples(BitSet negatives) {
+		return toIndividuals(negatives, negativeExamples);
+	}
+
+	/**
+	 * @return A bit set containing all positive examples.
+	 */
+	public BitSet getAllPositives() {
+		return allPositives;
+	}
+
+	/**
+	 * @return A bit set containing all negative examples.
+	 */
+	public BitSet getAllNegatives() {
+		return allNegatives;
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+}
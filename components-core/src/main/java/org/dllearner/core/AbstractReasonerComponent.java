@@ -86,27 +86,9 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	public static Logger logger = Logger.getLogger(AbstractReasonerComponent.class);
 
-	// statistical data for particular reasoning operations
-	private long instanceCheckReasoningTimeNs = 0;
-	private int nrOfInstanceChecks = 0;
-	private int nrOfMultiInstanceChecks = 0;
-	private long retrievalReasoningTimeNs = 0;
-	private int nrOfRetrievals = 0;
-	private long subsumptionReasoningTimeNs = 0;
-	private int nrOfSubsumptionChecks = 0;
-	private int nrOfMultiSubsumptionChecks = 0;
-	private int nrOfSubsumptionHierarchyQueries = 0;
-
-	// rest of reasoning time
-	private long otherReasoningTimeNs = 0;
-
-	// time for all reasoning requests (usually longer than the sum of all
-	// above)
-	private long overallReasoningTimeNs = 0;
-
-	// temporary variables (moved here for performance reasons)
-	private long reasoningStartTimeTmp;
-	private long reasoningDurationTmp;
+	// statistical data for reasoning operations (thread-safe, since reasoners
+	// may be shared by several threads of a learning algorithm)
+	private final ReasoningStatistics statistics = new ReasoningStatistics();
 
 	// list view
 	private List<NamedClass> atomicConceptsList;
@@ -180,16 +162,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	 * algorithm, you can use this method to reset all statistical values.
 	 */
 	public void resetStatistics() {
-		instanceCheckReasoningTimeNs = 0;
-		nrOfInstanceChecks = 0;
-		retrievalReasoningTimeNs = 0;
-		nrOfRetrievals = 0;
-		subsumptionReasoningTimeNs = 0;
-		nrOfSubsumptionChecks = 0;
-		// subsumptionHierarchyTimeNs = 0;
-		nrOfSubsumptionHierarchyQueries = 0;
-		otherReasoningTimeNs = 0;
-		overallReasoningTimeNs = 0;
+		statistics.reset();
 	}
 
 	/**
@@ -238,17 +211,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isSuperClassOf(Description superClass, Description subClass) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		boolean result = false;
 		try {
 			result = isSuperClassOfImpl(superClass, subClass);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_SUBSUMPTION_CHECKS, 1);
+		statistics.stop(ReasoningStatistics.SUBSUMPTION, reasoningStartTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isSuperClassOf: " + superClass + " " + subClass + " " + result);
 		}
@@ -262,17 +233,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isEquivalentClass(Description class1, Description class2) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		boolean result = false;
 		try {
 			result = isEquivalentClassImpl(class1, class2);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks+=2;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_SUBSUMPTION_CHECKS, 2);
+		statistics.stop(ReasoningStatistics.SUBSUMPTION, reasoningStartTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isEquivalentClass: " + class1 + " " + class2 + " " + result);
 		}
@@ -301,18 +270,16 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@Override
 	public final Set<Description> isSuperClassOf(Set<Description> superConcepts,
 			Description subConcept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		Set<Description> result = null;
 		try {
 			result = isSuperClassOfImpl(superConcepts, subConcept);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks += superConcepts.size();
-		nrOfMultiSubsumptionChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_SUBSUMPTION_CHECKS, superConcepts.size());
+		statistics.increment(ReasoningStatistics.NR_OF_MULTI_SUBSUMPTION_CHECKS, 1);
+		statistics.stop(ReasoningStatistics.SUBSUMPTION, reasoningStartTime);
 		return result;
 	}
 
@@ -328,7 +295,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final SortedSetTuple<Individual> doubleRetrieval(Description concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		SortedSetTuple<Individual> result;
 		try {
 			result = doubleRetrievalImpl(concept);
@@ -336,9 +303,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(ReasoningStatistics.OTHER, reasoningStartTime);
 		return result;
 	}
 
@@ -349,7 +314,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final SortedSet<Individual> getIndividuals(Description concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		SortedSet<Individual> result;
 		try {
 			result = getIndividualsImpl(concept);
@@ -357,10 +322,8 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		nrOfRetrievals++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		retrievalReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_RETRIEVALS, 1);
+		statistics.stop(ReasoningStatistics.RETRIEVAL, reasoningStartTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
 		}
@@ -374,7 +337,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	
 	@Override
 	public final SortedSet<FuzzyIndividual> getFuzzyIndividuals(Description concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		SortedSet<FuzzyIndividual> result;
 		try {
 			result = getFuzzyIndividualsImpl(concept);
@@ -382,10 +345,8 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		nrOfRetrievals++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		retrievalReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_RETRIEVALS, 1);
+		statistics.stop(ReasoningStatistics.RETRIEVAL, reasoningStartTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
 		}
@@ -399,17 +360,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean hasType(Description concept, Individual s) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		boolean result = false;
 		try {
 			result = hasTypeImpl(concept, s);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_INSTANCE_CHECKS, 1);
+		statistics.stop(ReasoningStatistics.INSTANCE_CHECK, reasoningStartTime);
 		return result;
 	}
 
@@ -421,18 +380,16 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@Override
 	public final SortedSet<Individual> hasType(Description concept, Set<Individual> s) {
 		// logger.debug("instanceCheck "+concept.toKBSyntaxString());
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		SortedSet<Individual> result = null;
 		try {
 			result = hasTypeImpl(concept, s);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks += s.size();
-		nrOfMultiInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_INSTANCE_CHECKS, s.size());
+		statistics.increment(ReasoningStatistics.NR_OF_MULTI_INSTANCE_CHECKS, 1);
+		statistics.stop(ReasoningStatistics.INSTANCE_CHECK, reasoningStartTime);
 		// logger.debug("instanceCheck done");
 		return result;
 	}
@@ -464,7 +421,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isSatisfiable() {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		boolean result;
 		try {
 			result = isSatisfiableImpl();
@@ -472,9 +429,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return false;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(ReasoningStatistics.OTHER, reasoningStartTime);
 		return result;
 	}
 
@@ -484,7 +439,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean remainsSatisfiable(Axiom axiom) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		boolean result;
 		try {
 			result = remainsSatisfiableImpl(axiom);
@@ -492,9 +447,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return false;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(ReasoningStatistics.OTHER, reasoningStartTime);
 		return result;
 	}
 
@@ -565,7 +518,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final Map<Individual, SortedSet<Individual>> getPropertyMembers(ObjectProperty atomicRole) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		Map<Individual, SortedSet<Individual>> result;
 		try {
 			result = getPropertyMembersImpl(atomicRole);
@@ -573,9 +526,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(ReasoningStatistics.OTHER, reasoningStartTime);
 		return result;
 	}
 
@@ -1165,90 +1116,110 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		return atomicRolesList;
 	}
 
+	/**
+	 * @return The statistics of this reasoner, which are updated by all
+	 *         reasoning operations and can e.g. be registered as MBean.
+	 */
+	public ReasoningStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return A consistent view of the current statistics, which is not
+	 *         changed by later reasoning operations.
+	 */
+	public ReasoningStatistics.Snapshot getStatisticsSnapshot() {
+		return statistics.getSnapshot();
+	}
+
 	public long getInstanceCheckReasoningTimeNs() {
-		return instanceCheckReasoningTimeNs;
+		return statistics.getSnapshot().getInstanceCheckReasoningTimeNs();
 	}
 
 	public long getRetrievalReasoningTimeNs() {
-		return retrievalReasoningTimeNs;
+		return statistics.getSnapshot().getRetrievalReasoningTimeNs();
 	}
 
 	public int getNrOfInstanceChecks() {
-		return nrOfInstanceChecks;
+		return (int) statistics.getSnapshot().getNrOfInstanceChecks();
 	}
 
 	public int getNrOfRetrievals() {
-		return nrOfRetrievals;
+		return (int) statistics.getSnapshot().getNrOfRetrievals();
 	}
 
 	public int getNrOfSubsumptionChecks() {
-		return nrOfSubsumptionChecks;
+		return (int) statistics.getSnapshot().getNrOfSubsumptionChecks();
 	}
 
 	public long getSubsumptionReasoningTimeNs() {
-		return subsumptionReasoningTimeNs;
+		return statistics.getSnapshot().getSubsumptionReasoningTimeNs();
 	}
 
 	public int getNrOfSubsumptionHierarchyQueries() {
-		return nrOfSubsumptionHierarchyQueries;
+		return (int) statistics.getSnapshot().getNrOfSubsumptionHierarchyQueries();
 	}
 
 	public long getOverallReasoningTimeNs() {
-		return overallReasoningTimeNs;
+		return statistics.getSnapshot().getOverallReasoningTimeNs();
 	}
 
 	public long getTimePerRetrievalNs() {
-		return retrievalReasoningTimeNs / nrOfRetrievals;
+		ReasoningStatistics.Snapshot snapshot = statistics.getSnapshot();
+		return snapshot.getRetrievalReasoningTimeNs() / snapshot.getNrOfRetrievals();
 	}
 
 	public long getTimePerInstanceCheckNs() {
-		return instanceCheckReasoningTimeNs / nrOfInstanceChecks;
+		ReasoningStatistics.Snapshot snapshot = statistics.getSnapshot();
+		return snapshot.getInstanceCheckReasoningTimeNs() / snapshot.getNrOfInstanceChecks();
 	}
 
 	public long getTimePerSubsumptionCheckNs() {
-		return subsumptionReasoningTimeNs / nrOfSubsumptionChecks;
+		ReasoningStatistics.Snapshot snapshot = statistics.getSnapshot();
+		return snapshot.getSubsumptionReasoningTimeNs() / snapshot.getNrOfSubsumptionChecks();
 	}
 
 	public int getNrOfMultiSubsumptionChecks() {
-		return nrOfMultiSubsumptionChecks;
+		return (int) statistics.getSnapshot().getNrOfMultiSubsumptionChecks();
 	}
 
 	public int getNrOfMultiInstanceChecks() {
-		return nrOfMultiInstanceChecks;
+		return (int) statistics.getSnapshot().getNrOfMultiInstanceChecks();
 	}
 
 	@Override
 	public String toString() {
+		ReasoningStatistics.Snapshot snapshot = statistics.getSnapshot();
 		String str = "";
-		if (nrOfRetrievals > 0) {
-			str += "number of retrievals: " + nrOfRetrievals + "\n";
+		if (snapshot.getNrOfRetrievals() > 0) {
+			str += "number of retrievals: " + snapshot.getNrOfRetrievals() + "\n";
 			str += "retrieval reasoning time: "
-							+ Helper.prettyPrintNanoSeconds(retrievalReasoningTimeNs)
-							+ " ( " + Helper.prettyPrintNanoSeconds(getTimePerRetrievalNs())
+							+ Helper.prettyPrintNanoSeconds(snapshot.getRetrievalReasoningTimeNs())
+							+ " ( " + Helper.prettyPrintNanoSeconds(snapshot.getRetrievalReasoningTimeNs() / snapshot.getNrOfRetrievals())
 							+ " per retrieval)" + "\n";
 		}
-		if (nrOfInstanceChecks > 0) {
-			str += "number of instance checks: " + nrOfInstanceChecks + " ("
-					+ nrOfMultiInstanceChecks + " multiple)\n";
+		if (snapshot.getNrOfInstanceChecks() > 0) {
+			str += "number of instance checks: " + snapshot.getNrOfInstanceChecks() + " ("
+					+ snapshot.getNrOfMultiInstanceChecks() + " multiple)\n";
 			str += "instance check reasoning time: "
-					+ Helper.prettyPrintNanoSeconds(instanceCheckReasoningTimeNs) + " ( "
-					+ Helper.prettyPrintNanoSeconds(getTimePerInstanceCheckNs())
+					+ Helper.prettyPrintNanoSeconds(snapshot.getInstanceCheckReasoningTimeNs()) + " ( "
+					+ Helper.prettyPrintNanoSeconds(snapshot.getInstanceCheckReasoningTimeNs() / snapshot.getNrOfInstanceChecks())
 					+ " per instance check)\n";
 		}
-		if (nrOfSubsumptionHierarchyQueries > 0) {
+		if (snapshot.getNrOfSubsumptionHierarchyQueries() > 0) {
 			str += "subsumption hierarchy queries: "
-					+ nrOfSubsumptionHierarchyQueries + "\n";
+					+ snapshot.getNrOfSubsumptionHierarchyQueries() + "\n";
 		}
-		if (nrOfSubsumptionChecks > 0) {
-			str += "(complex) subsumption checks: " + nrOfSubsumptionChecks
-					+ " (" + nrOfMultiSubsumptionChecks + " multiple)\n";
+		if (snapshot.getNrOfSubsumptionChecks() > 0) {
+			str += "(complex) subsumption checks: " + snapshot.getNrOfSubsumptionChecks()
+					+ " (" + snapshot.getNrOfMultiSubsumptionChecks() + " multiple)\n";
 			str += "subsumption reasoning time: "
-					+ Helper.prettyPrintNanoSeconds(subsumptionReasoningTimeNs) + " ( "
-					+ Helper.prettyPrintNanoSeconds(getTimePerSubsumptionCheckNs())
+					+ Helper.prettyPrintNanoSeconds(snapshot.getSubsumptionReasoningTimeNs()) + " ( "
+					+ Helper.prettyPrintNanoSeconds(snapshot.getSubsumptionReasoningTimeNs() / snapshot.getNrOfSubsumptionChecks())
 					+ " per subsumption check)\n";
 		}
 		str += "overall reasoning time: "
-				+ Helper.prettyPrintNanoSeconds(overallReasoningTimeNs) + "\n";	
+				+ Helper.prettyPrintNanoSeconds(snapshot.getOverallReasoningTimeNs()) + "\n";	
 		return str;
 	}
 	
@@ -1258,17 +1229,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	
 	@Override
 	public double hasTypeFuzzyMembership(Description description, FuzzyIndividual individual) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long reasoningStartTime = statistics.start();
 		double result = -1;
 		try {
 			result = hasTypeFuzzyMembershipImpl(description, individual);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.increment(ReasoningStatistics.NR_OF_INSTANCE_CHECKS, 1);
+		statistics.stop(ReasoningStatistics.INSTANCE_CHECK, reasoningStartTime);
 		return result;		
 	}
 
@@ -1276,4 +1245,26 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	throws ReasoningMethodUnsupportedException {
 		throw new ReasoningMethodUnsupportedException();
 	}
+	
+	@Override
+	public double[] hasTypeFuzzyMembership(Description description, List<FuzzyIndividual> individuals) {
+		long reasoningStartTime = statistics.start();
+		double[] result = null;
+		try {
+			result = hasTypeFuzzyMembershipImpl(description, individuals);
+		} catch (ReasoningMethodUnsupportedException e) {
+			handleExceptions(e);
+		}
+		statistics.increment(ReasoningStatistics.NR_OF_INSTANCE_CHECKS, individuals.size());
+		statistics.stop(ReasoningStatistics.INSTANCE_CHECK, reasoningStartTime);
+		return result;
+	}
+	
+	protected double[] hasTypeFuzzyMembershipImpl(Description concept, List<FuzzyIndividual> individuals)
+	throws ReasoningMethodUnsupportedException {
+		double[] result = new double[individuals.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = hasTypeFuzzyMembershipImpl(concept, individuals.get(i));
+		return result;
+	}
 }
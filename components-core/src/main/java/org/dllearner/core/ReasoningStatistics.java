@@ -0,0 +1,351 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.core;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics about the reasoning operations of a reasoner component, e.g.
+ * how many instance checks were performed and how long they took. The
+ * statistics can be updated by several threads sharing a reasoner (as the
+ * workers of parallel learning algorithms do): each thread accumulates its
+ * values in its own counters, which are only written by that thread and
+ * summed up when the statistics are read. Reading is therefore not atomic
+ * with respect to concurrent updates, but no update is lost. The counters of
+ * threads which have terminated are added to common counters and dropped, so
+ * short-lived threads (e.g. of thread pools) do not accumulate.
+ *
+ * To reduce the overhead of measuring time, the reasoning time can be
+ * sampled: with a sample interval of n, only every n-th reasoning operation
+ * of a thread is timed and the time of the other operations is estimated
+ * from the average time of the sampled operations of the same kind. The
+ * default interval of 1 times every operation. Numbers of operations are
+ * always exact.
+ *
+ */
+public class ReasoningStatistics implements ReasoningStatisticsMBean {
+
+	// kinds of reasoning operations, which are timed separately
+	public static final int INSTANCE_CHECK = 0;
+	public static final int RETRIEVAL = 1;
+	public static final int SUBSUMPTION = 2;
+	public static final int OTHER = 3;
+	private static final int NR_OF_KINDS = 4;
+
+	// counters
+	public static final int NR_OF_INSTANCE_CHECKS = 0;
+	public static final int NR_OF_MULTI_INSTANCE_CHECKS = 1;
+	public static final int NR_OF_RETRIEVALS = 2;
+	public static final int NR_OF_SUBSUMPTION_CHECKS = 3;
+	public static final int NR_OF_MULTI_SUBSUMPTION_CHECKS = 4;
+	public static final int NR_OF_SUBSUMPTION_HIERARCHY_QUERIES = 5;
+	private static final int NR_OF_COUNTERS = 6;
+
+	// for each kind of operation: number of operations, number of timed
+	// operations and their time
+	private static final int OPERATIONS = NR_OF_COUNTERS;
+	private static final int SAMPLED_OPERATIONS = NR_OF_COUNTERS + 1;
+	private static final int SAMPLED_TIME = NR_OF_COUNTERS + 2;
+	private static final int NR_OF_VALUES = NR_OF_COUNTERS + 3 * NR_OF_KINDS;
+
+	/**
+	 * Counters of a single thread. Values are only written by the owning
+	 * thread, so they need no atomic read-modify-write operations.
+	 */
+	private static class Accumulator {
+		private final AtomicLongArray values = new AtomicLongArray(NR_OF_VALUES);
+		// number of operations since the last timed one
+		private int tick = 0;
+		// the thread does not need to be kept alive by the statistics
+		private final WeakReference<Thread> owner = new WeakReference<Thread>(Thread.currentThread());
+
+		private boolean isOwnerTerminated() {
+			Thread thread = owner.get();
+			return thread == null || !thread.isAlive();
+		}
+
+		private void add(int index, long delta) {
+			values.lazySet(index, values.get(index) + delta);
+		}
+	}
+
+	/**
+	 * Immutable view of the statistics at a certain point in time.
+	 */
+	public static class Snapshot {
+		private final long[] values;
+
+		private Snapshot(long[] values) {
+			this.values = values;
+		}
+
+		public long getNrOfInstanceChecks() {
+			return values[NR_OF_INSTANCE_CHECKS];
+		}
+
+		public long getNrOfMultiInstanceChecks() {
+			return values[NR_OF_MULTI_INSTANCE_CHECKS];
+		}
+
+		public long getNrOfRetrievals() {
+			return values[NR_OF_RETRIEVALS];
+		}
+
+		public long getNrOfSubsumptionChecks() {
+			return values[NR_OF_SUBSUMPTION_CHECKS];
+		}
+
+		public long getNrOfMultiSubsumptionChecks() {
+			return values[NR_OF_MULTI_SUBSUMPTION_CHECKS];
+		}
+
+		public long getNrOfSubsumptionHierarchyQueries() {
+			return values[NR_OF_SUBSUMPTION_HIERARCHY_QUERIES];
+		}
+
+		/**
+		 * @param kind
+		 *            One of {@link ReasoningStatistics#INSTANCE_CHECK},
+		 *            {@link ReasoningStatistics#RETRIEVAL},
+		 *            {@link ReasoningStatistics#SUBSUMPTION} and
+		 *            {@link ReasoningStatistics#OTHER}.
+		 * @return The number of reasoning operations of this kind.
+		 */
+		public long getNrOfOperations(int kind) {
+			return values[OPERATIONS + 3 * kind];
+		}
+
+		/**
+		 * @param kind
+		 *            A kind of reasoning operations, see
+		 *            {@link #getNrOfOperations(int)}.
+		 * @return The (estimated) time spent in reasoning operations of this
+		 *         kind.
+		 */
+		public long getReasoningTimeNs(int kind) {
+			long operations = values[OPERATIONS + 3 * kind];
+			long sampledOperations = values[SAMPLED_OPERATIONS + 3 * kind];
+			long sampledTime = values[SAMPLED_TIME + 3 * kind];
+			if (sampledOperations == 0 || sampledOperations == operations) {
+				return sampledTime;
+			}
+			return (long) ((double) sampledTime * operations / sampledOperations);
+		}
+
+		public long getInstanceCheckReasoningTimeNs() {
+			return getReasoningTimeNs(INSTANCE_CHECK);
+		}
+
+		public long getRetrievalReasoningTimeNs() {
+			return getReasoningTimeNs(RETRIEVAL);
+		}
+
+		public long getSubsumptionReasoningTimeNs() {
+			return getReasoningTimeNs(SUBSUMPTION);
+		}
+
+		public long getOtherReasoningTimeNs() {
+			return getReasoningTimeNs(OTHER);
+		}
+
+		public long getOverallReasoningTimeNs() {
+			long time = 0;
+			for (int kind = 0; kind < NR_OF_KINDS; kind++) {
+				time += getReasoningTimeNs(kind);
+			}
+			return time;
+		}
+	}
+
+	// counters of the live threads which have used the statistics
+	private final List<Accumulator> accumulators = new CopyOnWriteArrayList<Accumulator>();
+
+	// sum of the counters of the threads which have terminated (guarded by
+	// this)
+	private final long[] terminated = new long[NR_OF_VALUES];
+
+	private final ThreadLocal<Accumulator> accumulator = new ThreadLocal<Accumulator>() {
+		@Override
+		protected Accumulator initialValue() {
+			Accumulator acc = new Accumulator();
+			pruneTerminated();
+			accumulators.add(acc);
+			return acc;
+		}
+	};
+
+	// values at the last reset, which are subtracted from the sums
+	private volatile long[] baseline = new long[NR_OF_VALUES];
+
+	private volatile int sampleInterval = 1;
+
+	/**
+	 * Called before a reasoning operation.
+	 *
+	 * @return The start time of the operation or -1 if the operation is not
+	 *         timed.
+	 */
+	public long start() {
+		int interval = sampleInterval;
+		if (interval <= 1) {
+			return System.nanoTime();
+		}
+		Accumulator acc = accumulator.get();
+		if (++acc.tick >= interval) {
+			acc.tick = 0;
+			return System.nanoTime();
+		}
+		return -1;
+	}
+
+	/**
+	 * Called after a reasoning operation.
+	 *
+	 * @param kind
+	 *            The kind of the operation, e.g. {@link #INSTANCE_CHECK}.
+	 * @param startTime
+	 *            The value returned by {@link #start()}.
+	 */
+	public void stop(int kind, long startTime) {
+		Accumulator acc = accumulator.get();
+		acc.add(OPERATIONS + 3 * kind, 1);
+		if (startTime >= 0) {
+			acc.add(SAMPLED_OPERATIONS + 3 * kind, 1);
+			acc.add(SAMPLED_TIME + 3 * kind, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Increases a counter, e.g. {@link #NR_OF_INSTANCE_CHECKS}.
+	 */
+	public void increment(int counter, long delta) {
+		accumulator.get().add(counter, delta);
+	}
+
+	// adds the counters of terminated threads to the common counters and
+	// removes them (a terminated thread does not write its counters any more
+	// and its writes are visible after isAlive() returned false)
+	private synchronized void pruneTerminated() {
+		for (Accumulator acc : accumulators) {
+			if (acc.isOwnerTerminated()) {
+				for (int i = 0; i < NR_OF_VALUES; i++) {
+					terminated[i] += acc.values.get(i);
+				}
+				accumulators.remove(acc);
+			}
+		}
+	}
+
+	private synchronized long[] sum() {
+		pruneTerminated();
+		long[] values = terminated.clone();
+		for (Accumulator acc : accumulators) {
+			for (int i = 0; i < NR_OF_VALUES; i++) {
+				values[i] += acc.values.get(i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return The current values of the statistics.
+	 */
+	public Snapshot getSnapshot() {
+		long[] values = sum();
+		long[] base = baseline;
+		for (int i = 0; i < NR_OF_VALUES; i++) {
+			values[i] -= base[i];
+		}
+		return new Snapshot(values);
+	}
+
+	@Override
+	public synchronized void reset() {
+		baseline = sum();
+	}
+
+	@Override
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * @param sampleInterval
+	 *            Only every n-th reasoning operation of a thread is timed (1
+	 *            means that all operations are timed).
+	 */
+	@Override
+	public void setSampleInterval(int sampleInterval) {
+		this.sampleInterval = Math.max(1, sampleInterval);
+	}
+
+	@Override
+	public long getNrOfInstanceChecks() {
+		return getSnapshot().getNrOfInstanceChecks();
+	}
+
+	@Override
+	public long getNrOfMultiInstanceChecks() {
+		return getSnapshot().getNrOfMultiInstanceChecks();
+	}
+
+	@Override
+	public long getInstanceCheckReasoningTimeNs() {
+		return getSnapshot().getInstanceCheckReasoningTimeNs();
+	}
+
+	@Override
+	public long getNrOfRetrievals() {
+		return getSnapshot().getNrOfRetrievals();
+	}
+
+	@Override
+	public long getRetrievalReasoningTimeNs() {
+		return getSnapshot().getRetrievalReasoningTimeNs();
+	}
+
+	@Override
+	public long getNrOfSubsumptionChecks() {
+		return getSnapshot().getNrOfSubsumptionChecks();
+	}
+
+	@Override
+	public long getNrOfMultiSubsumptionChecks() {
+		return getSnapshot().getNrOfMultiSubsumptionChecks();
+	}
+
+	@Override
+	public long getSubsumptionReasoningTimeNs() {
+		return getSnapshot().getSubsumptionReasoningTimeNs();
+	}
+
+	@Override
+	public long getOtherReasoningTimeNs() {
+		return getSnapshot().getOtherReasoningTimeNs();
+	}
+
+	@Override
+	public long getOverallReasoningTimeNs() {
+		return getSnapshot().getOverallReasoningTimeNs();
+	}
+}
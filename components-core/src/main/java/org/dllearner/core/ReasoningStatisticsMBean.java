@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.core;
+
+/**
+ * Management interface of the reasoning statistics of a reasoner component,
+ * see {@link ReasoningStatistics}.
+ *
+ */
+public interface ReasoningStatisticsMBean {
+
+	public long getNrOfInstanceChecks();
+
+	public long getNrOfMultiInstanceChecks();
+
+	public long getInstanceCheckReasoningTimeNs();
+
+	public long getNrOfRetrievals();
+
+	public long getRetrievalReasoningTimeNs();
+
+	public long getNrOfSubsumptionChecks();
+
+	public long getNrOfMultiSubsumptionChecks();
+
+	public long getSubsumptionReasoningTimeNs();
+
+	public long getOtherReasoningTimeNs();
+
+	public long getOverallReasoningTimeNs();
+
+	public int getSampleInterval();
+
+	public void setSampleInterval(int sampleInterval);
+
+	public void reset();
+}
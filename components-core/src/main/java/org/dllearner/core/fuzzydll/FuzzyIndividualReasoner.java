@@ -19,6 +19,7 @@
 
 package org.dllearner.core.fuzzydll;
 
+import java.util.List;
 import java.util.SortedSet;
 
 import org.dllearner.core.owl.Description;
@@ -41,5 +42,14 @@ public interface FuzzyIndividualReasoner {
 	 * @return fuzzy membership degree of <code>individual</code> satisfying <code>description</code> [0-1].
 	 */
 	public double hasTypeFuzzyMembership(Description description, FuzzyIndividual individual);
+	
+	/**
+	 * Checks the fuzzy membership degrees of several individuals over <code>description</code>
+	 * (reasoners may compute them in parallel).
+	 * @param description An OWL class description.
+	 * @param individuals Individuals.
+	 * @return fuzzy membership degrees [0-1] in the order of <code>individuals</code>.
+	 */
+	public double[] hasTypeFuzzyMembership(Description description, List<FuzzyIndividual> individuals);
 	public SortedSet<FuzzyIndividual> getFuzzyIndividuals(Description concept);
 }
@@ -55,7 +55,7 @@ public class FlatABox {
     }
     
     public SortedSet<String> getNegativeInstances(String conceptName) {
-    	return atomicConceptsPos.get(conceptName);
+    	return atomicConceptsNeg.get(conceptName);
     }
     
 	@Override	    
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.core.owl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Compact variant of {@link FlatABox}: individuals, concepts and roles are
+ * mapped to integers, the positive and negative instances of a concept are
+ * bitsets over the individuals and the positive role assertions are stored
+ * as adjacency arrays (successors and predecessors of each individual).
+ * Negative role assertions, which are rare, are stored as one bitset per
+ * individual.
+ *
+ * The sets returned by the getters must not be modified.
+ *
+ */
+public class IndexedFlatABox {
+
+	private static final int[] NO_NEIGHBOURS = new int[0];
+
+	private List<String> individuals = new ArrayList<String>();
+	private Map<String,Integer> individualIndex = new HashMap<String,Integer>();
+
+	private List<String> concepts = new ArrayList<String>();
+	private Map<String,Integer> conceptIndex = new HashMap<String,Integer>();
+
+	private List<String> roles = new ArrayList<String>();
+	private Map<String,Integer> roleIndex = new HashMap<String,Integer>();
+
+	private BitSet domain = new BitSet();
+	private BitSet top = new BitSet();
+	private BitSet bottom = new BitSet();
+
+	private List<BitSet> conceptsPos = new ArrayList<BitSet>();
+	private List<BitSet> conceptsNeg = new ArrayList<BitSet>();
+
+	// role => individual => sorted neighbours (null if the role has no
+	// positive assertions)
+	private List<int[][]> roleSuccessors = new ArrayList<int[][]>();
+	private List<int[][]> rolePredecessors = new ArrayList<int[][]>();
+	// role => individual => individuals b with not r(a,b) (null if the role
+	// has no negative assertions, the entry of an individual is null if
+	// there is no negative assertion for it)
+	private List<BitSet[]> rolesNeg = new ArrayList<BitSet[]>();
+
+	/**
+	 * Creates an ABox over the given domain, top is the domain and bottom
+	 * is empty.
+	 * @param domain Names of all individuals.
+	 */
+	public IndexedFlatABox(Collection<String> domain) {
+		for(String individual : domain)
+			this.domain.set(getOrAddIndividual(individual));
+		top = this.domain;
+	}
+
+	/**
+	 * Creates the compact variant of a flat ABox.
+	 * @param abox A flat ABox.
+	 * @return The compact ABox.
+	 */
+	public static IndexedFlatABox create(FlatABox abox) {
+		IndexedFlatABox indexed = new IndexedFlatABox(abox.domain);
+		indexed.top = indexed.toBitSet(abox.top);
+		indexed.bottom = indexed.toBitSet(abox.bottom);
+
+		for(String concept : abox.concepts)
+			indexed.addConcept(concept, abox.atomicConceptsPos.get(concept), abox.atomicConceptsNeg.get(concept));
+		for(String role : abox.roles)
+			indexed.addRole(role, abox.rolesPos.get(role), abox.rolesNeg.get(role));
+		return indexed;
+	}
+
+	/**
+	 * Adds a concept (or replaces its instances if it exists).
+	 * @param concept Name of the concept.
+	 * @param pos Positive instances or null if there are none.
+	 * @param neg Negative instances or null if there are none.
+	 */
+	public void addConcept(String concept, Collection<String> pos, Collection<String> neg) {
+		Integer id = conceptIndex.get(concept);
+		if(id == null) {
+			id = concepts.size();
+			conceptIndex.put(concept, id);
+			concepts.add(concept);
+			conceptsPos.add(null);
+			conceptsNeg.add(null);
+		}
+		conceptsPos.set(id, toBitSet(pos));
+		conceptsNeg.set(id, toBitSet(neg));
+	}
+
+	/**
+	 * Adds a role (or replaces its assertions if it exists).
+	 * @param role Name of the role.
+	 * @param pos Maps an individual a to all b with r(a,b), null if there are none.
+	 * @param neg Maps an individual a to all b with not r(a,b), null if there are none.
+	 */
+	public void addRole(String role, Map<String,? extends Collection<String>> pos, Map<String,? extends Collection<String>> neg) {
+		Integer id = roleIndex.get(role);
+		if(id == null) {
+			id = roles.size();
+			roleIndex.put(role, id);
+			roles.add(role);
+			roleSuccessors.add(null);
+			rolePredecessors.add(null);
+			rolesNeg.add(null);
+		}
+
+		int[][] successors = null;
+		int[][] predecessors = null;
+		if(pos != null) {
+			// intern all individuals first, so that the arrays are large enough
+			for(Entry<String,? extends Collection<String>> entry : pos.entrySet()) {
+				getOrAddIndividual(entry.getKey());
+				for(String b : entry.getValue())
+					getOrAddIndividual(b);
+			}
+			int n = individuals.size();
+			successors = new int[n][];
+			int[] nrOfPredecessors = new int[n];
+			for(Entry<String,? extends Collection<String>> entry : pos.entrySet()) {
+				int[] succ = toSortedArray(entry.getValue());
+				successors[individualIndex.get(entry.getKey())] = succ;
+				for(int b : succ)
+					nrOfPredecessors[b]++;
+			}
+			predecessors = new int[n][];
+			for(int b=0; b<n; b++)
+				predecessors[b] = (nrOfPredecessors[b] == 0) ? NO_NEIGHBOURS : new int[nrOfPredecessors[b]];
+			// predecessors are added in ascending order of a, i.e. sorted
+			for(int a=0; a<n; a++) {
+				if(successors[a] == null)
+					continue;
+				for(int b : successors[a])
+					predecessors[b][predecessors[b].length - nrOfPredecessors[b]--] = a;
+			}
+		}
+		roleSuccessors.set(id, successors);
+		rolePredecessors.set(id, predecessors);
+
+		BitSet[] negative = null;
+		if(neg != null) {
+			for(String a : neg.keySet())
+				getOrAddIndividual(a);
+			negative = new BitSet[individuals.size()];
+			for(Entry<String,? extends Collection<String>> entry : neg.entrySet())
+				negative[individualIndex.get(entry.getKey())] = toBitSet(entry.getValue());
+		}
+		rolesNeg.set(id, negative);
+	}
+
+	private int getOrAddIndividual(String individual) {
+		Integer id = individualIndex.get(individual);
+		if(id == null) {
+			id = individuals.size();
+			individualIndex.put(individual, id);
+			individuals.add(individual);
+		}
+		return id;
+	}
+
+	private int[] toSortedArray(Collection<String> set) {
+		int[] array = new int[set.size()];
+		int i = 0;
+		for(String individual : set)
+			array[i++] = getOrAddIndividual(individual);
+		Arrays.sort(array);
+		return array;
+	}
+
+	/**
+	 * Converts a set of individual names to a bitset, individuals which are
+	 * not known yet are added.
+	 * @param set Names of individuals or null.
+	 * @return A bitset (empty if the set is null).
+	 */
+	public BitSet toBitSet(Collection<String> set) {
+		BitSet bits = new BitSet();
+		if(set != null) {
+			for(String individual : set)
+				bits.set(getOrAddIndividual(individual));
+		}
+		return bits;
+	}
+
+	/**
+	 * @param bits A bitset over the individuals.
+	 * @return The names of the individuals in the bitset.
+	 */
+	public SortedSet<String> toStringSet(BitSet bits) {
+		SortedSet<String> set = new TreeSet<String>();
+		for(int i=bits.nextSetBit(0); i>=0; i=bits.nextSetBit(i+1))
+			set.add(individuals.get(i));
+		return set;
+	}
+
+	/**
+	 * @param individual Name of an individual.
+	 * @return The index of the individual or -1 if it is unknown.
+	 */
+	public int getIndividualIndex(String individual) {
+		Integer id = individualIndex.get(individual);
+		return (id == null) ? -1 : id;
+	}
+
+	public String getIndividual(int index) {
+		return individuals.get(index);
+	}
+
+	public int getNrOfIndividuals() {
+		return individuals.size();
+	}
+
+	/**
+	 * @param concept Name of a concept.
+	 * @return The positive instances or null if the concept is unknown.
+	 */
+	public BitSet getPositiveInstances(String concept) {
+		Integer id = conceptIndex.get(concept);
+		return (id == null) ? null : conceptsPos.get(id);
+	}
+
+	/**
+	 * @param concept Name of a concept.
+	 * @return The negative instances or null if the concept is unknown.
+	 */
+	public BitSet getNegativeInstances(String concept) {
+		Integer id = conceptIndex.get(concept);
+		return (id == null) ? null : conceptsNeg.get(id);
+	}
+
+	/**
+	 * @param role Name of a role.
+	 * @return The index of the role or -1 if it is unknown.
+	 */
+	public int getRoleIndex(String role) {
+		Integer id = roleIndex.get(role);
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	 * @param role Index of a role.
+	 * @return Sorted successors of each individual (entries are null for
+	 * individuals without successors) or null if the role has no positive
+	 * assertions.
+	 */
+	public int[][] getSuccessors(int role) {
+		return roleSuccessors.get(role);
+	}
+
+	/**
+	 * @param role Index of a role.
+	 * @return Sorted predecessors of each individual or null if the role
+	 * has no positive assertions.
+	 */
+	public int[][] getPredecessors(int role) {
+		return rolePredecessors.get(role);
+	}
+
+	/**
+	 * @param role Index of a role.
+	 * @return For each individual a, the individuals b with not r(a,b)
+	 * (null for individuals without negative assertions) or null if the
+	 * role has no negative assertions.
+	 */
+	public BitSet[] getNegativeRoleMembers(int role) {
+		return rolesNeg.get(role);
+	}
+
+	public BitSet getDomain() {
+		return domain;
+	}
+
+	public BitSet getTop() {
+		return top;
+	}
+
+	public BitSet getBottom() {
+		return bottom;
+	}
+
+	public List<String> getConcepts() {
+		return concepts;
+	}
+
+	public List<String> getRoles() {
+		return roles;
+	}
+
+}
@@ -20,15 +20,7 @@
 package org.dllearner.kb.sparql;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.LinkedList;
 
 import org.apache.log4j.Logger;
 import org.dllearner.utilities.Files;
@@ -41,19 +33,20 @@ import com.jamonapi.Monitor;
  * and their results are written to files. A cache has an associated cache
  * directory where all files are written.
  * 
- * Each SPARQL query and its result is written to one file. The name of this
- * file is a hash of the query. The result of the query is written as JSON
+ * All SPARQL queries and their results are appended to one log file in the
+ * cache directory, which is indexed by a hash of the query (see
+ * {@link CacheLogStore}). The result of the query is written as JSON
  * serialisation of the SPARQL XML result, see
  * http://www.w3.org/TR/rdf-sparql-json-res/.
  * 
  * Apart from the query and its result, a timestamp of the query is stored.
  * After a configurable amount of time, query results are considered outdated.
  * If a cached result of a SPARQL query exists, but is too old, the cache
- * behaves as if the cached result would not exist.
+ * behaves as if the cached result would not exist. Outdated and replaced
+ * results are removed from the log file by {@link #compact()}.
  * 
- * TODO: We are doing md5 hashing at the moment, so in rare cases different
- * SPARQL queries can be mapped to the same file. Support for such scenarios
- * needs to be included.
+ * The query of a cached result is compared with the requested query, so
+ * different SPARQL queries with the same hash do not share results.
  * 
  * @author Sebastian Hellmann
  * @author Sebastian Knappe
@@ -74,7 +67,7 @@ public class Cache implements Serializable {
 	// private HashMap<String, String> hm;
 
 	private transient String cacheDir = "";
-	private transient String fileEnding = ".cache";
+	private transient CacheLogStore store;
 	// private long timestamp;
 
 	// specifies after how many seconds a cached result becomes invalid
@@ -140,41 +133,13 @@ public class Cache implements Serializable {
 			logger.info("Created directory: " + cacheDir + ".");
 		}
 		
+		// ASK queries are always stored in the log file
+		store = CacheLogStore.getStore(cacheDir);
 		if(this.useDatabase) {
 			h2 = new ExtractionDBCache(cacheDir);
 		}		
 	}
 	
-	// compute md5-hash
-	private String getHash(String string) {
-		Monitor hashTime = JamonMonitorLogger.getTimeMonitor(Cache.class, "HashTime").start();
-		// calculate md5 hash of the string (code is somewhat
-		// difficult to read, but there doesn't seem to be a
-		// single function call in Java for md5 hashing)
-		MessageDigest md5 = null;
-		try {
-			md5 = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			e.printStackTrace();
-		}
-		md5.reset();
-		md5.update(string.getBytes());
-		byte[] result = md5.digest();
-
-		StringBuffer hexString = new StringBuffer();
-		for (int i = 0; i < result.length; i++) {
-			hexString.append(Integer.toHexString(0xFF & result[i]));
-		}
-		String str = hexString.toString();
-		hashTime.stop();
-		return str;
-	}
-
-	// return filename where the query result should be saved
-	private String getFilename(String sparqlQuery) {
-		return cacheDir + getHash(sparqlQuery) + fileEnding;
-	}
-
 	/**
 	 * Gets a result for a query if it is in the cache.
 	 * 
@@ -183,47 +148,8 @@ public class Cache implements Serializable {
 	 * @return Query result as JSON or null if no result has been found or it is
 	 *         outdated.
 	 */
-	@SuppressWarnings({"unchecked"})
 	private String getCacheEntry(String sparqlQuery) {
-		
-		String filename = getFilename(sparqlQuery);
-		File file = new File(filename);
-		
-		// return null (indicating no result) if file does not exist
-		if(!file.exists()) {
-			return null;
-		}
-			
-		
-		LinkedList<Object> entry = null;
-		try {
-			FileInputStream fos = new FileInputStream(filename);
-			ObjectInputStream o = new ObjectInputStream(fos);
-			entry = (LinkedList<Object>) o.readObject();
-			o.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-			if(Files.debug){System.exit(0);}
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
-			if(Files.debug){System.exit(0);}
-		}
-		
-		// TODO: we need to check whether the query is correct
-		// (may not always be the case due to md5 hashing)
-		
-		// determine whether query is outdated
-		long timestamp = (Long) entry.get(0);
-		boolean fresh = checkFreshness(timestamp);
-		
-		if(!fresh) {
-			// delete file
-			file.delete();
-			// return null indicating no result
-			return null;
-		}
-		
-		return (String) entry.get(2);
+		return store.get(sparqlQuery, freshnessSeconds * 1000);
 	}
 
 	/**
@@ -235,41 +161,7 @@ public class Cache implements Serializable {
 	 *            Result of the SPARQL query.
 	 */
 	private void addToCache(String sparqlQuery, String result) {
-		String filename = getFilename(sparqlQuery);
-		long timestamp = System.currentTimeMillis();
-
-		// create the object which will be serialised
-		LinkedList<Object> list = new LinkedList<Object>();
-		list.add(timestamp);
-		list.add(sparqlQuery);
-		list.add(result);
-
-		// create the file we want to use
-		//File file = new File(filename);
-		FileOutputStream fos = null;
-		ObjectOutputStream o = null;
-		try {
-			//file.createNewFile();
-			fos = new FileOutputStream(filename, false);
-			o = new ObjectOutputStream(fos);
-			o.writeObject(list);
-			fos.flush();
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}finally{
-			try{
-				fos.close();
-				o.close();
-			}catch (Exception e2) {
-				 e2.printStackTrace();
-			}
-		}
-	}
-
-	// check whether the given timestamp is fresh
-	private boolean checkFreshness(long timestamp) {
-		return ((System.currentTimeMillis() - timestamp) <= (freshnessSeconds * 1000));
+		store.put(sparqlQuery, result);
 	}
 
 	/**
@@ -347,14 +239,26 @@ public class Cache implements Serializable {
 	 * and can thus still be used without creating a new Cache Object
 	 */
 	public void clearCache() {
+			store.clear();
 		
 			File f = new File(cacheDir);
 		    String[] files = f.list();
 		    for (int i = 0; i < files.length; i++) {
+		    	// the log file of the store is still open
+		    	if(files[i].equals(CacheLogStore.LOG_FILE_NAME)) {
+		    		continue;
+		    	}
 		    	Files.deleteFile(new File(cacheDir+"/"+files[i]));
 		    }     
 	}
 	
+	/**
+	 * Removes outdated and replaced results from the cache file. 
+	 */
+	public void compact() {
+		store.compact(freshnessSeconds * 1000);
+	}
+	
 	/**
 	 * Changes how long cached results will stay fresh (default 15 days).
 	 * @param days number of days
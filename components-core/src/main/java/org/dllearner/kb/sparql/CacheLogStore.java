@@ -0,0 +1,505 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.kb.sparql;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Log structured store for the SPARQL query cache. All queries and their
+ * results of a cache directory are appended to a single log file, and an
+ * in-memory index maps the MD5 hash of a query to the position of its latest
+ * record in the log. The index is rebuilt by scanning the log when the store
+ * is opened.
+ *
+ * Each record contains a timestamp, the query and its result. The query of a
+ * record is compared with the requested query on each hit, so that queries
+ * with the same hash never return the result of another query. Outdated
+ * records and records that have been replaced by a newer result of the same
+ * query are garbage, which is removed by {@link #compact(long)}.
+ *
+ * Reads are positional reads on the log file and can proceed concurrently,
+ * appends and compaction are exclusive. There is only one store per log file
+ * in a JVM (see {@link #getStore(String)}) until it is closed, and a log file
+ * must not be used by several processes at the same time.
+ *
+ */
+public class CacheLogStore {
+
+	private static Logger logger = Logger.getLogger(CacheLogStore.class);
+
+	public static final String LOG_FILE_NAME = "sparql-cache.log";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// marks the beginning of a record
+	private static final int RECORD_MAGIC = 0x53504331;
+
+	// magic and length of the record
+	private static final int HEADER_SIZE = 8;
+
+	// the log is compacted automatically if it is larger than this and
+	// more than half of it is garbage
+	private static final long AUTO_COMPACTION_SIZE = 64L * 1024 * 1024;
+
+	private static Map<String, CacheLogStore> stores = new HashMap<String, CacheLogStore>();
+
+	private final File file;
+	private RandomAccessFile raf;
+	private FileChannel channel;
+
+	// hash of a query => latest record of the query
+	private final Map<String, IndexEntry> index = new HashMap<String, IndexEntry>();
+	private long size = 0;
+	private long garbage = 0;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private static class IndexEntry {
+		private final long offset;
+		private final int size;
+		private final long timestamp;
+
+		private IndexEntry(long offset, int size, long timestamp) {
+			this.offset = offset;
+			this.size = size;
+			this.timestamp = timestamp;
+		}
+	}
+
+	/**
+	 * Returns the store of a cache directory. All caches using the same
+	 * directory share one store.
+	 *
+	 * @param cacheDir The cache directory.
+	 * @return The store of the cache directory.
+	 */
+	public static synchronized CacheLogStore getStore(String cacheDir) {
+		File file = new File(cacheDir, LOG_FILE_NAME).getAbsoluteFile();
+		CacheLogStore store = stores.get(file.getPath());
+		if(store == null) {
+			try {
+				store = new CacheLogStore(file);
+			} catch (IOException e) {
+				throw new RuntimeException("Could not open SPARQL cache " + file, e);
+			}
+			stores.put(file.getPath(), store);
+		}
+		return store;
+	}
+
+	// use getStore(String), a second store on the same file would corrupt it
+	CacheLogStore(File file) throws IOException {
+		this.file = file;
+		open();
+		load();
+	}
+
+	private void open() throws IOException {
+		raf = new RandomAccessFile(file, "rw");
+		channel = raf.getChannel();
+	}
+
+	// scans the log and builds the index, a truncated record at the end
+	// of the log (e.g. after a crash) is cut off
+	private void load() throws IOException {
+		long fileSize = channel.size();
+		long offset = 0;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			while(offset < fileSize) {
+				int magic = in.readInt();
+				int length = in.readInt();
+				if(magic != RECORD_MAGIC || length < 16 || offset + HEADER_SIZE + length > fileSize) {
+					break;
+				}
+				long timestamp = in.readLong();
+				int queryLength = in.readInt();
+				if(queryLength < 0 || queryLength > length - 16) {
+					break;
+				}
+				byte[] query = new byte[queryLength];
+				in.readFully(query);
+				skipFully(in, length - 12 - queryLength);
+
+				IndexEntry old = index.put(getHash(query), new IndexEntry(offset, HEADER_SIZE + length, timestamp));
+				if(old != null) {
+					garbage += old.size;
+				}
+				offset += HEADER_SIZE + length;
+			}
+		} catch (EOFException e) {
+			// truncated record
+		} finally {
+			in.close();
+		}
+
+		if(offset < fileSize) {
+			logger.warn("SPARQL cache " + file + " contains an incomplete record at position " + offset + ", the rest of the file is removed.");
+			channel.truncate(offset);
+		}
+		size = offset;
+		logger.debug("SPARQL cache " + file + " opened: " + index.size() + " entries, " + size + " bytes (" + garbage + " bytes garbage)");
+	}
+
+	private static void skipFully(DataInputStream in, int n) throws IOException {
+		while(n > 0) {
+			int skipped = in.skipBytes(n);
+			if(skipped <= 0) {
+				throw new EOFException();
+			}
+			n -= skipped;
+		}
+	}
+
+	/**
+	 * Gets the result of a query.
+	 *
+	 * @param query The SPARQL query.
+	 * @param maxAge Maximal age of the result in milliseconds.
+	 * @return The result or null if the query is not in the store or its
+	 * result is outdated.
+	 */
+	public String get(String query, long maxAge) {
+		byte[] queryBytes = query.getBytes(UTF8);
+		String hash = getHash(queryBytes);
+		IndexEntry entry;
+		ByteBuffer record = null;
+
+		lock.readLock().lock();
+		try {
+			entry = index.get(hash);
+			if(entry == null) {
+				return null;
+			}
+			if(isFresh(entry, maxAge)) {
+				record = read(entry);
+			}
+		} catch (IOException e) {
+			logger.error("Could not read from SPARQL cache " + file, e);
+			return null;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		// outdated results are removed from the index, the record stays
+		// in the log until the next compaction
+		if(record == null) {
+			remove(hash, entry);
+			return null;
+		}
+
+		record.position(HEADER_SIZE + 8);
+		int queryLength = record.getInt();
+		if(queryLength != queryBytes.length) {
+			return null;
+		}
+		for(int i = 0; i < queryLength; i++) {
+			if(record.get() != queryBytes[i]) {
+				return null;
+			}
+		}
+		byte[] result = new byte[record.getInt()];
+		record.get(result);
+		return new String(result, UTF8);
+	}
+
+	/**
+	 * Adds the result of a query. A previous result of the query is
+	 * replaced.
+	 *
+	 * @param query The SPARQL query.
+	 * @param result The result of the query.
+	 */
+	public void put(String query, String result) {
+		byte[] queryBytes = query.getBytes(UTF8);
+		byte[] resultBytes = result.getBytes(UTF8);
+		long timestamp = System.currentTimeMillis();
+
+		int length = 8 + 4 + queryBytes.length + 4 + resultBytes.length;
+		ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length);
+		record.putInt(RECORD_MAGIC);
+		record.putInt(length);
+		record.putLong(timestamp);
+		record.putInt(queryBytes.length);
+		record.put(queryBytes);
+		record.putInt(resultBytes.length);
+		record.put(resultBytes);
+		record.flip();
+
+		String hash = getHash(queryBytes);
+
+		lock.writeLock().lock();
+		try {
+			long offset = size;
+			write(channel, record, offset);
+			size += record.capacity();
+
+			IndexEntry old = index.put(hash, new IndexEntry(offset, record.capacity(), timestamp));
+			if(old != null) {
+				garbage += old.size;
+			}
+
+			if(size > AUTO_COMPACTION_SIZE && garbage * 2 > size) {
+				compact(Long.MAX_VALUE);
+			}
+		} catch (IOException e) {
+			logger.error("Could not write to SPARQL cache " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void remove(String hash, IndexEntry entry) {
+		lock.writeLock().lock();
+		try {
+			// the entry may have been replaced in the meantime
+			if(index.get(hash) == entry) {
+				index.remove(hash);
+				garbage += entry.size;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the log so that it only contains the latest results of the
+	 * queries which are not outdated.
+	 *
+	 * @param maxAge Maximal age of the results in milliseconds.
+	 */
+	public void compact(long maxAge) {
+		lock.writeLock().lock();
+		try {
+			long startTime = System.currentTimeMillis();
+			long oldSize = size;
+
+			File tmpFile = new File(file.getPath() + ".tmp");
+			RandomAccessFile tmp = new RandomAccessFile(tmpFile, "rw");
+			long offset = 0;
+			Map<String, IndexEntry> compacted = new HashMap<String, IndexEntry>();
+			try {
+				FileChannel out = tmp.getChannel();
+				out.truncate(0);
+				for(Entry<String, IndexEntry> e : index.entrySet()) {
+					IndexEntry entry = e.getValue();
+					if(!isFresh(entry, maxAge)) {
+						continue;
+					}
+					ByteBuffer record = read(entry);
+					record.rewind();
+					write(out, record, offset);
+					compacted.put(e.getKey(), new IndexEntry(offset, entry.size, entry.timestamp));
+					offset += entry.size;
+				}
+				out.force(true);
+			} finally {
+				tmp.close();
+			}
+
+			raf.close();
+			if(!tmpFile.renameTo(file)) {
+				// some platforms do not replace an existing file
+				file.delete();
+				if(!tmpFile.renameTo(file)) {
+					// the old log may be lost, start with an empty one
+					open();
+					clear();
+					throw new IOException("Could not replace " + file + " by " + tmpFile);
+				}
+			}
+			open();
+
+			index.clear();
+			index.putAll(compacted);
+			size = offset;
+			garbage = 0;
+
+			logger.info("SPARQL cache " + file + " compacted from " + oldSize + " to " + size + " bytes in " + (System.currentTimeMillis() - startTime) + "ms");
+		} catch (IOException e) {
+			logger.error("Could not compact SPARQL cache " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Closes the log file. The store must not be used afterwards, the next
+	 * call of {@link #getStore(String)} for its directory opens a new store.
+	 */
+	public void close() {
+		synchronized(CacheLogStore.class) {
+			if(stores.get(file.getPath()) == this) {
+				stores.remove(file.getPath());
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			raf.close();
+		} catch (IOException e) {
+			logger.error("Could not close SPARQL cache " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			channel.truncate(0);
+			index.clear();
+			size = 0;
+			garbage = 0;
+		} catch (IOException e) {
+			logger.error("Could not clear SPARQL cache " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the outdated entries from the index. Their records are removed
+	 * from the log by the next compaction.
+	 *
+	 * @param maxAge Maximal age of the results in milliseconds.
+	 * @return Number of removed entries.
+	 */
+	public int evict(long maxAge) {
+		int removed = 0;
+		lock.writeLock().lock();
+		try {
+			Iterator<IndexEntry> it = index.values().iterator();
+			while(it.hasNext()) {
+				IndexEntry entry = it.next();
+				if(!isFresh(entry, maxAge)) {
+					it.remove();
+					garbage += entry.size;
+					removed++;
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return removed;
+	}
+
+	private ByteBuffer read(IndexEntry entry) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(entry.size);
+		while(record.hasRemaining()) {
+			if(channel.read(record, entry.offset + record.position()) < 0) {
+				throw new EOFException("Incomplete record at position " + entry.offset);
+			}
+		}
+		record.flip();
+		if(record.getInt(0) != RECORD_MAGIC) {
+			throw new IOException("Invalid record at position " + entry.offset);
+		}
+		return record;
+	}
+
+	private static void write(FileChannel channel, ByteBuffer record, long offset) throws IOException {
+		long position = offset;
+		while(record.hasRemaining()) {
+			position += channel.write(record, position);
+		}
+	}
+
+	private static boolean isFresh(IndexEntry entry, long maxAge) {
+		return System.currentTimeMillis() - entry.timestamp <= maxAge;
+	}
+
+	private static String getHash(byte[] query) {
+		MessageDigest md5;
+		try {
+			md5 = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		byte[] digest = md5.digest(query);
+		StringBuilder hash = new StringBuilder(digest.length * 2);
+		for (byte b : digest) {
+			hash.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hash.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hash.toString();
+	}
+
+	/**
+	 * @return The number of entries.
+	 */
+	public int getNrOfEntries() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The size of the log in bytes.
+	 */
+	public long getSize() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The number of bytes of the log which are used by replaced or
+	 * outdated records.
+	 */
+	public long getGarbageSize() {
+		lock.readLock().lock();
+		try {
+			return garbage;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+}
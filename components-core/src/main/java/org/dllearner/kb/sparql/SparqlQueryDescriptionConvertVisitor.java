@@ -503,17 +503,19 @@ public class SparqlQueryDescriptionConvertVisitor implements DescriptionVisitor
 	 * .Intersection)
 	 */
 	public void visit(Intersection description) {
-		if(description.getChild(0) instanceof Thing ){
-			logger.trace("Intersection with TOP");
-			description.getChild(1).accept(this);
-		}else if(description.getChild(1) instanceof Thing ){
-			logger.trace("Intersection with TOP");
-			description.getChild(0).accept(this);
-		}else{
-			logger.trace("Intersection");
-			description.getChild(0).accept(this);
-			query += ". ";
-			description.getChild(1).accept(this);
+		logger.trace("Intersection");
+		int start = query.length();
+		for(Description child : description.getChildren()){
+			// TOP does not restrict the intersection
+			if(child instanceof Thing){
+				logger.trace("Intersection with TOP");
+				continue;
+			}
+			// separate the patterns of the children (a child may not add any pattern)
+			if(query.length() > start && !query.trim().endsWith(".")){
+				query += ". ";
+			}
+			child.accept(this);
 		}
 	}
 
@@ -525,23 +527,19 @@ public class SparqlQueryDescriptionConvertVisitor implements DescriptionVisitor
 	 * .Union)
 	 */
 	public void visit(Union description) {
-
-		if(description.getChild(0) instanceof Thing ){
-			logger.trace("Union with TOP");
-			description.getChild(1).accept(this);
-		}else if(description.getChild(1) instanceof Thing ){
-			logger.trace("Union with TOP");
-			description.getChild(0).accept(this);
-		}else{
-			logger.trace("Union");
-			query += "{";
-			description.getChild(0).accept(this);
-			query += "} UNION {";
-			description.getChild(1).accept(this);
-			query += "}";
+		// a union with TOP is equivalent to TOP, i.e. it does not restrict the variable
+		for(Description child : description.getChildren()){
+			if(child instanceof Thing){
+				logger.trace("Union with TOP");
+				return;
+			}
 		}
-		
-		
+		logger.trace("Union");
+		for(int i = 0; i < description.getChildren().size(); i++){
+			query += (i == 0) ? "{" : "} UNION {";
+			description.getChild(i).accept(this);
+		}
+		query += "}";
 	}
 
 	/*
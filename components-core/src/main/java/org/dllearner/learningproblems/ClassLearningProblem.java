@@ -19,14 +19,23 @@
 
 package org.dllearner.learningproblems;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.dllearner.core.AbstractLearningProblem;
@@ -38,6 +47,7 @@ import org.dllearner.core.options.BooleanConfigOption;
 import org.dllearner.core.options.CommonConfigOptions;
 import org.dllearner.core.options.ConfigOption;
 import org.dllearner.core.options.DoubleConfigOption;
+import org.dllearner.core.options.IntegerConfigOption;
 import org.dllearner.core.options.StringConfigOption;
 import org.dllearner.core.options.URLConfigOption;
 import org.dllearner.core.owl.Axiom;
@@ -93,6 +103,12 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 	
 	private boolean checkConsistency = true;
 	
+	// the instances are retrieved in chunks (one bulk instance check per chunk),
+	// chunks are retrieved in parallel if more than one thread is used
+	private int numberOfThreads = 1;
+	private int chunkSize = 1000;
+	private ExecutorService executor;
+	
 	public ClassLearningProblem() {
 		
 	}
@@ -128,6 +144,12 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 		options.add(betaSC);
 		DoubleConfigOption betaEq = new DoubleConfigOption("betaEq", "Higher values of beta rate recall higher than precision or in other words, covering the instances of the class to describe is more important even at the cost of covering additional instances. The actual implementation depends on the selected heuristic. This values is used only for equivalence class learning.", 1.0);
 		options.add(betaEq);
+		IntegerConfigOption threads = new IntegerConfigOption("numberOfThreads", "number of threads used to retrieve the covered instances of a description (the reasoner has to support concurrent instance checks if this is higher than 1)", 1);
+		threads.setLowerLimit(1);
+		options.add(threads);
+		IntegerConfigOption chunk = new IntegerConfigOption("chunkSize", "number of instances which are checked by one bulk instance check", 1000);
+		chunk.setLowerLimit(1);
+		options.add(chunk);
 		return options;
 	}
 
@@ -204,12 +226,7 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 		
 		if(heuristic.equals(HeuristicType.GEN_FMEASURE)) {
 			Description classToDescribeNeg = new Negation(classToDescribe);
-			negatedClassInstances = new TreeSet<Individual>();
-			for(Individual ind : superClassInstances) {
-				if(getReasoner().hasType(classToDescribeNeg, ind)) {
-					negatedClassInstances.add(ind);
-				}
-			}
+			negatedClassInstances = new TreeSet<Individual>(getCoveredInstances(classToDescribeNeg, superClassInstances, false));
 //			System.out.println("negated class instances: " + negatedClassInstances);
 		}
 		
@@ -219,24 +236,15 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 	@Override
 	public ClassScore computeScore(Description description) {
 		
-		// TODO: reuse code to ensure that we never return inconsistent results
-		// between getAccuracy, getAccuracyOrTooWeak and computeScore
+		// the instances are retrieved once and all heuristics are computed
+		// from the result
+		Coverage coverage = getCoverage(description, false);
 		
 		// overhang
-		Set<Individual> additionalInstances = new TreeSet<Individual>();
-		for(Individual ind : superClassInstances) {
-			if(getReasoner().hasType(description, ind)) {
-				additionalInstances.add(ind);
-			}
-		}
+		Set<Individual> additionalInstances = coverage.additionalInstances;
 		
 		// coverage
-		Set<Individual> coveredInstances = new TreeSet<Individual>();
-		for(Individual ind : classInstances) {
-			if(getReasoner().hasType(description, ind)) {
-				coveredInstances.add(ind);
-			}
-		}
+		Set<Individual> coveredInstances = coverage.coveredInstances;
 		
 		double recall = coveredInstances.size()/(double)classInstances.size();
 		double precision = (additionalInstances.size() + coveredInstances.size() == 0) ? 0 : coveredInstances.size()/(double)(coveredInstances.size()+additionalInstances.size());
@@ -249,9 +257,8 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 		} else if(heuristic.equals(HeuristicType.AMEASURE)) {
 			acc = Heuristics.getAScore(recall, precision, coverageFactor);
 		} else {
-			// TODO: some superfluous instance checks are required to compute accuracy => 
-			// move accuracy computation here if possible 
-			acc = getAccuracyOrTooWeakExact(description, 1);
+			nanoStartTime = System.nanoTime();
+			acc = getAccuracyOrTooWeakExact(description, coverage, 1);
 		}
 		
 		if(checkConsistency) {
@@ -303,8 +310,9 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			int instancesCovered = 0;
 			int instancesNotCovered = 0;
 			
-			for(Individual ind : classInstances) {
-				if(getReasoner().hasType(description, ind)) {
+			CoverageIterator classIt = new CoverageIterator(getReasoner(), description, classInstances, chunkSize);
+			while(classIt.hasNext()) {
+				if(classIt.nextIsCovered()) {
 					instancesCovered++;
 				} else {
 					instancesNotCovered ++;
@@ -319,9 +327,10 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			int testsPerformed = 0;
 			int instancesDescription = 0;
 			
-			for(Individual ind : superClassInstances) {
+			CoverageIterator superClassIt = new CoverageIterator(getReasoner(), description, superClassInstances, chunkSize);
+			while(superClassIt.hasNext()) {
 
-				if(getReasoner().hasType(description, ind)) {
+				if(superClassIt.nextIsCovered()) {
 					instancesDescription++;
 				}
 				testsPerformed++;
@@ -357,8 +366,9 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			double upperBorderA = 1;
 			int upperEstimateA = classInstances.size();
 			
-			for(Individual ind : classInstances) {
-				if(getReasoner().hasType(description, ind)) {
+			CoverageIterator classIt = new CoverageIterator(getReasoner(), description, classInstances, chunkSize);
+			while(classIt.hasNext()) {
+				if(classIt.nextIsCovered()) {
 					instancesCovered++;
 				} else {
 					instancesNotCovered ++;
@@ -426,9 +436,10 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			int instancesDescription = 0;
 //			boolean estimatedB = false;
 			
-			for(Individual ind : superClassInstances) {
+			CoverageIterator superClassIt = new CoverageIterator(getReasoner(), description, superClassInstances, chunkSize);
+			while(superClassIt.hasNext()) {
 
-				if(getReasoner().hasType(description, ind)) {
+				if(superClassIt.nextIsCovered()) {
 					instancesDescription++;
 				}
 				
@@ -488,18 +499,15 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			int nrOfNegChecks = 0;
 			
 			// special case: we test positive and negative examples in turn
-			Iterator<Individual> itPos = classInstances.iterator();
-			Iterator<Individual> itNeg = superClassInstances.iterator();
+			CoverageIterator itPos = new CoverageIterator(getReasoner(), description, classInstances, chunkSize);
+			CoverageIterator itNeg = new CoverageIterator(getReasoner(), description, superClassInstances, chunkSize);
 			
 			do {
 				// in each loop we pick 0 or 1 positives and 0 or 1 negative
 				// and classify it
 				
 				if(itPos.hasNext()) {
-					Individual posExample = itPos.next();
-//					System.out.println(posExample);
-					
-					if(getReasoner().hasType(description, posExample)) {
+					if(itPos.nextIsCovered()) {
 						posClassifiedAsPos++;
 					} else {
 						notCoveredPos++;
@@ -513,8 +521,7 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 				}
 				
 				if(itNeg.hasNext()) {
-					Individual negExample = itNeg.next();
-					if(!getReasoner().hasType(description, negExample)) {
+					if(!itNeg.nextIsCovered()) {
 						negClassifiedAsNeg++;
 					}
 					nrOfNegChecks++;
@@ -544,35 +551,53 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 
 		nanoStartTime = System.nanoTime();
 		
+		Coverage coverage = null;
+		if(heuristic.equals(HeuristicType.JACCARD)) {
+			// the covered class instances are sufficient to detect too weak
+			// descriptions, the super class instances are only retrieved
+			// for the other descriptions
+			coverage = new Coverage();
+			coverage.coveredInstances = getCoveredInstances(description, classInstances, true);
+			if(coverage.coveredInstances == null) {
+				return 0;
+			}
+			if(isTooWeakJaccard(coverage.coveredInstances.size(), noise)) {
+				return -1;
+			}
+			coverage.additionalInstances = getCoveredInstances(description, superClassInstances, true);
+			if(coverage.additionalInstances == null) {
+				return 0;
+			}
+		} else if(!heuristic.equals(HeuristicType.GEN_FMEASURE)) {
+			coverage = getCoverage(description, true);
+			if(coverage == null) {
+				return 0;
+			}
+		}
+		return getAccuracyOrTooWeakExact(description, coverage, noise);
+	}
+	
+	// if even the optimal case (no additional instances covered) is not
+	// sufficient, the concept is too weak
+	private boolean isTooWeakJaccard(int coveredInstances, double noise) {
+		return coveredInstances / (double) classInstances.size() <= 1 - noise;
+	}
+	
+	// computes the heuristics from the covered instances (the generalised
+	// F-measure retrieves the instances itself)
+	private double getAccuracyOrTooWeakExact(Description description, Coverage coverage, double noise) {
+		
 		if(heuristic.equals(HeuristicType.JACCARD)) {
 			
 			// computing R(A)
-			TreeSet<Individual> coveredInstancesSet = new TreeSet<Individual>();
-			for(Individual ind : classInstances) {
-				if(getReasoner().hasType(description, ind)) {
-					coveredInstancesSet.add(ind);
-				}
-				if(terminationTimeExpired()){
-					return 0;
-				}
-			}				
+			SortedSet<Individual> coveredInstancesSet = coverage.coveredInstances;
 			
-			// if even the optimal case (no additional instances covered) is not sufficient, 
-			// the concept is too weak
-			if(coveredInstancesSet.size() / (double) classInstances.size() <= 1 - noise) {
+			if(isTooWeakJaccard(coveredInstancesSet.size(), noise)) {
 				return -1;
 			}
 			
 			// computing R(C) restricted to relevant instances
-			TreeSet<Individual> additionalInstancesSet = new TreeSet<Individual>();
-			for(Individual ind : superClassInstances) {
-				if(getReasoner().hasType(description, ind)) {
-					additionalInstancesSet.add(ind);
-				}
-				if(terminationTimeExpired()){
-					return 0;
-				}
-			}
+			SortedSet<Individual> additionalInstancesSet = coverage.additionalInstances;
 					
 			Set<Individual> union = Helper.union(classInstancesSet, additionalInstancesSet);
 			return Heuristics.getJaccardCoefficient(coveredInstancesSet.size(), union.size());
@@ -580,26 +605,10 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 		} else if (heuristic.equals(HeuristicType.AMEASURE) || heuristic.equals(HeuristicType.FMEASURE) || heuristic.equals(HeuristicType.PRED_ACC)) {
 			
 			// computing R(C) restricted to relevant instances
-			int additionalInstances = 0;
-			for(Individual ind : superClassInstances) {
-				if(getReasoner().hasType(description, ind)) {
-					additionalInstances++;
-				}
-				if(terminationTimeExpired()){
-					return 0;
-				}
-			}
+			int additionalInstances = coverage.additionalInstances.size();
 			
 			// computing R(A)
-			int coveredInstances = 0;
-			for(Individual ind : classInstances) {
-				if(getReasoner().hasType(description, ind)) {
-					coveredInstances++;
-				}
-				if(terminationTimeExpired()){
-					return 0;
-				}
-			}
+			int coveredInstances = coverage.coveredInstances.size();
 			
 			double recall = coveredInstances/(double)classInstances.size();
 			
@@ -642,20 +651,22 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 			// default negation should be turned off when using fast instance checker
 			
 			// compute I_C (negated and non-negated concepts separately)
-			TreeSet<Individual> icPos = new TreeSet<Individual>();
-			TreeSet<Individual> icNeg = new TreeSet<Individual>();
 			Description descriptionNeg = new Negation(description);
-			// loop through all relevant instances
+			// retrieve all relevant instances
+			SortedSet<Individual> icPos = getCoveredInstances(description, classAndSuperClassInstances, true);
+			if(icPos == null) {
+				return 0;
+			}
+			List<Individual> notCovered = new LinkedList<Individual>();
 			for(Individual ind : classAndSuperClassInstances) {
-				if(getReasoner().hasType(description, ind)) {
-					icPos.add(ind);
-				} else if(getReasoner().hasType(descriptionNeg, ind)) {
-					icNeg.add(ind);
-				}
-				if(terminationTimeExpired()){
-					return 0;
+				if(!icPos.contains(ind)) {
+					notCovered.add(ind);
 				}
 			}
+			SortedSet<Individual> icNeg = getCoveredInstances(descriptionNeg, notCovered, true);
+			if(icNeg == null) {
+				return 0;
+			}
 			
 			// semantic precision
 			// first compute I_C \cap Cn(DC)
@@ -721,33 +732,124 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 	
 	// please note that getting recall and precision wastes some computational
 	// resource, because both methods need to compute the covered instances
+	// (use computeScore to get both)
 	public double getRecall(Description description) {
-		int coveredInstances = 0;
-		for(Individual ind : classInstances) {
-			if(getReasoner().hasType(description, ind)) {
-				coveredInstances++;
-			}
-		}		
+		int coveredInstances = getCoveredInstances(description, classInstances, false).size();
 		return coveredInstances/(double)classInstances.size();
 	}
 	
 	public double getPrecision(Description description) {
+		Coverage coverage = getCoverage(description, false);
+		int additionalInstances = coverage.additionalInstances.size();
+		int coveredInstances = coverage.coveredInstances.size();
 
-		int additionalInstances = 0;
-		for(Individual ind : superClassInstances) {
-			if(getReasoner().hasType(description, ind)) {
-				additionalInstances++;
+		return (additionalInstances + coveredInstances == 0) ? 0 : coveredInstances / (double) (coveredInstances + additionalInstances);
+	}
+	
+	// covered instances of the class and covered instances of the super classes
+	// (excluding instances of the class)
+	private static class Coverage {
+		private SortedSet<Individual> coveredInstances;
+		private SortedSet<Individual> additionalInstances;
+	}
+	
+	// retrieves the covered class and super class instances, returns null if
+	// the time limit is checked and has been exceeded
+	private Coverage getCoverage(Description description, boolean checkTime) {
+		Coverage coverage = new Coverage();
+		coverage.additionalInstances = getCoveredInstances(description, superClassInstances, checkTime);
+		if(coverage.additionalInstances == null) {
+			return null;
+		}
+		coverage.coveredInstances = getCoveredInstances(description, classInstances, checkTime);
+		if(coverage.coveredInstances == null) {
+			return null;
+		}
+		return coverage;
+	}
+	
+	// retrieves the covered instances with one bulk instance check per chunk,
+	// returns null if the time limit is checked and has been exceeded
+	private SortedSet<Individual> getCoveredInstances(final Description description, List<Individual> instances, boolean checkTime) {
+		List<Set<Individual>> chunks = new ArrayList<Set<Individual>>(instances.size() / chunkSize + 1);
+		Set<Individual> chunk = null;
+		for(Individual ind : instances) {
+			if(chunk == null || chunk.size() == chunkSize) {
+				chunk = new TreeSet<Individual>();
+				chunks.add(chunk);
 			}
+			chunk.add(ind);
 		}
 		
-		int coveredInstances = 0;
-		for(Individual ind : classInstances) {
-			if(getReasoner().hasType(description, ind)) {
-				coveredInstances++;
+		SortedSet<Individual> covered = new TreeSet<Individual>();
+		if(numberOfThreads <= 1 || chunks.size() < 2) {
+			for(Set<Individual> c : chunks) {
+				covered.addAll(getReasoner().hasType(description, c));
+				if(checkTime && terminationTimeExpired()) {
+					return null;
+				}
 			}
+			return covered;
+		}
+		
+		List<Future<SortedSet<Individual>>> results = new ArrayList<Future<SortedSet<Individual>>>(chunks.size());
+		for(final Set<Individual> c : chunks) {
+			results.add(getExecutor().submit(new Callable<SortedSet<Individual>>() {
+				@Override
+				public SortedSet<Individual> call() {
+					return getReasoner().hasType(description, c);
+				}
+			}));
+		}
+		try {
+			for(Future<SortedSet<Individual>> result : results) {
+				covered.addAll(result.get());
+				if(checkTime && terminationTimeExpired()) {
+					for(Future<SortedSet<Individual>> r : results) {
+						r.cancel(true);
+					}
+					return null;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Retrieval of the instances of " + description + " interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Retrieval of the instances of " + description + " failed", e.getCause());
+		}
+		return covered;
+	}
+	
+	private synchronized ExecutorService getExecutor() {
+		if(executor == null) {
+			// daemon threads which terminate when they are idle, so learning
+			// problems which are not closed do not keep their threads
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
+					60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "ClassLearningProblem-retrieval");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+	
+	/**
+	 * Releases the threads used to retrieve instances in parallel. The
+	 * learning problem can still be used afterwards, the threads are created
+	 * again if necessary. Callers which create many learning problems, e.g.
+	 * one per class of an ontology, should close them after use.
+	 */
+	public synchronized void close() {
+		if(executor != null) {
+			executor.shutdown();
+			executor = null;
 		}
-
-		return (additionalInstances + coveredInstances == 0) ? 0 : coveredInstances / (double) (coveredInstances + additionalInstances);
 	}
 	
 	public double getPredictiveAccuracy() {
@@ -920,4 +1022,20 @@ public class ClassLearningProblem extends AbstractLearningProblem {
 	public void setCheckConsistency(boolean checkConsistency) {
 		this.checkConsistency = checkConsistency;
 	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
 }
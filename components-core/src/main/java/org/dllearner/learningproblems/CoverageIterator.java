@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.learningproblems;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Iterates over a collection of individuals and tells whether each of them is
+ * covered by a description. The individuals are checked in chunks (one bulk
+ * instance check per chunk) which grow from {@link #MIN_CHUNK_SIZE} to a
+ * maximum size, such that approximations can stop early without checking
+ * many individuals in vain.
+ *
+ */
+public class CoverageIterator {
+
+	// size of the first chunk (the size is doubled for each further chunk)
+	public static final int MIN_CHUNK_SIZE = 16;
+
+	private AbstractReasonerComponent reasoner;
+	private Description description;
+	private Iterator<Individual> instances;
+	private int maxChunkSize;
+	private int nextChunkSize = MIN_CHUNK_SIZE;
+	private List<Individual> chunk = new ArrayList<Individual>();
+	private Set<Individual> coveredInChunk;
+	private int position = 0;
+
+	public CoverageIterator(AbstractReasonerComponent reasoner, Description description, Collection<Individual> instances, int maxChunkSize) {
+		this.reasoner = reasoner;
+		this.description = description;
+		this.instances = instances.iterator();
+		this.maxChunkSize = Math.max(maxChunkSize, MIN_CHUNK_SIZE);
+	}
+
+	public boolean hasNext() {
+		return position < chunk.size() || instances.hasNext();
+	}
+
+	/**
+	 * @return Whether the next individual is covered by the description.
+	 */
+	public boolean nextIsCovered() {
+		if(position == chunk.size()) {
+			chunk.clear();
+			while(chunk.size() < nextChunkSize && instances.hasNext()) {
+				chunk.add(instances.next());
+			}
+			coveredInChunk = reasoner.hasType(description, new TreeSet<Individual>(chunk));
+			nextChunkSize = Math.min(2 * nextChunkSize, maxChunkSize);
+			position = 0;
+		}
+		return coveredInChunk.contains(chunk.get(position++));
+	}
+}
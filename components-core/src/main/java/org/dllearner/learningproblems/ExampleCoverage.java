@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.learningproblems;
+
+import java.util.Set;
+import java.util.SortedSet;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.utilities.Helper;
+
+/**
+ * The positive and negative examples covered by a description. Each set of
+ * examples is checked with one bulk instance check when it is needed for the
+ * first time, so the positive examples can be checked for a too weak
+ * description before any negative example is checked. The heuristics of the
+ * positive/negative learning problems are computed from the numbers of
+ * covered examples.
+ *
+ */
+public class ExampleCoverage {
+
+	private AbstractReasonerComponent reasoner;
+	private Description description;
+	private Set<Individual> positiveExamples;
+	private Set<Individual> negativeExamples;
+
+	private SortedSet<Individual> coveredPositives;
+	private SortedSet<Individual> coveredNegatives;
+
+	public ExampleCoverage(AbstractReasonerComponent reasoner, Description description, Set<Individual> positiveExamples, Set<Individual> negativeExamples) {
+		this.reasoner = reasoner;
+		this.description = description;
+		this.positiveExamples = positiveExamples;
+		this.negativeExamples = negativeExamples;
+	}
+
+	public SortedSet<Individual> getCoveredPositives() {
+		if(coveredPositives == null) {
+			coveredPositives = reasoner.hasType(description, positiveExamples);
+		}
+		return coveredPositives;
+	}
+
+	public SortedSet<Individual> getCoveredNegatives() {
+		if(coveredNegatives == null) {
+			coveredNegatives = reasoner.hasType(description, negativeExamples);
+		}
+		return coveredNegatives;
+	}
+
+	public Set<Individual> getNotCoveredPositives() {
+		return Helper.difference(positiveExamples, getCoveredPositives());
+	}
+
+	public Set<Individual> getNotCoveredNegatives() {
+		return Helper.difference(negativeExamples, getCoveredNegatives());
+	}
+
+	public int getNrOfCoveredPositives() {
+		return getCoveredPositives().size();
+	}
+
+	public int getNrOfNotCoveredPositives() {
+		return positiveExamples.size() - getCoveredPositives().size();
+	}
+
+	public int getNrOfCoveredNegatives() {
+		return getCoveredNegatives().size();
+	}
+
+	public int getNrOfNotCoveredNegatives() {
+		return negativeExamples.size() - getCoveredNegatives().size();
+	}
+
+	/**
+	 * @param percentPerLengthUnit Penalty per length unit of the description.
+	 * @param accuracy The accuracy of the description.
+	 * @return A score containing the classified examples.
+	 */
+	public ScoreTwoValued toScore(double percentPerLengthUnit, double accuracy) {
+		return new ScoreTwoValued(description.getLength(), percentPerLengthUnit, getCoveredPositives(), getNotCoveredPositives(), getCoveredNegatives(), getNotCoveredNegatives(), accuracy);
+	}
+
+	public Description getDescription() {
+		return description;
+	}
+}
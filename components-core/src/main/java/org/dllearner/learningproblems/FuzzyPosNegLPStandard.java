@@ -19,9 +19,10 @@
 
 package org.dllearner.learningproblems;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -70,6 +71,11 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 	
 	private String accuracyMethod;
 	
+	// maximum number of examples checked by one bulk query of the
+	// approximations and the fuzzy predictive accuracy (the examples are
+	// checked in growing chunks, such that these can stop early)
+	private static final int MAX_CHUNK_SIZE = 1000;
+	
 	public FuzzyPosNegLPStandard() {
 		
 	}
@@ -298,30 +304,12 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 			}
 		} else {
 			
-			SortedSet<Individual> posAsPos = new TreeSet<Individual>();
-			SortedSet<Individual> posAsNeg = new TreeSet<Individual>();
-			SortedSet<Individual> negAsPos = new TreeSet<Individual>();
-			SortedSet<Individual> negAsNeg = new TreeSet<Individual>();
+			ExampleCoverage coverage = new ExampleCoverage(getReasoner(), concept, positiveExamples, negativeExamples);
 			
-			for (Individual example : positiveExamples) {
-				if (getReasoner().hasType(concept, example)) {
-					posAsPos.add(example);
-				} else {
-					posAsNeg.add(example);
-				}
-			}
-			for (Individual example : negativeExamples) {
-				if (getReasoner().hasType(concept, example))
-					negAsPos.add(example);
-				else
-					negAsNeg.add(example);
-			}
-			
-			// TODO: this computes accuracy twice - more elegant method should be implemented 
+			// the accuracy is computed from the fuzzy memberships of the examples
 			double accuracy = getAccuracyOrTooWeakExact(concept,1);
 			
-			return new ScoreTwoValued(concept.getLength(), percentPerLengthUnit, posAsPos, posAsNeg, negAsPos,
-						negAsNeg, accuracy);
+			return coverage.toScore(percentPerLengthUnit, accuracy);
 		}
 	}
 
@@ -371,18 +359,15 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 			int nrOfNegChecks = 0;
 			
 			// special case: we test positive and negative examples in turn
-			Iterator<Individual> itPos = positiveExamples.iterator();
-			Iterator<Individual> itNeg = negativeExamples.iterator();
+			CoverageIterator itPos = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+			CoverageIterator itNeg = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
 			
 			do {
 				// in each loop we pick 0 or 1 positives and 0 or 1 negative
 				// and classify it
 				
 				if(itPos.hasNext()) {
-					Individual posExample = itPos.next();
-//					System.out.println(posExample);
-					
-					if(getReasoner().hasType(description, posExample)) {
+					if(itPos.nextIsCovered()) {
 						posClassifiedAsPos++;
 					} else {
 						notCoveredPos++;
@@ -396,8 +381,7 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 				}
 				
 				if(itNeg.hasNext()) {
-					Individual negExample = itNeg.next();
-					if(!getReasoner().hasType(description, negExample)) {
+					if(!itNeg.nextIsCovered()) {
 						negClassifiedAsNeg++;
 					}
 					nrOfNegChecks++;
@@ -423,8 +407,9 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 			int instancesCovered = 0;
 			int instancesNotCovered = 0;
 			
-			for(Individual ind : positiveExamples) {
-				if(getReasoner().hasType(description, ind)) {
+			CoverageIterator posIt = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+			while(posIt.hasNext()) {
+				if(posIt.nextIsCovered()) {
 					instancesCovered++;
 				} else {
 					instancesNotCovered ++;
@@ -439,9 +424,10 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 			int testsPerformed = 0;
 			int instancesDescription = 0;
 			
-			for(Individual ind : negativeExamples) {
+			CoverageIterator negIt = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
+			while(negIt.hasNext()) {
 
-				if(getReasoner().hasType(description, ind)) {
+				if(negIt.nextIsCovered()) {
 					instancesDescription++;
 				}
 				testsPerformed++;
@@ -526,15 +512,27 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 		
 		// int individualCounter = fuzzyExamples.size();
 		double individualCounter = totalTruth;
-		for (FuzzyIndividual fuzzyExample : fuzzyExamples) {
-			// accumulatedSingleMembership += singleMembership;
-			nonAccumulativeDescriptionMembership = 1 - Math.abs(fuzzyExample.getTruthDegree() - getReasoner().hasTypeFuzzyMembership(description, fuzzyExample));
-			descriptionMembership += nonAccumulativeDescriptionMembership;
-			individualCounter -= fuzzyExample.getTruthDegree();
-			if ((accumulativeDescriptionMembership + (nonAccumulativeDescriptionMembership * fuzzyExample.getTruthDegree()) + individualCounter) < ((1 - noise) * totalTruth))
-				return -1;
-			accumulativeDescriptionMembership += nonAccumulativeDescriptionMembership * fuzzyExample.getTruthDegree();
-
+		
+		// the memberships are computed with one bulk query per chunk of examples,
+		// the chunks grow such that too weak descriptions are detected early
+		List<FuzzyIndividual> examples = new ArrayList<FuzzyIndividual>(fuzzyExamples);
+		int chunkSize = CoverageIterator.MIN_CHUNK_SIZE;
+		int start = 0;
+		while (start < examples.size()) {
+			List<FuzzyIndividual> chunk = examples.subList(start, Math.min(start + chunkSize, examples.size()));
+			double[] memberships = getReasoner().hasTypeFuzzyMembership(description, chunk);
+			for (int i = 0; i < memberships.length; i++) {
+				FuzzyIndividual fuzzyExample = chunk.get(i);
+				// accumulatedSingleMembership += singleMembership;
+				nonAccumulativeDescriptionMembership = 1 - Math.abs(fuzzyExample.getTruthDegree() - memberships[i]);
+				descriptionMembership += nonAccumulativeDescriptionMembership;
+				individualCounter -= fuzzyExample.getTruthDegree();
+				if ((accumulativeDescriptionMembership + (nonAccumulativeDescriptionMembership * fuzzyExample.getTruthDegree()) + individualCounter) < ((1 - noise) * totalTruth))
+					return -1;
+				accumulativeDescriptionMembership += nonAccumulativeDescriptionMembership * fuzzyExample.getTruthDegree();
+			}
+			start += chunk.size();
+			chunkSize = Math.min(2 * chunkSize, MAX_CHUNK_SIZE);
 		}
 		
 		double fuzzyAccuracy = descriptionMembership / (double)fuzzyExamples.size();
@@ -615,8 +613,11 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 		double invertedCoveredMembershipDegree = 0;
 		double lastMembershipDegree = 0;
 
-		for (FuzzyIndividual ind: fuzzyExamples) {
-			lastMembershipDegree = (1 - Math.abs(ind.getTruthDegree() - getReasoner().hasTypeFuzzyMembership(description, ind)));
+		List<FuzzyIndividual> examples = new ArrayList<FuzzyIndividual>(fuzzyExamples);
+		double[] memberships = getReasoner().hasTypeFuzzyMembership(description, examples);
+		for (int i = 0; i < memberships.length; i++) {
+			FuzzyIndividual ind = examples.get(i);
+			lastMembershipDegree = (1 - Math.abs(ind.getTruthDegree() - memberships[i]));
 			coveredMembershipDegree += lastMembershipDegree * ind.getTruthDegree();
 			totalMembershipDegree += ind.getTruthDegree();
 			invertedCoveredMembershipDegree += (1 - ind.getTruthDegree()) * (1 - lastMembershipDegree);
@@ -662,8 +663,9 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 		double upperBorderA = 1;
 		int upperEstimateA = positiveExamples.size();
 		
-		for(Individual ind : positiveExamples) {
-			if(getReasoner().hasType(description, ind)) {
+		CoverageIterator posIt = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+		while(posIt.hasNext()) {
+			if(posIt.nextIsCovered()) {
 				instancesCovered++;
 			} else {
 				instancesNotCovered ++;
@@ -724,9 +726,10 @@ public class FuzzyPosNegLPStandard extends FuzzyPosNegLP {
 		int instancesDescription = 0;
 //		boolean estimatedB = false;
 		
-		for(Individual ind : negativeExamples) {
+		CoverageIterator negIt = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
+		while(negIt.hasNext()) {
 
-			if(getReasoner().hasType(description, ind)) {
+			if(negIt.nextIsCovered()) {
 				instancesDescription++;
 			}
 			
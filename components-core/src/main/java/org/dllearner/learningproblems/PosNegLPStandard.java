@@ -20,7 +20,6 @@
 package org.dllearner.learningproblems;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Set;
 import java.util.SortedSet;
@@ -74,6 +73,11 @@ public class PosNegLPStandard extends PosNegLP {
 	
 	private HeuristicType heuristic = HeuristicType.PRED_ACC;
 	
+	// maximum number of examples checked by one bulk instance check of the
+	// approximations (the examples are checked in growing chunks, such that
+	// the approximations can stop early)
+	private static final int MAX_CHUNK_SIZE = 1000;
+	
 
 	public PosNegLPStandard() {
 	}
@@ -293,33 +297,15 @@ public class PosNegLPStandard extends PosNegLP {
 			}
 		} else {
 			
-			SortedSet<Individual> posAsPos = new TreeSet<Individual>();
-			SortedSet<Individual> posAsNeg = new TreeSet<Individual>();
-			SortedSet<Individual> negAsPos = new TreeSet<Individual>();
-			SortedSet<Individual> negAsNeg = new TreeSet<Individual>();
-			
-			for (Individual example : positiveExamples) {
-				if (getReasoner().hasType(concept, example)) {
-					posAsPos.add(example);
-				} else {
-					posAsNeg.add(example);
-				}
-			}
-			for (Individual example : negativeExamples) {
-				if (getReasoner().hasType(concept, example))
-					negAsPos.add(example);
-				else
-					negAsNeg.add(example);
-			}
-			
-			// TODO: this computes accuracy twice - more elegant method should be implemented 
-			double accuracy = getAccuracyOrTooWeakExact(concept,1);
+			// the examples are checked once and the accuracy is computed
+			// from the result
+			ExampleCoverage coverage = new ExampleCoverage(getReasoner(), concept, positiveExamples, negativeExamples);
+			double accuracy = getAccuracyOrTooWeakExact(coverage, 1);
 			
 			if (accuracy > 1)
 				accuracy -= 1;
 			
-			return new ScoreTwoValued(concept.getLength(), getPercentPerLengthUnit(), posAsPos, posAsNeg, negAsPos,
-						negAsNeg, accuracy);
+			return coverage.toScore(getPercentPerLengthUnit(), accuracy);
 		}
 
 	}
@@ -370,18 +356,15 @@ public class PosNegLPStandard extends PosNegLP {
 			int nrOfNegChecks = 0;
 			
 			// special case: we test positive and negative examples in turn
-			Iterator<Individual> itPos = positiveExamples.iterator();
-			Iterator<Individual> itNeg = negativeExamples.iterator();
+			CoverageIterator itPos = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+			CoverageIterator itNeg = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
 			
 			do {
 				// in each loop we pick 0 or 1 positives and 0 or 1 negative
 				// and classify it
 				
 				if(itPos.hasNext()) {
-					Individual posExample = itPos.next();
-//					System.out.println(posExample);
-					
-					if(getReasoner().hasType(description, posExample)) {
+					if(itPos.nextIsCovered()) {
 						posClassifiedAsPos++;
 					} else {
 						notCoveredPos++;
@@ -395,8 +378,7 @@ public class PosNegLPStandard extends PosNegLP {
 				}
 				
 				if(itNeg.hasNext()) {
-					Individual negExample = itNeg.next();
-					if(!getReasoner().hasType(description, negExample)) {
+					if(!itNeg.nextIsCovered()) {
 						negClassifiedAsNeg++;
 					}
 					nrOfNegChecks++;
@@ -422,8 +404,9 @@ public class PosNegLPStandard extends PosNegLP {
 			int instancesCovered = 0;
 			int instancesNotCovered = 0;
 			
-			for(Individual ind : positiveExamples) {
-				if(getReasoner().hasType(description, ind)) {
+			CoverageIterator posIt = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+			while(posIt.hasNext()) {
+				if(posIt.nextIsCovered()) {
 					instancesCovered++;
 				} else {
 					instancesNotCovered ++;
@@ -438,9 +421,10 @@ public class PosNegLPStandard extends PosNegLP {
 			int testsPerformed = 0;
 			int instancesDescription = 0;
 			
-			for(Individual ind : negativeExamples) {
+			CoverageIterator negIt = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
+			while(negIt.hasNext()) {
 
-				if(getReasoner().hasType(description, ind)) {
+				if(negIt.nextIsCovered()) {
 					instancesDescription++;
 				}
 				testsPerformed++;
@@ -465,10 +449,15 @@ public class PosNegLPStandard extends PosNegLP {
 	}
 	
 	public double getAccuracyOrTooWeakExact(Description description, double noise) {
+		return getAccuracyOrTooWeakExact(new ExampleCoverage(getReasoner(), description, positiveExamples, negativeExamples), noise);
+	}
+	
+	// computes the heuristics from the covered examples
+	private double getAccuracyOrTooWeakExact(ExampleCoverage coverage, double noise) {
 		if(heuristic.equals(HeuristicType.PRED_ACC)) {
-			return getPredAccuracyOrTooWeakExact(description, noise);
+			return getPredAccuracyOrTooWeakExact(coverage, noise);
 		} else if(heuristic.equals(HeuristicType.FMEASURE)) {
-			return getFMeasureOrTooWeakExact(description, noise);
+			return getFMeasureOrTooWeakExact(coverage, noise);
 			/*
 			// computing R(C) restricted to relevant instances
 			int additionalInstances = 0;
@@ -500,6 +489,10 @@ public class PosNegLPStandard extends PosNegLP {
 	 * @see org.dllearner.core.LearningProblem#getAccuracyOrTooWeak(org.dllearner.core.owl.Description, double)
 	 */
 	public double getPredAccuracyOrTooWeakExact(Description description, double noise) {
+		return getPredAccuracyOrTooWeakExact(new ExampleCoverage(getReasoner(), description, positiveExamples, negativeExamples), noise);
+	}
+	
+	private double getPredAccuracyOrTooWeakExact(ExampleCoverage coverage, double noise) {
 		// TODO: what we essentially need here is that if the noise justifies 
 		// not covering 1.23 examples, then we stop with 2 examples not covered;
 		// but when noise justifies not covering exactly 2 examples, we can actually
@@ -512,29 +505,12 @@ public class PosNegLPStandard extends PosNegLP {
 		// maybe use this approach:
 //		int maxNotCovered = (int) Math.ceil(noise*positiveExamples.size()+0.0001);
 		
-//		System.out.println("noise: " + noise);
-//		System.out.println("max not covered: " + maxNotCovered);
-		
-		int notCoveredPos = 0;
-		int notCoveredNeg = 0;
-		
-		for (Individual example : positiveExamples) {
-			if (!getReasoner().hasType(description, example)) {
-				notCoveredPos++;
-				
-//				System.out.println("d:" + description + "; ex:" + example);
-				
-				if(notCoveredPos >= maxNotCovered) {
-					return -1;
-				}
-			} 
-		}
-		for (Individual example : negativeExamples) {
-			if (!getReasoner().hasType(description, example)) {
-				notCoveredNeg++;
-			}
+		// the negative examples are not checked if the description is too weak
+		int notCoveredPos = coverage.getNrOfNotCoveredPositives();
+		if(notCoveredPos > 0 && notCoveredPos >= maxNotCovered) {
+			return -1;
 		}
-		
+		int notCoveredNeg = coverage.getNrOfNotCoveredNegatives();
 
 		double acc = (positiveExamples.size() - notCoveredPos + notCoveredNeg) / (double) allExamples.size();
 		
@@ -542,7 +518,7 @@ public class PosNegLPStandard extends PosNegLP {
 		if (noise > 0 && notCoveredNeg == negNo) {
 			acc += 1;
 			
-			//System.out.println("* Partial def.: " + description + " - cp:" + (posNo - notCoveredPos) + 
+			//System.out.println("* Partial def.: " + coverage.getDescription() + " - cp:" + (posNo - notCoveredPos) + 
 			//		", un:" + notCoveredNeg);
 			
 		}
@@ -551,26 +527,21 @@ public class PosNegLPStandard extends PosNegLP {
 	}
 
 	public double getFMeasureOrTooWeakExact(Description description, double noise) {
-		int additionalInstances = 0;
-		for(Individual ind : negativeExamples) {
-			if(getReasoner().hasType(description, ind)) {
-				additionalInstances++;
-			}
-		}
-		
-		int coveredInstances = 0;
-		for(Individual ind : positiveExamples) {
-			if(getReasoner().hasType(description, ind)) {
-				coveredInstances++;
-			}
-		}
+		return getFMeasureOrTooWeakExact(new ExampleCoverage(getReasoner(), description, positiveExamples, negativeExamples), noise);
+	}
+	
+	private double getFMeasureOrTooWeakExact(ExampleCoverage coverage, double noise) {
+		int coveredInstances = coverage.getNrOfCoveredPositives();
 		
 		double recall = coveredInstances/(double)positiveExamples.size();
 		
+		// the negative examples are not checked if the description is too weak
 		if(recall < 1 - noise) {
 			return -1;
 		}
 		
+		int additionalInstances = coverage.getNrOfCoveredNegatives();
+		
 		double precision = (additionalInstances + coveredInstances == 0) ? 0 : coveredInstances / (double) (coveredInstances + additionalInstances);
 		
 //		return getFMeasure(recall, precision);
@@ -594,8 +565,9 @@ public class PosNegLPStandard extends PosNegLP {
 		double upperBorderA = 1;
 		int upperEstimateA = positiveExamples.size();
 		
-		for(Individual ind : positiveExamples) {
-			if(getReasoner().hasType(description, ind)) {
+		CoverageIterator posIt = new CoverageIterator(getReasoner(), description, positiveExamples, MAX_CHUNK_SIZE);
+		while(posIt.hasNext()) {
+			if(posIt.nextIsCovered()) {
 				instancesCovered++;
 			} else {
 				instancesNotCovered ++;
@@ -656,9 +628,10 @@ public class PosNegLPStandard extends PosNegLP {
 		int instancesDescription = 0;
 //		boolean estimatedB = false;
 		
-		for(Individual ind : negativeExamples) {
+		CoverageIterator negIt = new CoverageIterator(getReasoner(), description, negativeExamples, MAX_CHUNK_SIZE);
+		while(negIt.hasNext()) {
 
-			if(getReasoner().hasType(description, ind)) {
+			if(negIt.nextIsCovered()) {
 				instancesDescription++;
 			}
 			
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.reasoning;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dllearner.core.owl.Description;
+import org.dllearner.utilities.owl.ConceptComparator;
+import org.dllearner.utilities.owl.ConceptTransformation;
+
+/**
+ * Thread-safe, size-bounded cache of concept extensions (bit sets of
+ * individual ids, see {@link FastInstanceCheckerIndex}). Keys are the syntax
+ * strings of descriptions in ordered form, so that e.g. A AND B and B AND A
+ * share an entry. The cache is split into segments, each of them being an LRU
+ * map guarded by its own lock, so that concurrent learner threads rarely
+ * block each other.
+ *
+ * Cached bit sets are shared and must not be modified by callers.
+ *
+ */
+public class ConceptExtensionCache {
+
+	private static final int NR_OF_SEGMENTS = 16;
+
+	private static final ConceptComparator conceptComparator = new ConceptComparator();
+
+	private final LRUMap[] segments;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	@SuppressWarnings("serial")
+	private static class LRUMap extends LinkedHashMap<String, BitSet> {
+
+		private final int maxSize;
+
+		LRUMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, BitSet> eldest) {
+			return size() > maxSize;
+		}
+	}
+
+	/**
+	 * @param maxSize
+	 *            Maximum number of cached extensions. When the cache is full,
+	 *            the least recently used extensions are evicted.
+	 */
+	public ConceptExtensionCache(int maxSize) {
+		segments = new LRUMap[NR_OF_SEGMENTS];
+		int segmentSize = Math.max(1, maxSize / NR_OF_SEGMENTS);
+		for (int i = 0; i < NR_OF_SEGMENTS; i++) {
+			segments[i] = new LRUMap(segmentSize);
+		}
+	}
+
+	/**
+	 * Transforms a description into the normal form used for cache lookups.
+	 * The given description is not modified.
+	 *
+	 * @param description
+	 *            A description.
+	 * @return An ordered copy of the description.
+	 */
+	public static Description normalise(Description description) {
+		Description normalised = description.clone();
+		ConceptTransformation.transformToOrderedForm(normalised, conceptComparator);
+		return normalised;
+	}
+
+	/**
+	 * @param description
+	 *            A description in normal form, see
+	 *            {@link #normalise(Description)}.
+	 * @return The key of the description.
+	 */
+	public static String getKey(Description description) {
+		return description.toKBSyntaxString();
+	}
+
+	private LRUMap getSegment(String key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (NR_OF_SEGMENTS - 1)];
+	}
+
+	/**
+	 * @param key
+	 *            Key of a description, see {@link #getKey(Description)}.
+	 * @return The cached extension or null if it is not cached.
+	 */
+	public BitSet get(String key) {
+		LRUMap segment = getSegment(key);
+		BitSet extension;
+		synchronized (segment) {
+			extension = segment.get(key);
+		}
+		if (extension == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return extension;
+	}
+
+	/**
+	 * Caches an extension. The bit set must not be modified afterwards.
+	 */
+	public void put(String key, BitSet extension) {
+		LRUMap segment = getSegment(key);
+		synchronized (segment) {
+			segment.put(key, extension);
+		}
+	}
+
+	/**
+	 * Removes all extensions and resets the statistics.
+	 */
+	public void clear() {
+		for (LRUMap segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		hits.set(0);
+		misses.set(0);
+	}
+
+	public int size() {
+		int size = 0;
+		for (LRUMap segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+}
@@ -20,16 +20,26 @@
 package org.dllearner.reasoning;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Arrays;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.dllearner.core.AbstractKnowledgeSource;
@@ -74,6 +84,7 @@ import org.dllearner.parser.KBParser;
 import org.dllearner.parser.ParseException;
 import org.dllearner.utilities.Helper;
 import org.dllearner.utilities.owl.ConceptTransformation;
+import org.semanticweb.owlapi.model.OWLOntology;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.propertyeditors.StringTrimmerEditor;
 
@@ -114,6 +125,10 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	// private ReasonerComponent rs;
 
 	private OWLAPIReasoner rc;
+	// false if the underlying reasoner has not been initialised yet, which is
+	// only done when it is needed (not if the dematerialised knowledge base
+	// is loaded from a snapshot)
+	private boolean reasonerInitialised = true;
 
 	// we use sorted sets (map indices) here, because they have only log(n)
 	// complexity for checking whether an element is contained in them
@@ -133,6 +148,11 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	private Map<DatatypeProperty, Map<Individual, SortedSet<Integer>>> id = new TreeMap<DatatypeProperty, Map<Individual, SortedSet<Integer>>>();
 	private Map<DatatypeProperty, Map<Individual, SortedSet<String>>> sd = new TreeMap<DatatypeProperty, Map<Individual, SortedSet<String>>>();
 
+	// integer based view of the mappings above, used for retrieval and
+	// instance checks of sets of individuals
+	private volatile FastInstanceCheckerIndex index;
+	private volatile ConceptExtensionCache extensionCache;
+
     @ConfigOption(name="defaultNegation", description = "Whether to use default negation, i.e. an instance not being in a class means that it is in the negation of the class.", defaultValue = "true", required = false)
     private boolean defaultNegation = true;
 
@@ -142,6 +162,21 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
             "use those which have at least one r-filler and do not have an r-filler not in C.",defaultValue = "standard",propertyEditorClass = StringTrimmerEditor.class)
     private String forAllSemantics;
 
+    @ConfigOption(name = "useExtensionCache", description = "Whether to cache the extensions of (sub)descriptions, so that e.g. refinements sharing subdescriptions do not need to evaluate them again.", defaultValue = "true", required = false)
+    private boolean useExtensionCache = true;
+
+    @ConfigOption(name = "extensionCacheSize", description = "Maximum number of cached description extensions, the least recently used ones are evicted first.", defaultValue = "10000", required = false)
+    private int extensionCacheSize = 10000;
+
+    @ConfigOption(name = "dematerialisationThreads", description = "Number of threads used to dematerialise the knowledge base (each thread uses its own copy of the underlying reasoner unless shareReasonerInDematerialisation is set).", defaultValue = "1", required = false)
+    private int dematerialisationThreads = 1;
+
+    @ConfigOption(name = "shareReasonerInDematerialisation", description = "Whether the threads dematerialising the knowledge base share the underlying reasoner instead of using copies of it. Only use this if the reasoner can answer concurrent queries.", defaultValue = "false", required = false)
+    private boolean shareReasonerInDematerialisation = false;
+
+    @ConfigOption(name = "snapshotDirectory", description = "Directory in which snapshots of the dematerialised knowledge base are stored, so that it only needs to be dematerialised again if the OWL files or the reasoner settings change. No snapshots are used if it is not set.", required = false)
+    private String snapshotDirectory;
+
 	/**
 	 * Creates an instance of the fast instance checker.
 	 */
@@ -204,6 +239,8 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 			}
 			
 		}
+
+		createIndex();
 	}
 
 	public FastInstanceChecker(Set<KnowledgeSource> sources) {
@@ -231,18 +268,9 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 
         if(rc == null){
             rc = new OWLAPIReasoner(sources);
-            rc.init();
+            reasonerInitialised = false;
         }
 //		try {
-			atomicConcepts = rc.getNamedClasses();
-			datatypeProperties = rc.getDatatypeProperties();
-			booleanDatatypeProperties = rc.getBooleanDatatypeProperties();
-			doubleDatatypeProperties = rc.getDoubleDatatypeProperties();
-			intDatatypeProperties = rc.getIntDatatypeProperties();
-			stringDatatypeProperties = rc.getStringDatatypeProperties();
-			atomicRoles = rc.getObjectProperties();
-			individuals = (TreeSet<Individual>) rc.getIndividuals();
-
 			// rs = new ReasonerComponent(rc);
 
 			// TODO: some code taken from Helper.createFlatABox, but pasted here
@@ -251,59 +279,333 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 			// FastRetrievalReasoner later)
 			long dematStartTime = System.currentTimeMillis();
 
-			logger.debug("dematerialising concepts");
+			String snapshotKey = getSnapshotKey();
+			FastInstanceCheckerSnapshot snapshot = (snapshotKey == null) ? null : readSnapshot(snapshotKey);
+			if(snapshot != null) {
+				atomicConcepts = snapshot.getNamedClasses();
+				datatypeProperties = snapshot.getDatatypeProperties();
+				booleanDatatypeProperties = snapshot.getBooleanDatatypeProperties();
+				doubleDatatypeProperties = snapshot.getDoubleDatatypeProperties();
+				intDatatypeProperties = snapshot.getIntDatatypeProperties();
+				stringDatatypeProperties = snapshot.getStringDatatypeProperties();
+				atomicRoles = snapshot.getObjectProperties();
+				individuals = snapshot.getIndividuals();
+				classInstancesPos = snapshot.getClassInstancesPos();
+				classInstancesNeg = snapshot.getClassInstancesNeg();
+				opPos = snapshot.getObjectPropertyMembers();
+				bdPos = snapshot.getTrueDatatypeMembers();
+				bdNeg = snapshot.getFalseDatatypeMembers();
+				id = snapshot.getIntDatatypeMembers();
+				dd = snapshot.getDoubleDatatypeMembers();
+				sd = snapshot.getStringDatatypeMembers();
+			} else {
+				if(!reasonerInitialised) {
+					rc.init();
+					reasonerInitialised = true;
+				}
+				atomicConcepts = rc.getNamedClasses();
+				datatypeProperties = rc.getDatatypeProperties();
+				booleanDatatypeProperties = rc.getBooleanDatatypeProperties();
+				doubleDatatypeProperties = rc.getDoubleDatatypeProperties();
+				intDatatypeProperties = rc.getIntDatatypeProperties();
+				stringDatatypeProperties = rc.getStringDatatypeProperties();
+				atomicRoles = rc.getObjectProperties();
+				individuals = (TreeSet<Individual>) rc.getIndividuals();
+				dematerialiseKB();
+				// the key only covers the OWL files themselves, not the
+				// ontologies they import
+				if(snapshotKey != null && !hasImports()) {
+					writeSnapshot(snapshotKey);
+				}
+			}
+			
+			long dematDuration = System.currentTimeMillis() - dematStartTime;
+			logger.debug("TBox dematerialised in " + dematDuration + " ms");
+
+			createIndex();
 
-			for (NamedClass atomicConcept : rc.getNamedClasses()) {
-				SortedSet<Individual> pos = rc.getIndividuals(atomicConcept);
-				classInstancesPos.put(atomicConcept, (TreeSet<Individual>) pos);
+//		} catch (ReasoningMethodUnsupportedException e) {
+//			throw new ComponentInitException(
+//					"Underlying reasoner does not support all necessary reasoning methods.", e);
+//		}
+	}
 
-				if (isDefaultNegation()) {
-					classInstancesNeg.put(atomicConcept, (TreeSet<Individual>) Helper.difference(individuals, pos));
+	// dematerialises the knowledge base by querying the underlying reasoner
+	private void dematerialiseKB() throws ComponentInitException {
+		// the queries are answered by a pool of reasoners (one reasoner if
+		// only one thread is used or the reasoner is shared)
+		ExecutorService executor = null;
+		List<OWLAPIReasoner> replicas = new LinkedList<OWLAPIReasoner>();
+		try {
+			BlockingQueue<OWLAPIReasoner> reasoners;
+			if(dematerialisationThreads > 1) {
+				executor = Executors.newFixedThreadPool(dematerialisationThreads);
+				reasoners = new ArrayBlockingQueue<OWLAPIReasoner>(dematerialisationThreads);
+				reasoners.add(rc);
+				if(!shareReasonerInDematerialisation) {
+					long replicationStartTime = System.currentTimeMillis();
+					replicas = createReplicas(executor, dematerialisationThreads - 1);
+					reasoners.addAll(replicas);
+					logger.debug("reasoner replicated " + replicas.size() + " times in " + (System.currentTimeMillis() - replicationStartTime) + " ms");
 				} else {
-					// Pellet needs approximately infinite time to answer
-					// negated queries
-					// on the carcinogenesis data set (and probably others), so
-					// we have to
-					// be careful here
-					Negation negatedAtomicConcept = new Negation(atomicConcept);
-					classInstancesNeg.put(atomicConcept, (TreeSet<Individual>) rc.getIndividuals(negatedAtomicConcept));
+					for(int i=1; i<dematerialisationThreads; i++) {
+						reasoners.add(rc);
+					}
 				}
-
+			} else {
+				reasoners = new ArrayBlockingQueue<OWLAPIReasoner>(1);
+				reasoners.add(rc);
 			}
-
+			
+			long phaseStartTime = System.currentTimeMillis();
+			logger.debug("dematerialising concepts");
+			
+			List<NamedClass> namedClasses = new ArrayList<NamedClass>(rc.getNamedClasses());
+			List<TreeSet<Individual>[]> instances = dematerialise(executor, reasoners, namedClasses, new DematerialisationQuery<NamedClass, TreeSet<Individual>[]>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public TreeSet<Individual>[] query(OWLAPIReasoner reasoner, NamedClass atomicConcept) {
+					TreeSet<Individual>[] posNeg = new TreeSet[2];
+					SortedSet<Individual> pos = reasoner.getIndividuals(atomicConcept);
+					posNeg[0] = (TreeSet<Individual>) pos;
+					if (isDefaultNegation()) {
+						posNeg[1] = (TreeSet<Individual>) Helper.difference(individuals, pos);
+					} else {
+						// Pellet needs approximately infinite time to answer
+						// negated queries
+						// on the carcinogenesis data set (and probably others), so
+						// we have to
+						// be careful here
+						Negation negatedAtomicConcept = new Negation(atomicConcept);
+						posNeg[1] = (TreeSet<Individual>) reasoner.getIndividuals(negatedAtomicConcept);
+					}
+					return posNeg;
+				}
+			});
+			for(int i=0; i<namedClasses.size(); i++) {
+				classInstancesPos.put(namedClasses.get(i), instances.get(i)[0]);
+				classInstancesNeg.put(namedClasses.get(i), instances.get(i)[1]);
+			}
+			
+			logger.debug("concepts dematerialised in " + (System.currentTimeMillis() - phaseStartTime) + " ms");
+			phaseStartTime = System.currentTimeMillis();
 			logger.debug("dematerialising object properties");
 
-			for (ObjectProperty atomicRole : atomicRoles) {
-//				System.out.println(atomicRole + " " + rc.getPropertyMembers(atomicRole));
-				opPos.put(atomicRole, rc.getPropertyMembers(atomicRole));
+			List<ObjectProperty> objectProperties = new ArrayList<ObjectProperty>(atomicRoles);
+			List<Map<Individual, SortedSet<Individual>>> members = dematerialise(executor, reasoners, objectProperties, new DematerialisationQuery<ObjectProperty, Map<Individual, SortedSet<Individual>>>() {
+				@Override
+				public Map<Individual, SortedSet<Individual>> query(OWLAPIReasoner reasoner, ObjectProperty atomicRole) {
+					return reasoner.getPropertyMembers(atomicRole);
+				}
+			});
+			for(int i=0; i<objectProperties.size(); i++) {
+				opPos.put(objectProperties.get(i), members.get(i));
 			}
 			
+			logger.debug("object properties dematerialised in " + (System.currentTimeMillis() - phaseStartTime) + " ms");
+			phaseStartTime = System.currentTimeMillis();
 			logger.debug("dematerialising datatype properties");
 
-			for (DatatypeProperty dp : booleanDatatypeProperties) {
-				bdPos.put(dp, (TreeSet<Individual>) rc.getTrueDatatypeMembers(dp));
-				bdNeg.put(dp, (TreeSet<Individual>) rc.getFalseDatatypeMembers(dp));
+			List<DatatypeProperty> booleanProperties = new ArrayList<DatatypeProperty>(booleanDatatypeProperties);
+			List<TreeSet<Individual>[]> booleanMembers = dematerialise(executor, reasoners, booleanProperties, new DematerialisationQuery<DatatypeProperty, TreeSet<Individual>[]>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public TreeSet<Individual>[] query(OWLAPIReasoner reasoner, DatatypeProperty dp) {
+					return new TreeSet[] {(TreeSet<Individual>) reasoner.getTrueDatatypeMembers(dp), (TreeSet<Individual>) reasoner.getFalseDatatypeMembers(dp)};
+				}
+			});
+			for(int i=0; i<booleanProperties.size(); i++) {
+				bdPos.put(booleanProperties.get(i), booleanMembers.get(i)[0]);
+				bdNeg.put(booleanProperties.get(i), booleanMembers.get(i)[1]);
 			}
 
-			for (DatatypeProperty dp : intDatatypeProperties) {
-				id.put(dp, rc.getIntDatatypeMembers(dp));
+			List<DatatypeProperty> intProperties = new ArrayList<DatatypeProperty>(intDatatypeProperties);
+			List<Map<Individual, SortedSet<Integer>>> intMembers = dematerialise(executor, reasoners, intProperties, new DematerialisationQuery<DatatypeProperty, Map<Individual, SortedSet<Integer>>>() {
+				@Override
+				public Map<Individual, SortedSet<Integer>> query(OWLAPIReasoner reasoner, DatatypeProperty dp) {
+					return reasoner.getIntDatatypeMembers(dp);
+				}
+			});
+			for(int i=0; i<intProperties.size(); i++) {
+				id.put(intProperties.get(i), intMembers.get(i));
 			}
 
-			for (DatatypeProperty dp : doubleDatatypeProperties) {
-				dd.put(dp, rc.getDoubleDatatypeMembers(dp));
+			List<DatatypeProperty> doubleProperties = new ArrayList<DatatypeProperty>(doubleDatatypeProperties);
+			List<Map<Individual, SortedSet<Double>>> doubleMembers = dematerialise(executor, reasoners, doubleProperties, new DematerialisationQuery<DatatypeProperty, Map<Individual, SortedSet<Double>>>() {
+				@Override
+				public Map<Individual, SortedSet<Double>> query(OWLAPIReasoner reasoner, DatatypeProperty dp) {
+					return reasoner.getDoubleDatatypeMembers(dp);
+				}
+			});
+			for(int i=0; i<doubleProperties.size(); i++) {
+				dd.put(doubleProperties.get(i), doubleMembers.get(i));
 			}
 
-			for (DatatypeProperty dp : stringDatatypeProperties) {
-				sd.put(dp, rc.getStringDatatypeMembers(dp));
-			}			
+			List<DatatypeProperty> stringProperties = new ArrayList<DatatypeProperty>(stringDatatypeProperties);
+			List<Map<Individual, SortedSet<String>>> stringMembers = dematerialise(executor, reasoners, stringProperties, new DematerialisationQuery<DatatypeProperty, Map<Individual, SortedSet<String>>>() {
+				@Override
+				public Map<Individual, SortedSet<String>> query(OWLAPIReasoner reasoner, DatatypeProperty dp) {
+					return reasoner.getStringDatatypeMembers(dp);
+				}
+			});
+			for(int i=0; i<stringProperties.size(); i++) {
+				sd.put(stringProperties.get(i), stringMembers.get(i));
+			}
 			
-			long dematDuration = System.currentTimeMillis() - dematStartTime;
-			logger.debug("TBox dematerialised in " + dematDuration + " ms");
+			logger.debug("datatype properties dematerialised in " + (System.currentTimeMillis() - phaseStartTime) + " ms");
+		} finally {
+			if(executor != null) {
+				executor.shutdown();
+			}
+			for(OWLAPIReasoner replica : replicas) {
+				replica.releaseKB();
+			}
+		}
+	}
 
-//		} catch (ReasoningMethodUnsupportedException e) {
-//			throw new ComponentInitException(
-//					"Underlying reasoner does not support all necessary reasoning methods.", e);
-//		}
+	// key of the snapshot of the dematerialised knowledge base, null if
+	// snapshots are not used or the knowledge base cannot be snapshotted
+	private String getSnapshotKey() {
+		if(snapshotDirectory == null) {
+			return null;
+		}
+		Set<KnowledgeSource> snapshotSources = (rc.getSources() != null) ? rc.getSources() : sources;
+		try {
+			String key = FastInstanceCheckerSnapshot.computeKey(snapshotSources, "reasonerType=" + rc.getReasonerTypeString() + ",defaultNegation=" + defaultNegation);
+			if(key == null) {
+				logger.debug("knowledge base snapshots are only supported for OWL files");
+			}
+			return key;
+		} catch (IOException e) {
+			logger.warn("Cannot compute the key of the knowledge base snapshot: " + e.getMessage());
+			return null;
+		}
+	}
+	
+	// a missing or unreadable snapshot is not an error, the knowledge base
+	// is dematerialised again in this case; an unreadable snapshot is deleted,
+	// so that it is replaced by a new one
+	private FastInstanceCheckerSnapshot readSnapshot(String key) {
+		File file = FastInstanceCheckerSnapshot.getFile(new File(snapshotDirectory), key);
+		if(!file.isFile()) {
+			return null;
+		}
+		long startTime = System.currentTimeMillis();
+		try {
+			FastInstanceCheckerSnapshot snapshot = FastInstanceCheckerSnapshot.read(file);
+			logger.debug("knowledge base snapshot " + file + " loaded in " + (System.currentTimeMillis() - startTime) + " ms");
+			return snapshot;
+		} catch (IOException e) {
+			logger.warn("Cannot read the knowledge base snapshot " + file + ": " + e.getMessage());
+		} catch (RuntimeException e) {
+			logger.warn("Cannot read the knowledge base snapshot " + file + ": " + e);
+		}
+		if(!file.delete()) {
+			logger.warn("Cannot delete the knowledge base snapshot " + file);
+		}
+		return null;
+	}
+	
+	private boolean hasImports() {
+		for(OWLOntology ontology : rc.getOWLAPIOntologies()) {
+			if(!ontology.getImportsDeclarations().isEmpty()) {
+				logger.debug("knowledge base snapshots are not supported for ontologies with imports");
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private void writeSnapshot(String key) {
+		File file = FastInstanceCheckerSnapshot.getFile(new File(snapshotDirectory), key);
+		long startTime = System.currentTimeMillis();
+		try {
+			new FastInstanceCheckerSnapshot(atomicConcepts, atomicRoles, datatypeProperties, booleanDatatypeProperties, doubleDatatypeProperties, intDatatypeProperties, stringDatatypeProperties, individuals, classInstancesPos, classInstancesNeg, opPos, bdPos, bdNeg, id, dd, sd).write(file);
+			logger.debug("knowledge base snapshot " + file + " written in " + (System.currentTimeMillis() - startTime) + " ms");
+		} catch (IOException e) {
+			logger.warn("Cannot write the knowledge base snapshot: " + e.getMessage());
+		}
+	}
+	
+	// a query answered by one of the reasoners used for the dematerialisation
+	private interface DematerialisationQuery<E, T> {
+		public T query(OWLAPIReasoner reasoner, E entity);
+	}
+	
+	// answers the query for each entity, the results are in the order of the
+	// entities (the queries are answered in this thread if no executor is given)
+	private <E, T> List<T> dematerialise(ExecutorService executor, final BlockingQueue<OWLAPIReasoner> reasoners, List<E> entities, final DematerialisationQuery<E, T> query) throws ComponentInitException {
+		List<T> results = new ArrayList<T>(entities.size());
+		if(executor == null) {
+			OWLAPIReasoner reasoner = reasoners.peek();
+			for(E entity : entities) {
+				results.add(query.query(reasoner, entity));
+			}
+			return results;
+		}
+		
+		List<Future<T>> futures = new ArrayList<Future<T>>(entities.size());
+		for(final E entity : entities) {
+			futures.add(executor.submit(new Callable<T>() {
+				@Override
+				public T call() throws InterruptedException {
+					OWLAPIReasoner reasoner = reasoners.take();
+					try {
+						return query.query(reasoner, entity);
+					} finally {
+						reasoners.put(reasoner);
+					}
+				}
+			}));
+		}
+		try {
+			for(Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ComponentInitException("Dematerialisation interrupted", e);
+		} catch (ExecutionException e) {
+			throw new ComponentInitException("Dematerialisation failed", e.getCause());
+		}
+		return results;
+	}
+	
+	// creates copies of the underlying reasoner (initialised in parallel)
+	private List<OWLAPIReasoner> createReplicas(ExecutorService executor, int noOfReplicas) throws ComponentInitException {
+		final Set<KnowledgeSource> replicaSources = (rc.getSources() != null) ? rc.getSources() : sources;
+		List<Future<OWLAPIReasoner>> futures = new ArrayList<Future<OWLAPIReasoner>>(noOfReplicas);
+		for(int i=0; i<noOfReplicas; i++) {
+			futures.add(executor.submit(new Callable<OWLAPIReasoner>() {
+				@Override
+				public OWLAPIReasoner call() throws ComponentInitException {
+					OWLAPIReasoner replica = new OWLAPIReasoner(replicaSources);
+					replica.setReasonerTypeString(rc.getReasonerTypeString());
+					replica.setOwlLinkURL(rc.getOwlLinkURL());
+					replica.init();
+					return replica;
+				}
+			}));
+		}
+		List<OWLAPIReasoner> replicas = new LinkedList<OWLAPIReasoner>();
+		try {
+			for(Future<OWLAPIReasoner> future : futures) {
+				replicas.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ComponentInitException("Replication of the reasoner interrupted", e);
+		} catch (ExecutionException e) {
+			throw new ComponentInitException("Replication of the reasoner failed", e.getCause());
+		} finally {
+			// release the replicas if not all of them could be created
+			if(replicas.size() < noOfReplicas) {
+				for(OWLAPIReasoner replica : replicas) {
+					replica.releaseKB();
+				}
+			}
+		}
+		return replicas;
 	}
 
 	@Override
@@ -585,254 +887,387 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 		return inds;
 	}
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * Retrieval on the integer index: the instances of the description are
+	 * computed by {@link #getIndividualsBitSet(Description)} and restricted to
+	 * the individuals of the knowledge base.
+	 * 
+	 * @param description
+	 *            The description to retrieve.
+	 * @return A new set of the instances of the description, which can be
+	 *         modified by the caller.
+	 * @throws ReasoningMethodUnsupportedException
+	 *             If the description cannot be evaluated.
+	 */
 	public SortedSet<Individual> getIndividualsImplFast(Description description)
 			throws ReasoningMethodUnsupportedException {
-		// policy: returned sets are clones, i.e. can be modified
-		// (of course we only have to clone the leafs of a class description tree)
+		// unknown classes have no instances
+		if (description instanceof NamedClass && !classInstancesPos.containsKey(description)) {
+			return new TreeSet<Individual>();
+		}
+		FastInstanceCheckerIndex idx = getIndex();
+		BitSet instances = getIndividualsBitSet(description);
+		instances.and(idx.getKnowledgeBaseIndividuals());
+		return idx.toIndividuals(instances);
+	}
+
+	@Override
+	protected SortedSet<Individual> hasTypeImpl(Description description, Set<Individual> individuals)
+			throws ReasoningMethodUnsupportedException {
+		BitSet instances;
+		try {
+			instances = getIndividualsBitSet(description);
+		} catch (ReasoningMethodUnsupportedException e) {
+			// the index does not support all descriptions the instance check
+			// can handle, so fall back to instance checks for each individual
+			return super.hasTypeImpl(description, individuals);
+		}
+		FastInstanceCheckerIndex idx = getIndex();
+		SortedSet<Individual> returnSet = new TreeSet<Individual>();
+		for (Individual individual : individuals) {
+			int i = idx.getId(individual);
+			if (i >= 0 ? instances.get(i) : hasType(description, individual)) {
+				returnSet.add(individual);
+			}
+		}
+		return returnSet;
+	}
+
+	/**
+	 * Computes the instances of a description on the integer index in one
+	 * bottom-up pass over the description: class extensions are bit sets,
+	 * union and intersection are OR and AND, and restrictions walk the
+	 * adjacency arrays of the property once for all individuals. The semantics
+	 * are exactly those of {@link #hasTypeImpl(Description, Individual)}, i.e.
+	 * bit i is set if and only if the instance check for the individual with id
+	 * i returns true.
+	 * 
+	 * @param description
+	 *            The description to evaluate.
+	 * @return A new bit set of ids, see {@link #getIndex()}.
+	 * @throws ReasoningMethodUnsupportedException
+	 *             If the description contains constructs or entities which
+	 *             are not supported by the index. In this case
+	 *             {@link #hasTypeImpl(Description, Individual)} has to be
+	 *             used.
+	 */
+	public BitSet getIndividualsBitSet(Description description)
+			throws ReasoningMethodUnsupportedException {
+		FastInstanceCheckerIndex idx = getIndex();
+		if (idx == null) {
+			throw new ReasoningMethodUnsupportedException("Fast instance checker has not been initialised.");
+		}
+		ConceptExtensionCache cache = useExtensionCache ? extensionCache : null;
+		if (cache == null) {
+			return getIndividualsBitSet(description, idx, null);
+		}
+		return getIndividualsBitSet(ConceptExtensionCache.normalise(description), idx, cache);
+	}
+
+	// consults the extension cache (if any) before evaluating a description,
+	// so that e.g. the extension of an intersection is computed from the
+	// cached extensions of its children
+	private BitSet getIndividualsBitSet(Description description, FastInstanceCheckerIndex idx,
+			ConceptExtensionCache cache) throws ReasoningMethodUnsupportedException {
+		// extensions of classes are looked up directly
+		if (cache == null || description instanceof NamedClass || description instanceof Thing
+				|| description instanceof Nothing
+				|| (description instanceof Negation && description.getChild(0) instanceof NamedClass)) {
+			return computeIndividualsBitSet(description, idx, cache);
+		}
+		String key = ConceptExtensionCache.getKey(description);
+		BitSet extension = cache.get(key);
+		if (extension == null) {
+			extension = computeIndividualsBitSet(description, idx, cache);
+			cache.put(key, (BitSet) extension.clone());
+			return extension;
+		}
+		return (BitSet) extension.clone();
+	}
+
+	private BitSet computeIndividualsBitSet(Description description, FastInstanceCheckerIndex idx,
+			ConceptExtensionCache cache) throws ReasoningMethodUnsupportedException {
+		int n = idx.size();
+
 		if (description instanceof NamedClass) {
-			if(classInstancesPos.containsKey((NamedClass) description)){
-				return (TreeSet<Individual>) classInstancesPos.get((NamedClass) description).clone();
-			} else {
-				return new TreeSet<Individual>();
+			if(!atomicConcepts.contains(description)) {
+				throw new ReasoningMethodUnsupportedException("Class " + description + " is not contained in knowledge base.");
 			}
+			return copy(idx.getClassInstancesPos((NamedClass) description), description);
 		} else if (description instanceof Negation) {
-			if(description.getChild(0) instanceof NamedClass) {
-				return (TreeSet<Individual>) classInstancesNeg.get((NamedClass) description.getChild(0)).clone();
+			Description child = description.getChild(0);
+			if (child instanceof NamedClass) {
+				return copy(idx.getClassInstancesNeg((NamedClass) child), description);
+			} else if (isDefaultNegation()) {
+				BitSet ret = getIndividualsBitSet(child, idx, cache);
+				ret.flip(0, n);
+				return ret;
+			} else {
+				logger.debug("Converting description to negation normal form in fast instance check (should be avoided if possible).");
+				Description nnf = ConceptTransformation.transformToNegationNormalForm(child);
+				return getIndividualsBitSet(nnf, idx, cache);
 			}
-			// implement retrieval as default negation
-			return Helper.difference((TreeSet<Individual>) individuals.clone(), getIndividualsImpl(description.getChild(0)));
 		} else if (description instanceof Thing) {
-			return (TreeSet<Individual>) individuals.clone();
+			BitSet ret = new BitSet(n);
+			ret.set(0, n);
+			return ret;
 		} else if (description instanceof Nothing) {
-			return new TreeSet<Individual>();
+			return new BitSet(n);
 		} else if (description instanceof Union) {
-			// copy instances of first element and then subtract all others
-			SortedSet<Individual> ret = getIndividualsImpl(description.getChild(0));
-			int childNr = 0;
-			for(Description child : description.getChildren()) {
-				if(childNr != 0) {
-					ret.addAll(getIndividualsImpl(child));
-				}
-				childNr++;
+			BitSet ret = new BitSet(n);
+			for (Description child : description.getChildren()) {
+				ret.or(getIndividualsBitSet(child, idx, cache));
 			}
 			return ret;
 		} else if (description instanceof Intersection) {
-			// copy instances of first element and then subtract all others
-			SortedSet<Individual> ret = getIndividualsImpl(description.getChild(0));
-			int childNr = 0;
-			for(Description child : description.getChildren()) {
-				if(childNr != 0) {
-					ret.retainAll(getIndividualsImpl(child));
+			BitSet ret = new BitSet(n);
+			ret.set(0, n);
+			for (Description child : description.getChildren()) {
+				if (ret.isEmpty()) {
+					break;
 				}
-				childNr++;
+				ret.and(getIndividualsBitSet(child, idx, cache));
 			}
 			return ret;
 		} else if (description instanceof ObjectSomeRestriction) {
-			SortedSet<Individual> targetSet = getIndividualsImpl(description.getChild(0));
-			SortedSet<Individual> returnSet = new TreeSet<Individual>();
-			
-			ObjectPropertyExpression ope = ((ObjectSomeRestriction) description).getRole();
-			if (!(ope instanceof ObjectProperty)) {
-				throw new ReasoningMethodUnsupportedException("Retrieval for description "
-						+ description + " unsupported. Inverse object properties not supported.");
+			ObjectProperty op = getObjectProperty(description, ((ObjectSomeRestriction) description).getRole());
+			FastInstanceCheckerIndex.Adjacency adjacency = idx.getObjectPropertyAdjacency(op);
+			BitSet ret = new BitSet(n);
+			if (adjacency == null) {
+				logger.warn("Instance check of a description with an undefinied property (" + op
+						+ ").");
+				return ret;
 			}
-			ObjectProperty op = (ObjectProperty) ope;
-			Map<Individual, SortedSet<Individual>> mapping = opPos.get(op);			
-			
-			// each individual is connected to a set of individuals via the property;
-			// we loop through the complete mapping
-			for(Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
-				SortedSet<Individual> inds = entry.getValue();
-				for(Individual ind : inds) {
-					if(targetSet.contains(ind)) {
-						returnSet.add(entry.getKey());
-						// once we found an individual, we do not need to check the others
-						continue; 
+			BitSet fillers = getIndividualsBitSet(description.getChild(0), idx, cache);
+			for (int i = 0; i < n; i++) {
+				for (int k = adjacency.offsets[i]; k < adjacency.offsets[i + 1]; k++) {
+					if (fillers.get(adjacency.targets[k])) {
+						ret.set(i);
+						break;
 					}
 				}
 			}
-			return returnSet;
+			return ret;
 		} else if (description instanceof ObjectAllRestriction) {
-			// \forall restrictions are difficult to handle; assume we want to check
-			// \forall hasChild.male with domain(hasChild)=Person; then for all non-persons
-			// this is satisfied trivially (all of their non-existing children are male)
-//			if(!configurator.getForallRetrievalSemantics().equals("standard")) {
-//				throw new Error("Only forallExists semantics currently implemented.");
-//			}
-			
-			// problem: we need to make sure that \neg \exists r.\top \equiv \forall r.\bot
-			// can still be reached in an algorithm (\forall r.\bot \equiv \bot under forallExists
-			// semantics)
-			
-			SortedSet<Individual> targetSet = getIndividualsImpl(description.getChild(0));
-						
-			ObjectPropertyExpression ope = ((ObjectAllRestriction) description).getRole();
-			if (!(ope instanceof ObjectProperty)) {
-				throw new ReasoningMethodUnsupportedException("Instance check for description "
-						+ description + " unsupported. Inverse object properties not supported.");
+			ObjectProperty op = getObjectProperty(description, ((ObjectAllRestriction) description).getRole());
+			FastInstanceCheckerIndex.Adjacency adjacency = idx.getObjectPropertyAdjacency(op);
+			BitSet ret = new BitSet(n);
+			ret.set(0, n);
+			if (adjacency == null) {
+				logger.warn("Instance check of a description with an undefinied property (" + op
+						+ ").");
+				return ret;
 			}
-			ObjectProperty op = (ObjectProperty) ope;
-			Map<Individual, SortedSet<Individual>> mapping = opPos.get(op);
-//			SortedSet<Individual> returnSet = new TreeSet<Individual>(mapping.keySet());
-			SortedSet<Individual> returnSet = (SortedSet<Individual>) individuals.clone();
-			
-			// each individual is connected to a set of individuals via the property;
-			// we loop through the complete mapping
-			for(Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
-				SortedSet<Individual> inds = entry.getValue();
-				for(Individual ind : inds) {
-					if(!targetSet.contains(ind)) {
-						returnSet.remove(entry.getKey());
-						continue; 
+			BitSet fillers = getIndividualsBitSet(description.getChild(0), idx, cache);
+			for (int i = 0; i < n; i++) {
+				for (int k = adjacency.offsets[i]; k < adjacency.offsets[i + 1]; k++) {
+					if (!fillers.get(adjacency.targets[k])) {
+						ret.clear(i);
+						break;
 					}
 				}
 			}
-			return returnSet;
+			return ret;
 		} else if (description instanceof ObjectMinCardinalityRestriction) {
-			ObjectPropertyExpression ope = ((ObjectCardinalityRestriction) description).getRole();
-			if (!(ope instanceof ObjectProperty)) {
-				throw new ReasoningMethodUnsupportedException("Instance check for description "
-						+ description + " unsupported. Inverse object properties not supported.");
+			ObjectProperty op = getObjectProperty(description, ((ObjectCardinalityRestriction) description).getRole());
+			FastInstanceCheckerIndex.Adjacency adjacency = idx.getObjectPropertyAdjacency(op);
+			int number = ((ObjectCardinalityRestriction) description).getNumber();
+			BitSet ret = new BitSet(n);
+			if (adjacency == null || number == 0) {
+				if (adjacency == null) {
+					logger.warn("Instance check of a description with an undefinied property (" + op
+							+ ").");
+				}
+				ret.set(0, n);
+				return ret;
 			}
-			ObjectProperty op = (ObjectProperty) ope;
-			Description child = description.getChild(0);
-			Map<Individual, SortedSet<Individual>> mapping = opPos.get(op);
-			SortedSet<Individual> targetSet = getIndividualsImpl(child);
-			SortedSet<Individual> returnSet = new TreeSet<Individual>();
-
-			int number = ((ObjectCardinalityRestriction) description).getNumber();			
-
-			for(Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
-				int nrOfFillers = 0;
-				int index = 0;
-				SortedSet<Individual> inds = entry.getValue();
-				
-				// we do not need to run tests if there are not sufficiently many fillers
-				if(inds.size() < number) {
+			BitSet fillers = getIndividualsBitSet(description.getChild(0), idx, cache);
+			for (int i = 0; i < n; i++) {
+				int start = adjacency.offsets[i];
+				int size = adjacency.offsets[i + 1] - start;
+				if (size < number) {
 					continue;
 				}
-				
-				for(Individual ind : inds) {
-					// stop inner loop when nr of fillers is reached
-					if(nrOfFillers >= number) {
-						returnSet.add(entry.getKey());
-						break;
-					}		
-					// early abort when too many instance checks failed
-					if (inds.size() - index < number) {
-						break;
-					}					
-					if(targetSet.contains(ind)) {
+				// same loop (including the early abort) as in the instance check
+				int nrOfFillers = 0;
+				for (int k = 0; k < size; k++) {
+					if (fillers.get(adjacency.targets[start + k])) {
 						nrOfFillers++;
+						if (nrOfFillers == number) {
+							ret.set(i);
+							break;
+						}
+					} else if (size - (k + 1) < number) {
+						break;
 					}
-					index++;
 				}
-			}			
-			
-			return returnSet;
+			}
+			return ret;
 		} else if (description instanceof ObjectMaxCardinalityRestriction) {
-			ObjectPropertyExpression ope = ((ObjectCardinalityRestriction) description).getRole();
-			if (!(ope instanceof ObjectProperty)) {
-				throw new ReasoningMethodUnsupportedException("Instance check for description "
-						+ description + " unsupported. Inverse object properties not supported.");
+			ObjectProperty op = getObjectProperty(description, ((ObjectCardinalityRestriction) description).getRole());
+			FastInstanceCheckerIndex.Adjacency adjacency = idx.getObjectPropertyAdjacency(op);
+			int number = ((ObjectCardinalityRestriction) description).getNumber();
+			BitSet ret = new BitSet(n);
+			ret.set(0, n);
+			if (adjacency == null) {
+				logger.warn("Instance check of a description with an undefinied property (" + op
+						+ ").");
+				return ret;
 			}
-			ObjectProperty op = (ObjectProperty) ope;
-			Description child = description.getChild(0);
-			Map<Individual, SortedSet<Individual>> mapping = opPos.get(op);
-			SortedSet<Individual> targetSet = getIndividualsImpl(child);
-			// initially all individuals are in the return set and we then remove those
-			// with too many fillers			
-			SortedSet<Individual> returnSet = (SortedSet<Individual>) individuals.clone();
-
-			int number = ((ObjectCardinalityRestriction) description).getNumber();			
-
-			for(Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
-				int nrOfFillers = 0;
-				int index = 0;
-				SortedSet<Individual> inds = entry.getValue();
-				
-				// we do not need to run tests if there are not sufficiently many fillers
-				if(number < inds.size()) {
-					returnSet.add(entry.getKey());
+			BitSet fillers = getIndividualsBitSet(description.getChild(0), idx, cache);
+			for (int i = 0; i < n; i++) {
+				int start = adjacency.offsets[i];
+				int size = adjacency.offsets[i + 1] - start;
+				if (size < number) {
 					continue;
 				}
-				
-				for(Individual ind : inds) {
-					// stop inner loop when nr of fillers is reached
-					if(nrOfFillers >= number) {
-						break;
-					}		
-					// early abort when too many instance are true already
-					if (inds.size() - index < number) {
-						returnSet.add(entry.getKey());
-						break;
-					}					
-					if(targetSet.contains(ind)) {
+				// same loop (including the early abort) as in the instance check
+				int nrOfFillers = 0;
+				for (int k = 0; k < size; k++) {
+					if (fillers.get(adjacency.targets[start + k])) {
 						nrOfFillers++;
+						if (nrOfFillers > number) {
+							ret.clear(i);
+							break;
+						}
+					} else if (size - (k + 1) <= number) {
+						break;
 					}
-					index++;
 				}
-			}			
-			
-			return returnSet;
+			}
+			return ret;
 		} else if (description instanceof ObjectValueRestriction) {
 			Individual i = ((ObjectValueRestriction)description).getIndividual();
 			ObjectProperty op = (ObjectProperty) ((ObjectValueRestriction)description).getRestrictedPropertyExpression();
-			
-			Map<Individual, SortedSet<Individual>> mapping = opPos.get(op);			
-			SortedSet<Individual> returnSet = new TreeSet<Individual>();
-			
-			for(Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
-				if(entry.getValue().contains(i)) {
-					returnSet.add(entry.getKey());
+			FastInstanceCheckerIndex.Adjacency adjacency = idx.getObjectPropertyAdjacency(op);
+			if (adjacency == null) {
+				throw notIndexed(description);
+			}
+			BitSet ret = new BitSet(n);
+			int target = idx.getId(i);
+			if (target < 0) {
+				return ret;
+			}
+			for (int j = 0; j < n; j++) {
+				for (int k = adjacency.offsets[j]; k < adjacency.offsets[j + 1]; k++) {
+					if (adjacency.targets[k] == target) {
+						ret.set(j);
+						break;
+					}
 				}
 			}
-			return returnSet;
+			return ret;
 		} else if (description instanceof BooleanValueRestriction) {
 			DatatypeProperty dp = ((BooleanValueRestriction) description)
 					.getRestrictedPropertyExpression();
 			boolean value = ((BooleanValueRestriction) description).getBooleanValue();
-
-			if (value) {
-				return (TreeSet<Individual>) bdPos.get(dp).clone();
-			} else {
-				return (TreeSet<Individual>) bdNeg.get(dp).clone();
-			}
+			return copy(idx.getBooleanDatatypeMembers(dp, value), description);
 		} else if (description instanceof DatatypeSomeRestriction) {
 			DatatypeSomeRestriction dsr = (DatatypeSomeRestriction) description;
 			DatatypeProperty dp = (DatatypeProperty) dsr.getRestrictedPropertyExpression();
 			DataRange dr = dsr.getDataRange();
-
-			Map<Individual, SortedSet<Double>> mapping = dd.get(dp);			
-			SortedSet<Individual> returnSet = new TreeSet<Individual>();			
-
-			if (dr instanceof DoubleMaxValue) {
-				for(Entry<Individual, SortedSet<Double>> entry : mapping.entrySet()) {
-					if(entry.getValue().first() <= ((DoubleMaxValue)dr).getValue()) {
-						returnSet.add(entry.getKey());
+			FastInstanceCheckerIndex.DoubleValues values = idx.getDoubleDatatypeValues(dp);
+			if (values == null || !(dr instanceof DoubleMaxValue || dr instanceof DoubleMinValue)) {
+				throw notIndexed(description);
+			}
+			BitSet ret = new BitSet(n);
+			for (int i = 0; i < n; i++) {
+				int first = values.offsets[i];
+				int last = values.offsets[i + 1] - 1;
+				// no filler for this individual and property
+				if (last < first) {
+					continue;
+				}
+				if (dr instanceof DoubleMaxValue) {
+					if (values.values[first] <= ((DoubleMaxValue) dr).getValue()) {
+						ret.set(i);
 					}
-				}				
-			} else if (dr instanceof DoubleMinValue) {
-				for(Entry<Individual, SortedSet<Double>> entry : mapping.entrySet()) {
-					if(entry.getValue().last() >= ((DoubleMinValue)dr).getValue()) {
-						returnSet.add(entry.getKey());
+				} else if (values.values[last] >= ((DoubleMinValue) dr).getValue()) {
+					ret.set(i);
+				}
+			}
+			return ret;
+		} else if (description instanceof DatatypeValueRestriction) {
+			DatatypeProperty dp = ((DatatypeValueRestriction)description).getRestrictedPropertyExpression();
+
+			if (description instanceof StringValueRestriction) {
+				String value = ((DatatypeValueRestriction)description).getValue().getLiteral();
+				Map<String, BitSet> members = idx.getStringDatatypeMembers(dp);
+				if (members == null) {
+					throw notIndexed(description);
+				}
+				BitSet inds = members.get(value);
+				return inds == null ? new BitSet(n) : (BitSet) inds.clone();
+			} else if (description instanceof DoubleValueRestriction) {
+				double value = ((DoubleValueRestriction)description).getDoubleValue();
+				FastInstanceCheckerIndex.DoubleValues values = idx.getDoubleDatatypeValues(dp);
+				if (values == null) {
+					throw notIndexed(description);
+				}
+				BitSet ret = new BitSet(n);
+				for (int i = 0; i < n; i++) {
+					for (int k = values.offsets[i]; k < values.offsets[i + 1]; k++) {
+						if (Double.compare(values.values[k], value) == 0) {
+							ret.set(i);
+							break;
+						}
 					}
 				}
+				return ret;
 			}
 		}
-			
-		throw new ReasoningMethodUnsupportedException("Retrieval for description "
-					+ description + " unsupported.");		
-			
-		// return rs.retrieval(concept);
-//		SortedSet<Individual> inds = new TreeSet<Individual>();
-//		for (Individual i : individuals) {
-//			if (hasType(concept, i)) {
-//				inds.add(i);
-//			}
-//		}
-//		return inds;
+
+		throw new ReasoningMethodUnsupportedException("Instance check for description "
+				+ description + " unsupported.");
+	}
+
+	private static ObjectProperty getObjectProperty(Description description, ObjectPropertyExpression ope)
+			throws ReasoningMethodUnsupportedException {
+		if (!(ope instanceof ObjectProperty)) {
+			throw new ReasoningMethodUnsupportedException("Instance check for description "
+					+ description + " unsupported. Inverse object properties not supported.");
+		}
+		return (ObjectProperty) ope;
+	}
+
+	private static BitSet copy(BitSet bits, Description description)
+			throws ReasoningMethodUnsupportedException {
+		if (bits == null) {
+			throw notIndexed(description);
+		}
+		return (BitSet) bits.clone();
+	}
+
+	private static ReasoningMethodUnsupportedException notIndexed(Description description) {
+		return new ReasoningMethodUnsupportedException("Description " + description
+				+ " refers to an entity which has not been dematerialised.");
+	}
+
+	/**
+	 * @return The integer index of the dematerialised knowledge base or null if
+	 *         the reasoner has not been initialised yet.
+	 */
+	public FastInstanceCheckerIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return The cache of concept extensions used by
+	 *         {@link #getIndividualsBitSet(Description)} or null if the
+	 *         reasoner has not been initialised yet.
+	 */
+	public ConceptExtensionCache getExtensionCache() {
+		return extensionCache;
+	}
+
+	private void createIndex() {
+		long indexStartTime = System.currentTimeMillis();
+		// cached extensions refer to the ids of the previous index
+		extensionCache = new ConceptExtensionCache(extensionCacheSize);
+		index = new FastInstanceCheckerIndex(individuals, classInstancesPos, classInstancesNeg, opPos,
+				bdPos, bdNeg, dd, sd);
+		logger.debug("index of " + index.size() + " individuals created in "
+				+ (System.currentTimeMillis() - indexStartTime) + " ms");
 	}
 
 	/*
@@ -882,32 +1317,32 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	
 	@Override
 	protected SortedSet<Description> getSuperClassesImpl(Description concept) throws ReasoningMethodUnsupportedException {
-		return rc.getSuperClassesImpl(concept);
+		return getReasoner().getSuperClassesImpl(concept);
 	}
 	
 	@Override
 	protected SortedSet<Description> getSubClassesImpl(Description concept) throws ReasoningMethodUnsupportedException {
-		return rc.getSubClassesImpl(concept);
+		return getReasoner().getSubClassesImpl(concept);
 	}		
 
 	@Override
 	protected SortedSet<ObjectProperty> getSuperPropertiesImpl(ObjectProperty role) throws ReasoningMethodUnsupportedException {
-		return rc.getSuperPropertiesImpl(role);
+		return getReasoner().getSuperPropertiesImpl(role);
 	}	
 
 	@Override
 	protected SortedSet<ObjectProperty> getSubPropertiesImpl(ObjectProperty role) throws ReasoningMethodUnsupportedException {
-		return rc.getSubPropertiesImpl(role);
+		return getReasoner().getSubPropertiesImpl(role);
 	}
 	
 	@Override
 	protected SortedSet<DatatypeProperty> getSuperPropertiesImpl(DatatypeProperty role) throws ReasoningMethodUnsupportedException {
-		return rc.getSuperPropertiesImpl(role);
+		return getReasoner().getSuperPropertiesImpl(role);
 	}	
 
 	@Override
 	protected SortedSet<DatatypeProperty> getSubPropertiesImpl(DatatypeProperty role) throws ReasoningMethodUnsupportedException {
-		return rc.getSubPropertiesImpl(role);
+		return getReasoner().getSubPropertiesImpl(role);
 	}	
 	
 	/*
@@ -960,7 +1395,7 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 		// Negation neg = new Negation(subConcept);
 		// Intersection c = new Intersection(neg,superConcept);
 		// return fastRetrieval.calculateSets(c).getPosSet().isEmpty();
-		return rc.isSuperClassOfImpl(superConcept, subConcept);
+		return getReasoner().isSuperClassOfImpl(superConcept, subConcept);
 	}
 
 	/**
@@ -998,7 +1433,7 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	 */
 	@Override
 	public String getBaseURI() {
-		return rc.getBaseURI();
+		return getReasoner().getBaseURI();
 	}
 
 	/*
@@ -1008,22 +1443,22 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	 */
 	@Override
 	public Map<String, String> getPrefixes() {
-		return rc.getPrefixes();
+		return getReasoner().getPrefixes();
 	}
 
 	@Override
 	public Description getDomainImpl(ObjectProperty objectProperty) {
-		return rc.getDomain(objectProperty);
+		return getReasoner().getDomain(objectProperty);
 	}
 
 	@Override
 	public Description getDomainImpl(DatatypeProperty datatypeProperty) {
-		return rc.getDomain(datatypeProperty);
+		return getReasoner().getDomain(datatypeProperty);
 	}
 
 	@Override
 	public Description getRangeImpl(ObjectProperty objectProperty) {
-		return rc.getRange(objectProperty);
+		return getReasoner().getRange(objectProperty);
 	}
 
 	@Override
@@ -1056,32 +1491,32 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	@Override
 	public Map<Individual, SortedSet<Constant>> getDatatypeMembersImpl(
 			DatatypeProperty datatypeProperty) {
-		return rc.getDatatypeMembersImpl(datatypeProperty);
+		return getReasoner().getDatatypeMembersImpl(datatypeProperty);
 	}		
 	
 	@Override
 	public Set<Individual> getRelatedIndividualsImpl(Individual individual, ObjectProperty objectProperty) throws ReasoningMethodUnsupportedException {
-		return rc.getRelatedIndividuals(individual, objectProperty);
+		return getReasoner().getRelatedIndividuals(individual, objectProperty);
 	}
 	
 	@Override
 	protected Map<ObjectProperty,Set<Individual>> getObjectPropertyRelationshipsImpl(Individual individual) {
-		return rc.getObjectPropertyRelationships(individual);
+		return getReasoner().getObjectPropertyRelationships(individual);
 	}	
 	
 	@Override
 	public Set<Constant> getRelatedValuesImpl(Individual individual, DatatypeProperty datatypeProperty) throws ReasoningMethodUnsupportedException {
-		return rc.getRelatedValues(individual, datatypeProperty);
+		return getReasoner().getRelatedValues(individual, datatypeProperty);
 	}	
 	
 	@Override
 	public boolean isSatisfiableImpl() {
-		return rc.isSatisfiable();
+		return getReasoner().isSatisfiable();
 	}	
 	
 	@Override
 	public Set<Constant> getLabelImpl(Entity entity) throws ReasoningMethodUnsupportedException {
-		return rc.getLabel(entity);
+		return getReasoner().getLabel(entity);
 	}	
 	
 	/*
@@ -1091,7 +1526,9 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	 */
 	@Override
 	public void releaseKB() {
-		rc.releaseKB();
+		if(reasonerInitialised) {
+			rc.releaseKB();
+		}
 	}
 
 //	@Override
@@ -1104,7 +1541,7 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	 */
 	@Override
 	protected Set<NamedClass> getTypesImpl(Individual individual) {
-		return rc.getTypesImpl(individual);
+		return getReasoner().getTypesImpl(individual);
 	}
 
 	/* (non-Javadoc)
@@ -1112,23 +1549,38 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
 	 */
 	@Override
 	public boolean remainsSatisfiableImpl(Axiom axiom) {
-		return rc.remainsSatisfiableImpl(axiom);
+		return getReasoner().remainsSatisfiableImpl(axiom);
 	}
 
 	@Override
 	protected Set<Description> getAssertedDefinitionsImpl(NamedClass nc) {
-		return rc.getAssertedDefinitionsImpl(nc);
+		return getReasoner().getAssertedDefinitionsImpl(nc);
 	}
 
     public OWLAPIReasoner getReasonerComponent() {
-        return rc;
+        return (rc == null) ? null : getReasoner();
     }
 
     @Autowired(required = false)
     public void setReasonerComponent(OWLAPIReasoner rc) {
         this.rc = rc;
+        reasonerInitialised = true;
     }
 
+	// the underlying reasoner, which is initialised when it is needed for
+	// the first time
+	private synchronized OWLAPIReasoner getReasoner() {
+		if(!reasonerInitialised) {
+			try {
+				rc.init();
+			} catch (ComponentInitException e) {
+				throw new RuntimeException("Cannot initialise the underlying reasoner", e);
+			}
+			reasonerInitialised = true;
+		}
+		return rc;
+	}
+
     public boolean isDefaultNegation() {
         return defaultNegation;
     }
@@ -1144,4 +1596,44 @@ public class FastInstanceChecker extends AbstractReasonerComponent {
     public void setForAllSemantics(String forAllSemantics) {
         this.forAllSemantics = forAllSemantics;
     }
+
+    public boolean isUseExtensionCache() {
+        return useExtensionCache;
+    }
+
+    public void setUseExtensionCache(boolean useExtensionCache) {
+        this.useExtensionCache = useExtensionCache;
+    }
+
+    public int getExtensionCacheSize() {
+        return extensionCacheSize;
+    }
+
+    public void setExtensionCacheSize(int extensionCacheSize) {
+        this.extensionCacheSize = extensionCacheSize;
+    }
+
+    public int getDematerialisationThreads() {
+        return dematerialisationThreads;
+    }
+
+    public void setDematerialisationThreads(int dematerialisationThreads) {
+        this.dematerialisationThreads = Math.max(1, dematerialisationThreads);
+    }
+
+    public boolean isShareReasonerInDematerialisation() {
+        return shareReasonerInDematerialisation;
+    }
+
+    public void setShareReasonerInDematerialisation(boolean shareReasonerInDematerialisation) {
+        this.shareReasonerInDematerialisation = shareReasonerInDematerialisation;
+    }
+
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
 }
@@ -0,0 +1,320 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.reasoning;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.core.owl.DatatypeProperty;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.NamedClass;
+import org.dllearner.core.owl.ObjectProperty;
+
+/**
+ * Integer based view of the closed world model dematerialised by the
+ * {@link FastInstanceChecker}. Every individual occurring in the model gets a
+ * dense id (ids follow the natural order of individuals), class extensions
+ * and boolean datatype properties are stored as bit sets, and object
+ * properties as well as double datatype properties are stored as compressed
+ * adjacency arrays (an offsets array of length n+1 plus a flat array of
+ * fillers), so that the instances of a description can be computed by
+ * bulk operations instead of one instance check per individual.
+ *
+ * The index is immutable once created and can be shared by several threads.
+ * Bit sets returned by the accessors are the internal ones and must not be
+ * modified.
+ *
+ */
+public class FastInstanceCheckerIndex {
+
+	/**
+	 * Compressed adjacency arrays of an object property: the fillers of the
+	 * individual with id i are
+	 * <code>targets[offsets[i]] ... targets[offsets[i+1]-1]</code>, in the
+	 * iteration order of the dematerialised filler set.
+	 */
+	public static final class Adjacency {
+		final int[] offsets;
+		final int[] targets;
+
+		Adjacency(int[] offsets, int[] targets) {
+			this.offsets = offsets;
+			this.targets = targets;
+		}
+
+		public int getNumberOfFillers(int id) {
+			return offsets[id + 1] - offsets[id];
+		}
+	}
+
+	/**
+	 * Compressed value arrays of a double datatype property, laid out like
+	 * {@link Adjacency}.
+	 */
+	public static final class DoubleValues {
+		final int[] offsets;
+		final double[] values;
+
+		DoubleValues(int[] offsets, double[] values) {
+			this.offsets = offsets;
+			this.values = values;
+		}
+
+		public int getNumberOfValues(int id) {
+			return offsets[id + 1] - offsets[id];
+		}
+	}
+
+	// id --> individual and individual --> id
+	private final Individual[] individuals;
+	private final Map<Individual, Integer> ids;
+
+	// individuals of the knowledge base (the individuals which are returned
+	// by retrieval operations), other ids only occur as fillers or in
+	// datatype assertions
+	private final BitSet knowledgeBaseIndividuals;
+
+	private final Map<NamedClass, BitSet> classInstancesPos = new HashMap<NamedClass, BitSet>();
+	private final Map<NamedClass, BitSet> classInstancesNeg = new HashMap<NamedClass, BitSet>();
+	private final Map<ObjectProperty, Adjacency> opPos = new HashMap<ObjectProperty, Adjacency>();
+	private final Map<DatatypeProperty, BitSet> bdPos = new HashMap<DatatypeProperty, BitSet>();
+	private final Map<DatatypeProperty, BitSet> bdNeg = new HashMap<DatatypeProperty, BitSet>();
+	private final Map<DatatypeProperty, DoubleValues> dd = new HashMap<DatatypeProperty, DoubleValues>();
+	private final Map<DatatypeProperty, Map<String, BitSet>> sd = new HashMap<DatatypeProperty, Map<String, BitSet>>();
+
+	/**
+	 * Builds the index from the dematerialised mappings of a fast instance
+	 * checker. The mappings are only read.
+	 */
+	public FastInstanceCheckerIndex(Set<Individual> kbIndividuals,
+			Map<NamedClass, ? extends Set<Individual>> classInstancesPos,
+			Map<NamedClass, ? extends Set<Individual>> classInstancesNeg,
+			Map<ObjectProperty, Map<Individual, SortedSet<Individual>>> opPos,
+			Map<DatatypeProperty, ? extends Set<Individual>> bdPos,
+			Map<DatatypeProperty, ? extends Set<Individual>> bdNeg,
+			Map<DatatypeProperty, Map<Individual, SortedSet<Double>>> dd,
+			Map<DatatypeProperty, Map<Individual, SortedSet<String>>> sd) {
+
+		// collect all individuals occurring anywhere in the model
+		TreeSet<Individual> all = new TreeSet<Individual>(kbIndividuals);
+		for (Set<Individual> inds : classInstancesPos.values()) {
+			all.addAll(inds);
+		}
+		for (Set<Individual> inds : classInstancesNeg.values()) {
+			all.addAll(inds);
+		}
+		for (Map<Individual, SortedSet<Individual>> mapping : opPos.values()) {
+			for (Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
+				all.add(entry.getKey());
+				if (entry.getValue() != null) {
+					all.addAll(entry.getValue());
+				}
+			}
+		}
+		for (Set<Individual> inds : bdPos.values()) {
+			all.addAll(inds);
+		}
+		for (Set<Individual> inds : bdNeg.values()) {
+			all.addAll(inds);
+		}
+		for (Map<Individual, SortedSet<Double>> mapping : dd.values()) {
+			all.addAll(mapping.keySet());
+		}
+		for (Map<Individual, SortedSet<String>> mapping : sd.values()) {
+			all.addAll(mapping.keySet());
+		}
+
+		individuals = all.toArray(new Individual[all.size()]);
+		ids = new HashMap<Individual, Integer>(individuals.length * 2);
+		for (int i = 0; i < individuals.length; i++) {
+			ids.put(individuals[i], i);
+		}
+
+		knowledgeBaseIndividuals = toBitSet(kbIndividuals);
+
+		for (Entry<NamedClass, ? extends Set<Individual>> entry : classInstancesPos.entrySet()) {
+			this.classInstancesPos.put(entry.getKey(), toBitSet(entry.getValue()));
+		}
+		for (Entry<NamedClass, ? extends Set<Individual>> entry : classInstancesNeg.entrySet()) {
+			this.classInstancesNeg.put(entry.getKey(), toBitSet(entry.getValue()));
+		}
+		for (Entry<ObjectProperty, Map<Individual, SortedSet<Individual>>> entry : opPos.entrySet()) {
+			this.opPos.put(entry.getKey(), createAdjacency(entry.getValue()));
+		}
+		for (Entry<DatatypeProperty, ? extends Set<Individual>> entry : bdPos.entrySet()) {
+			this.bdPos.put(entry.getKey(), toBitSet(entry.getValue()));
+		}
+		for (Entry<DatatypeProperty, ? extends Set<Individual>> entry : bdNeg.entrySet()) {
+			this.bdNeg.put(entry.getKey(), toBitSet(entry.getValue()));
+		}
+		for (Entry<DatatypeProperty, Map<Individual, SortedSet<Double>>> entry : dd.entrySet()) {
+			this.dd.put(entry.getKey(), createDoubleValues(entry.getValue()));
+		}
+		for (Entry<DatatypeProperty, Map<Individual, SortedSet<String>>> entry : sd.entrySet()) {
+			this.sd.put(entry.getKey(), createStringValues(entry.getValue()));
+		}
+	}
+
+	private Adjacency createAdjacency(Map<Individual, SortedSet<Individual>> mapping) {
+		int n = individuals.length;
+		int[] offsets = new int[n + 1];
+		for (Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
+			if (entry.getValue() != null) {
+				offsets[ids.get(entry.getKey()) + 1] = entry.getValue().size();
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] targets = new int[offsets[n]];
+		for (Entry<Individual, SortedSet<Individual>> entry : mapping.entrySet()) {
+			if (entry.getValue() != null) {
+				int pos = offsets[ids.get(entry.getKey())];
+				for (Individual filler : entry.getValue()) {
+					targets[pos++] = ids.get(filler);
+				}
+			}
+		}
+		return new Adjacency(offsets, targets);
+	}
+
+	private DoubleValues createDoubleValues(Map<Individual, SortedSet<Double>> mapping) {
+		int n = individuals.length;
+		int[] offsets = new int[n + 1];
+		for (Entry<Individual, SortedSet<Double>> entry : mapping.entrySet()) {
+			if (entry.getValue() != null) {
+				offsets[ids.get(entry.getKey()) + 1] = entry.getValue().size();
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		double[] values = new double[offsets[n]];
+		for (Entry<Individual, SortedSet<Double>> entry : mapping.entrySet()) {
+			if (entry.getValue() != null) {
+				int pos = offsets[ids.get(entry.getKey())];
+				for (Double value : entry.getValue()) {
+					values[pos++] = value;
+				}
+			}
+		}
+		return new DoubleValues(offsets, values);
+	}
+
+	private Map<String, BitSet> createStringValues(Map<Individual, SortedSet<String>> mapping) {
+		Map<String, BitSet> values = new HashMap<String, BitSet>();
+		for (Entry<Individual, SortedSet<String>> entry : mapping.entrySet()) {
+			if (entry.getValue() == null) {
+				continue;
+			}
+			int id = ids.get(entry.getKey());
+			for (String value : entry.getValue()) {
+				BitSet inds = values.get(value);
+				if (inds == null) {
+					inds = new BitSet(individuals.length);
+					values.put(value, inds);
+				}
+				inds.set(id);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return The number of indexed individuals, i.e. ids range from 0 to
+	 *         size()-1.
+	 */
+	public int size() {
+		return individuals.length;
+	}
+
+	/**
+	 * @return The id of the individual or -1 if it does not occur in the
+	 *         index.
+	 */
+	public int getId(Individual individual) {
+		Integer id = ids.get(individual);
+		return id == null ? -1 : id;
+	}
+
+	public Individual getIndividual(int id) {
+		return individuals[id];
+	}
+
+	/**
+	 * Converts a collection of individuals to a bit set of ids. Individuals
+	 * which are not indexed are ignored.
+	 */
+	public BitSet toBitSet(Collection<Individual> inds) {
+		BitSet bits = new BitSet(individuals.length);
+		for (Individual ind : inds) {
+			Integer id = ids.get(ind);
+			if (id != null) {
+				bits.set(id);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Converts a bit set of ids to a sorted set of individuals.
+	 */
+	public SortedSet<Individual> toIndividuals(BitSet bits) {
+		SortedSet<Individual> inds = new TreeSet<Individual>();
+		for (int i = bits.nextSetBit(0); i >= 0 && i < individuals.length; i = bits.nextSetBit(i + 1)) {
+			inds.add(individuals[i]);
+		}
+		return inds;
+	}
+
+	public BitSet getKnowledgeBaseIndividuals() {
+		return knowledgeBaseIndividuals;
+	}
+
+	public BitSet getClassInstancesPos(NamedClass namedClass) {
+		return classInstancesPos.get(namedClass);
+	}
+
+	public BitSet getClassInstancesNeg(NamedClass namedClass) {
+		return classInstancesNeg.get(namedClass);
+	}
+
+	public Adjacency getObjectPropertyAdjacency(ObjectProperty op) {
+		return opPos.get(op);
+	}
+
+	public BitSet getBooleanDatatypeMembers(DatatypeProperty dp, boolean value) {
+		return value ? bdPos.get(dp) : bdNeg.get(dp);
+	}
+
+	public DoubleValues getDoubleDatatypeValues(DatatypeProperty dp) {
+		return dd.get(dp);
+	}
+
+	public Map<String, BitSet> getStringDatatypeMembers(DatatypeProperty dp) {
+		return sd.get(dp);
+	}
+}
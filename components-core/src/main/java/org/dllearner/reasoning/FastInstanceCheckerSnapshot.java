@@ -0,0 +1,632 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.reasoning;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.dllearner.core.KnowledgeSource;
+import org.dllearner.core.owl.DatatypeProperty;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.NamedClass;
+import org.dllearner.core.owl.ObjectProperty;
+import org.dllearner.kb.OWLFile;
+
+/**
+ * Binary snapshot of the closed world model dematerialised by the
+ * {@link FastInstanceChecker}, i.e. the signature (named classes and
+ * properties), the individuals, the positive and negative instances of all
+ * named classes, the object property members and the boolean, int, double
+ * and string datatype property members.
+ *
+ * Snapshots are identified by a key, which is a hash of the contents of the
+ * OWL files the model was computed from and of the reasoner settings, so an
+ * outdated snapshot is never used. Since the key does not cover imported
+ * ontologies, only models of OWL files without imports may be snapshotted.
+ * Snapshots are written to a temporary file which is renamed afterwards
+ * (concurrent processes never see a partially written snapshot).
+ *
+ * All names (individuals, classes and properties) are stored once in a
+ * string table and referred to by their position in the table.
+ *
+ */
+public class FastInstanceCheckerSnapshot {
+
+	private static final int MAGIC = 0x46494353; // "FICS"
+	private static final int VERSION = 2;
+
+	private static final String SUFFIX = ".fic";
+
+	private SortedSet<NamedClass> namedClasses;
+	private SortedSet<ObjectProperty> objectProperties;
+	private SortedSet<DatatypeProperty> datatypeProperties;
+	private SortedSet<DatatypeProperty> booleanDatatypeProperties;
+	private SortedSet<DatatypeProperty> doubleDatatypeProperties;
+	private SortedSet<DatatypeProperty> intDatatypeProperties;
+	private SortedSet<DatatypeProperty> stringDatatypeProperties;
+	private TreeSet<Individual> individuals;
+	private Map<NamedClass, TreeSet<Individual>> classInstancesPos;
+	private Map<NamedClass, TreeSet<Individual>> classInstancesNeg;
+	private Map<ObjectProperty, Map<Individual, SortedSet<Individual>>> opPos;
+	private Map<DatatypeProperty, TreeSet<Individual>> bdPos;
+	private Map<DatatypeProperty, TreeSet<Individual>> bdNeg;
+	private Map<DatatypeProperty, Map<Individual, SortedSet<Integer>>> id;
+	private Map<DatatypeProperty, Map<Individual, SortedSet<Double>>> dd;
+	private Map<DatatypeProperty, Map<Individual, SortedSet<String>>> sd;
+
+	public FastInstanceCheckerSnapshot(Set<NamedClass> namedClasses,
+			Set<ObjectProperty> objectProperties,
+			Set<DatatypeProperty> datatypeProperties,
+			Set<DatatypeProperty> booleanDatatypeProperties,
+			Set<DatatypeProperty> doubleDatatypeProperties,
+			Set<DatatypeProperty> intDatatypeProperties,
+			Set<DatatypeProperty> stringDatatypeProperties,
+			TreeSet<Individual> individuals,
+			Map<NamedClass, TreeSet<Individual>> classInstancesPos,
+			Map<NamedClass, TreeSet<Individual>> classInstancesNeg,
+			Map<ObjectProperty, Map<Individual, SortedSet<Individual>>> opPos,
+			Map<DatatypeProperty, TreeSet<Individual>> bdPos,
+			Map<DatatypeProperty, TreeSet<Individual>> bdNeg,
+			Map<DatatypeProperty, Map<Individual, SortedSet<Integer>>> id,
+			Map<DatatypeProperty, Map<Individual, SortedSet<Double>>> dd,
+			Map<DatatypeProperty, Map<Individual, SortedSet<String>>> sd) {
+		this.namedClasses = new TreeSet<NamedClass>(namedClasses);
+		this.objectProperties = new TreeSet<ObjectProperty>(objectProperties);
+		this.datatypeProperties = new TreeSet<DatatypeProperty>(datatypeProperties);
+		this.booleanDatatypeProperties = new TreeSet<DatatypeProperty>(booleanDatatypeProperties);
+		this.doubleDatatypeProperties = new TreeSet<DatatypeProperty>(doubleDatatypeProperties);
+		this.intDatatypeProperties = new TreeSet<DatatypeProperty>(intDatatypeProperties);
+		this.stringDatatypeProperties = new TreeSet<DatatypeProperty>(stringDatatypeProperties);
+		this.individuals = individuals;
+		this.classInstancesPos = classInstancesPos;
+		this.classInstancesNeg = classInstancesNeg;
+		this.opPos = opPos;
+		this.bdPos = bdPos;
+		this.bdNeg = bdNeg;
+		this.id = id;
+		this.dd = dd;
+		this.sd = sd;
+	}
+
+	/**
+	 * Computes the key of a snapshot. Only the contents of the OWL files are
+	 * hashed, not the contents of the ontologies they import, i.e. the key
+	 * must only be used for OWL files without imports.
+	 * @param sources The knowledge sources the model is computed from.
+	 * @param settings Settings of the reasoners which influence the model.
+	 * @return The key (a hex encoded SHA-1 hash) or null if the model does
+	 * not only depend on OWL files, i.e. cannot be snapshotted.
+	 * @throws IOException If an OWL file cannot be read.
+	 */
+	public static String computeKey(Set<KnowledgeSource> sources, String settings) throws IOException {
+		if(sources == null || sources.isEmpty()) {
+			return null;
+		}
+		// the order of the sources must not matter
+		SortedSet<String> urls = new TreeSet<String>();
+		for(KnowledgeSource source : sources) {
+			if(!(source instanceof OWLFile) || ((OWLFile) source).getURL() == null) {
+				return null;
+			}
+			urls.add(((OWLFile) source).getURL().toString());
+		}
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new Error("SHA-1 not supported", e);
+		}
+		digest.update(toBytes(VERSION + "\n" + settings + "\n"));
+		byte[] buffer = new byte[65536];
+		for(String url : urls) {
+			digest.update(toBytes(url + "\n"));
+			InputStream in = new URL(url).openStream();
+			try {
+				int n;
+				while((n = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, n);
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		StringBuilder key = new StringBuilder();
+		for(byte b : digest.digest()) {
+			key.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @param directory The directory containing the snapshots.
+	 * @param key The key of a snapshot.
+	 * @return The file of the snapshot with the given key.
+	 */
+	public static File getFile(File directory, String key) {
+		return new File(directory, key + SUFFIX);
+	}
+
+	/**
+	 * Writes the snapshot. The snapshot is written to a temporary file in
+	 * the same directory first, an existing snapshot is not replaced.
+	 * @param file The file of the snapshot.
+	 * @throws IOException If the snapshot cannot be written.
+	 */
+	public void write(File file) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create directory " + directory);
+		}
+		File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 65536));
+			try {
+				write(out);
+			} finally {
+				out.close();
+			}
+			// another process may have written the snapshot in the meantime
+			if(!file.exists() && !tmp.renameTo(file) && !file.exists()) {
+				throw new IOException("Cannot rename " + tmp + " to " + file);
+			}
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	private void write(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		// string table
+		Map<String, Integer> names = new HashMap<String, Integer>();
+		List<String> table = new ArrayList<String>();
+		for(NamedClass nc : namedClasses) {
+			addName(nc.getName(), names, table);
+		}
+		for(ObjectProperty op : objectProperties) {
+			addName(op.getName(), names, table);
+		}
+		addNames(datatypeProperties, names, table);
+		for(Individual individual : individuals) {
+			addName(individual.getName(), names, table);
+		}
+		for(NamedClass nc : classInstancesPos.keySet()) {
+			addName(nc.getName(), names, table);
+		}
+		for(NamedClass nc : classInstancesNeg.keySet()) {
+			addName(nc.getName(), names, table);
+		}
+		for(Entry<ObjectProperty, Map<Individual, SortedSet<Individual>>> entry : opPos.entrySet()) {
+			addName(entry.getKey().getName(), names, table);
+			for(Entry<Individual, SortedSet<Individual>> members : entry.getValue().entrySet()) {
+				addName(members.getKey().getName(), names, table);
+				for(Individual individual : members.getValue()) {
+					addName(individual.getName(), names, table);
+				}
+			}
+		}
+		addNames(bdPos.keySet(), names, table);
+		addNames(bdNeg.keySet(), names, table);
+		addNames(id.keySet(), names, table);
+		addNames(dd.keySet(), names, table);
+		addNames(sd.keySet(), names, table);
+		out.writeInt(table.size());
+		for(String name : table) {
+			writeString(out, name);
+		}
+
+		out.writeInt(namedClasses.size());
+		for(NamedClass nc : namedClasses) {
+			out.writeInt(names.get(nc.getName()));
+		}
+		out.writeInt(objectProperties.size());
+		for(ObjectProperty op : objectProperties) {
+			out.writeInt(names.get(op.getName()));
+		}
+		writeDatatypeProperties(out, datatypeProperties, names);
+		writeDatatypeProperties(out, booleanDatatypeProperties, names);
+		writeDatatypeProperties(out, doubleDatatypeProperties, names);
+		writeDatatypeProperties(out, intDatatypeProperties, names);
+		writeDatatypeProperties(out, stringDatatypeProperties, names);
+
+		writeIndividuals(out, individuals, names);
+
+		out.writeInt(classInstancesPos.size());
+		for(Entry<NamedClass, TreeSet<Individual>> entry : classInstancesPos.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			writeIndividuals(out, entry.getValue(), names);
+		}
+		out.writeInt(classInstancesNeg.size());
+		for(Entry<NamedClass, TreeSet<Individual>> entry : classInstancesNeg.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			writeIndividuals(out, entry.getValue(), names);
+		}
+
+		out.writeInt(opPos.size());
+		for(Entry<ObjectProperty, Map<Individual, SortedSet<Individual>>> entry : opPos.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			out.writeInt(entry.getValue().size());
+			for(Entry<Individual, SortedSet<Individual>> members : entry.getValue().entrySet()) {
+				out.writeInt(names.get(members.getKey().getName()));
+				writeIndividuals(out, members.getValue(), names);
+			}
+		}
+
+		out.writeInt(bdPos.size());
+		for(Entry<DatatypeProperty, TreeSet<Individual>> entry : bdPos.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			writeIndividuals(out, entry.getValue(), names);
+		}
+		out.writeInt(bdNeg.size());
+		for(Entry<DatatypeProperty, TreeSet<Individual>> entry : bdNeg.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			writeIndividuals(out, entry.getValue(), names);
+		}
+
+		out.writeInt(id.size());
+		for(Entry<DatatypeProperty, Map<Individual, SortedSet<Integer>>> entry : id.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			out.writeInt(entry.getValue().size());
+			for(Entry<Individual, SortedSet<Integer>> members : entry.getValue().entrySet()) {
+				out.writeInt(names.get(members.getKey().getName()));
+				out.writeInt(members.getValue().size());
+				for(int value : members.getValue()) {
+					out.writeInt(value);
+				}
+			}
+		}
+		out.writeInt(dd.size());
+		for(Entry<DatatypeProperty, Map<Individual, SortedSet<Double>>> entry : dd.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			out.writeInt(entry.getValue().size());
+			for(Entry<Individual, SortedSet<Double>> members : entry.getValue().entrySet()) {
+				out.writeInt(names.get(members.getKey().getName()));
+				out.writeInt(members.getValue().size());
+				for(double value : members.getValue()) {
+					out.writeDouble(value);
+				}
+			}
+		}
+		out.writeInt(sd.size());
+		for(Entry<DatatypeProperty, Map<Individual, SortedSet<String>>> entry : sd.entrySet()) {
+			out.writeInt(names.get(entry.getKey().getName()));
+			out.writeInt(entry.getValue().size());
+			for(Entry<Individual, SortedSet<String>> members : entry.getValue().entrySet()) {
+				out.writeInt(names.get(members.getKey().getName()));
+				out.writeInt(members.getValue().size());
+				for(String value : members.getValue()) {
+					writeString(out, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot.
+	 * @param file The file of the snapshot.
+	 * @return The snapshot.
+	 * @throws IOException If the file cannot be read or is not a snapshot.
+	 */
+	public static FastInstanceCheckerSnapshot read(File file) throws IOException {
+		// sizes are checked against the file length, so a corrupt file does
+		// not make the reader allocate huge arrays
+		long limit = file.length();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+		try {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(file + " is not a snapshot of this version");
+			}
+
+			String[] table = new String[readSize(in, limit)];
+			for(int i=0; i<table.length; i++) {
+				table[i] = readString(in, limit);
+			}
+			// individuals are created once for each name
+			Individual[] individualCache = new Individual[table.length];
+
+			SortedSet<NamedClass> namedClasses = new TreeSet<NamedClass>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				namedClasses.add(new NamedClass(table[readPosition(in, table)]));
+			}
+			SortedSet<ObjectProperty> objectProperties = new TreeSet<ObjectProperty>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				objectProperties.add(new ObjectProperty(table[readPosition(in, table)]));
+			}
+			SortedSet<DatatypeProperty> datatypeProperties = readDatatypeProperties(in, table, limit);
+			SortedSet<DatatypeProperty> booleanDatatypeProperties = readDatatypeProperties(in, table, limit);
+			SortedSet<DatatypeProperty> doubleDatatypeProperties = readDatatypeProperties(in, table, limit);
+			SortedSet<DatatypeProperty> intDatatypeProperties = readDatatypeProperties(in, table, limit);
+			SortedSet<DatatypeProperty> stringDatatypeProperties = readDatatypeProperties(in, table, limit);
+
+			TreeSet<Individual> individuals = readIndividuals(in, table, individualCache, limit);
+
+			Map<NamedClass, TreeSet<Individual>> classInstancesPos = new TreeMap<NamedClass, TreeSet<Individual>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				NamedClass nc = new NamedClass(table[readPosition(in, table)]);
+				classInstancesPos.put(nc, readIndividuals(in, table, individualCache, limit));
+			}
+			Map<NamedClass, TreeSet<Individual>> classInstancesNeg = new TreeMap<NamedClass, TreeSet<Individual>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				NamedClass nc = new NamedClass(table[readPosition(in, table)]);
+				classInstancesNeg.put(nc, readIndividuals(in, table, individualCache, limit));
+			}
+
+			Map<ObjectProperty, Map<Individual, SortedSet<Individual>>> opPos = new TreeMap<ObjectProperty, Map<Individual, SortedSet<Individual>>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				ObjectProperty op = new ObjectProperty(table[readPosition(in, table)]);
+				Map<Individual, SortedSet<Individual>> members = new TreeMap<Individual, SortedSet<Individual>>();
+				for(int j=readSize(in, limit); j>0; j--) {
+					Individual individual = getIndividual(readPosition(in, table), table, individualCache);
+					members.put(individual, readIndividuals(in, table, individualCache, limit));
+				}
+				opPos.put(op, members);
+			}
+
+			Map<DatatypeProperty, TreeSet<Individual>> bdPos = new TreeMap<DatatypeProperty, TreeSet<Individual>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				DatatypeProperty dp = new DatatypeProperty(table[readPosition(in, table)]);
+				bdPos.put(dp, readIndividuals(in, table, individualCache, limit));
+			}
+			Map<DatatypeProperty, TreeSet<Individual>> bdNeg = new TreeMap<DatatypeProperty, TreeSet<Individual>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				DatatypeProperty dp = new DatatypeProperty(table[readPosition(in, table)]);
+				bdNeg.put(dp, readIndividuals(in, table, individualCache, limit));
+			}
+
+			Map<DatatypeProperty, Map<Individual, SortedSet<Integer>>> id = new TreeMap<DatatypeProperty, Map<Individual, SortedSet<Integer>>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				DatatypeProperty dp = new DatatypeProperty(table[readPosition(in, table)]);
+				Map<Individual, SortedSet<Integer>> members = new TreeMap<Individual, SortedSet<Integer>>();
+				for(int j=readSize(in, limit); j>0; j--) {
+					Individual individual = getIndividual(readPosition(in, table), table, individualCache);
+					SortedSet<Integer> values = new TreeSet<Integer>();
+					for(int k=readSize(in, limit); k>0; k--) {
+						values.add(in.readInt());
+					}
+					members.put(individual, values);
+				}
+				id.put(dp, members);
+			}
+			Map<DatatypeProperty, Map<Individual, SortedSet<Double>>> dd = new TreeMap<DatatypeProperty, Map<Individual, SortedSet<Double>>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				DatatypeProperty dp = new DatatypeProperty(table[readPosition(in, table)]);
+				Map<Individual, SortedSet<Double>> members = new TreeMap<Individual, SortedSet<Double>>();
+				for(int j=readSize(in, limit); j>0; j--) {
+					Individual individual = getIndividual(readPosition(in, table), table, individualCache);
+					SortedSet<Double> values = new TreeSet<Double>();
+					for(int k=readSize(in, limit); k>0; k--) {
+						values.add(in.readDouble());
+					}
+					members.put(individual, values);
+				}
+				dd.put(dp, members);
+			}
+			Map<DatatypeProperty, Map<Individual, SortedSet<String>>> sd = new TreeMap<DatatypeProperty, Map<Individual, SortedSet<String>>>();
+			for(int i=readSize(in, limit); i>0; i--) {
+				DatatypeProperty dp = new DatatypeProperty(table[readPosition(in, table)]);
+				Map<Individual, SortedSet<String>> members = new TreeMap<Individual, SortedSet<String>>();
+				for(int j=readSize(in, limit); j>0; j--) {
+					Individual individual = getIndividual(readPosition(in, table), table, individualCache);
+					SortedSet<String> values = new TreeSet<String>();
+					for(int k=readSize(in, limit); k>0; k--) {
+						values.add(readString(in, limit));
+					}
+					members.put(individual, values);
+				}
+				sd.put(dp, members);
+			}
+
+			if(in.read() != -1) {
+				throw new IOException(file + " is corrupt");
+			}
+			return new FastInstanceCheckerSnapshot(namedClasses, objectProperties, datatypeProperties, booleanDatatypeProperties, doubleDatatypeProperties, intDatatypeProperties, stringDatatypeProperties, individuals, classInstancesPos, classInstancesNeg, opPos, bdPos, bdNeg, id, dd, sd);
+		} catch (EOFException e) {
+			throw new IOException(file + " is corrupt", e);
+		} catch (RuntimeException e) {
+			// e.g. invalid UTF-8 strings
+			throw new IOException(file + " is corrupt", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void addName(String name, Map<String, Integer> names, List<String> table) {
+		if(!names.containsKey(name)) {
+			names.put(name, table.size());
+			table.add(name);
+		}
+	}
+
+	private static void addNames(Collection<DatatypeProperty> properties, Map<String, Integer> names, List<String> table) {
+		for(DatatypeProperty dp : properties) {
+			addName(dp.getName(), names, table);
+		}
+	}
+
+	private static void writeIndividuals(DataOutputStream out, Set<Individual> individuals, Map<String, Integer> names) throws IOException {
+		out.writeInt(individuals.size());
+		for(Individual individual : individuals) {
+			out.writeInt(names.get(individual.getName()));
+		}
+	}
+
+	private static void writeDatatypeProperties(DataOutputStream out, Set<DatatypeProperty> properties, Map<String, Integer> names) throws IOException {
+		out.writeInt(properties.size());
+		for(DatatypeProperty dp : properties) {
+			out.writeInt(names.get(dp.getName()));
+		}
+	}
+
+	private static SortedSet<DatatypeProperty> readDatatypeProperties(DataInputStream in, String[] table, long limit) throws IOException {
+		SortedSet<DatatypeProperty> properties = new TreeSet<DatatypeProperty>();
+		for(int i=readSize(in, limit); i>0; i--) {
+			properties.add(new DatatypeProperty(table[readPosition(in, table)]));
+		}
+		return properties;
+	}
+
+	private static TreeSet<Individual> readIndividuals(DataInputStream in, String[] table, Individual[] individualCache, long limit) throws IOException {
+		TreeSet<Individual> individuals = new TreeSet<Individual>();
+		for(int i=readSize(in, limit); i>0; i--) {
+			individuals.add(getIndividual(readPosition(in, table), table, individualCache));
+		}
+		return individuals;
+	}
+
+	// reads the size of a table, set or string, which cannot exceed the
+	// length of the file
+	private static int readSize(DataInputStream in, long limit) throws IOException {
+		int size = in.readInt();
+		if(size < 0 || size > limit) {
+			throw new IOException("invalid size " + size);
+		}
+		return size;
+	}
+
+	// reads a position in the string table
+	private static int readPosition(DataInputStream in, String[] table) throws IOException {
+		int position = in.readInt();
+		if(position < 0 || position >= table.length) {
+			throw new IOException("invalid string table position " + position);
+		}
+		return position;
+	}
+
+	private static Individual getIndividual(int position, String[] table, Individual[] individualCache) {
+		Individual individual = individualCache[position];
+		if(individual == null) {
+			individual = new Individual(table[position]);
+			individualCache[position] = individual;
+		}
+		return individual;
+	}
+
+	// strings are stored as length and UTF-8 bytes (DataOutput.writeUTF is
+	// limited to 64 KB)
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = toBytes(s);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in, long limit) throws IOException {
+		byte[] bytes = new byte[readSize(in, limit)];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private static byte[] toBytes(String s) {
+		try {
+			return s.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new Error("UTF-8 not supported", e);
+		}
+	}
+
+	public SortedSet<NamedClass> getNamedClasses() {
+		return namedClasses;
+	}
+
+	public SortedSet<ObjectProperty> getObjectProperties() {
+		return objectProperties;
+	}
+
+	public SortedSet<DatatypeProperty> getDatatypeProperties() {
+		return datatypeProperties;
+	}
+
+	public SortedSet<DatatypeProperty> getBooleanDatatypeProperties() {
+		return booleanDatatypeProperties;
+	}
+
+	public SortedSet<DatatypeProperty> getDoubleDatatypeProperties() {
+		return doubleDatatypeProperties;
+	}
+
+	public SortedSet<DatatypeProperty> getIntDatatypeProperties() {
+		return intDatatypeProperties;
+	}
+
+	public SortedSet<DatatypeProperty> getStringDatatypeProperties() {
+		return stringDatatypeProperties;
+	}
+
+	public TreeSet<Individual> getIndividuals() {
+		return individuals;
+	}
+
+	public Map<NamedClass, TreeSet<Individual>> getClassInstancesPos() {
+		return classInstancesPos;
+	}
+
+	public Map<NamedClass, TreeSet<Individual>> getClassInstancesNeg() {
+		return classInstancesNeg;
+	}
+
+	public Map<ObjectProperty, Map<Individual, SortedSet<Individual>>> getObjectPropertyMembers() {
+		return opPos;
+	}
+
+	public Map<DatatypeProperty, TreeSet<Individual>> getTrueDatatypeMembers() {
+		return bdPos;
+	}
+
+	public Map<DatatypeProperty, TreeSet<Individual>> getFalseDatatypeMembers() {
+		return bdNeg;
+	}
+
+	public Map<DatatypeProperty, Map<Individual, SortedSet<Integer>>> getIntDatatypeMembers() {
+		return id;
+	}
+
+	public Map<DatatypeProperty, Map<Individual, SortedSet<Double>>> getDoubleDatatypeMembers() {
+		return dd;
+	}
+
+	public Map<DatatypeProperty, Map<Individual, SortedSet<String>>> getStringDatatypeMembers() {
+		return sd;
+	}
+
+}
@@ -19,6 +19,7 @@
 
 package org.dllearner.reasoning;
 
+import java.util.BitSet;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -29,6 +30,7 @@ import org.dllearner.core.owl.Nothing;
 import org.dllearner.core.owl.Description;
 import org.dllearner.core.owl.ObjectSomeRestriction;
 import org.dllearner.core.owl.FlatABox;
+import org.dllearner.core.owl.IndexedFlatABox;
 import org.dllearner.core.owl.Intersection;
 import org.dllearner.core.owl.Union;
 import org.dllearner.core.owl.Negation;
@@ -36,61 +38,152 @@ import org.dllearner.core.owl.Thing;
 import org.dllearner.utilities.Helper;
 import org.dllearner.utilities.datastructures.SortedSetTuple;
 
+/**
+ * Two-valued retrieval over a flat ABox. The sets are computed on the
+ * compact variant of the ABox ({@link IndexedFlatABox}), i.e. conjunction,
+ * disjunction and negation are bitset operations and the role restrictions
+ * are computed from the adjacency arrays of the roles. The static methods
+ * work directly on the string sets of a {@link FlatABox}.
+ * 
+ */
 public class FastRetrieval {
 
 	private FlatABox abox;
+	private IndexedFlatABox indexedABox;
 	
 	public FastRetrieval(FlatABox abox) {
+		this(abox, IndexedFlatABox.create(abox));
+	}
+	
+	public FastRetrieval(IndexedFlatABox indexedABox) {
+		this(null, indexedABox);
+	}
+	
+	private FastRetrieval(FlatABox abox, IndexedFlatABox indexedABox) {
 		this.abox = abox;
+		this.indexedABox = indexedABox;
 	}
 	
 	public SortedSetTuple<String> calculateSets(Description concept) {
 		return calculateSetsADC(concept, null);
 	}
 	
-	// Algorithmus wird ueber Rekursion und 
-	// Delegation zur Helper-Klasse implementiert
+	// ADC sets are not supported (as before, the parameter is ignored)
 	public SortedSetTuple<String> calculateSetsADC(Description concept, SortedSetTuple<String> adcSet) {
+		BitSet[] sets = calculateBitSets(concept);
+		return new SortedSetTuple<String>(indexedABox.toStringSet(sets[0]), indexedABox.toStringSet(sets[1]));
+	}
+	
+	/**
+	 * Computes the positive and negative instances of a concept. The
+	 * returned bitsets must not be modified.
+	 * @param concept A concept.
+	 * @return An array containing the positive (index 0) and the negative
+	 * (index 1) instances as bitsets over the individuals of the compact ABox.
+	 */
+	public BitSet[] calculateBitSets(Description concept) {
 		if(concept instanceof Thing) {
-			return new SortedSetTuple<String>(abox.top,abox.bottom);
+			return new BitSet[] {indexedABox.getTop(), indexedABox.getBottom()};
 		} else if(concept instanceof Nothing) {
-			return new SortedSetTuple<String>(abox.bottom,abox.top);
+			return new BitSet[] {indexedABox.getBottom(), indexedABox.getTop()};
 		} else if(concept instanceof NamedClass) {
-			SortedSet<String> pos = abox.getPositiveInstances(((NamedClass)concept).getName());
-			SortedSet<String> neg = abox.getNegativeInstances(((NamedClass)concept).getName());
-			return new SortedSetTuple<String>(pos,neg);
+			BitSet pos = indexedABox.getPositiveInstances(((NamedClass)concept).getName());
+			BitSet neg = indexedABox.getNegativeInstances(((NamedClass)concept).getName());
+			if(pos == null)
+				return new BitSet[] {new BitSet(), new BitSet()};
+			return new BitSet[] {pos, neg};
 		} else if(concept instanceof Negation) {
-			return calculateNegationSet(calculateSetsADC(concept.getChild(0), adcSet));
-		} else if(concept instanceof Intersection) {
-			// this should never happen, but it does; we work around the issue
-			if(concept.getChildren().size()==1)
-				return calculateSetsADC(concept.getChild(0),adcSet);			
-			SortedSetTuple<String> res = 
-			calculateConjunctionSets(calculateSetsADC(concept.getChild(0),adcSet),calculateSetsADC(concept.getChild(1),adcSet));
-			for(int i=2; i < concept.getChildren().size(); i++) {
-				res = calculateConjunctionSets(res,calculateSetsADC(concept.getChild(i),adcSet));
-			}
-			return res;
-		} else if(concept instanceof Union) {
+			BitSet[] child = calculateBitSets(concept.getChild(0));
+			return new BitSet[] {child[1], child[0]};
+		} else if(concept instanceof Intersection || concept instanceof Union) {
 			// this should never happen, but it does; we work around the issue
 			if(concept.getChildren().size()==1)
-				return calculateSetsADC(concept.getChild(0),adcSet);
-			
-			SortedSetTuple<String> res = 
-			calculateDisjunctionSets(calculateSetsADC(concept.getChild(0),adcSet),calculateSetsADC(concept.getChild(1),adcSet));
-			for(int i=2; i < concept.getChildren().size(); i++) {
-				res = calculateDisjunctionSets(res,calculateSetsADC(concept.getChild(i),adcSet));
+				return calculateBitSets(concept.getChild(0));
+			boolean intersection = concept instanceof Intersection;
+			BitSet[] child = calculateBitSets(concept.getChild(0));
+			BitSet pos = (BitSet) child[0].clone();
+			BitSet neg = (BitSet) child[1].clone();
+			for(int i=1; i < concept.getChildren().size(); i++) {
+				child = calculateBitSets(concept.getChild(i));
+				if(intersection) {
+					pos.and(child[0]);
+					neg.or(child[1]);
+				} else {
+					pos.or(child[0]);
+					neg.and(child[1]);
+				}
 			}
-			return res;			
+			return new BitSet[] {pos, neg};
 		} else if(concept instanceof ObjectAllRestriction) {
-			return calculateAllSet(abox,((ObjectAllRestriction)concept).getRole().getName(),calculateSetsADC(concept.getChild(0),adcSet));
+			int role = indexedABox.getRoleIndex(((ObjectAllRestriction)concept).getRole().getName());
+			BitSet[] child = calculateBitSets(concept.getChild(0));
+			// forall r.C is the negation of exists r.(not C)
+			return new BitSet[] {calculateForAllNegatedSet(role, child[0]), calculateSomeSet(role, child[1])};
 		} else if(concept instanceof ObjectSomeRestriction) {
-			return calculateExistsSet(abox,((ObjectSomeRestriction)concept).getRole().getName(),calculateSetsADC(concept.getChild(0),adcSet));
+			int role = indexedABox.getRoleIndex(((ObjectSomeRestriction)concept).getRole().getName());
+			BitSet[] child = calculateBitSets(concept.getChild(0));
+			return new BitSet[] {calculateSomeSet(role, child[0]), calculateForAllNegatedSet(role, child[1])};
 		}
 			
 		throw new Error("Unknown concept type " + concept);
 	}
-
+	
+	// individuals a with r(a,b) for some b in the given set
+	private BitSet calculateSomeSet(int role, BitSet set) {
+		BitSet result = new BitSet();
+		int[][] predecessors = (role < 0) ? null : indexedABox.getPredecessors(role);
+		if(predecessors == null)
+			return result;
+		for(int b=set.nextSetBit(0); b>=0 && b<predecessors.length; b=set.nextSetBit(b+1)) {
+			for(int a : predecessors[b])
+				result.set(a);
+		}
+		return result;
+	}
+	
+	// individuals a of the domain for which all b of the domain, which are not
+	// known to be no r-filler of a, are in the given set (as there is no
+	// closed world assumption, only the negative role assertions restrict
+	// the possible r-fillers)
+	private BitSet calculateForAllNegatedSet(int role, BitSet set) {
+		BitSet domain = indexedABox.getDomain();
+		BitSet[] rminus = (role < 0) ? null : indexedABox.getNegativeRoleMembers(role);
+		boolean containsDomain = set.equals(domain);
+		if(rminus == null)
+			return containsDomain ? domain : new BitSet();
+		
+		// individuals of the domain which are not in the set
+		BitSet missing = (BitSet) domain.clone();
+		missing.andNot(set);
+		BitSet result = new BitSet();
+		BitSet tmp = new BitSet();
+		for(int a=domain.nextSetBit(0); a>=0; a=domain.nextSetBit(a+1)) {
+			BitSet negative = (a < rminus.length) ? rminus[a] : null;
+			if(negative == null) {
+				if(containsDomain)
+					result.set(a);
+			} else {
+				tmp.clear();
+				tmp.or(missing);
+				tmp.andNot(negative);
+				if(tmp.isEmpty())
+					result.set(a);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Checks whether an individual is a positive instance of a concept.
+	 * @param concept A concept.
+	 * @param individual Name of an individual.
+	 * @return True if the individual is a positive instance.
+	 */
+	public boolean hasType(Description concept, String individual) {
+		int index = indexedABox.getIndividualIndex(individual);
+		return index >= 0 && calculateBitSets(concept)[0].get(index);
+	}
+	
     
 	public static SortedSetTuple<String> calculateConjunctionSets(SortedSetTuple<String> child1, SortedSetTuple<String> child2) {
 		return new SortedSetTuple<String>(
@@ -215,7 +308,15 @@ public class FastRetrieval {
         return true;
     }    	
 	
+	/**
+	 * @return The flat ABox or null if this object has been created for a
+	 * compact ABox.
+	 */
 	public FlatABox getAbox() {
 		return abox;
 	}
+	
+	public IndexedFlatABox getIndexedAbox() {
+		return indexedABox;
+	}
 }
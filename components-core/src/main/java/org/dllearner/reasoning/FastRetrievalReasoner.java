@@ -19,6 +19,7 @@
 
 package org.dllearner.reasoning;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +35,7 @@ import org.dllearner.core.options.ConfigEntry;
 import org.dllearner.core.options.InvalidConfigOptionValueException;
 import org.dllearner.core.owl.Description;
 import org.dllearner.core.owl.FlatABox;
+import org.dllearner.core.owl.IndexedFlatABox;
 import org.dllearner.core.owl.Individual;
 import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.ObjectProperty;
@@ -72,12 +74,11 @@ public class FastRetrievalReasoner extends AbstractReasonerComponent {
 		individuals = rc.getIndividuals();
 //		rs = new ReasonerComponent(rc);
 		try {
-			abox = Helper.createFlatABox(rc);
+			fastRetrieval = new FastRetrieval(Helper.createIndexedFlatABox(rc));
 		} catch (ReasoningMethodUnsupportedException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
-		fastRetrieval = new FastRetrieval(abox);
 	}	
 	
 	public FastRetrievalReasoner(FlatABox abox) {
@@ -118,7 +119,12 @@ public class FastRetrievalReasoner extends AbstractReasonerComponent {
 	
 	@Override		
 	public SortedSet<Individual> getIndividualsImpl(Description concept) {
-		return Helper.getIndividualSet(fastRetrieval.calculateSets(concept).getPosSet());
+		IndexedFlatABox indexedAbox = fastRetrieval.getIndexedAbox();
+		BitSet pos = fastRetrieval.calculateBitSets(concept)[0];
+		SortedSet<Individual> result = new TreeSet<Individual>();
+		for(int i=pos.nextSetBit(0); i>=0; i=pos.nextSetBit(i+1))
+			result.add(new Individual(indexedAbox.getIndividual(i)));
+		return result;
 	}
 	
 	public Set<NamedClass> getNamedClasses() {
@@ -134,9 +140,17 @@ public class FastRetrievalReasoner extends AbstractReasonerComponent {
 		return individuals;
 	}
 
+	/**
+	 * @return The flat ABox or null if the reasoner has been created from
+	 * knowledge sources (only the compact ABox is created in this case).
+	 */
 	public FlatABox getFlatAbox() {
 		return abox;
 	}
+	
+	public IndexedFlatABox getIndexedFlatAbox() {
+		return fastRetrieval.getIndexedAbox();
+	}
 
 	// C \sqsubseteq D is rewritten to a retrieval for \not C \sqcap D
 	@Override
@@ -173,7 +187,7 @@ public class FastRetrievalReasoner extends AbstractReasonerComponent {
 	
 	@Override
 	public boolean hasTypeImpl(Description concept, Individual individual) {
-		return fastRetrieval.calculateSets(concept).getPosSet().contains(individual.getName());
+		return fastRetrieval.hasType(concept, individual.getName());
 	}
 	
 	public static String getName() {
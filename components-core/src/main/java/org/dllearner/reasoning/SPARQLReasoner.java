@@ -30,6 +30,11 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.commons.sparql.api.core.QueryExecutionFactory;
 import org.aksw.commons.sparql.api.http.QueryExecutionFactoryHttp;
@@ -40,6 +45,7 @@ import org.dllearner.core.IndividualReasoner;
 import org.dllearner.core.SchemaReasoner;
 import org.dllearner.core.config.BooleanEditor;
 import org.dllearner.core.config.ConfigOption;
+import org.dllearner.core.config.IntegerEditor;
 import org.dllearner.core.owl.ClassHierarchy;
 import org.dllearner.core.owl.Constant;
 import org.dllearner.core.owl.DataRange;
@@ -53,14 +59,18 @@ import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Nothing;
 import org.dllearner.core.owl.ObjectProperty;
 import org.dllearner.core.owl.ObjectPropertyHierarchy;
+import org.dllearner.core.owl.ObjectSomeRestriction;
+import org.dllearner.core.owl.ObjectValueRestriction;
 import org.dllearner.core.owl.Property;
 import org.dllearner.core.owl.Thing;
+import org.dllearner.core.owl.Union;
 import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
 import org.dllearner.kb.SparqlEndpointKS;
 import org.dllearner.kb.sparql.ExtractionDBCache;
 import org.dllearner.kb.sparql.SPARQLTasks;
 import org.dllearner.kb.sparql.SparqlEndpoint;
 import org.dllearner.kb.sparql.SparqlQuery;
+import org.dllearner.kb.sparql.SparqlQueryDescriptionConvertVisitor;
 import org.dllearner.utilities.datastructures.SortedSetTuple;
 import org.dllearner.utilities.owl.ConceptComparator;
 import org.slf4j.Logger;
@@ -91,6 +101,12 @@ public class SPARQLReasoner implements SchemaReasoner, IndividualReasoner{
 	@ConfigOption(name = "useCache", description = "Whether to use a DB cache", defaultValue = "true", required = false, propertyEditorClass = BooleanEditor.class)
 	private boolean useCache = true;
 	
+	@ConfigOption(name = "instanceCheckBatchSize", description = "Maximum number of individuals checked by one SPARQL query in a set-at-a-time instance check", defaultValue = "100", required = false, propertyEditorClass = IntegerEditor.class)
+	private int instanceCheckBatchSize = 100;
+	
+	@ConfigOption(name = "maxParallelQueries", description = "Maximum number of instance check queries sent to a remote endpoint at the same time", defaultValue = "4", required = false, propertyEditorClass = IntegerEditor.class)
+	private int maxParallelQueries = 4;
+	
 	private ExtractionDBCache cache;
 	
 	private SparqlEndpointKS ks;
@@ -402,16 +418,124 @@ public class SPARQLReasoner implements SchemaReasoner, IndividualReasoner{
 	@Override
 	public boolean hasType(Description description, Individual individual) {
 		if(!(description instanceof NamedClass)){
-			throw new UnsupportedOperationException("Only named classes are supported.");
+			SortedSet<Individual> individuals = new TreeSet<Individual>();
+			individuals.add(individual);
+			return !hasType(description, individuals).isEmpty();
 		}
 		String query = String.format("ASK {<%s> a <%s>}", individual.toString(), ((NamedClass)description).getName());
 		boolean hasType = executeAskQuery(query);
 		return hasType;
 	}
 
+	/**
+	 * Set-at-a-time instance check. The description is converted into a single SELECT query
+	 * whose subject is bound to the individuals by a VALUES block. The individuals are split into
+	 * batches of at most <code>instanceCheckBatchSize</code> individuals, and the batches are sent
+	 * to a remote endpoint in parallel (at most <code>maxParallelQueries</code> at the same time).
+	 * If the DB cache is used, the result of each batch is stored in it.
+	 * Only named classes, intersections, unions, existential restrictions and value restrictions
+	 * are supported.
+	 */
 	@Override
 	public SortedSet<Individual> hasType(Description description, Set<Individual> individuals) {
-		throw new UnsupportedOperationException();
+		SortedSet<Individual> result = new TreeSet<Individual>();
+		if(individuals.isEmpty() || description instanceof Nothing){
+			return result;
+		}
+		if(description instanceof Thing){
+			result.addAll(individuals);
+			return result;
+		}
+		if(!isSupportedInInstanceChecks(description)){
+			throw new UnsupportedOperationException("Description not supported in instance checks: " + description);
+		}
+		
+		SparqlQueryDescriptionConvertVisitor visitor = new SparqlQueryDescriptionConvertVisitor();
+		visitor.setDistinct(true);
+		visitor.noLimit();
+		final String query = visitor.getSparqlQuery(description);
+		
+		List<List<Individual>> batches = new ArrayList<List<Individual>>();
+		List<Individual> batch = null;
+		for(Individual ind : individuals){
+			if(batch == null || batch.size() == instanceCheckBatchSize){
+				batch = new ArrayList<Individual>(Math.min(instanceCheckBatchSize, individuals.size()));
+				batches.add(batch);
+			}
+			batch.add(ind);
+		}
+		
+		// local models may use an inference graph, which must not be queried by several threads
+		int nrOfThreads = ks.isRemote() ? Math.min(maxParallelQueries, batches.size()) : 1;
+		if(nrOfThreads <= 1){
+			for(List<Individual> b : batches){
+				result.addAll(executeInstanceCheckQuery(query, b));
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+			try {
+				List<Future<Set<Individual>>> futures = new ArrayList<Future<Set<Individual>>>(batches.size());
+				for(final List<Individual> b : batches){
+					futures.add(executor.submit(new Callable<Set<Individual>>() {
+						@Override
+						public Set<Individual> call() {
+							return executeInstanceCheckQuery(query, b);
+						}
+					}));
+				}
+				for(Future<Set<Individual>> future : futures){
+					result.addAll(future.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Instance check interrupted", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Instance check failed", e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Executes the instance check query for a batch of individuals by adding a VALUES block for
+	 * the subject variable at the beginning of the WHERE clause.
+	 */
+	private Set<Individual> executeInstanceCheckQuery(String query, List<Individual> individuals){
+		StringBuilder values = new StringBuilder("VALUES ?subject {");
+		for(Individual ind : individuals){
+			values.append(" <").append(ind.getName()).append(">");
+		}
+		values.append(" } ");
+		int index = query.indexOf('{') + 1;
+		String batchQuery = query.substring(0, index) + " " + values + query.substring(index);
+		
+		Set<Individual> result = new HashSet<Individual>();
+		ResultSet rs = executeSelectQuery(batchQuery);
+		QuerySolution qs;
+		while(rs.hasNext()){
+			qs = rs.next();
+			result.add(new Individual(qs.getResource("subject").getURI()));
+		}
+		return result;
+	}
+	
+	private boolean isSupportedInInstanceChecks(Description description){
+		if(description instanceof NamedClass || description instanceof Thing
+				|| description instanceof ObjectValueRestriction){
+			return true;
+		}
+		if(description instanceof Intersection || description instanceof Union
+				|| description instanceof ObjectSomeRestriction){
+			for(Description child : description.getChildren()){
+				if(!isSupportedInInstanceChecks(child)){
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -1078,6 +1202,22 @@ public class SPARQLReasoner implements SchemaReasoner, IndividualReasoner{
 		this.useCache = useCache;
 	}
 	
+	public int getInstanceCheckBatchSize() {
+		return instanceCheckBatchSize;
+	}
+	
+	public void setInstanceCheckBatchSize(int instanceCheckBatchSize) {
+		this.instanceCheckBatchSize = Math.max(1, instanceCheckBatchSize);
+	}
+	
+	public int getMaxParallelQueries() {
+		return maxParallelQueries;
+	}
+	
+	public void setMaxParallelQueries(int maxParallelQueries) {
+		this.maxParallelQueries = Math.max(1, maxParallelQueries);
+	}
+	
 	private boolean executeAskQuery(String query){
 		boolean ret;
 		if(ks.isRemote()){
@@ -0,0 +1,334 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.reasoning.fuzzydll;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import fuzzydl.Concept;
+import fuzzydl.Individual;
+import fuzzydl.KnowledgeBase;
+import fuzzydl.MinInstanceQuery;
+import fuzzydl.Query;
+import fuzzydl.milp.Solution;
+
+/**
+ * Answers fuzzy membership queries (the minimal degree to which an individual
+ * is an instance of a concept) against a solved fuzzyDL knowledge base.
+ *
+ * Solving a query adds assertions to the knowledge base, so each query is
+ * solved on its own copy of the knowledge base. Several individuals cannot
+ * share a copy: the assertion added for one individual stays in the copy and
+ * may change the membership degrees of the individuals related to it.
+ * Memberships are memoised per concept and individual (the learning
+ * algorithms ask for the same memberships many times), and the memberships of
+ * several individuals can be computed in parallel. Cloning the knowledge base
+ * is not thread safe, so each query thread clones the knowledge base only
+ * once (one thread at a time) and creates the copies for its queries from its
+ * own clone, i.e. the copies are created in parallel as well. The threads
+ * only share the concept of the queries, which fuzzyDL does not modify (the
+ * assertion of a query is added to its copy of the knowledge base). The time
+ * spent cloning and solving is measured (see {@link #getCloneTime()} and
+ * {@link #getSolveTime()}).
+ *
+ * Queries which fail or report an inconsistent knowledge base are logged as
+ * errors and counted; their membership degree is 0 (or the degree of the
+ * inconsistent solution) and is not memoised.
+ *
+ */
+public class FuzzyDLQueryEngine {
+
+	private static Logger logger = Logger.getLogger(FuzzyDLQueryEngine.class);
+
+	public static final int DEFAULT_CACHE_SIZE = 100000;
+
+	private KnowledgeBase fuzzyKB;
+
+	private int nrOfThreads;
+	private ExecutorService executor;
+
+	// memoised memberships (least recently used ones are evicted first),
+	// the key is the concept and the individual as string
+	private int cacheSize;
+	private Map<String, Double> cache;
+
+	private AtomicInteger nrOfQueries = new AtomicInteger();
+	private AtomicInteger nrOfCacheHits = new AtomicInteger();
+	private AtomicInteger nrOfFailedQueries = new AtomicInteger();
+	private AtomicLong cloneTimeNs = new AtomicLong();
+	private AtomicLong solveTimeNs = new AtomicLong();
+
+	// clone of the knowledge base of each query thread, the copies for the
+	// queries of the thread are created from it
+	private ThreadLocal<KnowledgeBase> threadKB = new ThreadLocal<KnowledgeBase>() {
+		@Override
+		protected KnowledgeBase initialValue() {
+			return copyKB();
+		}
+	};
+
+	public FuzzyDLQueryEngine(KnowledgeBase fuzzyKB, int nrOfThreads, int cacheSize) {
+		this.fuzzyKB = fuzzyKB;
+		this.nrOfThreads = Math.max(1, nrOfThreads);
+		this.cacheSize = Math.max(0, cacheSize);
+		cache = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+				return size() > FuzzyDLQueryEngine.this.cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Computes the membership degree of an individual.
+	 * @param concept A fuzzyDL concept.
+	 * @param individual A fuzzyDL individual.
+	 * @return The minimal degree to which the individual is an instance of
+	 * the concept.
+	 */
+	public double getMembership(Concept concept, Individual individual) {
+		String conceptKey = concept.toString();
+		Double membership = lookup(conceptKey, individual);
+		if(membership == null) {
+			Solution solution = solve(concept, individual, copyKB());
+			membership = toMembership(solution);
+			if(isValid(solution))
+				store(conceptKey, individual, membership);
+		}
+		return membership;
+	}
+
+	/**
+	 * Computes the membership degrees of several individuals, the queries
+	 * which are not memoised are solved in parallel (each on its own copy of
+	 * the knowledge base).
+	 * @param concept A fuzzyDL concept.
+	 * @param individuals fuzzyDL individuals.
+	 * @return The membership degrees in the order of the individuals.
+	 */
+	public double[] getMemberships(final Concept concept, final List<Individual> individuals) {
+		final String conceptKey = concept.toString();
+		final double[] memberships = new double[individuals.size()];
+		final Solution[] solutions = new Solution[individuals.size()];
+		List<Integer> missing = new ArrayList<Integer>();
+		for(int i=0; i<memberships.length; i++) {
+			Double membership = lookup(conceptKey, individuals.get(i));
+			if(membership == null)
+				missing.add(i);
+			else
+				memberships[i] = membership;
+		}
+
+		if(nrOfThreads == 1 || missing.size() < 2) {
+			for(int i : missing)
+				solutions[i] = solve(concept, individuals.get(i), copyKB());
+		} else {
+			// the query threads create the copies of the knowledge base
+			List<Future<?>> futures = new ArrayList<Future<?>>(missing.size());
+			try {
+				for(int i : missing) {
+					final int position = i;
+					futures.add(getExecutor().submit(new Callable<Object>() {
+						public Object call() {
+							solutions[position] = solve(concept, individuals.get(position), copyThreadKB());
+							return null;
+						}
+					}));
+				}
+				for(Future<?> future : futures)
+					future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Fuzzy membership queries interrupted", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Fuzzy membership queries failed", e.getCause());
+			}
+		}
+
+		for(int i : missing) {
+			memberships[i] = toMembership(solutions[i]);
+			if(isValid(solutions[i]))
+				store(conceptKey, individuals.get(i), memberships[i]);
+		}
+		return memberships;
+	}
+
+	// cloning is not thread safe, so concurrent callers clone one at a time
+	private KnowledgeBase copyKB() {
+		synchronized(fuzzyKB) {
+			return copy(fuzzyKB);
+		}
+	}
+
+	// the clone of the query thread is only used by this thread
+	private KnowledgeBase copyThreadKB() {
+		return copy(threadKB.get());
+	}
+
+	private KnowledgeBase copy(KnowledgeBase kb) {
+		long start = System.nanoTime();
+		KnowledgeBase copy = kb.clone();
+		cloneTimeNs.addAndGet(System.nanoTime() - start);
+		return copy;
+	}
+
+	// the solution of the query or null if the query failed
+	private Solution solve(Concept concept, Individual individual, KnowledgeBase kb) {
+		nrOfQueries.incrementAndGet();
+		Query query = new MinInstanceQuery(concept, individual);
+		Solution solution;
+		long start = System.nanoTime();
+		try {
+			solution = query.solve(kb);
+		} catch (Exception e) {
+			solveTimeNs.addAndGet(System.nanoTime() - start);
+			nrOfFailedQueries.incrementAndGet();
+			logger.error("fuzzyDL query failed (concept: " + concept + ", individual: " + individual + "), assuming membership 0", e);
+			return null;
+		}
+		solveTimeNs.addAndGet(System.nanoTime() - start);
+		if(!solution.isConsistentKB()) {
+			// this may be a fuzzyDL reasoner bug
+			nrOfFailedQueries.incrementAndGet();
+			logger.error("Fuzzy KB is inconsistent (concept: " + concept + ", individual: " + individual + ")");
+		}
+		return solution;
+	}
+
+	private static double toMembership(Solution solution) {
+		return (solution == null) ? 0 : solution.getSolution();
+	}
+
+	// only memberships of successful queries are memoised
+	private static boolean isValid(Solution solution) {
+		return solution != null && solution.isConsistentKB();
+	}
+
+	private Double lookup(String conceptKey, Individual individual) {
+		if(cacheSize == 0)
+			return null;
+		Double membership;
+		synchronized(cache) {
+			membership = cache.get(conceptKey + " " + individual);
+		}
+		if(membership != null)
+			nrOfCacheHits.incrementAndGet();
+		return membership;
+	}
+
+	private void store(String conceptKey, Individual individual, double membership) {
+		if(cacheSize == 0)
+			return;
+		synchronized(cache) {
+			cache.put(conceptKey + " " + individual, membership);
+		}
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if(executor == null) {
+			// daemon threads, since the reasoner is not always disposed
+			executor = Executors.newFixedThreadPool(nrOfThreads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "fuzzyDL-query");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the threads used for the queries and clears the memoised
+	 * memberships.
+	 */
+	public synchronized void shutdown() {
+		logger.debug("fuzzyDL queries: " + getNrOfQueries() + " (failed: " + getNrOfFailedQueries()
+				+ "), memoised memberships used: " + getNrOfCacheHits() + ", cloning: "
+				+ getCloneTime() + "ms, solving: " + getSolveTime() + "ms");
+		if(executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+		synchronized(cache) {
+			cache.clear();
+		}
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @return The number of queries solved by fuzzyDL (i.e. not answered
+	 * from the memoised memberships).
+	 */
+	public int getNrOfQueries() {
+		return nrOfQueries.get();
+	}
+
+	public int getNrOfCacheHits() {
+		return nrOfCacheHits.get();
+	}
+
+	/**
+	 * @return The number of queries which failed or reported an inconsistent
+	 * knowledge base.
+	 */
+	public int getNrOfFailedQueries() {
+		return nrOfFailedQueries.get();
+	}
+
+	/**
+	 * @return The time (in ms, summed over all threads) spent cloning the
+	 * knowledge base for the queries.
+	 */
+	public long getCloneTime() {
+		return cloneTimeNs.get() / 1000000;
+	}
+
+	/**
+	 * @return The time (in ms, summed over all threads) spent solving the
+	 * queries on the copies of the knowledge base.
+	 */
+	public long getSolveTime() {
+		return solveTimeNs.get() / 1000000;
+	}
+
+}
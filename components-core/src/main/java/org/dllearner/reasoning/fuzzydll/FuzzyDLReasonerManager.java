@@ -27,11 +27,11 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -83,7 +83,6 @@ import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
 
 import fuzzydl.*;
 import fuzzydl.exception.FuzzyOntologyException;
-import fuzzydl.milp.Solution;
 import fuzzydl.parser.*;
 import fuzzydll.fuzzyowl2fuzzydlparser.*;
 
@@ -93,7 +92,7 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 	private static final String FUZZYOWL2FUZZYDLPARSEROUTPUT = "../test/fuzzydll/fuzzyOWL2fuzzyDLparserOutput.fuzzyDL.txt";
 	private static String CONFIG_FILENAME = "../test/fuzzydll/CONFIG";
 
-	private Solution queryResult;
+	private FuzzyDLQueryEngine queryEngine;
 	private KnowledgeBase fuzzyKB;
 	private Parser parser;
 	private SimpleShortFormProvider shortFormParser;
@@ -129,7 +128,6 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 		
 		startPellet(ontology, conf);
 		
-		queryResult = null;
 		parser = null;
 
 		shortFormParser = new SimpleShortFormProvider();
@@ -142,6 +140,8 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 		
 		solveKB();
 		
+		queryEngine = new FuzzyDLQueryEngine(fuzzyKB, 1, FuzzyDLQueryEngine.DEFAULT_CACHE_SIZE);
+		
 		  // errorFile = new FileOutputStream("errorFile.txt");
 	}
 
@@ -183,46 +183,38 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 			Individual fIndividual = fuzzyKB.getIndividual(shortFormParser.getShortForm((OWLEntity) i));
 			Concept fConcept = OWLAPI_fuzzyDLObjectParser.getFuzzyDLExpresion(oce);
 			
-			Query q = new MinInstanceQuery(fConcept, fIndividual);
-
-			try {
-				KnowledgeBase clonedFuzzyKB = fuzzyKB.clone();
-				
-				// TODO: just for testing, remove
-//				long start = System.nanoTime();
-				
-				queryResult = q.solve(clonedFuzzyKB);
-				
-				// TODO: just for testing, remove
-//				out.println(counter + " * " + (System.nanoTime() - start));
-//				counter++;
-
-				if (!queryResult.isConsistentKB()){
-					System.err.println("Fuzzy KB is inconsistent.");
-					System.err.println("This may be a fuzzyDL reasoner bug. Press enter to continue.");
-					System.err.println("concept: " + fConcept + " individual: " + fIndividual);
-					Scanner sc = new Scanner(System.in);
-					sc.nextLine();
-					// System.exit(0);
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-//				try {
-//					errorFile.write(fIndividual.toString().getBytes());
-//					errorFile.write("\n".getBytes());
-//					errorFile.write(fConcept.toString().getBytes());
-//					errorFile.write("\n".getBytes());
-//					errorFile.write(getStackTrace(e).getBytes());
-//				} catch (IOException e1) {
-//					// TODO Auto-generated catch block
-//					e1.printStackTrace();
-//				}
-//				Scanner sc = new Scanner(System.in);
-//				sc.nextLine();		
-			}
-			
 			// return (1 - Math.abs(truthDegree - queryResult.getSolution()));
-			return queryResult.getSolution();
+			return queryEngine.getMembership(fConcept, fIndividual);
+	}
+
+	/**
+	 * Computes the fuzzy memberships of several individuals at once (the
+	 * fuzzyDL queries are solved in parallel if the query engine uses more
+	 * than one thread).
+	 * @param oce A class expression.
+	 * @param individuals Individuals.
+	 * @return The memberships in the order of the individuals.
+	 */
+	public double[] getFuzzyMemberships(OWLClassExpression oce, List<? extends OWLIndividual> individuals) {
+		// the concept is translated once here, since the parser is not thread safe
+		Concept fConcept = OWLAPI_fuzzyDLObjectParser.getFuzzyDLExpresion(oce);
+		List<Individual> fIndividuals = new ArrayList<Individual>(individuals.size());
+		for (OWLIndividual i : individuals)
+			fIndividuals.add(fuzzyKB.getIndividual(shortFormParser.getShortForm((OWLEntity) i)));
+		return queryEngine.getMemberships(fConcept, fIndividuals);
+	}
+
+	/**
+	 * Sets the number of threads and the number of memoised memberships used
+	 * for the fuzzyDL queries (the memoised memberships are cleared).
+	 */
+	public void configureQueryEngine(int nrOfThreads, int membershipCacheSize) {
+		queryEngine.shutdown();
+		queryEngine = new FuzzyDLQueryEngine(fuzzyKB, nrOfThreads, membershipCacheSize);
+	}
+
+	public FuzzyDLQueryEngine getQueryEngine() {
+		return queryEngine;
 	}
 
 	public KnowledgeBase getFuzzyKB() {
@@ -241,7 +233,7 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 
 	@Override
 	public void dispose() {
-		// TODO Auto-generated method stub
+		queryEngine.shutdown();
 		crispReasoner.dispose();
 	}
 
@@ -378,28 +370,14 @@ public class FuzzyDLReasonerManager implements OWLReasoner {
 		
 		// added by Josue in order to use fuzzyDL and not Pellet to answer this OWLAPI method
 		boolean differentInstances = false;
-		Solution localQuerySolution = null;
 		NodeSet<OWLNamedIndividual> owlApiOutput = crispReasoner.getInstances(arg0, arg1);
 		Set<OWLNamedIndividual> owlApiInstances = owlApiOutput.getFlattened();
-		for (Individual fuzzyIndividual : fuzzyKB.individuals.values()) {
-			// TODO this "query process" is repeated several times --> create a (private) method
-			Query localQuery = new MinInstanceQuery(OWLAPI_fuzzyDLObjectParser.getFuzzyDLExpresion(arg0), fuzzyIndividual);
-			try {
-				KnowledgeBase clonedFuzzyKB = fuzzyKB.clone();
-				localQuerySolution = localQuery.solve(clonedFuzzyKB);
-				if (!localQuerySolution.isConsistentKB()){
-					System.err.println("Fuzzy KB is inconsistent.");
-					System.err.println("This may be a fuzzyDL reasoner bug. Press enter to continue.");
-					System.err.println("concept: " + arg0 + " individual: " + fuzzyIndividual);
-					Scanner sc = new Scanner(System.in);
-					sc.nextLine();
-				}
-			} catch (Exception e) {
-				e.printStackTrace();		
-			}
-			if (localQuerySolution.getSolution() == 0) {
+		List<Individual> fuzzyIndividuals = new ArrayList<Individual>(fuzzyKB.individuals.values());
+		double[] memberships = queryEngine.getMemberships(OWLAPI_fuzzyDLObjectParser.getFuzzyDLExpresion(arg0), fuzzyIndividuals);
+		for (int i = 0; i < memberships.length; i++) {
+			if (memberships[i] == 0) {
+				String a = baseURI.concat(fuzzyIndividuals.get(i).toString());
 				for (OWLNamedIndividual owlApiSingleInstance : owlApiOutput.getFlattened()) {
-					String a = baseURI.concat(fuzzyIndividual.toString());
 					String b = owlApiSingleInstance.toStringID();
 					if (a.equals(b)) {
 						owlApiInstances.remove(owlApiSingleInstance);	
@@ -45,6 +45,7 @@ import org.dllearner.core.ComponentInitException;
 import org.dllearner.core.KnowledgeSource;
 import org.dllearner.core.options.ConfigEntry;
 import org.dllearner.core.options.ConfigOption;
+import org.dllearner.core.options.IntegerConfigOption;
 import org.dllearner.core.options.InvalidConfigOptionValueException;
 import org.dllearner.core.options.StringConfigOption;
 import org.dllearner.core.options.URLConfigOption;
@@ -174,6 +175,10 @@ public class FuzzyOWLAPIReasoner extends AbstractReasonerComponent {
 	private int reasonersComparationDisparityCounter = 0;
 	private URL owlLinkURL;
 	
+	// fuzzyDL queries
+	private int numberOfThreads = 1;
+	private int membershipCacheSize = FuzzyDLQueryEngine.DEFAULT_CACHE_SIZE;
+	
     public FuzzyOWLAPIReasoner() {
 
     }	
@@ -201,6 +206,8 @@ public class FuzzyOWLAPIReasoner extends AbstractReasonerComponent {
 		} catch (MalformedURLException e) {
 			e.printStackTrace();
 		}
+		options.add(new IntegerConfigOption("numberOfThreads", "number of threads used to answer fuzzyDL membership queries in parallel", 1));
+		options.add(new IntegerConfigOption("membershipCacheSize", "maximum number of fuzzy memberships memoised per (concept, individual), 0 disables memoisation", FuzzyDLQueryEngine.DEFAULT_CACHE_SIZE));
 		return options;
 	}	
 	
@@ -318,6 +325,7 @@ public class FuzzyOWLAPIReasoner extends AbstractReasonerComponent {
 			// ontology and conf are passed so FuzzyDLReasonerManager can instanciate also a Pellet reasoner
 			try {
 				reasoner = new FuzzyDLReasonerManager(((OWLFile)sources.iterator().next()).getURL().toString(), ontology, conf, factory, baseURI);
+				((FuzzyDLReasonerManager) reasoner).configureQueryEngine(numberOfThreads, membershipCacheSize);
 			} catch (Exception e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
@@ -1130,6 +1138,16 @@ public class FuzzyOWLAPIReasoner extends AbstractReasonerComponent {
 		
 		return fuzzyReasonerOutput;
 	}
+	
+	@Override
+	public double[] hasTypeFuzzyMembershipImpl(Description description, List<FuzzyIndividual> individuals) {
+		OWLClassExpression desc = OWLAPIDescriptionConvertVisitor.getOWLClassExpression(description);
+		List<OWLIndividual> inds = new LinkedList<OWLIndividual>();
+		for (FuzzyIndividual individual : individuals)
+			inds.add(factory.getOWLNamedIndividual(IRI.create(individual.getName())));
+		
+		return ((FuzzyDLReasonerManager) reasoner).getFuzzyMemberships(desc, inds);
+	}
 
 	public void setReasoner(OWLReasoner reasoner) {
 		this.reasoner = reasoner;
@@ -1142,5 +1160,21 @@ public class FuzzyOWLAPIReasoner extends AbstractReasonerComponent {
 	public void setOwlLinkURL(URL owlLinkURL) {
 		this.owlLinkURL = owlLinkURL;
 	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public int getMembershipCacheSize() {
+		return membershipCacheSize;
+	}
+
+	public void setMembershipCacheSize(int membershipCacheSize) {
+		this.membershipCacheSize = membershipCacheSize;
+	}
 	
 }
@@ -0,0 +1,1151 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.refinementoperators;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.log4j.Logger;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.BooleanValueRestriction;
+import org.dllearner.core.owl.ClassHierarchy;
+import org.dllearner.core.owl.Constant;
+import org.dllearner.core.owl.DatatypeProperty;
+import org.dllearner.core.owl.DatatypeSomeRestriction;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.DoubleMaxValue;
+import org.dllearner.core.owl.DoubleMinValue;
+import org.dllearner.core.owl.DoubleValueRestriction;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.IntMaxValue;
+import org.dllearner.core.owl.IntMinValue;
+import org.dllearner.core.owl.Intersection;
+import org.dllearner.core.owl.NamedClass;
+import org.dllearner.core.owl.Negation;
+import org.dllearner.core.owl.Nothing;
+import org.dllearner.core.owl.ObjectAllRestriction;
+import org.dllearner.core.owl.ObjectMaxCardinalityRestriction;
+import org.dllearner.core.owl.ObjectProperty;
+import org.dllearner.core.owl.ObjectPropertyExpression;
+import org.dllearner.core.owl.ObjectSomeRestriction;
+import org.dllearner.core.owl.StringValueRestriction;
+import org.dllearner.core.owl.Thing;
+import org.dllearner.core.owl.Union;
+import org.dllearner.utilities.Helper;
+import org.dllearner.utilities.owl.ConceptComparator;
+import org.dllearner.utilities.owl.ConceptTransformation;
+
+/**
+ * The knowledge {@link RhoDRDown2008} derives from the background knowledge,
+ * i.e. domains and ranges of properties, frequent values, splits of datatype
+ * properties, the sets M_\top and M_A, the applicable properties and the
+ * refinements of the top concept.
+ * 
+ * This knowledge only depends on the reasoner, the class hierarchy and the
+ * settings of the operator, so it can be computed once and shared by several
+ * operators with the same settings (e.g. the operators of a pool used by
+ * parallel workers). Everything computed in the constructor is read-only
+ * afterwards. The refinements of the top concept are extended lazily when a
+ * greater length is requested; the extension is done while holding the lock
+ * of this object and the extended tables are only published when they are
+ * complete, so readers do not need any lock. The cache of disjointness tests
+ * is a concurrent map.
+ * 
+ */
+public class RhoDRDown2008Knowledge {
+
+	private static Logger logger = Logger.getLogger(RhoDRDown2008Knowledge.class);
+
+	private final AbstractReasonerComponent rs;
+
+	// hierarchies
+	private final ClassHierarchy subHierarchy;
+
+	// settings of the operator the knowledge has been computed for
+	private final boolean useNegation;
+	private final boolean useBooleanDatatypes;
+	private final boolean useDoubleDatatypes;
+	private final boolean useExistsConstructor;
+	private final boolean useAllConstructor;
+	private final boolean useHasValueConstructor;
+	private final boolean useDataHasValueConstructor;
+	private final boolean useCardinalityRestrictions;
+	private final boolean isDisjunctionAllowed;
+	private final boolean applyExistsFilter;
+	private final boolean instanceBasedDisjoints;
+	private final int cardinalityLimit;
+	private final int frequencyThreshold;
+	private final int maxNrOfSplits;
+	private final Map<DatatypeProperty,List<Double>> givenSplits;
+
+	// domains and ranges
+	private final Map<ObjectProperty,Description> opDomains = new TreeMap<ObjectProperty,Description>();
+	private final Map<DatatypeProperty,Description> dpDomains = new TreeMap<DatatypeProperty,Description>();
+	private final Map<ObjectProperty,Description> opRanges = new TreeMap<ObjectProperty,Description>();
+
+	// maximum number of fillers for eeach role
+	private final Map<ObjectProperty,Integer> maxNrOfFillers = new TreeMap<ObjectProperty,Integer>();
+
+	// splits for double datatype properties in ascening order
+	private Map<DatatypeProperty,List<Double>> splits;
+
+	// identified frequent values
+	private final Map<ObjectProperty, Set<Individual>> frequentValues = new HashMap<ObjectProperty, Set<Individual>>();	
+	// frequent data values
+	private final Map<DatatypeProperty, Set<Constant>> frequentDataValues = new HashMap<DatatypeProperty, Set<Constant>>();	
+
+	// M is finite and this value is the maximum length of any value in M
+	private static int mMaxLength = 4;
+
+	// the following tables are only accessed while holding the lock of this object
+
+	// the sets M_\top and M_A
+	private Map<Integer,SortedSet<Description>> m = new TreeMap<Integer,SortedSet<Description>>();
+	private Map<NamedClass,Map<Integer,SortedSet<Description>>> mA = new TreeMap<NamedClass,Map<Integer,SortedSet<Description>>>();
+
+	// @see MathOperations.getCombos
+	private Map<Integer, List<List<Integer>>> combos = new HashMap<Integer, List<List<Integer>>>();
+
+	// refinements of the top concept ordered by length
+	private Map<Integer, SortedSet<Description>> topRefinements = new TreeMap<Integer, SortedSet<Description>>();
+	private Map<NamedClass,Map<Integer, SortedSet<Description>>> topARefinements = new TreeMap<NamedClass,Map<Integer, SortedSet<Description>>>();
+
+	// app_A set of applicable properties for a given class (separate for
+	// object properties, boolean datatypes, and double datatypes)
+	private Map<NamedClass, Set<ObjectProperty>> appOP = new TreeMap<NamedClass, Set<ObjectProperty>>();
+	private Map<NamedClass, Set<DatatypeProperty>> appBD = new TreeMap<NamedClass, Set<DatatypeProperty>>();
+	private Map<NamedClass, Set<DatatypeProperty>> appDD = new TreeMap<NamedClass, Set<DatatypeProperty>>();
+
+	// most general applicable properties
+	private Map<NamedClass,Set<ObjectProperty>> mgr = new TreeMap<NamedClass,Set<ObjectProperty>>();
+	private Map<NamedClass,Set<DatatypeProperty>> mgbd = new TreeMap<NamedClass,Set<DatatypeProperty>>();
+	private Map<NamedClass,Set<DatatypeProperty>> mgdd = new TreeMap<NamedClass,Set<DatatypeProperty>>();
+	private Map<NamedClass,Set<DatatypeProperty>> mgsd = new TreeMap<NamedClass,Set<DatatypeProperty>>();
+
+	// the following tables are read without lock: an entry is not modified
+	// after it has been put and the lengths are registered after the entries
+
+	// the length of concepts of top refinements, the first values is
+	// for refinements of \rho_\top(\top), the second one for \rho_A(\top)
+	private volatile int topRefinementsLength = 0;
+	private final ConcurrentMap<NamedClass, Integer> topARefinementsLength = new ConcurrentSkipListMap<NamedClass, Integer>();
+
+	// cumulated refinements of top (all from length one to the specified length)
+	private final Map<Integer, TreeSet<Description>> topRefinementsCumulative = new ConcurrentHashMap<Integer, TreeSet<Description>>();
+	private final ConcurrentMap<NamedClass,Map<Integer, TreeSet<Description>>> topARefinementsCumulative = new ConcurrentSkipListMap<NamedClass,Map<Integer, TreeSet<Description>>>();
+
+	// concept comparator
+	private ConceptComparator conceptComparator = new ConceptComparator();
+
+	// caches for reasoner queries
+	private final ConcurrentMap<Description,ConcurrentMap<Description,Boolean>> cachedDisjoints = new ConcurrentSkipListMap<Description,ConcurrentMap<Description,Boolean>>(conceptComparator);
+
+	// staistics
+	private volatile long mComputationTimeNs = 0;
+	private volatile long topComputationTimeNs = 0;
+
+	/**
+	 * Computes the knowledge for the given operator settings.
+	 * 
+	 * @param reasoner The reasoner used to query the background knowledge.
+	 * @param subHierarchy The class hierarchy, which must not be modified afterwards.
+	 * @param operator The operator, whose settings are used.
+	 */
+	public RhoDRDown2008Knowledge(AbstractReasonerComponent reasoner, ClassHierarchy subHierarchy, RhoDRDown2008 operator) {
+		this.rs = reasoner;
+		this.subHierarchy = subHierarchy;
+
+		this.useNegation = operator.getUseNegation();
+		this.useBooleanDatatypes = operator.isUseBooleanDatatypes();
+		this.useDoubleDatatypes = operator.isUseDoubleDatatypes();
+		this.useExistsConstructor = operator.isUseExistsConstructor();
+		this.useAllConstructor = operator.isUseAllConstructor();
+		this.useHasValueConstructor = operator.isUseHasValueConstructor();
+		this.useDataHasValueConstructor = operator.isUseDataHasValueConstructor();
+		this.useCardinalityRestrictions = operator.isUseCardinalityRestrictions();
+		this.isDisjunctionAllowed = operator.getAllowDisjunction();
+		this.applyExistsFilter = operator.isApplyExistsFilter();
+		this.instanceBasedDisjoints = operator.isInstanceBasedDisjoints();
+		this.cardinalityLimit = operator.getCardinalityLimit();
+		this.frequencyThreshold = operator.getFrequencyThreshold();
+		this.maxNrOfSplits = operator.getMaxNoOfSplits();
+		this.givenSplits = operator.getSplits();
+		this.splits = givenSplits;
+
+		init();
+	}
+
+	/**
+	 * @param operator A refinement operator.
+	 * @return True if this knowledge has been computed for the settings of the
+	 * given operator, i.e. it can be used by the operator.
+	 */
+	public boolean isCompatible(RhoDRDown2008 operator) {
+		return useNegation == operator.getUseNegation()
+				&& useBooleanDatatypes == operator.isUseBooleanDatatypes()
+				&& useDoubleDatatypes == operator.isUseDoubleDatatypes()
+				&& useExistsConstructor == operator.isUseExistsConstructor()
+				&& useAllConstructor == operator.isUseAllConstructor()
+				&& useHasValueConstructor == operator.isUseHasValueConstructor()
+				&& useDataHasValueConstructor == operator.isUseDataHasValueConstructor()
+				&& useCardinalityRestrictions == operator.isUseCardinalityRestrictions()
+				&& isDisjunctionAllowed == operator.getAllowDisjunction()
+				&& applyExistsFilter == operator.isApplyExistsFilter()
+				&& instanceBasedDisjoints == operator.isInstanceBasedDisjoints()
+				&& cardinalityLimit == operator.getCardinalityLimit()
+				&& frequencyThreshold == operator.getFrequencyThreshold()
+				&& maxNrOfSplits == operator.getMaxNoOfSplits()
+				&& (givenSplits == null ? operator.getSplits() == null : givenSplits.equals(operator.getSplits()));
+	}
+
+	private void init() {
+		// query reasoner for domains and ranges
+		// (because they are used often in the operator)
+
+		// data structure for a simple frequent pattern matching preprocessing phase
+		// (we do not need the temporary maps afterwards)
+		Map<ObjectProperty, Map<Individual, Integer>> valueFrequency = new HashMap<ObjectProperty, Map<Individual, Integer>>();
+		Map<DatatypeProperty, Map<Constant, Integer>> dataValueFrequency = new HashMap<DatatypeProperty, Map<Constant, Integer>>();
+
+		if (logger.isTraceEnabled())
+			logger.trace("[Refinement operator] " + this.getClass().getSimpleName() + " created (splits: " + (splits!=null?"using Splitter":"fix split="+maxNrOfSplits) + ")");		//actran
+		
+
+		for(ObjectProperty op : rs.getObjectProperties()) {
+			opDomains.put(op, rs.getDomain(op));
+			opRanges.put(op, rs.getRange(op));
+
+			if(useHasValueConstructor) {
+				// init
+				Map<Individual, Integer> opMap = new TreeMap<Individual, Integer>();
+				valueFrequency.put(op, opMap);
+
+				// sets ordered by corresponding individual (which we ignore)
+				Collection<SortedSet<Individual>> fillerSets = rs.getPropertyMembers(op).values();
+				for(SortedSet<Individual> fillerSet : fillerSets) {
+					for(Individual i : fillerSet) {
+						//						System.out.println("op " + op + " i " + i);
+						Integer value = opMap.get(i);
+
+						if(value != null) {
+							opMap.put(i, value+1);
+						} else {
+							opMap.put(i, 1);
+						}
+					}
+				}
+
+				// keep only frequent patterns
+				Set<Individual> frequentInds = new TreeSet<Individual>();
+				for(Individual i : opMap.keySet()) {
+					if(opMap.get(i) >= frequencyThreshold+2) {
+						frequentInds.add(i);
+						//						break;
+					}
+				}
+				frequentValues.put(op, frequentInds);
+
+			}
+
+		}
+
+		//logger.trace("[rho] Init ObjectProperty: " + opDomains);
+		//logger.trace("[rho] Init ObjectProperty: " + opRanges);
+
+		for(DatatypeProperty dp : rs.getDatatypeProperties()) {
+			dpDomains.put(dp, rs.getDomain(dp));
+
+			if(useDataHasValueConstructor) {
+				Map<Constant, Integer> dpMap = new TreeMap<Constant, Integer>();
+				dataValueFrequency.put(dp, dpMap);
+
+				// sets ordered by corresponding individual (which we ignore)
+				Collection<SortedSet<Constant>> fillerSets = rs.getDatatypeMembers(dp).values();
+				for(SortedSet<Constant> fillerSet : fillerSets) {
+					for(Constant i : fillerSet) {
+						//						System.out.println("op " + op + " i " + i);
+						Integer value = dpMap.get(i);
+
+						if(value != null) {
+							dpMap.put(i, value+1);
+						} else {
+							dpMap.put(i, 1);
+						}
+					}
+				}
+
+				// keep only frequent patterns
+				Set<Constant> frequentInds = new TreeSet<Constant>();
+				for(Constant i : dpMap.keySet()) {
+					if(dpMap.get(i) >= frequencyThreshold) {
+						logger.trace("adding value "+i+", because "+dpMap.get(i) +">="+frequencyThreshold);
+						frequentInds.add(i);
+					}
+				}
+				frequentDataValues.put(dp, frequentInds);				
+			}
+		}
+
+		// compute splits for double datatype properties
+		if (this.splits == null) {
+			splits = new TreeMap<DatatypeProperty,List<Double>>();
+			for(DatatypeProperty dp : rs.getDoubleDatatypeProperties()) 			
+				computeSplits(dp);
+			
+			if (logger.isDebugEnabled()) {
+				logger.debug("[RhoDRDown2008] Uses original split strategy: " + splits);
+			}			
+		}
+
+		
+
+		// determine the maximum number of fillers for each role
+		// (up to a specified cardinality maximum)
+		if(useCardinalityRestrictions) {
+			for(ObjectProperty op : rs.getObjectProperties()) {
+				int maxFillers = 0;
+				Map<Individual,SortedSet<Individual>> opMembers = rs.getPropertyMembers(op);
+				for(SortedSet<Individual> inds : opMembers.values()) {
+					if(inds.size()>maxFillers)
+						maxFillers = inds.size();
+					if(maxFillers >= cardinalityLimit) {
+						maxFillers = cardinalityLimit;
+						break;
+					}	
+				}
+				maxNrOfFillers.put(op, maxFillers);
+			}
+		}
+
+	}
+
+	/**
+	 * Returns the cumulated refinements of the top concept up to the given
+	 * length, which are computed if necessary. The returned set must not be
+	 * modified.
+	 * 
+	 * @param maxLength The maximum length of the refinements.
+	 * @param domain The domain of the refinements or null for \top.
+	 * @return The refinements of \rho_\top(\top) or \rho_A(\top).
+	 */
+	public TreeSet<Description> getTopRefinements(int maxLength, NamedClass domain) {
+		if(domain == null) {
+			if(maxLength > topRefinementsLength)
+				computeTopRefinements(maxLength);
+			return topRefinementsCumulative.get(maxLength);
+		}
+
+		Integer refinementsLength = topARefinementsLength.get(domain);
+		if(refinementsLength == null || maxLength > refinementsLength)
+			computeTopRefinements(maxLength, domain);
+		return topARefinementsCumulative.get(domain).get(maxLength);
+	}
+
+	public ClassHierarchy getClassHierarchy() {
+		return subHierarchy;
+	}
+
+	public Description getRange(ObjectPropertyExpression op) {
+		return opRanges.get(op);
+	}
+
+	public Integer getMaxNrOfFillers(ObjectPropertyExpression op) {
+		return maxNrOfFillers.get(op);
+	}
+
+	public Set<Individual> getFrequentValues(ObjectPropertyExpression op) {
+		return frequentValues.get(op);
+	}
+
+	public List<Double> getSplits(DatatypeProperty dp) {
+		return splits.get(dp);
+	}
+
+	public long getMComputationTimeNs() {
+		return mComputationTimeNs;
+	}
+
+	public long getTopComputationTimeNs() {
+		return topComputationTimeNs;
+	}
+
+	private void computeTopRefinements(int maxLength) {
+		computeTopRefinements(maxLength, null);
+	}
+
+	private synchronized void computeTopRefinements(int maxLength, NamedClass domain) {
+		long topComputationTimeStartNs = System.nanoTime();
+
+		if(domain == null && m.size() == 0)
+			computeM();
+
+		if(domain != null && !mA.containsKey(domain))
+			computeM(domain);
+
+		int refinementsLength;
+
+		if(domain == null) {
+			refinementsLength = topRefinementsLength;
+		} else {
+			if(!topARefinementsLength.containsKey(domain))
+				topARefinementsLength.put(domain,0);
+
+			refinementsLength = topARefinementsLength.get(domain);
+		}
+
+		// another operator may have computed the refinements in the meantime
+		if(maxLength <= refinementsLength)
+			return;
+
+
+		// compute all possible combinations of the disjunction
+		for(int i = refinementsLength+1; i <= maxLength; i++) {
+			combos.put(i,MathOperations.getCombos(i, mMaxLength));
+
+			// initialise the refinements with empty sets
+			if(domain == null) {
+				topRefinements.put(i, new TreeSet<Description>(conceptComparator));
+			} else {
+				if(!topARefinements.containsKey(domain))
+					topARefinements.put(domain, new TreeMap<Integer,SortedSet<Description>>());
+				topARefinements.get(domain).put(i, new TreeSet<Description>(conceptComparator));
+			}
+
+			for(List<Integer> combo : combos.get(i)) {
+
+				// combination is a single number => try to use M
+				if(combo.size()==1) {
+					// note we cannot use "put" instead of "addAll" because there
+					// can be several combos for one length
+					if(domain == null)
+						topRefinements.get(i).addAll(m.get(i));
+					else
+						topARefinements.get(domain).get(i).addAll(mA.get(domain).get(i));
+					// combinations has several numbers => generate disjunct
+				} else if (isDisjunctionAllowed) {
+
+					// check whether the combination makes sense, i.e. whether
+					// all lengths mentioned in it have corresponding elements
+					// e.g. when negation is deactivated there won't be elements of
+					// length 2 in M
+					boolean validCombo = true;
+					for(Integer j : combo) {
+						if((domain == null && m.get(j).size()==0) || 
+								(domain != null && mA.get(domain).get(j).size()==0))
+							validCombo = false;
+					}
+
+
+					if(validCombo) {
+
+						SortedSet<Union> baseSet = new TreeSet<Union>(conceptComparator);
+						for(Integer j : combo) {
+							if(domain == null)
+								baseSet = MathOperations.incCrossProduct(baseSet, m.get(j));
+							else
+								baseSet = MathOperations.incCrossProduct(baseSet, mA.get(domain).get(j));
+						}
+
+						// convert all concepts in ordered negation normal form
+						for(Description concept : baseSet) {
+							ConceptTransformation.transformToOrderedForm(concept, conceptComparator);
+						}
+
+						// apply the exists filter (throwing out all refinements with
+						// double \exists r for any r)
+						// TODO: similar filtering can be done for boolean datatype
+						// properties
+						if(applyExistsFilter) {
+							Iterator<Union> it = baseSet.iterator();
+							while(it.hasNext()) {
+								if(MathOperations.containsDoubleObjectSomeRestriction(it.next()))
+									it.remove();							
+							}
+						}
+
+						// add computed refinements
+						if(domain == null)
+							topRefinements.get(i).addAll(baseSet);
+						else
+							topARefinements.get(domain).get(i).addAll(baseSet);
+
+					}
+				}
+			}	//for loop 
+
+			// create cumulative versions of refinements such that they can
+			// be accessed easily
+			TreeSet<Description> cumulativeRefinements = new TreeSet<Description>(conceptComparator);
+			for(int j=1; j<=i; j++) {
+				if(domain == null) {
+					cumulativeRefinements.addAll(topRefinements.get(j));
+				} else {
+					cumulativeRefinements.addAll(topARefinements.get(domain).get(j));
+				}
+			}			
+
+			if(domain == null) {
+				topRefinementsCumulative.put(i, cumulativeRefinements);
+			} else {
+				if(!topARefinementsCumulative.containsKey(domain))
+					topARefinementsCumulative.put(domain, new ConcurrentHashMap<Integer, TreeSet<Description>>());
+				topARefinementsCumulative.get(domain).put(i, cumulativeRefinements);
+			}
+		} //for loop for disjunction
+
+
+		// register new top refinements length (after the refinements
+		// have been published, see getTopRefinements)
+		if(domain == null)
+			topRefinementsLength = maxLength;
+		else
+			topARefinementsLength.put(domain,maxLength);
+
+		topComputationTimeNs += System.nanoTime() - topComputationTimeStartNs;
+	}
+
+	// compute M_\top
+	private void computeM() {
+		long mComputationTimeStartNs = System.nanoTime();
+
+		// initialise all possible lengths (1 to 3) 	//actran: 3 or 4?
+		for(int i=1; i<=mMaxLength; i++) { 
+			m.put(i, new TreeSet<Description>(conceptComparator));
+		}
+
+
+		//actran: computes the most general atomic concepts (subclasses of Thing)
+		SortedSet<Description> m1 = subHierarchy.getSubClasses(new Thing()); 
+		m.put(1,m1);		
+
+
+		//actran: computes negated most specific atomic concepts
+		//SortedSet<Description> m3 = new TreeSet<Description>(conceptComparator);
+		SortedSet<Description> m2 = new TreeSet<Description>(conceptComparator);
+		if(useNegation) {
+			Set<Description> m2tmp = subHierarchy.getSuperClasses(new Nothing());
+			for(Description c : m2tmp) {
+				if(!(c instanceof Thing)) {
+					m2.add(new Negation(c));	
+				}
+			}
+		}
+
+		// boolean datatypes, e.g. testPositive = true
+		if(useBooleanDatatypes) {
+			Set<DatatypeProperty> booleanDPs = rs.getBooleanDatatypeProperties();
+			for(DatatypeProperty dp : booleanDPs) {
+				m2.add(new BooleanValueRestriction(dp,true));
+				m2.add(new BooleanValueRestriction(dp,false));
+			}
+		}		
+		m.put(2,m2);
+
+		SortedSet<Description> m3 = new TreeSet<Description>(conceptComparator);
+		if(useExistsConstructor) {
+			// only uses most general roles
+			for(ObjectProperty r : rs.getMostGeneralProperties()) {
+				m3.add(new ObjectSomeRestriction(r, new Thing()));
+			}				
+		}
+
+		if(useAllConstructor) {
+			// we allow \forall r.\top here because otherwise the operator
+			// becomes too difficult to manage due to dependencies between
+			// M_A and M_A' where A'=ran(r)
+			for(ObjectProperty r : rs.getMostGeneralProperties()) {
+				m3.add(new ObjectAllRestriction(r, new Thing()));
+			}				
+		}		
+
+		if(useDoubleDatatypes) {
+			Set<DatatypeProperty> doubleDPs = rs.getDoubleDatatypeProperties();
+			for(DatatypeProperty dp : doubleDPs) {
+				if ((splits.get(dp) != null) && (splits.get(dp).size() > 0)) {
+					DoubleMaxValue max = new DoubleMaxValue(splits.get(dp).get(splits.get(dp).size()-1));
+					DoubleMinValue min = new DoubleMinValue(splits.get(dp).get(0));
+					m3.add(new DatatypeSomeRestriction(dp,max));
+					m3.add(new DatatypeSomeRestriction(dp,min));
+				}
+			}
+			
+			//TODO: separate double and integer datatypes
+			Set<DatatypeProperty> intDPs = rs.getIntDatatypeProperties();
+			for(DatatypeProperty dp : intDPs) {
+				if ((splits.get(dp) != null) && (splits.get(dp).size() > 0)) {
+					IntMaxValue max = new IntMaxValue((int)(splits.get(dp).get(splits.get(dp).size()-1)).doubleValue());
+					IntMinValue min = new IntMinValue((int)(splits.get(dp).get(0)).doubleValue());
+					m3.add(new DatatypeSomeRestriction(dp,max));
+					m3.add(new DatatypeSomeRestriction(dp,min));
+				}
+			}
+			
+		}		
+
+		if(useDataHasValueConstructor) {
+			Set<DatatypeProperty> stringDPs = rs.getStringDatatypeProperties();
+			for(DatatypeProperty dp : stringDPs) {
+				// loop over frequent values
+				Set<Constant> freqValues = frequentDataValues.get(dp);
+				for(Constant c : freqValues) {
+					m3.add(new StringValueRestriction(dp, c.getLiteral()));
+				}
+			}	
+
+			//for double datatype properties
+			Set<DatatypeProperty> doubleDPs = rs.getDoubleDatatypeProperties();
+			for(DatatypeProperty dp : doubleDPs) {
+				// loop over frequent values
+				Set<Constant> freqValues = frequentDataValues.get(dp);
+				for(Constant c : freqValues) {
+					m3.add(new DoubleValueRestriction(dp, Double.valueOf(c.getLiteral())));
+				}
+			}	
+
+			
+		}
+
+		m.put(3,m3);
+
+		SortedSet<Description> m4 = new TreeSet<Description>(conceptComparator);
+		if(useCardinalityRestrictions) {
+			for(ObjectProperty r : rs.getMostGeneralProperties()) {
+				int maxFillers = maxNrOfFillers.get(r);
+				// zero fillers: <= -1 r.C does not make sense
+				// one filler: <= 0 r.C is equivalent to NOT EXISTS r.C,
+				// but we still keep it, because ALL r.NOT C may be difficult to reach
+				if(maxFillers > 0)
+					m4.add(new ObjectMaxCardinalityRestriction(maxFillers-1, r, new Thing()));
+			}			
+		}
+		m.put(4,m4);
+
+		mComputationTimeNs += System.nanoTime() - mComputationTimeStartNs;
+	}
+
+	// computation of the set M_A
+	// a major difference compared to the ILP 2007 \rho operator is that
+	// M is finite and contains elements of length (currently) at most 3
+	private void computeM(NamedClass nc) {
+		long mComputationTimeStartNs = System.nanoTime();
+
+		//		System.out.println(nc);
+
+		mA.put(nc, new TreeMap<Integer,SortedSet<Description>>());
+		// initialise all possible lengths (1 to 3)
+		for(int i=1; i<=mMaxLength; i++) {
+			mA.get(nc).put(i, new TreeSet<Description>(conceptComparator));
+		}
+
+		// incomplete, prior implementation
+		//		SortedSet<Description> m1 = subHierarchy.getSubClasses(nc); 
+		//		mA.get(nc).put(1,m1);
+
+		// most general classes, which are not disjoint with nc and provide real refinement
+		SortedSet<Description> m1 = getClassCandidates(nc);
+		mA.get(nc).put(1,m1);
+
+		// most specific negated classes, which are not disjoint with nc
+		SortedSet<Description> m2 = new TreeSet<Description>();
+		if(useNegation) {
+			m2 = getNegClassCandidates(nc);
+			mA.get(nc).put(2,m2);
+		}
+
+		//		System.out.println("m1 " + "(" + nc + "): " + m1);
+		//		System.out.println("m2 " + "(" + nc + "): " + m2);
+
+		/*
+		SortedSet<Description> m2 = new TreeSet<Description>(conceptComparator);
+		if(useNegation) {
+			// the definition in the paper is more complex, but actually
+			// we only have to insert the most specific concepts satisfying
+			// the mentioned restrictions; there is no need to implement a
+			// recursive method because for A subClassOf A' we have not A'
+			// subClassOf A and thus: if A and B are disjoint then also A'
+			// and B; if not A AND B = B then also not A' AND B = B
+			// 2010/03: the latter is not correct => a recursive method is needed
+			SortedSet<Description> m2tmp = subHierarchy.getSuperClasses(new Nothing());
+
+			for(Description c : m2tmp) {
+//				if(c instanceof Thing)
+//					m2.add(c);
+//				else {
+				// we obviously do not add \top (\top refines \top does not make sense)
+				if(!(c instanceof Thing)) {
+					NamedClass a = (NamedClass) c;
+					if(!isNotADisjoint(a, nc) && isNotAMeaningful(a, nc))
+						m2.add(new Negation(a));
+				}
+			}	
+		}
+		 */
+
+		// compute applicable properties
+		computeMg(nc);		
+
+		// boolean datatypes, e.g. testPositive = true
+		if(useBooleanDatatypes) {
+			Set<DatatypeProperty> booleanDPs = mgbd.get(nc);
+			for(DatatypeProperty dp : booleanDPs) {
+				m2.add(new BooleanValueRestriction(dp,true));
+				m2.add(new BooleanValueRestriction(dp,false));
+			}
+		}
+
+		mA.get(nc).put(2,m2);
+
+		SortedSet<Description> m3 = new TreeSet<Description>(conceptComparator);
+		if(useExistsConstructor) {
+			for(ObjectProperty r : mgr.get(nc)) {
+				m3.add(new ObjectSomeRestriction(r, new Thing()));
+			}				
+		}
+
+		if(useAllConstructor) {
+			// we allow \forall r.\top here because otherwise the operator
+			// becomes too difficult to manage due to dependencies between
+			// M_A and M_A' where A'=ran(r)
+			for(ObjectProperty r : mgr.get(nc)) {
+				m3.add(new ObjectAllRestriction(r, new Thing()));
+			}				
+		}		
+
+		if(useDoubleDatatypes) {
+			Set<DatatypeProperty> doubleDPs = mgdd.get(nc);
+			//			System.out.println("cached disjoints " + cachedDisjoints);
+			//			System.out.println("appOP " + appOP);
+			//			System.out.println("appBD " + appBD);
+			//			System.out.println("appDD " + appDD);
+			//			System.out.println("mgr " + mgr);
+			//			System.out.println("mgbd " + mgbd);
+			//			System.out.println("mgdd " + mgdd);
+
+			for(DatatypeProperty dp : doubleDPs) {
+				if((splits.get(dp) != null) && (splits.get(dp).size() > 0)) {
+					DoubleMaxValue max = new DoubleMaxValue(splits.get(dp).get(splits.get(dp).size()-1));
+					DoubleMinValue min = new DoubleMinValue(splits.get(dp).get(0));
+					m3.add(new DatatypeSomeRestriction(dp,max));
+					m3.add(new DatatypeSomeRestriction(dp,min));
+				}
+			}
+			
+			//TODO: separate integer and double datatypes
+			//Set<DatatypeProperty> intDPs = mgid.get(nc);
+			/*
+			for(DatatypeProperty dp : intDPs) {
+				if((splits.get(dp) != null) && (splits.get(dp).size() > 0)) {
+					DoubleMaxValue max = new DoubleMaxValue(splits.get(dp).get(splits.get(dp).size()-1));
+					DoubleMinValue min = new DoubleMinValue(splits.get(dp).get(0));
+					m3.add(new DatatypeSomeRestriction(dp,max));
+					m3.add(new DatatypeSomeRestriction(dp,min));
+				}
+			}
+			*/
+			
+		}			
+
+		if(useDataHasValueConstructor) {
+			Set<DatatypeProperty> stringDPs = mgsd.get(nc);
+			for(DatatypeProperty dp : stringDPs) {
+				// loop over frequent values
+				Set<Constant> freqValues = frequentDataValues.get(dp);
+				for(Constant c : freqValues) {
+					m3.add(new StringValueRestriction(dp, c.getLiteral()));
+				}
+			}			
+		}		
+
+		mA.get(nc).put(3,m3);
+
+		SortedSet<Description> m4 = new TreeSet<Description>(conceptComparator);
+		if(useCardinalityRestrictions) {
+			for(ObjectProperty r : mgr.get(nc)) {
+				int maxFillers = maxNrOfFillers.get(r);
+				// zero fillers: <= -1 r.C does not make sense
+				// one filler: <= 0 r.C is equivalent to NOT EXISTS r.C,
+				// but we still keep it, because ALL r.NOT C may be difficult to reach
+				if(maxFillers > 0)				
+					m4.add(new ObjectMaxCardinalityRestriction(maxFillers-1, r, new Thing()));
+			}
+		}
+		mA.get(nc).put(4,m4);
+
+		//		System.out.println(mA.get(nc));
+
+		mComputationTimeNs += System.nanoTime() - mComputationTimeStartNs;
+	}
+
+	// get candidates for a refinement of \top restricted to a class B
+	public SortedSet<Description> getClassCandidates(NamedClass index) {
+		return getClassCandidatesRecursive(index, Thing.instance);
+	}
+
+	private SortedSet<Description> getClassCandidatesRecursive(Description index, Description upperClass) {
+		SortedSet<Description> candidates = new TreeSet<Description>();
+		//		System.out.println("index " + index + " upper class " + upperClass);
+
+		// we descend the subsumption hierarchy to ensure that we get
+		// the most general concepts satisfying the criteria
+		for(Description candidate :  subHierarchy.getSubClasses(upperClass)) {
+			//				System.out.println("testing " + candidate + " ... ");
+
+			//				NamedClass candidate = (NamedClass) d;
+			// check disjointness with index (if not no further traversal downwards is necessary)
+			if(!isDisjoint(candidate,index)) {
+				//					System.out.println( " passed disjointness test ... ");
+				// check whether the class is meaningful, i.e. adds something to the index
+				// to do this, we need to make sure that the class is not a superclass of the
+				// index (otherwise we get nothing new) - for instance based disjoints, we 
+				// make sure that there is at least one individual, which is not already in the
+				// upper class
+				boolean meaningful;
+				if(instanceBasedDisjoints) {
+					// bug: tests should be performed against the index, not the upper class
+					//						SortedSet<Individual> tmp = rs.getIndividuals(upperClass);
+					SortedSet<Individual> tmp = rs.getIndividuals(index);
+					tmp.removeAll(rs.getIndividuals(candidate));
+					//						System.out.println("  instances of " + index + " and not " + candidate + ": " + tmp.size());
+					meaningful = tmp.size() != 0;
+				} else {
+					meaningful = !isDisjoint(new Negation(candidate),index);
+				}
+
+				if(meaningful) {
+					// candidate went successfully through all checks
+					candidates.add(candidate);
+					//						System.out.println(" real refinement");
+				} else {
+					// descend subsumption hierarchy to find candidates
+					//						System.out.println(" enter recursion");
+					candidates.addAll(getClassCandidatesRecursive(index, candidate));
+				}
+			} 
+			//				else {
+			//					System.out.println(" ruled out, because it is disjoint");
+			//				}
+		}
+		//		System.out.println("cc method exit");
+		return candidates;
+	}	
+
+	// get candidates for a refinement of \top restricted to a class B
+	public SortedSet<Description> getNegClassCandidates(NamedClass index) {
+		return getNegClassCandidatesRecursive(index, Nothing.instance);
+	}
+
+	private SortedSet<Description> getNegClassCandidatesRecursive(Description index, Description lowerClass) {
+		SortedSet<Description> candidates = new TreeSet<Description>(conceptComparator);
+		//		System.out.println("index " + index + " lower class " + lowerClass);
+
+		for(Description candidate :  subHierarchy.getSuperClasses(lowerClass)) {
+			if(!(candidate instanceof Thing)) {
+				//				System.out.println("candidate: " + candidate);
+				// check disjointness with index/range (should not be disjoint otherwise not useful)
+				if(!isDisjoint(new Negation(candidate),index)) {
+					boolean meaningful;
+					//					System.out.println("not disjoint");
+					if(instanceBasedDisjoints) {
+						SortedSet<Individual> tmp = rs.getIndividuals(index);
+						tmp.removeAll(rs.getIndividuals(new Negation(candidate)));
+						meaningful = tmp.size() != 0;
+						//						System.out.println("instances " + tmp.size());
+					} else {
+						meaningful = !isDisjoint(candidate,index);
+					}
+
+					if(meaningful) {
+						candidates.add(new Negation(candidate));
+					} else {
+						candidates.addAll(getNegClassCandidatesRecursive(index, candidate));
+					}
+				} 
+			}
+		}
+		return candidates;
+	}	
+
+	private void computeMg(NamedClass domain) {
+		// compute the applicable properties if this has not been done yet
+		if(appOP.get(domain) == null)
+			computeApp(domain);	
+
+		// initialise mgr, mgbd, mgdd, mgsd
+		mgr.put(domain, new TreeSet<ObjectProperty>());
+		mgbd.put(domain, new TreeSet<DatatypeProperty>());
+		mgdd.put(domain, new TreeSet<DatatypeProperty>());
+		mgsd.put(domain, new TreeSet<DatatypeProperty>());
+		//mgid.put(domain, new TreeSet<DatatypeProperty>());
+
+		SortedSet<ObjectProperty> mostGeneral = rs.getMostGeneralProperties();
+		computeMgrRecursive(domain, mostGeneral, mgr.get(domain));
+		SortedSet<DatatypeProperty> mostGeneralDP = rs.getMostGeneralDatatypeProperties();
+		// we make the (reasonable) assumption here that all sub and super
+		// datatype properties have the same type (e.g. boolean, integer, double)
+		Set<DatatypeProperty> mostGeneralBDP = Helper.intersection(mostGeneralDP, rs.getBooleanDatatypeProperties());
+		Set<DatatypeProperty> mostGeneralDDP = Helper.intersection(mostGeneralDP, rs.getDoubleDatatypeProperties());
+		Set<DatatypeProperty> mostGeneralSDP = Helper.intersection(mostGeneralDP, rs.getStringDatatypeProperties());
+		//Set<DatatypeProperty> mostGeneralIDP = Helper.intersection(mostGeneralDP, rs.getIntDatatypeProperties());
+		computeMgbdRecursive(domain, mostGeneralBDP, mgbd.get(domain));	
+		computeMgddRecursive(domain, mostGeneralDDP, mgdd.get(domain));
+		//computeMgddRecursive(domain, mostGeneralIDP, mgid.get(domain));
+		computeMgsdRecursive(domain, mostGeneralSDP, mgsd.get(domain));
+	}
+
+	private void computeMgrRecursive(NamedClass domain, Set<ObjectProperty> currProperties, Set<ObjectProperty> mgrTmp) {
+		for(ObjectProperty prop : currProperties) {
+			if(appOP.get(domain).contains(prop))
+				mgrTmp.add(prop);
+			else
+				computeMgrRecursive(domain, rs.getSubProperties(prop), mgrTmp);
+		}
+	}
+
+	private void computeMgbdRecursive(NamedClass domain, Set<DatatypeProperty> currProperties, Set<DatatypeProperty> mgbdTmp) {
+		for(DatatypeProperty prop : currProperties) {
+			if(appBD.get(domain).contains(prop))
+				mgbdTmp.add(prop);
+			else
+				computeMgbdRecursive(domain, rs.getSubProperties(prop), mgbdTmp);
+		}
+	}	
+
+	private void computeMgddRecursive(NamedClass domain, Set<DatatypeProperty> currProperties, Set<DatatypeProperty> mgddTmp) {
+		for(DatatypeProperty prop : currProperties) {
+			if(appDD.get(domain).contains(prop))
+				mgddTmp.add(prop);
+			else
+				computeMgddRecursive(domain, rs.getSubProperties(prop), mgddTmp);
+		}
+	}		
+
+	private void computeMgsdRecursive(NamedClass domain, Set<DatatypeProperty> currProperties, Set<DatatypeProperty> mgsdTmp) {
+		for(DatatypeProperty prop : currProperties) {
+			if(appDD.get(domain).contains(prop))
+				mgsdTmp.add(prop);
+			else
+				computeMgsdRecursive(domain, rs.getSubProperties(prop), mgsdTmp);
+		}
+	}	
+
+	// computes the set of applicable properties for a given class
+	private void computeApp(NamedClass domain) {
+		// object properties
+		Set<ObjectProperty> mostGeneral = rs.getObjectProperties();
+		Set<ObjectProperty> applicableRoles = new TreeSet<ObjectProperty>();
+		for(ObjectProperty role : mostGeneral) {
+			// TODO: currently we just rely on named classes as roles,
+			// instead of computing dom(r) and ran(r)
+			Description d = rs.getDomain(role);
+			if(!isDisjoint(domain,d))
+				applicableRoles.add(role);
+		}
+		appOP.put(domain, applicableRoles);
+
+		// boolean datatype properties
+		Set<DatatypeProperty> mostGeneralBDPs = rs.getBooleanDatatypeProperties();
+		Set<DatatypeProperty> applicableBDPs = new TreeSet<DatatypeProperty>();
+		for(DatatypeProperty role : mostGeneralBDPs) {
+			//			Description d = (NamedClass) rs.getDomain(role);
+			Description d = rs.getDomain(role);
+			if(!isDisjoint(domain,d))
+				applicableBDPs.add(role);
+		}
+		appBD.put(domain, applicableBDPs);	
+
+		// double datatype properties
+		Set<DatatypeProperty> mostGeneralDDPs = rs.getDoubleDatatypeProperties();
+		Set<DatatypeProperty> applicableDDPs = new TreeSet<DatatypeProperty>();
+		for(DatatypeProperty role : mostGeneralDDPs) {
+			//			Description d = (NamedClass) rs.getDomain(role);
+			Description d = rs.getDomain(role);
+			//			System.out.println("domain: " + d);
+			if(!isDisjoint(domain,d))
+				applicableDDPs.add(role);
+		}
+		appDD.put(domain, applicableDDPs);			
+	}
+
+	// returns true of the intersection contains elements disjoint
+	// to the given description (if true adding the description to
+	// the intersection results in a description equivalent to bottom)
+	// e.g. OldPerson AND YoungPerson; Nitrogen-34 AND Tin-113
+	// Note: currently we only check named classes in the intersection,
+	// it would be interesting to see whether it makes sense to extend this
+	// (advantage: less refinements, drawback: operator will need infinitely many
+	// reasoner queries in the long run)
+	@SuppressWarnings({"unused"})
+	private boolean containsDisjoints(Intersection intersection, Description d) {
+		List<Description> children = intersection.getChildren();
+		for(Description child : children) {
+			if(d instanceof Nothing)
+				return true;
+			else if(child instanceof NamedClass) {
+				if(isDisjoint((NamedClass)child, d))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isDisjoint(Description d1, Description d2) {
+
+		//		System.out.println("| " + d1 + " " + d2);
+		//		System.out.println("| " + cachedDisjoints);
+
+		// check whether we have cached this query
+		Map<Description,Boolean> tmp = cachedDisjoints.get(d1);
+		Boolean tmp2 = null;
+		if(tmp != null)
+			tmp2 = tmp.get(d2);
+
+		//		System.out.println("| " + tmp + " " + tmp2);
+
+		if(tmp2==null) {
+			Boolean result;
+			if(instanceBasedDisjoints) {
+				result = isDisjointInstanceBased(d1,d2);
+			} else {
+				Description d = new Intersection(d1, d2);
+				result = rs.isSuperClassOf(new Nothing(), d);				
+			}
+			// add the result to the cache (we add it twice such that
+			// the order of access does not matter)
+
+			//			System.out.println("| result: " + result);
+
+			// add result symmetrically in the description matrix
+			// (new entries are created if necessary)
+			getCachedDisjoints(d1).put(d2, result);
+			getCachedDisjoints(d2).put(d1, result);
+			//			System.out.println("---");
+			return result;
+		} else {
+			//			System.out.println("===");
+			return tmp2;
+		}
+	}	
+
+	private Map<Description,Boolean> getCachedDisjoints(Description d) {
+		ConcurrentMap<Description,Boolean> map = cachedDisjoints.get(d);
+		if(map == null) {
+			map = new ConcurrentSkipListMap<Description,Boolean>(conceptComparator);
+			ConcurrentMap<Description,Boolean> existing = cachedDisjoints.putIfAbsent(d, map);
+			if(existing != null)
+				map = existing;
+		}
+		return map;
+	}
+
+	private boolean isDisjointInstanceBased(Description d1, Description d2) {
+		SortedSet<Individual> d1Instances = rs.getIndividuals(d1);
+		SortedSet<Individual> d2Instances = rs.getIndividuals(d2);
+		//		System.out.println(d1 + " " + d2);
+		//		System.out.println(d1 + " " + d1Instances);
+		//		System.out.println(d2 + " " + d2Instances);
+		for(Individual d1Instance : d1Instances) {
+			if(d2Instances.contains(d1Instance))
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	// computes whether two classes are disjoint; this should be computed
+	// by the reasoner only ones and otherwise taken from a matrix
+	private boolean isDisjoint(NamedClass a, Description d) {
+		// we need to test whether A AND B is equivalent to BOTTOM
+		Description d2 = new Intersection(a, d);
+		return rs.subsumes(new Nothing(), d2);
+	}*/
+
+	// we need to test whether NOT A AND B is equivalent to BOTTOM
+	@SuppressWarnings("unused")
+	private boolean isNotADisjoint(NamedClass a, NamedClass b) {
+		//		Map<NamedClass,Boolean> tmp = notABDisjoint.get(a);
+		//		Boolean tmp2 = null;
+		//		if(tmp != null)
+		//			tmp2 = tmp.get(b);
+		//		
+		//		if(tmp2==null) {
+		Description notA = new Negation(a);
+		Description d = new Intersection(notA, b);
+		Boolean result = rs.isSuperClassOf(new Nothing(), d);
+		// ... add to cache ...
+		return result;
+		//		} else
+		//			return tmp2;
+	}
+
+	// we need to test whether NOT A AND B = B
+	// (if not then NOT A is not meaningful in the sense that it does
+	// not semantically add anything to B) 	
+	@SuppressWarnings("unused")
+	private boolean isNotAMeaningful(NamedClass a, NamedClass b) {
+		Description notA = new Negation(a);
+		Description d = new Intersection(notA, b);
+		// check b subClassOf b AND NOT A (if yes then it is not meaningful)
+		return !rs.isSuperClassOf(d, b);
+	}
+
+	private void computeSplits(DatatypeProperty dp) {
+		Set<Double> valuesSet = new TreeSet<Double>();
+		//		Set<Individual> individuals = rs.getIndividuals();
+		Map<Individual,SortedSet<Double>> valueMap = rs.getDoubleDatatypeMembers(dp);
+		// add all values to the set (duplicates will be remove automatically)
+		for(Entry<Individual,SortedSet<Double>> e : valueMap.entrySet())
+			valuesSet.addAll(e.getValue());
+		// convert set to a list where values are sorted
+		List<Double> values = new LinkedList<Double>(valuesSet);
+		Collections.sort(values);
+
+		int nrOfValues = values.size();
+		// create split set
+		List<Double> splitsDP = new LinkedList<Double>();
+		for(int splitNr=0; splitNr < Math.min(maxNrOfSplits,nrOfValues-1); splitNr++) {
+			int index;
+			if(nrOfValues<=maxNrOfSplits) 
+				index = splitNr;
+			else
+				index = (int) Math.floor(splitNr * (double)nrOfValues/(maxNrOfSplits+1));
+
+			double value = 0.5*(values.get(index)+values.get(index+1));
+			splitsDP.add(value);
+		}
+		splits.put(dp, splitsDP);
+
+		System.out.println(dp + ", no. of values: " + nrOfValues + ", splits: " + maxNrOfSplits);
+		//System.out.println(splits);
+		//System.exit(0);
+	}
+}
@@ -19,7 +19,9 @@
 
 package org.dllearner.utilities;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -38,6 +40,7 @@ import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Description;
 import org.dllearner.core.owl.ClassAssertionAxiom;
 import org.dllearner.core.owl.FlatABox;
+import org.dllearner.core.owl.IndexedFlatABox;
 import org.dllearner.core.owl.Individual;
 import org.dllearner.core.owl.KB;
 import org.dllearner.core.owl.Negation;
@@ -609,6 +612,38 @@ public class Helper {
 		return aBox;
 	}
 
+	// creates the compact variant of a flat ABox by querying a reasoner
+	// (without creating the string based flat ABox first)
+	public static IndexedFlatABox createIndexedFlatABox(AbstractReasonerComponent rs)
+			throws ReasoningMethodUnsupportedException {
+		long dematStartTime = System.currentTimeMillis();
+
+		IndexedFlatABox aBox = new IndexedFlatABox(getNameList(rs.getIndividuals()));
+		for (NamedClass atomicConcept : rs.getNamedClasses()) {
+			aBox.addConcept(atomicConcept.getName(), getNameList(rs.getIndividuals(atomicConcept)),
+					getNameList(rs.getIndividuals(new Negation(atomicConcept))));
+		}
+
+		for (ObjectProperty atomicRole : rs.getObjectProperties()) {
+			Map<Individual, SortedSet<Individual>> members = rs.getPropertyMembers(atomicRole);
+			Map<String, List<String>> rolePos = new HashMap<String, List<String>>(members.size() * 2);
+			for (Entry<Individual, SortedSet<Individual>> entry : members.entrySet())
+				rolePos.put(entry.getKey().getName(), getNameList(entry.getValue()));
+			aBox.addRole(atomicRole.getName(), rolePos, null);
+		}
+
+		long dematDuration = System.currentTimeMillis() - dematStartTime;
+		System.out.println("OK (" + dematDuration + " ms)");
+		return aBox;
+	}
+
+	private static List<String> getNameList(Collection<Individual> individuals) {
+		List<String> names = new ArrayList<String>(individuals.size());
+		for (Individual individual : individuals)
+			names.add(individual.getName());
+		return names;
+	}
+
 	// die Methode soll alle Konzeptzusicherungen und Rollenzusicherungen von
 	// Individuen entfernen, die mit diesem Individuum verbunden sind
 	@SuppressWarnings("unused")
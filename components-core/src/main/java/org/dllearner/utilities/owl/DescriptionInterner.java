@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.utilities.owl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dllearner.core.owl.BooleanValueRestriction;
+import org.dllearner.core.owl.Constant;
+import org.dllearner.core.owl.DataRange;
+import org.dllearner.core.owl.DatatypeProperty;
+import org.dllearner.core.owl.DatatypeSomeRestriction;
+import org.dllearner.core.owl.DatatypeValueRestriction;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.DoubleMaxValue;
+import org.dllearner.core.owl.IntDataRange;
+import org.dllearner.core.owl.IntMaxValue;
+import org.dllearner.core.owl.Intersection;
+import org.dllearner.core.owl.NamedClass;
+import org.dllearner.core.owl.Negation;
+import org.dllearner.core.owl.Nothing;
+import org.dllearner.core.owl.ObjectAllRestriction;
+import org.dllearner.core.owl.ObjectCardinalityRestriction;
+import org.dllearner.core.owl.ObjectMaxCardinalityRestriction;
+import org.dllearner.core.owl.ObjectMinCardinalityRestriction;
+import org.dllearner.core.owl.ObjectProperty;
+import org.dllearner.core.owl.ObjectSomeRestriction;
+import org.dllearner.core.owl.ObjectValueRestriction;
+import org.dllearner.core.owl.PropertyExpression;
+import org.dllearner.core.owl.SimpleDoubleDataRange;
+import org.dllearner.core.owl.Thing;
+import org.dllearner.core.owl.TypedConstant;
+import org.dllearner.core.owl.UntypedConstant;
+import org.dllearner.core.owl.Union;
+
+/**
+ * Hash-consing of class descriptions. Each description is mapped to a
+ * canonical, immutable {@link Node}: structurally equal descriptions (equal
+ * with respect to {@link ConceptComparator}) are mapped to the same node
+ * instance and equal sub descriptions share their nodes. A node stores its
+ * structural hash, so that descriptions can be kept in hash based
+ * collections and compared in constant time instead of walking the
+ * description trees and comparing URI strings.
+ *
+ * Note that, as for the concept comparator, the order of the children of
+ * intersections and unions matters, i.e. descriptions should be in ordered
+ * form if A AND B and B AND A are to be considered equal.
+ *
+ * The interner is thread-safe. It keeps every node it has created until
+ * {@link #clear()} is called, so long-lived interners should be cleared
+ * whenever the descriptions they have been used for are discarded.
+ *
+ */
+public class DescriptionInterner {
+
+	// kinds of nodes (in the order used by the concept comparator)
+	private static final int NOTHING = 0;
+	private static final int NAMED_CLASS = 1;
+	private static final int BOOLEAN_VALUE = 2;
+	private static final int DATATYPE_SOME = 3;
+	private static final int OBJECT_VALUE = 4;
+	private static final int DATATYPE_VALUE = 5;
+	private static final int THING = 6;
+	private static final int NEGATION = 7;
+	private static final int OBJECT_SOME = 8;
+	private static final int OBJECT_ALL = 9;
+	private static final int OBJECT_MIN = 10;
+	private static final int OBJECT_MAX = 11;
+	private static final int INTERSECTION = 12;
+	private static final int UNION = 13;
+	// descriptions not supported by the concept comparator, compared by syntax
+	private static final int OTHER = 14;
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	/**
+	 * Canonical, immutable representation of a description. Nodes created by
+	 * the same interner are equal if and only if they are the same instance.
+	 */
+	public static final class Node {
+		private final int kind;
+		// property of restrictions (see getKey), name of named classes
+		private final Object name;
+		// value of value restrictions, bound of data ranges
+		private final Object value;
+		// number of cardinality restrictions
+		private final int number;
+		// canonical children
+		private final Node[] children;
+		private final int hash;
+
+		private Node(int kind, Object name, Object value, int number, Node[] children) {
+			this.kind = kind;
+			this.name = name;
+			this.value = value;
+			this.number = number;
+			this.children = children;
+
+			int h = kind;
+			h = 31 * h + (name == null ? 0 : name.hashCode());
+			h = 31 * h + (value == null ? 0 : value.hashCode());
+			h = 31 * h + number;
+			for (Node child : children) {
+				h = 31 * h + child.hash;
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		// children are canonical, so they can be compared by reference
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) o;
+			if (hash != other.hash || kind != other.kind || number != other.number
+					|| children.length != other.children.length) {
+				return false;
+			}
+			if (name == null ? other.name != null : !name.equals(other.name)) {
+				return false;
+			}
+			if (value == null ? other.value != null : !value.equals(other.value)) {
+				return false;
+			}
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] != other.children[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public int getNumberOfChildren() {
+			return children.length;
+		}
+
+		public Node getChild(int i) {
+			return children[i];
+		}
+	}
+
+	private final ConcurrentHashMap<Node, Node> nodes;
+
+	public DescriptionInterner() {
+		this(1024);
+	}
+
+	/**
+	 * @param initialCapacity
+	 *            Expected number of distinct (sub) descriptions.
+	 */
+	public DescriptionInterner(int initialCapacity) {
+		nodes = new ConcurrentHashMap<Node, Node>(initialCapacity);
+	}
+
+	/**
+	 * Returns the canonical node of a description. The description is not
+	 * modified and not referenced by the node.
+	 *
+	 * @param description
+	 *            A description.
+	 * @return The canonical node, which is the same instance for all
+	 *         descriptions equal to the given one.
+	 */
+	public Node intern(Description description) {
+		return getNode(description, true);
+	}
+
+	/**
+	 * Returns the canonical node of a description if the description has
+	 * been interned before. In contrast to {@link #intern(Description)},
+	 * no nodes are added to the interner, i.e. probing for descriptions does
+	 * not make the interner grow.
+	 *
+	 * @param description
+	 *            A description.
+	 * @return The canonical node or null if no equal description has been
+	 *         interned.
+	 */
+	public Node lookup(Description description) {
+		return getNode(description, false);
+	}
+
+	private Node getNode(Description description, boolean add) {
+		List<Description> children = description.getChildren();
+		Node[] childNodes;
+		if (children.isEmpty()) {
+			childNodes = NO_CHILDREN;
+		} else {
+			childNodes = new Node[children.size()];
+			int i = 0;
+			for (Description child : children) {
+				childNodes[i] = getNode(child, add);
+				// a description with a sub description which is not interned
+				// has not been interned either
+				if (childNodes[i] == null) {
+					return null;
+				}
+				i++;
+			}
+		}
+
+		Node node;
+		if (description instanceof Nothing) {
+			node = new Node(NOTHING, null, null, 0, childNodes);
+		} else if (description instanceof NamedClass) {
+			node = new Node(NAMED_CLASS, ((NamedClass) description).getName(), null, 0, childNodes);
+		} else if (description instanceof BooleanValueRestriction) {
+			BooleanValueRestriction bvr = (BooleanValueRestriction) description;
+			node = new Node(BOOLEAN_VALUE, getKey(bvr.getRestrictedPropertyExpression()),
+					bvr.getBooleanValue(), 0, childNodes);
+		} else if (description instanceof DatatypeSomeRestriction) {
+			DatatypeSomeRestriction dsr = (DatatypeSomeRestriction) description;
+			DataRange dr = dsr.getDataRange();
+			// the number distinguishes max and min values, double and int
+			// bounds are distinguished by the class of the value
+			if (dr instanceof SimpleDoubleDataRange) {
+				node = new Node(DATATYPE_SOME, getKey(dsr.getRestrictedPropertyExpression()),
+						((SimpleDoubleDataRange) dr).getValue(), (dr instanceof DoubleMaxValue) ? 1 : 0,
+						childNodes);
+			} else if (dr instanceof IntDataRange) {
+				node = new Node(DATATYPE_SOME, getKey(dsr.getRestrictedPropertyExpression()),
+						((IntDataRange) dr).getValue(), (dr instanceof IntMaxValue) ? 1 : 0, childNodes);
+			} else {
+				node = getOtherNode(description);
+			}
+		} else if (description instanceof ObjectValueRestriction) {
+			ObjectValueRestriction ovr = (ObjectValueRestriction) description;
+			node = new Node(OBJECT_VALUE, getKey(ovr.getRestrictedPropertyExpression()),
+					ovr.getIndividual().getName(), 0, childNodes);
+		} else if (description instanceof DatatypeValueRestriction) {
+			DatatypeValueRestriction dvr = (DatatypeValueRestriction) description;
+			node = new Node(DATATYPE_VALUE, getKey(dvr.getRestrictedPropertyExpression()),
+					getKey(dvr.getValue()), 0, childNodes);
+		} else if (description instanceof Thing) {
+			node = new Node(THING, null, null, 0, childNodes);
+		} else if (description instanceof Negation) {
+			node = new Node(NEGATION, null, null, 0, childNodes);
+		} else if (description instanceof ObjectSomeRestriction) {
+			node = new Node(OBJECT_SOME, getKey(((ObjectSomeRestriction) description).getRole()),
+					null, 0, childNodes);
+		} else if (description instanceof ObjectAllRestriction) {
+			node = new Node(OBJECT_ALL, getKey(((ObjectAllRestriction) description).getRole()),
+					null, 0, childNodes);
+		} else if (description instanceof ObjectMinCardinalityRestriction
+				|| description instanceof ObjectMaxCardinalityRestriction) {
+			ObjectCardinalityRestriction ocr = (ObjectCardinalityRestriction) description;
+			int kind = (description instanceof ObjectMinCardinalityRestriction) ? OBJECT_MIN : OBJECT_MAX;
+			node = new Node(kind, getKey(ocr.getRole()), null, ocr.getNumber(), childNodes);
+		} else if (description instanceof Intersection) {
+			node = new Node(INTERSECTION, null, null, 0, childNodes);
+		} else if (description instanceof Union) {
+			node = new Node(UNION, null, null, 0, childNodes);
+		} else {
+			node = getOtherNode(description);
+		}
+
+		if (!add) {
+			return nodes.get(node);
+		}
+		Node canonical = nodes.putIfAbsent(node, node);
+		return (canonical == null) ? node : canonical;
+	}
+
+	private static Node getOtherNode(Description description) {
+		return new Node(OTHER, description.getClass().getName(), description.toKBSyntaxString(),
+				0, NO_CHILDREN);
+	}
+
+	/**
+	 * @return The number of distinct (sub) descriptions interned so far.
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Removes all nodes from the interner. Nodes obtained before are no
+	 * longer canonical afterwards, so sets of nodes using this interner have
+	 * to be cleared as well.
+	 */
+	public void clear() {
+		nodes.clear();
+	}
+
+	// key of a property: named object and datatype properties are equal if
+	// they have the same class and name, so they are used directly (which
+	// avoids creating a string per node), inverse properties are compared by
+	// syntax like the role comparator does
+	private static Object getKey(PropertyExpression property) {
+		if (property instanceof ObjectProperty || property instanceof DatatypeProperty) {
+			return property;
+		} else {
+			return "i" + property.toString();
+		}
+	}
+
+	// key of a constant, consistent with its compareTo method
+	private static String getKey(Constant constant) {
+		if (constant instanceof TypedConstant) {
+			return "t" + constant.getLiteral() + ((TypedConstant) constant).getDatatype();
+		} else {
+			return "u" + constant.getLiteral() + ((UntypedConstant) constant).getLang();
+		}
+	}
+}
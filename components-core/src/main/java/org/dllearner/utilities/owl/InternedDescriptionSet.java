@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.utilities.owl;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dllearner.core.owl.Description;
+import org.dllearner.utilities.owl.DescriptionInterner.Node;
+
+/**
+ * Thread-safe set of descriptions, e.g. for detecting descriptions which
+ * have already been generated by a learning algorithm. Descriptions are
+ * stored as canonical nodes of a {@link DescriptionInterner}, so membership
+ * tests are hash lookups and the descriptions themselves are not referenced
+ * by the set. Two descriptions are considered equal if they are equal with
+ * respect to {@link ConceptComparator}.
+ * <p>
+ * The interner keeps a strong reference to every node it has created, so a
+ * set which owns its interner also clears the interner in {@link #clear()}.
+ * Users of a shared interner have to clear it themselves.
+ *
+ */
+public class InternedDescriptionSet {
+
+	private final DescriptionInterner interner;
+
+	private final Set<Node> descriptions;
+
+	// whether the interner has been created by (and is only used by) this set
+	private final boolean ownsInterner;
+
+	public InternedDescriptionSet() {
+		this(new DescriptionInterner(), true);
+	}
+
+	/**
+	 * @param interner
+	 *            The interner used to obtain canonical nodes, which may be
+	 *            shared with other sets.
+	 */
+	public InternedDescriptionSet(DescriptionInterner interner) {
+		this(interner, false);
+	}
+
+	private InternedDescriptionSet(DescriptionInterner interner, boolean ownsInterner) {
+		this.interner = interner;
+		this.ownsInterner = ownsInterner;
+		descriptions = Collections.newSetFromMap(new ConcurrentHashMap<Node, Boolean>());
+	}
+
+	/**
+	 * Adds a description to the set.
+	 *
+	 * @param description
+	 *            A description.
+	 * @return True if the description was not in the set before.
+	 */
+	public boolean add(Description description) {
+		return descriptions.add(interner.intern(description));
+	}
+
+	/**
+	 * Tests whether the set contains a description. The description is not
+	 * added to the interner.
+	 *
+	 * @param description
+	 *            A description.
+	 * @return True if an equal description is in the set.
+	 */
+	public boolean contains(Description description) {
+		Node node = interner.lookup(description);
+		return node != null && descriptions.contains(node);
+	}
+
+	public int size() {
+		return descriptions.size();
+	}
+
+	/**
+	 * Removes all descriptions from the set. If the interner is owned by the
+	 * set, its nodes are released as well.
+	 */
+	public void clear() {
+		descriptions.clear();
+		if (ownsInterner) {
+			interner.clear();
+		}
+	}
+
+	public DescriptionInterner getInterner() {
+		return interner;
+	}
+}
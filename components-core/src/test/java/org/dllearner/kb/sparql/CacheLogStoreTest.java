@@ -0,0 +1,108 @@
+package org.dllearner.kb.sparql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the log structured store of the SPARQL query cache.
+ * 
+ */
+public class CacheLogStoreTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("sparql-cache", ".log");
+		file.delete();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void getAndPutTest() throws IOException {
+		CacheLogStore store = new CacheLogStore(file);
+		assertNull(store.get("SELECT ?s WHERE {?s ?p ?o}", Long.MAX_VALUE));
+
+		store.put("SELECT ?s WHERE {?s ?p ?o}", "result 1");
+		store.put("ASK {?s ?p ?o}", "true");
+		assertEquals("result 1", store.get("SELECT ?s WHERE {?s ?p ?o}", Long.MAX_VALUE));
+		assertEquals("true", store.get("ASK {?s ?p ?o}", Long.MAX_VALUE));
+
+		// a new result replaces the old one
+		store.put("SELECT ?s WHERE {?s ?p ?o}", "result 2");
+		assertEquals("result 2", store.get("SELECT ?s WHERE {?s ?p ?o}", Long.MAX_VALUE));
+		assertEquals(2, store.getNrOfEntries());
+		assertTrue(store.getGarbageSize() > 0);
+
+		// outdated results are not returned
+		assertNull(store.get("ASK {?s ?p ?o}", -1));
+		assertEquals(1, store.getNrOfEntries());
+		store.close();
+	}
+
+	@Test
+	public void reopenAndCompactTest() throws IOException {
+		CacheLogStore store = new CacheLogStore(file);
+		for (int i = 0; i < 100; i++) {
+			store.put("query " + (i % 10), "result " + i);
+		}
+		long size = store.getSize();
+		store.close();
+
+		// the index is rebuilt from the log, a truncated record is removed
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(size + 5);
+		raf.close();
+		store = new CacheLogStore(file);
+		assertEquals(size, store.getSize());
+		assertEquals(10, store.getNrOfEntries());
+		assertEquals("result 95", store.get("query 5", Long.MAX_VALUE));
+
+		store.compact(Long.MAX_VALUE);
+		assertEquals(10, store.getNrOfEntries());
+		assertEquals(0, store.getGarbageSize());
+		assertTrue(store.getSize() < size);
+		assertEquals("result 95", store.get("query 5", Long.MAX_VALUE));
+		store.close();
+
+		store = new CacheLogStore(file);
+		assertEquals("result 99", store.get("query 9", Long.MAX_VALUE));
+
+		store.clear();
+		assertNull(store.get("query 9", Long.MAX_VALUE));
+		assertEquals(0, store.getSize());
+		store.close();
+	}
+
+	@Test
+	public void getStoreTest() throws IOException {
+		File dir = new File(file.getPath() + ".dir");
+		dir.mkdir();
+		CacheLogStore store = CacheLogStore.getStore(dir.getPath());
+		try {
+			// one store per directory until it is closed
+			assertTrue(store == CacheLogStore.getStore(dir.getPath()));
+			store.close();
+			CacheLogStore reopened = CacheLogStore.getStore(dir.getPath());
+			assertTrue(store != reopened);
+			reopened.close();
+		} finally {
+			new File(dir, CacheLogStore.LOG_FILE_NAME).delete();
+			dir.delete();
+		}
+	}
+}
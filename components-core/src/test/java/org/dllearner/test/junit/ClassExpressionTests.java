@@ -22,8 +22,13 @@ package org.dllearner.test.junit;
 import static org.junit.Assert.*;
 
 import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.DatatypeProperty;
+import org.dllearner.core.owl.DatatypeSomeRestriction;
 import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.DoubleMinValue;
 import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.IntMaxValue;
+import org.dllearner.core.owl.IntMinValue;
 import org.dllearner.core.owl.Intersection;
 import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.ObjectAllRestriction;
@@ -34,8 +39,11 @@ import org.dllearner.core.owl.Union;
 import org.dllearner.parser.KBParser;
 import org.dllearner.parser.ParseException;
 import org.dllearner.test.junit.TestOntologies.TestOntology;
+import org.dllearner.utilities.owl.ConceptComparator;
 import org.dllearner.utilities.owl.ConceptTransformation;
+import org.dllearner.utilities.owl.DescriptionInterner;
 import org.dllearner.utilities.owl.DescriptionMinimizer;
+import org.dllearner.utilities.owl.InternedDescriptionSet;
 import org.junit.Test;
 
 /**
@@ -136,4 +144,64 @@ public class ClassExpressionTests {
 		assertTrue(ConceptTransformation.getForallContexts(d9).toString().equals("[[p1, p2, p1], [p1, p1], [p1, p2], [p1]]"));
 		
 	}
+	
+	@Test
+	public void internTest() {
+		NamedClass a1 = new NamedClass("a1");
+		NamedClass a2 = new NamedClass("a2");
+		ObjectProperty p1 = new ObjectProperty("p1");
+		Individual i1 = new Individual("i1");
+		
+		Description d1 = new ObjectAllRestriction(p1,new Intersection(a1,a2));
+		Description d2 = new ObjectAllRestriction(new ObjectProperty("p1"),new Intersection(new NamedClass("a1"),new NamedClass("a2")));
+		Description d3 = new ObjectSomeRestriction(p1,new Intersection(a1,a2));
+		Description d4 = new ObjectAllRestriction(p1,new Intersection(a2,a1));
+		Description d5 = new Union(d1,new ObjectValueRestriction(p1,i1));
+		
+		// interning must be consistent with the concept comparator
+		ConceptComparator comparator = new ConceptComparator();
+		DescriptionInterner interner = new DescriptionInterner();
+		assertTrue(comparator.compare(d1, d2) == 0);
+		assertTrue(interner.intern(d1) == interner.intern(d2));
+		assertTrue(interner.intern(d1) != interner.intern(d3));
+		assertTrue(interner.intern(d1) != interner.intern(d4));
+		// equal sub descriptions are shared
+		assertTrue(interner.intern(d5).getChild(0) == interner.intern(d1));
+		assertTrue(interner.intern(d3).getChild(0) == interner.intern(d1).getChild(0));
+		
+		InternedDescriptionSet set = new InternedDescriptionSet(interner);
+		assertTrue(set.add(d1));
+		assertFalse(set.add(d2));
+		assertTrue(set.add(d3));
+		assertTrue(set.contains(d2));
+		assertFalse(set.contains(d5));
+		assertTrue(set.size() == 2);
+		// probing the set does not add descriptions to the interner
+		int internerSize = interner.size();
+		assertFalse(set.contains(new ObjectSomeRestriction(p1,new NamedClass("a3"))));
+		assertTrue(interner.size() == internerSize);
+		assertTrue(interner.lookup(d2) == interner.intern(d1));
+		
+		// double and int data ranges
+		DatatypeProperty dp = new DatatypeProperty("dp");
+		Description d6 = new DatatypeSomeRestriction(dp, new IntMinValue(3));
+		Description d7 = new DatatypeSomeRestriction(dp, new IntMaxValue(3));
+		Description d8 = new DatatypeSomeRestriction(dp, new DoubleMinValue(3));
+		assertTrue(interner.intern(d6) == interner.intern(new DatatypeSomeRestriction(dp, new IntMinValue(3))));
+		assertTrue(interner.intern(d6) != interner.intern(d7));
+		assertTrue(interner.intern(d6) != interner.intern(d8));
+		
+		// a set with its own interner releases the interned nodes on clear
+		InternedDescriptionSet ownSet = new InternedDescriptionSet();
+		ownSet.add(d5);
+		assertTrue(ownSet.getInterner().size() > 0);
+		ownSet.clear();
+		assertTrue(ownSet.size() == 0);
+		assertTrue(ownSet.getInterner().size() == 0);
+		assertFalse(ownSet.contains(d5));
+		// a shared interner is not cleared by the set
+		internerSize = interner.size();
+		set.clear();
+		assertTrue(interner.size() == internerSize);
+	}
 }
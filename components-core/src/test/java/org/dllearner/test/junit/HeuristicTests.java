@@ -157,6 +157,19 @@ public class HeuristicTests {
 		HeuristicTests.configureClassLP(problem, nc[0], HeuristicType.FMEASURE, false, true, 0.05);
 		assertEquals(problem.getAccuracyOrTooWeak(nc[3], 0.5),-1,delta);
 		
+		//// chunked retrieval ////
+		
+		// the results must not depend on the size of the chunks
+		problem.setChunkSize(3);
+		HeuristicTests.configureClassLP(problem, nc[0], HeuristicType.JACCARD, false, false, 0.05);
+		assertEqualsClassLP(problem, nc[1], 1/(double)3);
+		assertEqualsClassLP(problem, nc[2], 1/(double)5);
+		HeuristicTests.configureClassLP(problem, nc[0], HeuristicType.FMEASURE, false, false, 0.05);
+		assertEqualsClassLP(problem, nc[1], 0.5);
+		assertEqualsClassLP(problem, nc[2], 0.366025403784);
+		assertEquals(0.5, problem.getRecall(nc[2]), delta);
+		assertEquals(0.25, problem.getPrecision(nc[2]), delta);
+		
 		// TODO: test approximations
 
 		
@@ -215,6 +228,19 @@ public class HeuristicTests {
 		
 		assertEqualsPosNegLPStandard(problem, nc[0], 0.5); // precision 2/3, recall 2/5
 		assertEqualsPosNegLPStandard(problem, nc[1], 2/3d); // precision 3/4, recall 3/5
+		
+		// too weak
+		HeuristicTests.configurePosNegStandardLP(problem, pos1, neg1, "fmeasure", false);
+		assertEquals(-1, problem.getAccuracyOrTooWeak(nc[0], 0.5), delta);
+		
+		// predictive accuracy and no approximations
+		HeuristicTests.configurePosNegStandardLP(problem, pos1, neg1, "pred_acc", false);
+		
+		assertEqualsPosNegLPStandard(problem, nc[0], 0.6); // 2 pos. covered, 4 neg. not covered
+		assertEqualsPosNegLPStandard(problem, nc[1], 0.7); // 3 pos. covered, 4 neg. not covered
+		assertEquals(-1, problem.getAccuracyOrTooWeak(nc[0], 0.2), delta);
+		// without noise, a description is only too weak if it misses a positive example
+		assertEquals(0.5, problem.getAccuracyOrTooWeak(Thing.instance, 0), delta);
 	}
 	
 	
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2007-2011, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.dllearner.test.junit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.algorithms.ocel.ExampleBasedNode;
+import org.dllearner.algorithms.ocel.OCEL;
+import org.dllearner.algorithms.ocel.RefinementEvaluator;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.KB;
+import org.dllearner.core.owl.Thing;
+import org.dllearner.kb.KBFile;
+import org.dllearner.learningproblems.EvaluatedDescriptionPosNeg;
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.parser.KBParser;
+import org.dllearner.parser.ParseException;
+import org.dllearner.reasoning.FastInstanceChecker;
+import org.dllearner.reasoning.OWLAPIReasoner;
+import org.dllearner.utilities.owl.ConceptComparator;
+import org.junit.Test;
+
+/**
+ * Tests for the OCEL algorithm, in particular that evaluating the
+ * refinements of a node on bit sets yields the same covered examples as
+ * checking each example separately.
+ *
+ */
+public class OCELTests {
+
+	// the father example: fathers are positive, everyone else is negative
+	private static final String FATHER_KB =
+		"male(stefan).\n" +
+		"male(markus).\n" +
+		"male(martin).\n" +
+		"male(heinz).\n" +
+		"female(anna).\n" +
+		"female(michelle).\n" +
+		"hasChild(stefan,markus).\n" +
+		"hasChild(markus,anna).\n" +
+		"hasChild(martin,heinz).\n" +
+		"hasChild(anna,heinz).\n";
+
+	private static final String[] REFINEMENTS = new String[] {
+		"male",
+		"female",
+		"EXISTS hasChild.TOP",
+		"EXISTS hasChild.male",
+		"EXISTS hasChild.female",
+		"(male AND EXISTS hasChild.TOP)",
+		"(male OR female)",
+		"ALL hasChild.male",
+		"NOT male"
+	};
+
+	@Test
+	public void refinementEvaluationTest() throws ParseException, ComponentInitException {
+		for(AbstractReasonerComponent rs : getReasoners()) {
+			SortedSet<Individual> positives = getPositiveExamples();
+			SortedSet<Individual> negatives = getNegativeExamples();
+			List<Description> refinements = new ArrayList<Description>();
+			for(String refinement : REFINEMENTS) {
+				refinements.add(KBParser.parseConcept(refinement));
+			}
+
+			// nodes covering all examples and only the male examples (the
+			// examples not covered by a node must not be covered by its
+			// refinements)
+			Description[] nodeConcepts = new Description[] { Thing.instance, KBParser.parseConcept("male") };
+			for(int nrOfThreads=1; nrOfThreads<=getMaxNrOfThreads(rs); nrOfThreads++) {
+				RefinementEvaluator evaluator = new RefinementEvaluator(rs, positives, negatives, nrOfThreads);
+				for(Description nodeConcept : nodeConcepts) {
+					SortedSet<Individual> nodePositives = rs.hasType(nodeConcept, positives);
+					SortedSet<Individual> nodeNegatives = rs.hasType(nodeConcept, negatives);
+					ExampleBasedNode node = new ExampleBasedNode(nodeConcept, 1.0, 0.1, 0.02, 1);
+					node.setCoveredExamples(evaluator.toPositiveBitSet(nodePositives), evaluator.toNegativeBitSet(nodeNegatives));
+
+					for(int allowedMisclassifications=0; allowedMisclassifications<=positives.size(); allowedMisclassifications++) {
+						List<RefinementEvaluator.Coverage> coverages = evaluator.evaluate(node, refinements, allowedMisclassifications);
+						assertEquals(refinements.size(), coverages.size());
+						for(int i=0; i<refinements.size(); i++) {
+							Description refinement = refinements.get(i);
+							// the covered examples as computed by one instance
+							// check per example
+							SortedSet<Individual> coveredPositives = getCoveredExamples(rs, refinement, nodePositives);
+							SortedSet<Individual> coveredNegatives = getCoveredExamples(rs, refinement, nodeNegatives);
+							RefinementEvaluator.Coverage coverage = coverages.get(i);
+							RefinementEvaluator.Coverage singleCoverage = evaluator.evaluate(node, refinement, allowedMisclassifications);
+							if(positives.size() - coveredPositives.size() > allowedMisclassifications) {
+								assertTrue(refinement.toString(), coverage.isTooWeak());
+								assertTrue(refinement.toString(), singleCoverage.isTooWeak());
+							} else {
+								assertFalse(refinement.toString(), coverage.isTooWeak());
+								assertEquals(refinement.toString(), coveredPositives, evaluator.toPositiveExamples(coverage.getCoveredPositives()));
+								assertEquals(refinement.toString(), coveredNegatives, evaluator.toNegativeExamples(coverage.getCoveredNegatives()));
+								assertEquals(refinement.toString(), coverage.getCoveredPositives(), singleCoverage.getCoveredPositives());
+								assertEquals(refinement.toString(), coverage.getCoveredNegatives(), singleCoverage.getCoveredNegatives());
+							}
+						}
+					}
+				}
+				evaluator.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void fatherTest() throws ParseException, ComponentInitException {
+		ConceptComparator comparator = new ConceptComparator();
+		for(AbstractReasonerComponent rs : getReasoners()) {
+			SortedSet<Individual> positives = getPositiveExamples();
+			SortedSet<Individual> negatives = getNegativeExamples();
+
+			// the learned definition must not depend on the number of threads
+			// evaluating the refinements
+			Description first = null;
+			for(int nrOfThreads=1; nrOfThreads<=getMaxNrOfThreads(rs); nrOfThreads++) {
+				PosNegLPStandard lp = new PosNegLPStandard(rs);
+				lp.setPositiveExamples(positives);
+				lp.setNegativeExamples(negatives);
+				lp.init();
+
+				OCEL la = new OCEL(lp, rs);
+				la.setNumberOfThreads(nrOfThreads);
+				la.setMaxExecutionTimeInSeconds(60);
+				la.init();
+				la.start();
+
+				EvaluatedDescriptionPosNeg best = la.getCurrentlyBestEvaluatedDescription();
+				assertEquals(1.0, best.getAccuracy(), 0.000001);
+				assertEquals(positives, rs.hasType(best.getDescription(), positives));
+				assertTrue(rs.hasType(best.getDescription(), negatives).isEmpty());
+				assertEquals(positives.size(), best.getCoveredPositives().size());
+				assertTrue(best.getCoveredNegatives().isEmpty());
+
+				if(first == null) {
+					first = best.getDescription();
+				} else {
+					assertEquals(0, comparator.compare(first, best.getDescription()));
+				}
+			}
+		}
+	}
+
+	private static List<AbstractReasonerComponent> getReasoners() throws ParseException, ComponentInitException {
+		KB kb = KBParser.parseKBFile(FATHER_KB);
+		KBFile source = new KBFile(kb);
+		OWLAPIReasoner owlapi = new OWLAPIReasoner();
+		owlapi.setSources(source);
+		owlapi.init();
+		FastInstanceChecker fic = new FastInstanceChecker();
+		fic.setSources(source);
+		fic.init();
+		return Arrays.asList(owlapi, fic);
+	}
+
+	// the OWL API reasoners (Pellet) are not thread-safe, so refinements are
+	// only evaluated in parallel on the fast instance checker
+	private static int getMaxNrOfThreads(AbstractReasonerComponent rs) {
+		return (rs instanceof OWLAPIReasoner) ? 1 : 2;
+	}
+
+	private static SortedSet<Individual> getCoveredExamples(AbstractReasonerComponent rs, Description description, SortedSet<Individual> examples) {
+		SortedSet<Individual> covered = new TreeSet<Individual>();
+		for(Individual example : examples) {
+			if(rs.hasType(description, example)) {
+				covered.add(example);
+			}
+		}
+		return covered;
+	}
+
+	private static SortedSet<Individual> getPositiveExamples() {
+		return getIndividuals("stefan", "markus", "martin");
+	}
+
+	private static SortedSet<Individual> getNegativeExamples() {
+		return getIndividuals("heinz", "anna", "michelle");
+	}
+
+	private static SortedSet<Individual> getIndividuals(String... names) {
+		SortedSet<Individual> individuals = new TreeSet<Individual>();
+		for(String name : names) {
+			individuals.add(new Individual(KBParser.getInternalURI(name)));
+		}
+		return individuals;
+	}
+
+}
@@ -21,17 +21,38 @@ package org.dllearner.test.junit;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.owl.Description;
 import org.dllearner.core.owl.Individual;
 import org.dllearner.core.owl.Intersection;
 import org.dllearner.core.owl.NamedClass;
+import org.dllearner.core.owl.Negation;
+import org.dllearner.core.owl.ObjectAllRestriction;
+import org.dllearner.core.owl.ObjectMaxCardinalityRestriction;
+import org.dllearner.core.owl.ObjectMinCardinalityRestriction;
 import org.dllearner.core.owl.ObjectProperty;
 import org.dllearner.core.owl.ObjectSomeRestriction;
 import org.dllearner.core.owl.Thing;
+import org.dllearner.core.owl.Union;
+import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
 import org.dllearner.kb.OWLFile;
 import org.dllearner.reasoning.FastInstanceChecker;
+import org.dllearner.reasoning.SPARQLReasoner;
 import org.junit.Test;
 
+import com.hp.hpl.jena.ontology.OntModel;
+import com.hp.hpl.jena.ontology.OntModelSpec;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.vocabulary.RDF;
+
 /**
  * 
  * @author Jens Lehmann
@@ -64,4 +85,172 @@ public class ReasonerTest {
 			
 	}
 	
+	@Test
+	public void fastInstanceCheckerIndexTest() throws ComponentInitException {
+		OWLFile file = new OWLFile("src/test/resources/nlp2rdf/positives.owl");
+		file.init();
+		FastInstanceChecker fic = new FastInstanceChecker();
+		fic.setSources(file);
+		fic.init();
+		
+		NamedClass doc = new NamedClass("http://nlp2rdf.lod2.eu/schema/string/Document");
+		ObjectProperty op = new ObjectProperty("http://nlp2rdf.lod2.eu/schema/string/subStringTrans");
+		Description[] descriptions = new Description[] {
+				doc,
+				new Negation(doc),
+				new ObjectSomeRestriction(op, Thing.instance),
+				new ObjectAllRestriction(op, doc),
+				new ObjectMinCardinalityRestriction(2, op, Thing.instance),
+				new ObjectMaxCardinalityRestriction(1, op, new Negation(doc)),
+				new Union(doc, new ObjectSomeRestriction(op, doc)),
+				new Intersection(doc, new ObjectSomeRestriction(op, Thing.instance))
+		};
+		
+		// set-at-a-time instance checks and retrieval on the integer index
+		// have to give the same results as single instance checks
+		SortedSet<Individual> individuals = fic.getIndividuals();
+		for (Description description : descriptions) {
+			SortedSet<Individual> expected = new TreeSet<Individual>();
+			for (Individual individual : individuals) {
+				if (fic.hasType(description, individual)) {
+					expected.add(individual);
+				}
+			}
+			assertEquals(expected, fic.hasType(description, individuals));
+			assertEquals(expected, fic.getIndividuals(description));
+		}
+	}
+	
+	@Test
+	public void fastInstanceCheckerSnapshotTest() throws ComponentInitException, IOException {
+		File dir = File.createTempFile("fic-snapshots", "");
+		dir.delete();
+		try {
+			OWLFile file = new OWLFile("src/test/resources/nlp2rdf/positives.owl");
+			file.init();
+			FastInstanceChecker fic = new FastInstanceChecker();
+			fic.setSources(file);
+			fic.setSnapshotDirectory(dir.getPath());
+			fic.init();
+			// the first run writes the snapshot ...
+			assertEquals(1, dir.listFiles().length);
+			
+			// ... which is loaded by the second run
+			FastInstanceChecker fic2 = new FastInstanceChecker();
+			fic2.setSources(file);
+			fic2.setSnapshotDirectory(dir.getPath());
+			fic2.init();
+			assertEquals(1, dir.listFiles().length);
+			
+			NamedClass doc = new NamedClass("http://nlp2rdf.lod2.eu/schema/string/Document");
+			ObjectProperty op = new ObjectProperty("http://nlp2rdf.lod2.eu/schema/string/subStringTrans");
+			Description[] descriptions = new Description[] {
+					doc,
+					new Negation(doc),
+					new ObjectSomeRestriction(op, Thing.instance),
+					new ObjectAllRestriction(op, doc),
+					new ObjectMinCardinalityRestriction(2, op, Thing.instance)
+			};
+			assertEquals(fic.getIndividuals(), fic2.getIndividuals());
+			for (Description description : descriptions) {
+				assertEquals(fic.getIndividuals(description), fic2.getIndividuals(description));
+			}
+			
+			// a corrupt snapshot (valid header, invalid size of the string
+			// table) is replaced by a new one
+			File snapshot = dir.listFiles()[0];
+			RandomAccessFile raf = new RandomAccessFile(snapshot, "rw");
+			try {
+				raf.seek(8);
+				raf.writeInt(Integer.MAX_VALUE);
+				raf.setLength(16);
+			} finally {
+				raf.close();
+			}
+			FastInstanceChecker fic3 = new FastInstanceChecker();
+			fic3.setSources(file);
+			fic3.setSnapshotDirectory(dir.getPath());
+			fic3.init();
+			assertEquals(1, dir.listFiles().length);
+			assertTrue(dir.listFiles()[0].length() > 16);
+			for (Description description : descriptions) {
+				assertEquals(fic.getIndividuals(description), fic3.getIndividuals(description));
+			}
+		} finally {
+			if (dir.isDirectory()) {
+				for (File snapshot : dir.listFiles()) {
+					snapshot.delete();
+				}
+				dir.delete();
+			}
+		}
+	}
+	
+	@Test
+	public void sparqlReasonerInstanceCheckTest() {
+		String ns = "http://dl-learner.org/test#";
+		OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+		Resource a = model.createResource(ns + "A");
+		Resource b = model.createResource(ns + "B");
+		Property p = model.createProperty(ns + "p");
+		
+		// i0 ... i9: even individuals are A, individuals divisible by 3 are B,
+		// each individual is related to the next one by p
+		SortedSet<Individual> individuals = new TreeSet<Individual>();
+		for (int i = 0; i < 10; i++) {
+			Resource ind = model.createResource(ns + "i" + i);
+			if (i % 2 == 0) {
+				ind.addProperty(RDF.type, a);
+			}
+			if (i % 3 == 0) {
+				ind.addProperty(RDF.type, b);
+			}
+			ind.addProperty(p, model.createResource(ns + "i" + (i + 1)));
+			individuals.add(new Individual(ns + "i" + i));
+		}
+		
+		SPARQLReasoner reasoner = new SPARQLReasoner(new LocalModelBasedSparqlEndpointKS(model), null);
+		reasoner.setUseCache(false);
+		// several batches per instance check
+		reasoner.setInstanceCheckBatchSize(3);
+		
+		NamedClass nca = new NamedClass(ns + "A");
+		NamedClass ncb = new NamedClass(ns + "B");
+		ObjectProperty op = new ObjectProperty(ns + "p");
+		
+		// descriptions and the numbers of the individuals which are instances of them
+		assertInstances(reasoner, individuals, ns, nca, 0, 2, 4, 6, 8);
+		assertInstances(reasoner, individuals, ns, new Intersection(nca, ncb), 0, 6);
+		assertInstances(reasoner, individuals, ns, new Union(nca, ncb), 0, 2, 3, 4, 6, 8, 9);
+		assertInstances(reasoner, individuals, ns, new ObjectSomeRestriction(op, ncb), 2, 5, 8);
+		assertInstances(reasoner, individuals, ns,
+				new Intersection(nca, new ObjectSomeRestriction(op, Thing.instance)), 0, 2, 4, 6, 8);
+		// n-ary intersections and unions
+		assertInstances(reasoner, individuals, ns,
+				new Intersection(nca, ncb, new ObjectSomeRestriction(op, Thing.instance)), 0, 6);
+		assertInstances(reasoner, individuals, ns,
+				new Union(nca, ncb, new ObjectSomeRestriction(op, ncb)), 0, 2, 3, 4, 5, 6, 8, 9);
+		// TOP in intersections and unions
+		assertInstances(reasoner, individuals, ns, new Intersection(Thing.instance, ncb), 0, 3, 6, 9);
+		assertInstances(reasoner, individuals, ns, new Union(ncb, Thing.instance), 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		assertInstances(reasoner, individuals, ns,
+				new Intersection(nca, new Union(ncb, Thing.instance), new ObjectSomeRestriction(op, ncb)), 2, 8);
+		assertInstances(reasoner, individuals, ns,
+				new ObjectSomeRestriction(op, new Union(nca, Thing.instance)), 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		
+		// single instance checks
+		assertTrue(reasoner.hasType(new Intersection(nca, ncb), new Individual(ns + "i6")));
+		assertFalse(reasoner.hasType(new Intersection(nca, ncb), new Individual(ns + "i4")));
+	}
+	
+	// checks the instances of a description among the individuals i0, i1, ...
+	private static void assertInstances(SPARQLReasoner reasoner, SortedSet<Individual> individuals,
+			String ns, Description description, int... expectedInstances) {
+		SortedSet<Individual> expected = new TreeSet<Individual>();
+		for (int i : expectedInstances) {
+			expected.add(new Individual(ns + "i" + i));
+		}
+		assertEquals(description.toString(), expected, reasoner.hasType(description, individuals));
+	}
+	
 }
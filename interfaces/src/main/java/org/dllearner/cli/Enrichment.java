@@ -453,24 +453,30 @@ public class Enrichment {
         la.setMaxExecutionTimeInSeconds(10);
         la.setNoisePercentage(25);
         la.init();
-        startTime = System.currentTimeMillis();
-        System.out.print("running CELOE (for " + (equivalence ? "equivalent classes" : "sub classes") + ") ... ");
-        la.start();
-        runTime = System.currentTimeMillis() - startTime;
-        System.out.println("done in " + runTime + " ms");	
-
-        // convert the result to axioms (to make it compatible with the other algorithms)
-        List<? extends EvaluatedDescription> learnedDescriptions = la.getCurrentlyBestEvaluatedDescriptions(threshold);
         List<EvaluatedAxiom> learnedAxioms = new LinkedList<EvaluatedAxiom>();
-        for(EvaluatedDescription learnedDescription : learnedDescriptions) {
-        	Axiom axiom;
-        	if(equivalence) {
-        		axiom = new EquivalentClassesAxiom(nc, learnedDescription.getDescription());
-        	} else {
-        		axiom = new SubClassAxiom(nc, learnedDescription.getDescription());
-        	}
-        	Score score = lp.computeScore(learnedDescription.getDescription());
-        	learnedAxioms.add(new EvaluatedAxiom(axiom, score)); 
+        // a learning problem is created for each class, so its retrieval threads are released
+        // when the class has been processed
+        try {
+	        startTime = System.currentTimeMillis();
+	        System.out.print("running CELOE (for " + (equivalence ? "equivalent classes" : "sub classes") + ") ... ");
+	        la.start();
+	        runTime = System.currentTimeMillis() - startTime;
+	        System.out.println("done in " + runTime + " ms");	
+	
+	        // convert the result to axioms (to make it compatible with the other algorithms)
+	        List<? extends EvaluatedDescription> learnedDescriptions = la.getCurrentlyBestEvaluatedDescriptions(threshold);
+	        for(EvaluatedDescription learnedDescription : learnedDescriptions) {
+	        	Axiom axiom;
+	        	if(equivalence) {
+	        		axiom = new EquivalentClassesAxiom(nc, learnedDescription.getDescription());
+	        	} else {
+	        		axiom = new SubClassAxiom(nc, learnedDescription.getDescription());
+	        	}
+	        	Score score = lp.computeScore(learnedDescription.getDescription());
+	        	learnedAxioms.add(new EvaluatedAxiom(axiom, score)); 
+	        }
+        } finally {
+        	lp.close();
         }
         System.out.println(prettyPrint(learnedAxioms));	
         learnedEvaluatedAxioms.addAll(learnedAxioms);
@@ -0,0 +1,177 @@
+package org.dllearner.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.algorithms.ParCEL.ParCELPosNegLP;
+import org.dllearner.configuration.spring.ApplicationContextBuilder;
+import org.dllearner.configuration.spring.DefaultApplicationContextBuilder;
+import org.dllearner.confparser3.ConfParserConfiguration;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.core.owl.Thing;
+import org.dllearner.refinementoperators.RhoDRDown2008;
+import org.dllearner.utilities.owl.ConceptComparator;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Fixture of the benchmarks: the reasoner and the ParCEL learning problem of one of the bundled
+ * examples, loaded from the ParCEL conf file of the example in the same way as the CLI does it.<br>
+ * The examples are looked up in the directory given by the system property
+ * <code>parcel.examples</code>, or in <code>examples</code> or <code>../examples</code> relative
+ * to the working directory.
+ *
+ */
+public class BenchmarkFixture {
+
+	public static final String EXAMPLES_DIR_PROPERTY = "parcel.examples";
+
+	// example name --> conf file (relative to the examples directory)
+	private static final Map<String, String> confFiles = new HashMap<String, String>();
+	static {
+		confFiles.put("carcinogenesis", "carcinogenesis/carcinogenesis_parcel_learn_600s.conf");
+		confFiles.put("family", "family-benchmark/Aunt_parcel_learn.conf");
+		confFiles.put("poker", "poker/straight_owl_parcel_learn.conf");
+	}
+
+	// max. length of the sample descriptions
+	private static final int MAX_SAMPLE_LENGTH = 5;
+
+	private final String example;
+	private final AbstractReasonerComponent reasoner;
+	private final ParCELPosNegLP learningProblem;
+
+	private List<Description> descriptions = null;
+
+	private BenchmarkFixture(String example, ApplicationContext context) {
+		this.example = example;
+		this.reasoner = context.getBean(AbstractReasonerComponent.class);
+		this.learningProblem = context.getBean(ParCELPosNegLP.class);
+	}
+
+	/**
+	 * Load an example
+	 *
+	 * @param example
+	 *            Name of the example: carcinogenesis, family or poker
+	 *
+	 * @return Fixture of the example
+	 */
+	public static BenchmarkFixture load(String example) throws IOException {
+		String confFileName = confFiles.get(example);
+		if (confFileName == null)
+			throw new IllegalArgumentException("Unknown example \"" + example + "\", known examples: "
+					+ confFiles.keySet());
+
+		File confFile = new File(getExamplesDirectory(), confFileName);
+		if (!confFile.isFile())
+			throw new IOException("Conf file " + confFile.getAbsolutePath() + " not found (set the "
+					+ EXAMPLES_DIR_PROPERTY + " property to the examples directory)");
+
+		Resource confFileR = new FileSystemResource(confFile);
+		ApplicationContextBuilder builder = new DefaultApplicationContextBuilder();
+		ApplicationContext context;
+		try {
+			context = builder.buildApplicationContext(new ConfParserConfiguration(confFileR),
+					new ArrayList<Resource>());
+		} catch (RuntimeException e) {
+			throw new IOException("Cannot load " + confFile.getAbsolutePath()
+					+ " (the ontology of the example must be in the directory of the conf file)", e);
+		}
+
+		return new BenchmarkFixture(example, context);
+	}
+
+	private static File getExamplesDirectory() {
+		String dir = System.getProperty(EXAMPLES_DIR_PROPERTY);
+		if (dir != null)
+			return new File(dir);
+
+		File examples = new File("examples");
+		if (!examples.isDirectory())
+			examples = new File("../examples");
+		return examples;
+	}
+
+	/**
+	 * Create a refinement operator configured in the same way as the operators of ParCEL
+	 *
+	 * @return An initialised refinement operator (its caches are empty)
+	 */
+	public RhoDRDown2008 createRefinementOperator() {
+		RhoDRDown2008 operator = new RhoDRDown2008(reasoner, reasoner.getClassHierarchy(),
+				Thing.instance);
+		operator.setUseNegation(false);
+		operator.init();
+		return operator;
+	}
+
+	/**
+	 * Get a deterministic sample of descriptions: the refinements of Thing in breadth-first order
+	 * (the refinements of a description are sorted by the concept comparator)
+	 *
+	 * @param n
+	 *            Max. number of descriptions
+	 *
+	 * @return At most n descriptions
+	 */
+	public synchronized List<Description> getDescriptions(int n) {
+		if (descriptions == null || descriptions.size() < n) {
+			RhoDRDown2008 operator = createRefinementOperator();
+			List<Description> result = new ArrayList<Description>(n);
+			Set<Description> seen = new TreeSet<Description>(new ConceptComparator());
+			LinkedList<Description> queue = new LinkedList<Description>();
+			queue.add(Thing.instance);
+
+			while (!queue.isEmpty() && result.size() < n) {
+				Description description = queue.removeFirst();
+				int maxLength = Math.min(description.getLength() + 2, MAX_SAMPLE_LENGTH);
+				if (maxLength < description.getLength())
+					continue;
+
+				for (Description refinement : operator.refine(description, maxLength, null)) {
+					if (result.size() >= n)
+						break;
+					if (seen.add(refinement)) {
+						result.add(refinement);
+						queue.add(refinement);
+					}
+				}
+			}
+			descriptions = result;
+		}
+
+		return descriptions.subList(0, Math.min(n, descriptions.size()));
+	}
+
+	public String getExample() {
+		return example;
+	}
+
+	public AbstractReasonerComponent getReasoner() {
+		return reasoner;
+	}
+
+	public ParCELPosNegLP getLearningProblem() {
+		return learningProblem;
+	}
+
+	public SortedSet<Individual> getPositiveExamples() {
+		return new TreeSet<Individual>(learningProblem.getPositiveExamples());
+	}
+
+	public SortedSet<Individual> getNegativeExamples() {
+		return new TreeSet<Individual>(learningProblem.getNegativeExamples());
+	}
+}
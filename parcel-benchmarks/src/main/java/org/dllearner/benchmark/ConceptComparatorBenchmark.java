@@ -0,0 +1,50 @@
+package org.dllearner.benchmark;
+
+import java.util.List;
+
+import org.dllearner.core.owl.Description;
+import org.dllearner.utilities.owl.ConceptComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Comparison of descriptions by {@link ConceptComparator}, which is used by all sorted sets and
+ * maps of descriptions (search tree, caches, duplicate detection)
+ *
+ */
+public class ConceptComparatorBenchmark extends ExampleBenchmark {
+
+	private ConceptComparator comparator = new ConceptComparator();
+	private Description[] descriptions;
+	private Description[] copies;
+	private int first = 0;
+	private int second = 1;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) {
+		List<Description> sample = fixture.getDescriptions(500);
+		descriptions = sample.toArray(new Description[sample.size()]);
+		copies = new Description[descriptions.length];
+		for (int i = 0; i < descriptions.length; i++)
+			copies[i] = (Description) descriptions[i].clone();
+	}
+
+	@Benchmark
+	public int compare() {
+		int result = comparator.compare(descriptions[first], descriptions[second]);
+
+		// all pairs of the sample (including equal descriptions)
+		second = (second + 1) % descriptions.length;
+		if (second == 0)
+			first = (first + 1) % descriptions.length;
+
+		return result;
+	}
+
+	@Benchmark
+	public int compareEqual() {
+		// structurally equal descriptions are compared completely
+		int result = comparator.compare(descriptions[first], copies[first]);
+		first = (first + 1) % descriptions.length;
+		return result;
+	}
+}
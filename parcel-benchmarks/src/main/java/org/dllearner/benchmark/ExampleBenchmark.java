@@ -0,0 +1,48 @@
+package org.dllearner.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class of the benchmarks: each benchmark is run for the bundled examples, the fixture of an
+ * example is loaded once per trial.<br>
+ * The ontology of the carcinogenesis example is not bundled, the example can be selected with
+ * <code>-p example=carcinogenesis</code> after copying carcinogenesis.owl into its directory
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ExampleBenchmark {
+
+	@Param({ "family", "poker" })
+	public String example;
+
+	protected BenchmarkFixture fixture;
+
+	@Setup(Level.Trial)
+	public void loadFixture() throws Exception {
+		fixture = BenchmarkFixture.load(example);
+		setUp(fixture);
+	}
+
+	/**
+	 * Prepare the benchmark, called once per trial after the fixture has been loaded
+	 */
+	protected abstract void setUp(BenchmarkFixture fixture) throws Exception;
+
+}
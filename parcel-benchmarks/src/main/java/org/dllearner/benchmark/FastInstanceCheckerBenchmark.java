@@ -0,0 +1,64 @@
+package org.dllearner.benchmark;
+
+import java.util.List;
+import java.util.SortedSet;
+
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.reasoning.FastInstanceChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Instance checks and retrieval of the fast instance checker (hasTypeImpl and
+ * getIndividualsImpl, called through the public methods of the reasoner component)
+ *
+ */
+public class FastInstanceCheckerBenchmark extends ExampleBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean useExtensionCache;
+
+	private FastInstanceChecker reasoner;
+	private Description[] descriptions;
+	private Individual[] individuals;
+	private int nextDescription = 0;
+	private int nextIndividual = 0;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) {
+		if (!(fixture.getReasoner() instanceof FastInstanceChecker))
+			throw new IllegalStateException("The example " + fixture.getExample()
+					+ " does not use the fast instance checker");
+
+		reasoner = (FastInstanceChecker) fixture.getReasoner();
+		reasoner.setUseExtensionCache(useExtensionCache);
+
+		List<Description> sample = fixture.getDescriptions(200);
+		descriptions = sample.toArray(new Description[sample.size()]);
+
+		// the examples are the individuals checked by the learners
+		SortedSet<Individual> examples = fixture.getPositiveExamples();
+		examples.addAll(fixture.getNegativeExamples());
+		individuals = examples.toArray(new Individual[examples.size()]);
+	}
+
+	@Benchmark
+	public boolean hasType() {
+		Description description = descriptions[nextDescription];
+		Individual individual = individuals[nextIndividual];
+
+		nextIndividual = (nextIndividual + 1) % individuals.length;
+		if (nextIndividual == 0)
+			nextDescription = (nextDescription + 1) % descriptions.length;
+
+		return reasoner.hasType(description, individual);
+	}
+
+	@Benchmark
+	public SortedSet<Individual> getIndividuals() {
+		Description description = descriptions[nextDescription];
+		nextDescription = (nextDescription + 1) % descriptions.length;
+		return reasoner.getIndividuals(description);
+	}
+}
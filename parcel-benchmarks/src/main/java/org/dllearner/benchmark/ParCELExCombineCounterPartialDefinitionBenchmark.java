@@ -0,0 +1,81 @@
+package org.dllearner.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.algorithms.ParCEL.ParCELCoveredNegativeExampleComparator;
+import org.dllearner.algorithms.ParCEL.ParCELExtraNode;
+import org.dllearner.algorithms.ParCEL.ParCELNode;
+import org.dllearner.algorithms.ParCELEx.ParCELExCombineCounterPartialDefinition;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Combination of descriptions with the counter partial definitions
+ * ({@link ParCELExCombineCounterPartialDefinition#getCombinable(ParCELNode, SortedSet)}). The
+ * counter partial definitions are the sample descriptions covering negative examples and the
+ * fewest positive examples, the combined descriptions are the sample descriptions covering
+ * positive and negative examples
+ *
+ */
+public class ParCELExCombineCounterPartialDefinitionBenchmark extends ExampleBenchmark {
+
+	@Param({ "100" })
+	public int noOfCounterPartialDefinitions;
+
+	private SortedSet<ParCELExtraNode> counterPartialDefinitions;
+	private ParCELNode[] descriptions;
+	private int next = 0;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) {
+		AbstractReasonerComponent reasoner = fixture.getReasoner();
+		Set<Individual> positiveExamples = fixture.getPositiveExamples();
+		Set<Individual> negativeExamples = fixture.getNegativeExamples();
+
+		List<ParCELExtraNode> counterNodes = new ArrayList<ParCELExtraNode>();
+		List<ParCELNode> nodes = new ArrayList<ParCELNode>();
+		for (Description description : fixture.getDescriptions(1000)) {
+			SortedSet<Individual> cp = reasoner.hasType(description, positiveExamples);
+			SortedSet<Individual> cn = reasoner.hasType(description, negativeExamples);
+			if (cn.isEmpty())
+				continue;
+
+			counterNodes.add(new ParCELExtraNode((ParCELNode) null, description, 0, 0, 0, cp, cn));
+			if (!cp.isEmpty())
+				nodes.add(new ParCELNode(null, description, cp, cn));
+		}
+
+		// fewest covered positive examples first
+		Collections.sort(counterNodes, new Comparator<ParCELExtraNode>() {
+			@Override
+			public int compare(ParCELExtraNode node1, ParCELExtraNode node2) {
+				return node1.getCoveredPositiveExamples().size()
+						- node2.getCoveredPositiveExamples().size();
+			}
+		});
+
+		counterPartialDefinitions = new TreeSet<ParCELExtraNode>(
+				new ParCELCoveredNegativeExampleComparator());
+		counterPartialDefinitions.addAll(counterNodes.subList(0,
+				Math.min(noOfCounterPartialDefinitions, counterNodes.size())));
+
+		descriptions = nodes.toArray(new ParCELNode[nodes.size()]);
+	}
+
+	@Benchmark
+	public Set<ParCELExtraNode> getCombinable() {
+		ParCELNode description = descriptions[next];
+		next = (next + 1) % descriptions.length;
+		return ParCELExCombineCounterPartialDefinition.getCombinable(description,
+				counterPartialDefinitions);
+	}
+}
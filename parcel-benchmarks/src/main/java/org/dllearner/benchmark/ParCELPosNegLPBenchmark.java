@@ -0,0 +1,44 @@
+package org.dllearner.benchmark;
+
+import java.util.List;
+
+import org.dllearner.algorithms.ParCEL.ParCELEvaluationResult;
+import org.dllearner.algorithms.ParCEL.ParCELPosNegLP;
+import org.dllearner.core.owl.Description;
+import org.dllearner.reasoning.FastInstanceChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Evaluation of descriptions by the ParCEL learning problem
+ * ({@link ParCELPosNegLP#getAccuracyAndCorrectness2(Description, double)}), which is called by the
+ * workers for each refinement
+ *
+ */
+public class ParCELPosNegLPBenchmark extends ExampleBenchmark {
+
+	// the extension cache of the fast instance checker makes repeated evaluations cheap
+	@Param({ "false", "true" })
+	public boolean useExtensionCache;
+
+	private ParCELPosNegLP learningProblem;
+	private Description[] descriptions;
+	private int next = 0;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) {
+		learningProblem = fixture.getLearningProblem();
+		if (fixture.getReasoner() instanceof FastInstanceChecker)
+			((FastInstanceChecker) fixture.getReasoner()).setUseExtensionCache(useExtensionCache);
+
+		List<Description> sample = fixture.getDescriptions(200);
+		descriptions = sample.toArray(new Description[sample.size()]);
+	}
+
+	@Benchmark
+	public ParCELEvaluationResult getAccuracyAndCorrectness2() {
+		Description description = descriptions[next];
+		next = (next + 1) % descriptions.length;
+		return learningProblem.getAccuracyAndCorrectness2(description, 0);
+	}
+}
@@ -0,0 +1,82 @@
+package org.dllearner.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.algorithms.ParCEL.ParCELCompletenessComparator;
+import org.dllearner.algorithms.ParCEL.ParCELEvaluationResult;
+import org.dllearner.algorithms.ParCEL.ParCELExtraNode;
+import org.dllearner.algorithms.ParCEL.ParCELNode;
+import org.dllearner.algorithms.ParCEL.ParCELPosNegLP;
+import org.dllearner.algorithms.ParCEL.ParCELReducer;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Reduction of the partial definitions by the {@link ParCELReducer} implementations. The partial
+ * definitions are the sample descriptions with the highest correctness, which cover at least one
+ * positive example (the reducers only use the covered positive examples)
+ *
+ */
+public class ParCELReducerBenchmark extends ExampleBenchmark {
+
+	@Param({ "ParCELCoverageGreedyReducer", "ParCELCoverageGreedyBitSetReducer",
+			"ParCELImprovedCoverageGreedyReducer", "ParCELImprovedCoverageGreedyReducer_V2",
+			"ParCELImprovedCoverageGreedyBitSetReducer",
+			"ParCELImprovedCoverageGreedyBitSetReducer_V2", "ParCELCorrectnessGreedyReducer",
+			"ParCELDefinitionLengthReducer", "ParCELGenerationTimeReducer" })
+	public String reducerName;
+
+	// max. number of partial definitions
+	@Param({ "200" })
+	public int noOfPartialDefinitions;
+
+	private ParCELReducer reducer;
+	private SortedSet<ParCELExtraNode> partialDefinitions;
+	private Set<Individual> positiveExamples;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) throws Exception {
+		reducer = (ParCELReducer) Class.forName("org.dllearner.algorithms.ParCEL." + reducerName)
+				.newInstance();
+
+		ParCELPosNegLP learningProblem = fixture.getLearningProblem();
+		positiveExamples = fixture.getPositiveExamples();
+
+		List<ParCELExtraNode> nodes = new ArrayList<ParCELExtraNode>();
+		for (Description description : fixture.getDescriptions(2000)) {
+			ParCELEvaluationResult result = learningProblem.getAccuracyAndCorrectness2(
+					description, 0);
+			if (result.getAccuracy() == -1.0d)
+				continue;
+
+			nodes.add(new ParCELExtraNode((ParCELNode) null, description, result.getAccuracy(),
+					result.getCorrectness(), result.getCompleteness(),
+					result.getCoveredPossitiveExamples(), result.getCoveredPositiveExampleBits(),
+					result.getCoveredNegativeExampleBits()));
+		}
+
+		// highest correctness first (the order of the sample is kept for equal correctness)
+		Collections.sort(nodes, new Comparator<ParCELExtraNode>() {
+			@Override
+			public int compare(ParCELExtraNode node1, ParCELExtraNode node2) {
+				return Double.compare(node2.getCorrectness(), node1.getCorrectness());
+			}
+		});
+
+		partialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCompletenessComparator());
+		partialDefinitions.addAll(nodes.subList(0, Math.min(noOfPartialDefinitions, nodes.size())));
+	}
+
+	@Benchmark
+	public SortedSet<ParCELExtraNode> reduce() {
+		return reducer.reduce(partialDefinitions, positiveExamples);
+	}
+}
@@ -0,0 +1,46 @@
+package org.dllearner.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.dllearner.core.owl.Description;
+import org.dllearner.refinementoperators.RhoDRDown2008;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Refinement of descriptions by {@link RhoDRDown2008} with several max. lengths. The operator
+ * is shared by all invocations, i.e. its caches are warm as in a long running learner
+ *
+ */
+public class RhoDRDown2008Benchmark extends ExampleBenchmark {
+
+	// max. length of the refinements, relative to the length of the refined description
+	@Param({ "1", "2", "3" })
+	public int lengthIncrease;
+
+	private RhoDRDown2008 operator;
+	private Description[] descriptions;
+	private int next = 0;
+
+	@Override
+	protected void setUp(BenchmarkFixture fixture) {
+		operator = fixture.createRefinementOperator();
+
+		// short descriptions, otherwise the refinements are too many for a microbenchmark
+		List<Description> sample = new ArrayList<Description>();
+		for (Description description : fixture.getDescriptions(200)) {
+			if (description.getLength() <= 3)
+				sample.add(description);
+		}
+		descriptions = sample.toArray(new Description[sample.size()]);
+	}
+
+	@Benchmark
+	public Set<Description> refine() {
+		Description description = descriptions[next];
+		next = (next + 1) % descriptions.length;
+		return operator.refine(description, description.getLength() + lengthIncrease, null);
+	}
+}
@@ -14,6 +14,9 @@ import org.dllearner.core.config.ConfigOption;
 import org.dllearner.core.owl.Description;
 import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Union;
+import org.dllearner.reasoning.ConceptExtensionCache;
+import org.dllearner.reasoning.FastInstanceChecker;
+import org.dllearner.utilities.owl.InternedDescriptionSet;
 
 /**
  * Abstract class for all ParCEL algorithms family
@@ -47,6 +50,9 @@ public abstract class ParCELAbstract extends AbstractCELA {
 	@ConfigOption(name = "useHasValue", defaultValue = "false", description = "Use value restriction or not")
 	protected boolean useHasValue = false;
 	
+	@ConfigOption(name = "workStealing", defaultValue = "false", description = "Use long-lived workers that take the nodes from the search tree themselves (with local deques and work stealing) instead of creating one task per node")
+	protected boolean workStealing = false;
+	
 	
 	protected int maxHorizExp = 0;
 	
@@ -58,8 +64,10 @@ public abstract class ParCELAbstract extends AbstractCELA {
 	 * Hold all generated description to avoid the duplicated descriptions (this may contains only
 	 * the weak description but it may take time to check both in this data structure and the search
 	 * tree to check for the duplication). Redundancy in this case may help increasing performance.
+	 * Descriptions are stored as hash-consed canonical nodes, i.e. checking for the duplication is
+	 * a hash lookup and equal sub-descriptions are shared.
 	 */
-	protected ConcurrentSkipListSet<Description> allDescriptions = null;
+	protected InternedDescriptionSet allDescriptions = null;
 
 	
 	/**
@@ -345,4 +353,40 @@ public abstract class ParCELAbstract extends AbstractCELA {
 	public void setUseHasValue(boolean useHasValue) {
 		this.useHasValue = useHasValue;
 	}
+
+	public boolean isWorkStealing() {
+		return this.workStealing;
+	}
+
+	public void setWorkStealing(boolean workStealing) {
+		this.workStealing = workStealing;
+	}
+
+	/**
+	 * Get the extension cache of the reasoner (only the FastInstanceChecker has one)
+	 * 
+	 * @return Extension cache of the reasoner or null if the reasoner does not use a cache
+	 */
+	private ConceptExtensionCache getExtensionCache() {
+		if (reasoner instanceof FastInstanceChecker
+				&& ((FastInstanceChecker) reasoner).isUseExtensionCache())
+			return ((FastInstanceChecker) reasoner).getExtensionCache();
+
+		return null;
+	}
+
+	public long getExtensionCacheHits() {
+		ConceptExtensionCache cache = getExtensionCache();
+		return (cache == null ? 0 : cache.getHits());
+	}
+
+	public long getExtensionCacheMisses() {
+		ConceptExtensionCache cache = getExtensionCache();
+		return (cache == null ? 0 : cache.getMisses());
+	}
+
+	public int getExtensionCacheSize() {
+		ConceptExtensionCache cache = getExtensionCache();
+		return (cache == null ? 0 : cache.size());
+	}
 }
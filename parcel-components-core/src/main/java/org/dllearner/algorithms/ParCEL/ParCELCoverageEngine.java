@@ -0,0 +1,290 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Coverage engine used by the ParCEL learning problem.<br>
+ * Positive and negative examples are numbered densely (0..n-1) once when the engine is created so
+ * that the set of examples covered by a description can be represented by a {@link BitSet}.
+ * Accuracy, correctness and completeness can then be computed using cardinality (popcount) and
+ * AND/ANDNOT operations instead of building and comparing sets of individuals.<br>
+ *
+ * An engine is immutable after its creation and can be shared by all workers. A new engine must be
+ * created whenever the positive or negative examples are changed.
+ *
+ */
+public class ParCELCoverageEngine {
+
+	private final AbstractReasonerComponent reasoner;
+
+	// examples, indexed by their position in the bitsets
+	private final Individual[] positiveExamples;
+	private final Individual[] negativeExamples;
+
+	// reverse index: example --> position in the bitset
+	private final Map<Individual, Integer> positiveExampleIndex;
+	private final Map<Individual, Integer> negativeExampleIndex;
+
+	// examples as sets, used for the set-at-a-time instance checks
+	private final Set<Individual> positiveExampleSet;
+	private final Set<Individual> negativeExampleSet;
+
+	/**
+	 * Create a coverage engine for the given examples
+	 *
+	 * @param reasoner
+	 *            Reasoner used for the instance checks
+	 * @param positiveExamples
+	 *            Set of positive examples
+	 * @param negativeExamples
+	 *            Set of negative examples
+	 */
+	public ParCELCoverageEngine(AbstractReasonerComponent reasoner,
+			Set<Individual> positiveExamples, Set<Individual> negativeExamples) {
+		this.reasoner = reasoner;
+
+		this.positiveExamples = positiveExamples.toArray(new Individual[positiveExamples.size()]);
+		this.negativeExamples = negativeExamples.toArray(new Individual[negativeExamples.size()]);
+
+		this.positiveExampleIndex = createIndex(this.positiveExamples);
+		this.negativeExampleIndex = createIndex(this.negativeExamples);
+
+		this.positiveExampleSet = new HashSet<Individual>(positiveExampleIndex.keySet());
+		this.negativeExampleSet = new HashSet<Individual>(negativeExampleIndex.keySet());
+	}
+
+	private static Map<Individual, Integer> createIndex(Individual[] examples) {
+		Map<Individual, Integer> index = new HashMap<Individual, Integer>(examples.length * 2);
+		for (int i = 0; i < examples.length; i++)
+			index.put(examples[i], i);
+		return index;
+	}
+
+	/**
+	 * Calculate the positive examples covered by a description
+	 *
+	 * @param description
+	 *            Description to be checked
+	 *
+	 * @return Bitset of the covered positive examples
+	 */
+	public BitSet coveredPositiveExamples(Description description) {
+		return covered(description, positiveExampleSet, positiveExampleIndex, positiveExamples.length);
+	}
+
+	/**
+	 * Calculate the positive examples covered by a description, only the given candidates are
+	 * checked (e.g. the positive examples covered by the parent description)
+	 *
+	 * @param description
+	 *            Description to be checked
+	 * @param candidates
+	 *            Positive examples that will be checked
+	 *
+	 * @return Bitset of the covered positive examples (subset of the candidates)
+	 */
+	public BitSet coveredPositiveExamples(Description description, BitSet candidates) {
+		return covered(description, positiveExamples, positiveExampleIndex, candidates);
+	}
+
+	/**
+	 * Calculate the negative examples covered by a description
+	 *
+	 * @param description
+	 *            Description to be checked
+	 *
+	 * @return Bitset of the covered negative examples
+	 */
+	public BitSet coveredNegativeExamples(Description description) {
+		return covered(description, negativeExampleSet, negativeExampleIndex, negativeExamples.length);
+	}
+
+	/**
+	 * Calculate the negative examples covered by a description, only the given candidates are
+	 * checked
+	 *
+	 * @param description
+	 *            Description to be checked
+	 * @param candidates
+	 *            Negative examples that will be checked
+	 *
+	 * @return Bitset of the covered negative examples (subset of the candidates)
+	 */
+	public BitSet coveredNegativeExamples(Description description, BitSet candidates) {
+		return covered(description, negativeExamples, negativeExampleIndex, candidates);
+	}
+
+	/**
+	 * The examples are checked by one set-at-a-time instance check so that reasoners which can
+	 * evaluate a description for many individuals at once (e.g. the FastInstanceChecker) do not
+	 * have to perform one instance check per example
+	 */
+	private BitSet covered(Description description, Set<Individual> examples,
+			Map<Individual, Integer> index, int size) {
+		if (examples.isEmpty())
+			return new BitSet(size);
+
+		return toBitSet(reasoner.hasType(description, examples), index, size);
+	}
+
+	private BitSet covered(Description description, Individual[] examples,
+			Map<Individual, Integer> index, BitSet candidates) {
+		Set<Individual> candidateExamples = toIndividuals(candidates, examples);
+
+		if (candidateExamples.isEmpty())
+			return new BitSet(examples.length);
+
+		return toBitSet(reasoner.hasType(description, candidateExamples), index, examples.length);
+	}
+
+	// -----------------------------------------
+	// conversion between bitsets and sets
+	// -----------------------------------------
+
+	/**
+	 * Convert a collection of positive examples into a bitset. Individuals that are not positive
+	 * examples are ignored
+	 *
+	 * @param individuals
+	 *            Collection of positive examples
+	 *
+	 * @return Corresponding bitset
+	 */
+	public BitSet positiveExamplesToBitSet(Collection<Individual> individuals) {
+		return toBitSet(individuals, positiveExampleIndex, positiveExamples.length);
+	}
+
+	/**
+	 * Convert a collection of negative examples into a bitset. Individuals that are not negative
+	 * examples are ignored
+	 *
+	 * @param individuals
+	 *            Collection of negative examples
+	 *
+	 * @return Corresponding bitset
+	 */
+	public BitSet negativeExamplesToBitSet(Collection<Individual> individuals) {
+		return toBitSet(individuals, negativeExampleIndex, negativeExamples.length);
+	}
+
+	/**
+	 * Convert a bitset of positive examples into a set of individuals
+	 *
+	 * @param bits
+	 *            Bitset of positive examples
+	 *
+	 * @return Set of corresponding positive examples
+	 */
+	public Set<Individual> bitSetToPositiveExamples(BitSet bits) {
+		return toIndividuals(bits, positiveExamples);
+	}
+
+	/**
+	 * Convert a bitset of negative examples into a set of individuals
+	 *
+	 * @param bits
+	 *            Bitset of negative examples
+	 *
+	 * @return Set of corresponding negative examples
+	 */
+	public Set<Individual> bitSetToNegativeExamples(BitSet bits) {
+		return toIndividuals(bits, negativeExamples);
+	}
+
+	private static BitSet toBitSet(Collection<Individual> individuals,
+			Map<Individual, Integer> index, int size) {
+		BitSet result = new BitSet(size);
+
+		for (Individual ind : individuals) {
+			Integer i = index.get(ind);
+			if (i != null)
+				result.set(i);
+		}
+
+		return result;
+	}
+
+	private static Set<Individual> toIndividuals(BitSet bits, Individual[] examples) {
+		Set<Individual> result = new HashSet<Individual>(bits.cardinality() * 2);
+
+		for (int i = bits.nextSetBit(0); i >= 0 && i < examples.length; i = bits.nextSetBit(i + 1))
+			result.add(examples[i]);
+
+		return result;
+	}
+
+	/**
+	 * Get the bitset that contains all positive examples
+	 *
+	 * @return Bitset of all positive examples
+	 */
+	public BitSet allPositiveExamples() {
+		BitSet result = new BitSet(positiveExamples.length);
+		result.set(0, positiveExamples.length);
+		return result;
+	}
+
+	/**
+	 * Get the bitset that contains all negative examples
+	 *
+	 * @return Bitset of all negative examples
+	 */
+	public BitSet allNegativeExamples() {
+		BitSet result = new BitSet(negativeExamples.length);
+		result.set(0, negativeExamples.length);
+		return result;
+	}
+
+	// -----------------------------------------
+	// getters
+	// -----------------------------------------
+
+	public int getNumberOfPositiveExamples() {
+		return positiveExamples.length;
+	}
+
+	public int getNumberOfNegativeExamples() {
+		return negativeExamples.length;
+	}
+
+	public Individual getPositiveExample(int index) {
+		return positiveExamples[index];
+	}
+
+	public Individual getNegativeExample(int index) {
+		return negativeExamples[index];
+	}
+
+	public AbstractReasonerComponent getReasoner() {
+		return reasoner;
+	}
+
+	/**
+	 * Count the number of elements in the intersection of two bitsets without creating a new
+	 * bitset (this is called in the inner loops of the reducers). The given bitsets are not
+	 * modified
+	 *
+	 * @param a
+	 *            First bitset
+	 * @param b
+	 *            Second bitset
+	 *
+	 * @return |a AND b|
+	 */
+	public static int intersectionSize(BitSet a, BitSet b) {
+		int size = 0;
+		for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1))
+			if (b.get(i))
+				size++;
+		return size;
+	}
+}
@@ -0,0 +1,116 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Bitset based implementation of {@link ParCELCoverageGreedyReducer}: the partial definitions are
+ * taken in their given order and a partial definition is chosen if it covers some positive
+ * examples that are not covered by the partial definitions chosen before. The covered positive
+ * examples are represented by bitsets, so that the number of newly covered positive examples is
+ * computed by bitset operations instead of removing individuals from a set. The result is the
+ * same as the result of {@link ParCELCoverageGreedyReducer}.
+ * 
+ * 
+ */
+public class ParCELCoverageGreedyBitSetReducer implements ParCELReducer {
+
+	/**
+	 * Compact partial definitions
+	 * 
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 * 
+	 * @return Subset of partial definitions that cover all positive examples
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples) {
+		return reduce(partialDefinitions, positiveExamples, 0);
+	}
+
+	/**
+	 * Compact partial definition with noise allowed
+	 * 
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 * @param uncoveredPositiveExamples
+	 *            Number of uncovered positive examples allowed
+	 * 
+	 * @return Subset of partial definitions that cover (positive examples \ uncovered positive
+	 *         examples)
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples, int uncoveredPositiveExamples) {
+
+		Map<Individual, Integer> index = ParCELLazyGreedySelector.createIndex(positiveExamples);
+
+		BitSet positiveExamplesTmp = new BitSet(index.size());
+		positiveExamplesTmp.set(0, index.size());
+		int noOfPositiveExamplesTmp = index.size();
+
+		TreeSet<ParCELExtraNode> minimisedPartialDefinition = new TreeSet<ParCELExtraNode>(
+				new ParCELCorrectnessComparator());
+
+		Iterator<ParCELExtraNode> partialDefinitionIterator = partialDefinitions.iterator();
+		while ((noOfPositiveExamplesTmp > uncoveredPositiveExamples)
+				&& (partialDefinitionIterator.hasNext())) {
+			ParCELExtraNode node = partialDefinitionIterator.next();
+
+			BitSet cover = getCover(node, index);
+
+			int positiveExamplesRemoved = ParCELCoverageEngine.intersectionSize(cover,
+					positiveExamplesTmp);
+
+			if (positiveExamplesRemoved > 0) {
+				positiveExamplesTmp.andNot(cover);
+				noOfPositiveExamplesTmp -= positiveExamplesRemoved;
+
+				// the node may be in the (correctness ordered) set of the caller, use a copy
+				ParCELExtraNode reducedNode = node.copy();
+				reducedNode.setCorrectness(positiveExamplesRemoved);
+				minimisedPartialDefinition.add(reducedNode);
+			}
+		}
+
+		return minimisedPartialDefinition;
+	}
+
+	/**
+	 * Get the bitset of the positive examples covered by a partial definition. The bitset computed
+	 * by the coverage engine is used if it matches the index: the engine numbers the positive
+	 * examples of the learning problem in their iteration order, which is also the order of the
+	 * index if the reducer is given the same set of positive examples. The bitset is built from
+	 * the covered positive examples otherwise, e.g. for partial definitions without bitsets or
+	 * computed for another set of examples.
+	 * 
+	 * @param node
+	 *            Partial definition
+	 * @param index
+	 *            Index of the positive examples
+	 * 
+	 * @return Bitset of the covered positive examples, which must not be modified
+	 */
+	private static BitSet getCover(ParCELExtraNode node, Map<Individual, Integer> index) {
+		BitSet bits = node.getCoveredPositiveExampleBits();
+		Set<Individual> coveredPositiveExamples = node.getCoveredPositiveExamples();
+
+		if (bits != null && bits.length() <= index.size()
+				&& bits.cardinality() == coveredPositiveExamples.size())
+			return bits;
+
+		return ParCELLazyGreedySelector.createCovers(new Object[] { node }, index, false)[0];
+	}
+
+}
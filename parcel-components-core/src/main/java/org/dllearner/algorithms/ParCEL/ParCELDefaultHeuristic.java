@@ -8,7 +8,9 @@ import org.dllearner.utilities.owl.ConceptComparator;
  * + horizontal expansion: penalty<br>
  * + accuracy gained from the parent node: bonus<br>
  * + refinement nodes: penalty<br>
- * + concept type + name (org.dllearner.utilities.owl.ConceptComparator)
+ * + sequence id of the node: tie breaker<br>
+ * The score of a node is computed once and cached in the node, so that a comparison only needs
+ * a few primitive comparisons.
  * 
  * @author An C. Tran
  * 
@@ -31,7 +33,8 @@ public class ParCELDefaultHeuristic implements ParCELHeuristic {
 	// award for node with high accuracy
 	protected double accuracyAwardFactor = 0.01;	//0.01
 
-	// syntactic comparison as final comparison criterion
+	// syntactic comparison (not used by the comparison anymore, nodes with the same score are
+	// ordered by their sequence id)
 	protected ConceptComparator conceptComparator = new ConceptComparator();
 
 	/**
@@ -46,24 +49,41 @@ public class ParCELDefaultHeuristic implements ParCELHeuristic {
 	 */
 	@Override
 	public int compare(ParCELNode node1, ParCELNode node2) {
-		double diff = getNodeScore(node1) - getNodeScore(node2);
+		double diff = getCachedScore(node1) - getCachedScore(node2);
 
 		if (diff > 0) { // node1 has better score than node2
 			return 1;
 		} else if (diff < 0) {
 			return -1;
 		} else {
-			int comp = conceptComparator.compare(node1.getDescription(), node2.getDescription());
-//			return comp;
-
-			// this allows duplicate descriptions exists in the set (with dif. horz. value)
-			if (comp != 0)
-				return comp;
-			else
-				return -1;
+			// the node created first is the better one. Sequence ids are unique, i.e. two
+			// different nodes are never equal (this allows duplicate descriptions exists in the
+			// set) while a node is equal to itself (so that it can be removed from the set)
+			long id1 = node1.getSequenceId();
+			long id2 = node2.getSequenceId();
+			return (id1 < id2 ? 1 : (id1 == id2 ? 0 : -1));
 		}
 	}
 
+	/**
+	 * Get the score of a node from its cache, the score is computed and cached if necessary
+	 * 
+	 * @param node
+	 *            Node to be scored
+	 * 
+	 * @return Score of the node
+	 */
+	protected double getCachedScore(ParCELNode node) {
+		double score = node.getScore();
+
+		if (Double.isNaN(score)) {
+			score = getNodeScore(node);
+			node.setScore(score);
+		}
+
+		return score;
+	}
+
 	/**
 	 * Calculate score for a node which is used as the searching heuristic
 	 * 
@@ -97,7 +117,7 @@ public class ParCELDefaultHeuristic implements ParCELHeuristic {
 
 	@Override
 	public double getScore(ParCELNode node) {
-		return this.getNodeScore(node);
+		return this.getCachedScore(node);
 	}
 
 	public double getCorrectnessFactor() {
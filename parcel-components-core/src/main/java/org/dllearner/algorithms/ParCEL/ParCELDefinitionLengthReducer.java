@@ -48,8 +48,10 @@ public class ParCELDefinitionLengthReducer implements ParCELReducer {
 			positiveExamplesRemoved -= positiveExamplesTmp.size();
 
 			if (positiveExamplesRemoved > 0) {
-				node.setCorrectness(positiveExamplesRemoved);
-				minimisedPartialDefinition.add(node);
+				// the node may be in the (correctness ordered) set of the caller, use a copy
+				ParCELExtraNode reducedNode = node.copy();
+				reducedNode.setCorrectness(positiveExamplesRemoved);
+				minimisedPartialDefinition.add(reducedNode);
 			}
 		}
 
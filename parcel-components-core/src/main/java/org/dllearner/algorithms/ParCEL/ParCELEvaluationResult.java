@@ -1,5 +1,6 @@
 package org.dllearner.algorithms.ParCEL;
 
+import java.util.BitSet;
 import java.util.Set;
 
 import org.dllearner.core.owl.Individual;
@@ -14,6 +15,7 @@ import org.dllearner.core.owl.Individual;
  * <li>- completeness: double</li>
  * <li>- covered positive examples: Set&lt;Individual&gt;</li>
  * <li>- covered negative examples: Set&lt;Individual&gt;</li>
+ * <li>- covered positive/negative examples as bitsets (see {@link ParCELCoverageEngine})</li>
  * </ol>
  * 
  * @author An C. Tran
@@ -26,6 +28,8 @@ public class ParCELEvaluationResult {
 	protected double completeness = 0.0;
 	protected Set<Individual> coveredPossitiveExamples = null;
 	protected Set<Individual> coveredNegativeExamples = null;
+	protected BitSet coveredPositiveExampleBits = null;
+	protected BitSet coveredNegativeExampleBits = null;
 
 	/**
 	 * Default constructor, use default value for all properties
@@ -131,4 +135,20 @@ public class ParCELEvaluationResult {
 		this.coveredNegativeExamples = coveredNegativeExamples;
 	}
 
+	public BitSet getCoveredPositiveExampleBits() {
+		return coveredPositiveExampleBits;
+	}
+
+	public void setCoveredPositiveExampleBits(BitSet coveredPositiveExampleBits) {
+		this.coveredPositiveExampleBits = coveredPositiveExampleBits;
+	}
+
+	public BitSet getCoveredNegativeExampleBits() {
+		return coveredNegativeExampleBits;
+	}
+
+	public void setCoveredNegativeExampleBits(BitSet coveredNegativeExampleBits) {
+		this.coveredNegativeExampleBits = coveredNegativeExampleBits;
+	}
+
 }
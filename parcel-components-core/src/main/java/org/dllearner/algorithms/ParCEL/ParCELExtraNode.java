@@ -1,5 +1,6 @@
 package org.dllearner.algorithms.ParCEL;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -64,6 +65,8 @@ public class ParCELExtraNode extends ParCELNode {
 		super(node.getParent(), node.getDescription(), node.getAccuracy(), node.getCorrectness(), node.getCompleteness());
 		setCoveredPositiveExamples(node.getCoveredPositiveExamples());
 		setCoveredNegativeExamples(node.getCoveredNegativeExamples());
+		setCoveredPositiveExampleBits(node.getCoveredPositiveExampleBits());
+		setCoveredNegativeExampleBits(node.getCoveredNegativeExampleBits());
 	}
 
 	/**
@@ -128,6 +131,44 @@ public class ParCELExtraNode extends ParCELNode {
 	}
 	
 	
+	/**
+	 * Constructor with the positive and negative examples covered by the description of the node
+	 * given as bitsets (see {@link ParCELCoverageEngine}) together with the corresponding sets
+	 * 
+	 * @param parentNode
+	 * @param description
+	 * @param accuracy
+	 * @param correctness
+	 * @param completeness
+	 * @param cp Covered positive examples
+	 * @param cpBits Covered positive examples (bitset)
+	 * @param cnBits Covered negative examples (bitset)
+	 */
+	public ParCELExtraNode(ParCELNode parentNode, Description description, double accuracy,
+			double correctness, double completeness, Set<Individual> cp, BitSet cpBits, BitSet cnBits) 
+	{
+		super(parentNode, description, accuracy, correctness, completeness);
+		super.setCoveredPositiveExamples(cp);
+		super.setCoveredPositiveExampleBits(cpBits);
+		super.setCoveredNegativeExampleBits(cnBits);
+	}
+	
+	/**
+	 * Create a copy of this node, e.g. to change the correctness of a node which is in a set
+	 * ordered by the correctness (changing the node itself would break the ordering of the set)
+	 * 
+	 * @return A new node with the same values as this node
+	 */
+	public ParCELExtraNode copy() {
+		ParCELExtraNode node = new ParCELExtraNode(this);
+		node.generationTime = this.generationTime;
+		node.extraInfo = this.extraInfo;
+		node.type = this.type;
+		node.compositeNodes.addAll(this.compositeNodes);
+		return node;
+	}
+	
+	
 	// -------------------------
 	// getters and setters
 	// -------------------------
@@ -0,0 +1,106 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Bitset based implementation of {@link ParCELImprovedCoverageGreedyReducer}: the partial
+ * definitions are chosen based on their coverage of the remaining positive examples and the
+ * coverage is recalculated after each choice.<br>
+ * Instead of re-counting the coverage of all partial definitions in each step, the coverage is
+ * represented by bitsets and the best partial definition is found by a lazy greedy priority queue
+ * (see {@link ParCELLazyGreedySelector}). The swaps of the original selection sort are replayed
+ * so that ties are broken in the same way, i.e. the result is the same as the result of
+ * {@link ParCELImprovedCoverageGreedyReducer}.
+ *
+ */
+public class ParCELImprovedCoverageGreedyBitSetReducer implements ParCELReducer {
+
+	/**
+	 * Compact partial definitions
+	 *
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 *
+	 * @return Subset of partial definitions that cover all positive examples
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples) {
+		return this.reduce(partialDefinitions, positiveExamples, 0);
+	}
+
+	/**
+	 * Compact partial definition with noise allowed
+	 *
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 * @param uncoveredPositiveExamplesAllowed
+	 *            Number of uncovered positive examples allowed
+	 *
+	 * @return Subset of partial definitions that cover (positive examples \ uncovered positive
+	 *         examples)
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples, int uncoveredPositiveExamplesAllowed) {
+
+		TreeSet<ParCELExtraNode> reducedPartialDefinition = new TreeSet<ParCELExtraNode>(
+				new ParCELCompletenessComparator());
+
+		if (partialDefinitions.size() == 0)
+			return reducedPartialDefinition;
+
+		synchronized (partialDefinitions) {
+			Object[] partialDefs = partialDefinitions.toArray();
+
+			Map<Individual, Integer> index = ParCELLazyGreedySelector.createIndex(positiveExamples);
+			BitSet[] covers = ParCELLazyGreedySelector.createCovers(partialDefs, index, false);
+
+			BitSet uncovered = new BitSet(index.size());
+			uncovered.set(0, index.size());
+
+			ParCELLazyGreedySelector selector = new ParCELLazyGreedySelector(covers, uncovered);
+
+			for (int i = 0; (selector.getNoOfUncovered() > uncoveredPositiveExamplesAllowed)
+					&& (i < partialDefs.length); i++) {
+
+				int best = selector.nextBest();
+				int bestPosition = selector.getPosition(best);
+
+				// replay the selection sort of the original reducer: every partial definition
+				// between i and the best one that covers more than all partial definitions before
+				// it is swapped with the one at i. A partial definition whose bound is not greater
+				// than the current maximum cannot be swapped, so its gain need not be recomputed
+				int max = selector.getGain(selector.getDefinitionAt(i));
+				for (int j = i + 1; j <= bestPosition; j++) {
+					int definition = selector.getDefinitionAt(j);
+
+					if (selector.getGainBound(definition) <= max)
+						continue;
+
+					int gain = selector.getGain(definition);
+					if (gain > max) {
+						selector.swap(i, j);
+						max = gain;
+					}
+				}
+
+				reducedPartialDefinition.add((ParCELExtraNode) partialDefs[best]);
+				selector.select(best);
+			}
+		}
+
+		return reducedPartialDefinition;
+	}
+
+}
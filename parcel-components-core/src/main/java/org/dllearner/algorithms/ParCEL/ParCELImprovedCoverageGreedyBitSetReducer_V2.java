@@ -0,0 +1,157 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Bitset based implementation of {@link ParCELImprovedCoverageGreedyReducer_V2}. The coverage of
+ * the partial definitions is represented by bitsets and the best partial definition in each step
+ * is found by a lazy greedy priority queue (see {@link ParCELLazyGreedySelector}) instead of
+ * re-counting the coverage of all partial definitions.<br>
+ * As in {@link ParCELImprovedCoverageGreedyReducer_V2}, the partial definitions are only scored,
+ * the returned set is currently empty.
+ * 
+ * 
+ */
+public class ParCELImprovedCoverageGreedyBitSetReducer_V2 implements ParCELReducer {
+
+	Logger logger = Logger.getLogger(this.getClass());
+
+	/**
+	 * Compact partial definitions
+	 * 
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 * 
+	 * @return Subset of partial definitions that cover all positive examples
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples) {
+		return this.reduce(partialDefinitions, positiveExamples, 0);
+	}
+
+	/**
+	 * Compact partial definition with noise allowed
+	 * 
+	 * @param partialDefinitions
+	 *            Set of partial definitions
+	 * @param positiveExamples
+	 *            Set of positive examples (used to check whether partial definition is useful
+	 * @param uncoveredPositiveExamples
+	 *            Number of uncovered positive examples allowed
+	 * 
+	 * @return Subset of partial definitions that cover (positive examples \ uncovered positive
+	 *         examples)
+	 */
+	@Override
+	public SortedSet<ParCELExtraNode> reduce(SortedSet<ParCELExtraNode> partialDefinitions,
+			Set<Individual> positiveExamples, int uncoveredPositiveExamples) {
+
+		int coverageThreshold = positiveExamples.size() - uncoveredPositiveExamples;
+
+		TreeSet<ParCELExtraNode> reducedPartialDefinition = new TreeSet<ParCELExtraNode>(
+				new ParCELCompletenessComparator());
+
+		if (partialDefinitions.size() == 0)
+			return reducedPartialDefinition;
+
+		synchronized (partialDefinitions) {
+			Map<Description, Double> scoringResult = new HashMap<Description, Double>();
+
+			// factors, that are used to adjust the scores of dimensions
+			double lengthFactor = 0.3;
+			double relativeCoverageFactor = 1.0;
+
+			int maxLength = 0;
+			int maxCoverage = 0;
+
+			// get the global information such as max length, etc.
+			for (ParCELExtraNode pdef : partialDefinitions) {
+				int curLength = pdef.getDescription().getLength();
+				if (curLength > maxLength)
+					maxLength = curLength;
+
+				int curCoverage = pdef.getCoveredPositiveExamples().size();
+				if (maxCoverage < curCoverage)
+					maxCoverage = curCoverage;
+			}
+
+			Object[] partialDefs = partialDefinitions.toArray();
+
+			// the covered positive examples are not restricted to the given positive examples,
+			// therefore the index contains all examples covered by the partial definitions and
+			// the uncovered examples are the union of the coverage minus the covered examples
+			Map<Individual, Integer> index = new HashMap<Individual, Integer>();
+			BitSet[] covers = ParCELLazyGreedySelector.createCovers(partialDefs, index, true);
+
+			BitSet uncovered = new BitSet(index.size());
+			uncovered.set(0, index.size());
+
+			ParCELLazyGreedySelector selector = new ParCELLazyGreedySelector(covers, uncovered);
+
+			for (int i = 0; (index.size() - selector.getNoOfUncovered() < coverageThreshold)
+					&& (i < partialDefs.length); i++) {
+
+				// the best partial definition is the first one that has the maximal coverage
+				int best = selector.nextBest();
+				selector.swap(i, selector.getPosition(best));
+
+				int maxLocalCoverage = selector.select(best);
+
+				ParCELExtraNode bestNode = (ParCELExtraNode) partialDefs[best];
+
+				// calculate the relative coverage score
+				double relativeCoverageScore = scoringRelativeCoverage(maxCoverage, bestNode
+						.getCoveredPositiveExamples().size(), maxLocalCoverage);
+
+				// calculate score of other dimensions: currently there is only length
+				double lengthScore = (1 - bestNode.getDescription().getLength() / (double) maxLength);
+
+				// calculate the total score and add it into the returning result
+				double totalPredScore = relativeCoverageScore * relativeCoverageFactor
+						+ lengthScore * lengthFactor;
+
+				scoringResult.put(bestNode.getDescription(), new Double(totalPredScore));
+			}
+		}
+
+		return reducedPartialDefinition;
+	}
+
+	/**
+	 * Score the relative coverage
+	 * 
+	 * @param maxCoverage
+	 *            Maximal coverage of all partial definitions
+	 * @param originalCoverage
+	 *            Partial definition coverage
+	 * @param updatedCoverage
+	 *            Partial definition coverage after removing the covered pos examples of the better
+	 *            partial definitions
+	 * @return
+	 */
+	private static double scoringRelativeCoverage(int maxCoverage, int originalCoverage,
+			int updatedCoverage) {
+
+		double originalCoverageFactor = 0.8;
+		double updatedCoverageFactor = 1.0;
+
+		double originalCoverageScore = (originalCoverage - updatedCoverage) / (double) maxCoverage;
+		double updatedCoverageScore = updatedCoverage / (double) maxCoverage;
+
+		return originalCoverageScore * originalCoverageFactor + updatedCoverageScore
+				* updatedCoverageFactor;
+	}
+
+}
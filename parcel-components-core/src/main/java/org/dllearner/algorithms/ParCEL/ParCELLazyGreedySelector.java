@@ -0,0 +1,230 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.dllearner.core.owl.Individual;
+
+/**
+ * Lazy greedy selection for the coverage based reducers (accelerated greedy set cover).<br>
+ * Each partial definition is represented by the bitset of the examples it covers. Its gain is the
+ * number of examples it covers that are still uncovered. Gains can only decrease when a partial
+ * definition is selected, therefore the last computed gain of a partial definition is an upper
+ * bound of its current gain. The partial definitions are kept in a priority queue ordered by this
+ * bound (descending) and by their position (ascending), only the bound of the partial definition
+ * at the top of the queue is recomputed until the top one is up to date.<br>
+ * The positions correspond to the array used by the original reducers, so that ties are broken in
+ * the same way (the first partial definition in the current order wins).
+ *
+ */
+public class ParCELLazyGreedySelector {
+
+	private final BitSet[] covers;
+	private final BitSet uncovered;
+	private int noOfUncovered;
+
+	// definition --> position and position --> definition
+	private final int[] positions;
+	private final int[] definitions;
+
+	// last computed gain (upper bound of the current gain) and the version it was computed for
+	private final int[] bounds;
+	private final long[] versions;
+	private long version = 0;
+
+	private final TreeSet<Integer> queue;
+
+	/**
+	 * Create a selector
+	 *
+	 * @param covers
+	 *            Examples covered by each partial definition (the index is the initial position)
+	 * @param uncovered
+	 *            Uncovered examples, this bitset will be modified by the selector
+	 */
+	public ParCELLazyGreedySelector(BitSet[] covers, BitSet uncovered) {
+		this.covers = covers;
+		this.uncovered = uncovered;
+		this.noOfUncovered = uncovered.cardinality();
+
+		int n = covers.length;
+		this.positions = new int[n];
+		this.definitions = new int[n];
+		this.bounds = new int[n];
+		this.versions = new long[n];
+
+		this.queue = new TreeSet<Integer>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer d1, Integer d2) {
+				int b1 = bounds[d1], b2 = bounds[d2];
+				if (b1 != b2)
+					return (b1 > b2) ? -1 : 1;
+				return positions[d1] - positions[d2];
+			}
+		});
+
+		for (int i = 0; i < n; i++) {
+			positions[i] = i;
+			definitions[i] = i;
+			bounds[i] = ParCELCoverageEngine.intersectionSize(covers[i], uncovered);
+			queue.add(i);
+		}
+	}
+
+	/**
+	 * Get the first partial definition (in the current order) that has the maximal gain among the
+	 * partial definitions that have not been selected
+	 *
+	 * @return Index of the partial definition or -1 if all partial definitions have been selected
+	 */
+	public int nextBest() {
+		while (!queue.isEmpty()) {
+			int top = queue.first();
+
+			if (versions[top] == version)
+				return top;
+
+			// recompute the gain of the top partial definition and put it back
+			queue.remove(top);
+			bounds[top] = ParCELCoverageEngine.intersectionSize(covers[top], uncovered);
+			versions[top] = version;
+			queue.add(top);
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Get an upper bound of the current gain of a partial definition without recomputing it
+	 */
+	public int getGainBound(int definition) {
+		return bounds[definition];
+	}
+
+	/**
+	 * Get the current gain of a partial definition (recomputed if necessary)
+	 */
+	public int getGain(int definition) {
+		if (versions[definition] != version) {
+			boolean queued = queue.remove(definition);
+			bounds[definition] = ParCELCoverageEngine.intersectionSize(covers[definition],
+					uncovered);
+			versions[definition] = version;
+			if (queued)
+				queue.add(definition);
+		}
+
+		return bounds[definition];
+	}
+
+	/**
+	 * Swap the positions of two partial definitions in the current order
+	 */
+	public void swap(int position1, int position2) {
+		if (position1 == position2)
+			return;
+
+		int d1 = definitions[position1];
+		int d2 = definitions[position2];
+
+		boolean queued1 = queue.remove(d1);
+		boolean queued2 = queue.remove(d2);
+
+		definitions[position1] = d2;
+		definitions[position2] = d1;
+		positions[d1] = position2;
+		positions[d2] = position1;
+
+		if (queued1)
+			queue.add(d1);
+		if (queued2)
+			queue.add(d2);
+	}
+
+	/**
+	 * Select a partial definition: its covered examples are removed from the uncovered examples
+	 *
+	 * @return Gain of the partial definition
+	 */
+	public int select(int definition) {
+		int gain = getGain(definition);
+		queue.remove(definition);
+
+		if (gain > 0) {
+			uncovered.andNot(covers[definition]);
+			noOfUncovered -= gain;
+			version++;
+		}
+
+		return gain;
+	}
+
+	public int getDefinitionAt(int position) {
+		return definitions[position];
+	}
+
+	public int getPosition(int definition) {
+		return positions[definition];
+	}
+
+	public int getNoOfUncovered() {
+		return noOfUncovered;
+	}
+
+	// -----------------------------------------
+	// bitset creation
+	// -----------------------------------------
+
+	/**
+	 * Create an index for the given individuals
+	 *
+	 * @return Individual --> bit index
+	 */
+	public static Map<Individual, Integer> createIndex(Collection<Individual> individuals) {
+		Map<Individual, Integer> index = new HashMap<Individual, Integer>(individuals.size() * 2);
+		for (Individual ind : individuals) {
+			if (!index.containsKey(ind))
+				index.put(ind, index.size());
+		}
+		return index;
+	}
+
+	/**
+	 * Create the bitsets of the covered positive examples of partial definitions
+	 *
+	 * @param partialDefinitions
+	 *            Partial definitions
+	 * @param index
+	 *            Index of the individuals
+	 * @param extendIndex
+	 *            If true, individuals that are not in the index are added into it, otherwise they
+	 *            are ignored
+	 *
+	 * @return Bitsets, in the order of the given partial definitions
+	 */
+	public static BitSet[] createCovers(Object[] partialDefinitions, Map<Individual, Integer> index,
+			boolean extendIndex) {
+		BitSet[] covers = new BitSet[partialDefinitions.length];
+
+		for (int i = 0; i < partialDefinitions.length; i++) {
+			BitSet cover = new BitSet();
+			for (Individual ind : ((ParCELExtraNode) partialDefinitions[i])
+					.getCoveredPositiveExamples()) {
+				Integer id = index.get(ind);
+				if (id == null && extendIndex) {
+					id = index.size();
+					index.put(ind, id);
+				}
+				if (id != null)
+					cover.set(id);
+			}
+			covers[i] = cover;
+		}
+
+		return covers;
+	}
+}
@@ -1,8 +1,10 @@
 package org.dllearner.algorithms.ParCEL;
 
 import java.text.DecimalFormat;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.dllearner.algorithms.celoe.OENode;
 import org.dllearner.core.owl.Description;
@@ -24,8 +26,23 @@ public class ParCELNode extends OENode {
 	protected Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
 	protected Set<Individual> coveredNegativeExamples = new HashSet<Individual>();
 
+	// covered examples in the bitset representation of the ParCELCoverageEngine (may be null)
+	protected BitSet coveredPositiveExampleBits = null;
+	protected BitSet coveredNegativeExampleBits = null;
+
 	private DecimalFormat dfPercent = new DecimalFormat("0.00%");
 
+	// unique and increasing id of the node, used by the heuristic as a cheap tie breaker
+	private static final AtomicLong nextSequenceId = new AtomicLong(0);
+	private final long sequenceId = nextSequenceId.getAndIncrement();
+
+	// score of the node given by the heuristic (NaN if it is not computed yet). The score is used
+	// as the ordering key in the search tree, so it is computed once (when the node is compared
+	// for the first time) and is not changed by the setters: the ordering of a sorted set never
+	// changes under it. Code that changes a node which has been removed from the search tree
+	// (e.g. the worker after refining the node) must call resetScore() before inserting it again
+	private volatile double score = Double.NaN;
+
 
 	public ParCELNode(OENode parentNode, Description description, double accuracy,
 			double correctness, double completeness) {
@@ -63,6 +80,31 @@ public class ParCELNode extends OENode {
 		this.accuracy = acc;
 	}
 
+	public long getSequenceId() {
+		return this.sequenceId;
+	}
+
+	/**
+	 * Get the cached score of the node
+	 * 
+	 * @return Score given by the heuristic or NaN if it has not been computed yet
+	 */
+	public double getScore() {
+		return this.score;
+	}
+
+	public void setScore(double score) {
+		this.score = score;
+	}
+
+	/**
+	 * Invalidate the cached score, it will be computed again by the heuristic. This must only be
+	 * called while the node is not in a set ordered by the score
+	 */
+	public void resetScore() {
+		this.score = Double.NaN;
+	}
+
 	public Set<Individual> getCoveredPositiveExamples() {
 		return this.coveredPositiveExamples;
 	}
@@ -85,6 +127,22 @@ public class ParCELNode extends OENode {
 			this.coveredNegativeExamples.clear();
 	}
 
+	public BitSet getCoveredPositiveExampleBits() {
+		return this.coveredPositiveExampleBits;
+	}
+
+	public void setCoveredPositiveExampleBits(BitSet coveredPositiveExampleBits) {
+		this.coveredPositiveExampleBits = coveredPositiveExampleBits;
+	}
+
+	public BitSet getCoveredNegativeExampleBits() {
+		return this.coveredNegativeExampleBits;
+	}
+
+	public void setCoveredNegativeExampleBits(BitSet coveredNegativeExampleBits) {
+		this.coveredNegativeExampleBits = coveredNegativeExampleBits;
+	}
+
 	@Override
 	public String toString() {
 		String ret = this.getDescription().toManchesterSyntaxString(null, null);
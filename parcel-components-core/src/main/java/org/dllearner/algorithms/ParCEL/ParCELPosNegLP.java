@@ -9,11 +9,12 @@ package org.dllearner.algorithms.ParCEL;
  * @author An C. Tran
  */
 
+import java.util.BitSet;
 import java.util.Set;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.dllearner.core.AbstractLearningProblem;
 import org.dllearner.core.ComponentAnn;
@@ -34,6 +35,16 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	//currently uncovered positive examples
 	protected Set<Individual> uncoveredPositiveExamples;
 
+	//currently uncovered positive examples in the bitset representation of the coverage engine.
+	//the snapshot is replaced (never modified) when it is updated so that it can be read lock-free  
+	protected final AtomicReference<ParCELUncoveredPositiveExamples> uncoveredPositiveExampleSnapshot = new AtomicReference<ParCELUncoveredPositiveExamples>();
+
+	//version of the last published snapshot (versions keep increasing when the snapshot is reset)
+	private long uncoveredPositiveExampleVersion = 0;
+
+	//coverage engine: numbers the examples and calculates the coverage as bitsets
+	protected volatile ParCELCoverageEngine coverageEngine = null;
+
 	// private Logger logger = Logger.getLogger(this.getClass());
 
 	// reasoner component is declared in AbstractLearningProblem class
@@ -83,13 +94,8 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 * @return Set of positive examples covered by the description
 	 */
 	protected Set<Individual> coveredPositiveExamples(Description description) {
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
-
-		for (Individual example : positiveExamples)
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-
-		return coveredPositiveExamples;
+		ParCELCoverageEngine engine = getCoverageEngine();
+		return engine.bitSetToPositiveExamples(engine.coveredPositiveExamples(description));
 	}
 
 	/**
@@ -101,13 +107,9 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 * @return Set of positive examples covered by the description
 	 */
 	protected Set<Individual> coveredUncoveredPositiveExamples(Description description) {
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
-
-		for (Individual example : uncoveredPositiveExamples)
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-
-		return coveredPositiveExamples;
+		ParCELCoverageEngine engine = getCoverageEngine();
+		return engine.bitSetToPositiveExamples(engine.coveredPositiveExamples(description,
+				getUncoveredPositiveExampleBits()));
 	}
 
 	/**
@@ -118,14 +120,7 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 * @return Number if positive examples covered by the description
 	 */
 	protected int getNumberCoveredPositiveExamples(Description description) {
-		int coveredPos = 0;
-
-		for (Individual example : positiveExamples) {
-			if (reasoner.hasType(description, example))
-				coveredPos++;
-		}
-
-		return coveredPos;
+		return getCoverageEngine().coveredPositiveExamples(description).cardinality();
 	}
 
 	/**
@@ -137,15 +132,7 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 * @return Number of negative examples covered by the description
 	 */
 	protected int getNumberOfCoveredNegativeExamples(Description description) {
-		int coveredNeg = 0;
-
-		for (Individual example : negativeExamples) {
-			if (reasoner.hasType(description, example)) {
-				coveredNeg++;
-			}
-		}
-
-		return coveredNeg;
+		return getCoverageEngine().coveredNegativeExamples(description).cardinality();
 	}
 
 	/**
@@ -211,37 +198,34 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 */
 	public ParCELEvaluationResult getAccuracyAndCorrectness(Description description) {
 
-		int notCoveredPos = 0;
-		int notCoveredNeg = 0;
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
+		ParCELCoverageEngine engine = getCoverageEngine();
 
-		for (Individual example : positiveExamples) {
-			if (!reasoner.hasType(description, example))
-				notCoveredPos++;
-			else
-				coveredPositiveExamples.add(example);
-		}
+		int notCoveredNeg = 0;
+		BitSet coveredPositiveExamples = engine.coveredPositiveExamples(description);
+		int noOfCoveredPositiveExamples = coveredPositiveExamples.cardinality();
+		int notCoveredPos = positiveExamples.size() - noOfCoveredPositiveExamples;
 
-		if (coveredPositiveExamples.size() > 0) {
+		if (noOfCoveredPositiveExamples > 0) {
 
-			notCoveredNeg = negativeExamples.size()
-					- getNumberOfCoveredNegativeExamples(description);
+			BitSet coveredNegativeExamples = engine.coveredNegativeExamples(description);
+			notCoveredNeg = negativeExamples.size() - coveredNegativeExamples.cardinality();
 
 			double correctness = (double) notCoveredNeg / (double) negativeExamples.size();
-			double completeness = (double) coveredPositiveExamples.size() / positiveExamples.size();
-
-			// if the description is not a partial definition (correct), set of covered positive
-			// examples will not be used
-			if (correctness < 1.0d)
-				coveredPositiveExamples = null;
+			double completeness = (double) noOfCoveredPositiveExamples / positiveExamples.size();
 
 			double accuracy = (positiveExamples.size() - notCoveredPos + notCoveredNeg)
 					/ (double) (positiveExamples.size() + negativeExamples.size());
 
 			// accuracy = (covered positive examples + not covered negative examples) / all examples
 			// (completeness + correctness)
-			return new ParCELEvaluationResult(accuracy, correctness, completeness,
-					coveredPositiveExamples);
+
+			// if the description is not a partial definition (correct), set of covered positive
+			// examples will not be used
+			if (correctness < 1.0d)
+				return new ParCELEvaluationResult(accuracy, correctness, completeness);
+
+			return createPartialDefinitionResult(engine, accuracy, correctness, completeness,
+					coveredPositiveExamples, coveredNegativeExamples);
 
 		} else {
 			// a node will be considered as "weak" if it covers none of the positive example and
@@ -262,39 +246,30 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 */
 	public ParCELEvaluationResult getAccuracyAndCorrectness21(Description description) {
 
-		int notCoveredNeg = 0;
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
+		ParCELCoverageEngine engine = getCoverageEngine();
 
-		// create a new set which contains all members of the uncovered positive examples
-		Set<Individual> localUncoveredPositiveExamples = null;
+		int notCoveredNeg = 0;
 
-		if (this.uncoveredPositiveExamples != null) {
-			synchronized (this.uncoveredPositiveExamples) {
-				localUncoveredPositiveExamples = new HashSet<Individual>(
-						this.uncoveredPositiveExamples);
-			}
-		} else
-			localUncoveredPositiveExamples = new HashSet<Individual>(this.positiveExamples);
+		// the uncovered positive examples snapshot is replaced (not modified) when it is updated,
+		// therefore a local reference is enough
+		ParCELUncoveredPositiveExamples uncovered = getUncoveredPositiveExampleSnapshot();
+		BitSet localUncoveredPositiveExamples = uncovered.getBits();
 
-		int originalNoOfUncoveredPositiveExamples = localUncoveredPositiveExamples.size();
+		int originalNoOfUncoveredPositiveExamples = uncovered.size();
 
-		// calculate the covered positive examples, we do
-		for (Individual example : positiveExamples) {
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-		}
+		// calculate the covered positive examples
+		BitSet coveredPositiveExamples = engine.coveredPositiveExamples(description);
 
-		int noOfUpdatedCoveredPositiveExamples = localUncoveredPositiveExamples.size();
-		localUncoveredPositiveExamples.removeAll(coveredPositiveExamples);
-		noOfUpdatedCoveredPositiveExamples -= localUncoveredPositiveExamples.size();
+		int noOfUpdatedCoveredPositiveExamples = ParCELCoverageEngine.intersectionSize(
+				coveredPositiveExamples, localUncoveredPositiveExamples);
 
 		if (noOfUpdatedCoveredPositiveExamples > 0) {
-			notCoveredNeg = negativeExamples.size()
-					- getNumberOfCoveredNegativeExamples(description);
+			BitSet coveredNegativeExamples = engine.coveredNegativeExamples(description);
+			notCoveredNeg = negativeExamples.size() - coveredNegativeExamples.cardinality();
 
 			double correctness = (double) notCoveredNeg / (double) negativeExamples.size();
 			
-			double completeness = (double) coveredPositiveExamples.size() / positiveExamples.size();
+			double completeness = (double) coveredPositiveExamples.cardinality() / positiveExamples.size();
 
 			// double accuracy = (positiveExamples.size() - notCoveredPos +
 			// notCoveredNeg)/(double)(positiveExamples.size() + negativeExamples.size());
@@ -304,10 +279,10 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 			// (completeness + correctness)
 
 			if (correctness < 1.0d)
-				coveredPositiveExamples = null;
+				return new ParCELEvaluationResult(accuracy, correctness, completeness);
 
-			return new ParCELEvaluationResult(accuracy, correctness, completeness,
-					coveredPositiveExamples);
+			return createPartialDefinitionResult(engine, accuracy, correctness, completeness,
+					coveredPositiveExamples, coveredNegativeExamples);
 
 		} else {
 			// a node will be considered as "weak" if it covers none of the positive example and
@@ -329,39 +304,30 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 */
 	public ParCELEvaluationResult getAccuracyAndCorrectness2(Description description, double noise) {
 
-		int notCoveredNeg = 0;
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
+		ParCELCoverageEngine engine = getCoverageEngine();
 
-		// create a new set which contains all members of the uncovered positive examples
-		Set<Individual> localUncoveredPositiveExamples = null;
+		int notCoveredNeg = 0;
 
-		if (this.uncoveredPositiveExamples != null) {
-			synchronized (this.uncoveredPositiveExamples) {
-				localUncoveredPositiveExamples = new HashSet<Individual>(
-						this.uncoveredPositiveExamples);
-			}
-		} else
-			localUncoveredPositiveExamples = new HashSet<Individual>(this.positiveExamples);
+		// the uncovered positive examples snapshot is replaced (not modified) when it is updated,
+		// therefore a local reference is enough
+		ParCELUncoveredPositiveExamples uncovered = getUncoveredPositiveExampleSnapshot();
+		BitSet localUncoveredPositiveExamples = uncovered.getBits();
 
-		int originalNoOfUncoveredPositiveExamples = localUncoveredPositiveExamples.size();
+		int originalNoOfUncoveredPositiveExamples = uncovered.size();
 
-		// calculate the covered positive examples, we do
-		for (Individual example : positiveExamples) {
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-		}
+		// calculate the covered positive examples
+		BitSet coveredPositiveExamples = engine.coveredPositiveExamples(description);
 
-		int noOfUpdatedCoveredPositiveExamples = localUncoveredPositiveExamples.size();
-		localUncoveredPositiveExamples.removeAll(coveredPositiveExamples);
-		noOfUpdatedCoveredPositiveExamples -= localUncoveredPositiveExamples.size();
+		int noOfUpdatedCoveredPositiveExamples = ParCELCoverageEngine.intersectionSize(
+				coveredPositiveExamples, localUncoveredPositiveExamples);
 
 		if (noOfUpdatedCoveredPositiveExamples > 0) {
-			notCoveredNeg = negativeExamples.size()
-					- getNumberOfCoveredNegativeExamples(description);
+			BitSet coveredNegativeExamples = engine.coveredNegativeExamples(description);
+			notCoveredNeg = negativeExamples.size() - coveredNegativeExamples.cardinality();
 
 			double correctness = (double) notCoveredNeg / (double) negativeExamples.size();
 			
-			double completeness = (double) coveredPositiveExamples.size() / positiveExamples.size();
+			double completeness = (double) coveredPositiveExamples.cardinality() / positiveExamples.size();
 
 			// double accuracy = (positiveExamples.size() - notCoveredPos +
 			// notCoveredNeg)/(double)(positiveExamples.size() + negativeExamples.size());
@@ -371,10 +337,10 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 			// (completeness + correctness)
 
 			if (correctness < 1.0d - noise)
-				coveredPositiveExamples = null;
+				return new ParCELEvaluationResult(accuracy, correctness, completeness);
 
-			return new ParCELEvaluationResult(accuracy, correctness, completeness,
-					coveredPositiveExamples);
+			return createPartialDefinitionResult(engine, accuracy, correctness, completeness,
+					coveredPositiveExamples, coveredNegativeExamples);
 
 		} else {
 			// a node will be considered as "weak" if it covers none of the positive example and
@@ -395,46 +361,39 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 */
 	public ParCELEvaluationResult getAccuracyAndCorrectness3(Description description) {
 
-		int notCoveredNeg = 0;
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
+		ParCELCoverageEngine engine = getCoverageEngine();
 
-		// create a new set which contains all members of the uncovered positive examples
-		Set<Individual> localUncoveredPositiveExamples = null;
+		int notCoveredNeg = 0;
 
-		if (this.uncoveredPositiveExamples != null) {
-			synchronized (this.uncoveredPositiveExamples) {
-				localUncoveredPositiveExamples = new HashSet<Individual>(
-						this.uncoveredPositiveExamples);
-			}
-		} else
-			localUncoveredPositiveExamples = new HashSet<Individual>(this.positiveExamples);
+		ParCELUncoveredPositiveExamples uncovered = getUncoveredPositiveExampleSnapshot();
+		BitSet localUncoveredPositiveExamples = uncovered.getBits();
+		int noOfUncoveredPositiveExamples = uncovered.size();
 
-		// calculate the covered positive examples, we do
-		for (Individual example : localUncoveredPositiveExamples) {
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-		}
+		// calculate the covered positive examples, only the uncovered positive examples are checked
+		BitSet coveredPositiveExamples = engine.coveredPositiveExamples(description,
+				localUncoveredPositiveExamples);
+		int noOfCoveredPositiveExamples = coveredPositiveExamples.cardinality();
 
-		if (coveredPositiveExamples.size() > 0) {
-			notCoveredNeg = negativeExamples.size()
-					- getNumberOfCoveredNegativeExamples(description);
+		if (noOfCoveredPositiveExamples > 0) {
+			BitSet coveredNegativeExamples = engine.coveredNegativeExamples(description);
+			notCoveredNeg = negativeExamples.size() - coveredNegativeExamples.cardinality();
 
 			double correctness = (double) notCoveredNeg / (double) negativeExamples.size();
-			double completeness = (double) coveredPositiveExamples.size()
-					/ uncoveredPositiveExamples.size();
+			double completeness = (double) noOfCoveredPositiveExamples
+					/ noOfUncoveredPositiveExamples;
 
 			// double accuracy = (positiveExamples.size() - notCoveredPos +
 			// notCoveredNeg)/(double)(positiveExamples.size() + negativeExamples.size());
-			double accuracy = (coveredPositiveExamples.size() + notCoveredNeg)
-					/ (double) (localUncoveredPositiveExamples.size() + negativeExamples.size());
+			double accuracy = (noOfCoveredPositiveExamples + notCoveredNeg)
+					/ (double) (noOfUncoveredPositiveExamples + negativeExamples.size());
 			// accuracy = (covered positive examples + not covered negative examples) / all examples
 			// (completeness + correctness)
 
 			if (correctness < 1.0d)
-				coveredPositiveExamples = null;
+				return new ParCELEvaluationResult(accuracy, correctness, completeness);
 
-			return new ParCELEvaluationResult(accuracy, correctness, completeness,
-					coveredPositiveExamples);
+			return createPartialDefinitionResult(engine, accuracy, correctness, completeness,
+					coveredPositiveExamples, coveredNegativeExamples);
 
 		} else {
 			// a node will be considered as "weak" if it covers none of the positive example and
@@ -467,41 +426,51 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	 */
 	public ParCELEvaluationResult getAccuracyAndCorrectnessEx(Description description) {
 
-		Set<Individual> coveredPositiveExamples = new HashSet<Individual>();
-		Set<Individual> coveredNegativeExamples = new HashSet<Individual>();
+		ParCELCoverageEngine engine = getCoverageEngine();
 
 		// calculate the set of positive examples covered by the description
-		for (Individual example : positiveExamples) {
-			if (reasoner.hasType(description, example))
-				coveredPositiveExamples.add(example);
-		}
+		BitSet coveredPositiveExamples = engine.coveredPositiveExamples(description);
 
 		// calculate the set of negative examples covered by the description
-		for (Individual example : negativeExamples) {
-			if (reasoner.hasType(description, example))
-				coveredNegativeExamples.add(example);
-		}
+		BitSet coveredNegativeExamples = engine.coveredNegativeExamples(description);
 
 		ParCELEvaluationResult result = new ParCELEvaluationResult();
 
-		int cp = coveredPositiveExamples.size();
-		int un = negativeExamples.size() - coveredNegativeExamples.size();
+		int cp = coveredPositiveExamples.cardinality();
+		int un = negativeExamples.size() - coveredNegativeExamples.cardinality();
 		double accuracy = (cp + un) / (double) (positiveExamples.size() + negativeExamples.size());
 
 		result.accuracy = accuracy;
 		result.correctness = un / (double) negativeExamples.size();
 		result.completeness = cp / (double) positiveExamples.size();
 
-		if (coveredPositiveExamples.size() > 0)
-			result.coveredPossitiveExamples = coveredPositiveExamples;
+		result.coveredPositiveExampleBits = coveredPositiveExamples;
+		result.coveredNegativeExampleBits = coveredNegativeExamples;
+
+		if (cp > 0)
+			result.coveredPossitiveExamples = engine.bitSetToPositiveExamples(coveredPositiveExamples);
 
-		if (coveredNegativeExamples.size() > 0)
-			result.coveredNegativeExamples = coveredNegativeExamples;
+		if (coveredNegativeExamples.cardinality() > 0)
+			result.coveredNegativeExamples = engine.bitSetToNegativeExamples(coveredNegativeExamples);
 
 		return result;
 
 	}
 
+	/**
+	 * Create the evaluation result for a partial definition: covered positive examples are kept (as
+	 * both set and bitset) to be used in the reduction later on
+	 */
+	private ParCELEvaluationResult createPartialDefinitionResult(ParCELCoverageEngine engine,
+			double accuracy, double correctness, double completeness,
+			BitSet coveredPositiveExamples, BitSet coveredNegativeExamples) {
+		ParCELEvaluationResult result = new ParCELEvaluationResult(accuracy, correctness,
+				completeness, engine.bitSetToPositiveExamples(coveredPositiveExamples));
+		result.setCoveredPositiveExampleBits(coveredPositiveExamples);
+		result.setCoveredNegativeExampleBits(coveredNegativeExamples);
+		return result;
+	}
+
 	public static String getName() {
 		return "PDLL pos neg learning problem";
 	}
@@ -540,6 +509,122 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 	@Override
 	public void init() throws ComponentInitException {
 		// super.init();
+
+		// examples may have been changed (e.g. new fold in the cross validation)
+		this.coverageEngine = null;
+		this.uncoveredPositiveExampleSnapshot.set(null);
+	}
+
+	/**
+	 * Get the coverage engine for the current examples, the engine is created when it is used the
+	 * first time after the examples are set
+	 * 
+	 * @return Coverage engine for the current positive and negative examples
+	 */
+	public ParCELCoverageEngine getCoverageEngine() {
+		ParCELCoverageEngine engine = this.coverageEngine;
+
+		if (engine == null) {
+			synchronized (this) {
+				engine = this.coverageEngine;
+				if (engine == null) {
+					engine = new ParCELCoverageEngine(reasoner, positiveExamples,
+							negativeExamples);
+					this.coverageEngine = engine;
+				}
+			}
+		}
+
+		return engine;
+	}
+
+	/**
+	 * Get the uncovered positive examples as a bitset. The returned bitset must not be modified.
+	 * 
+	 * @return Uncovered positive examples (all positive examples if it has not been set)
+	 */
+	protected BitSet getUncoveredPositiveExampleBits() {
+		return getUncoveredPositiveExampleSnapshot().getBits();
+	}
+
+	/**
+	 * Get the current snapshot of the uncovered positive examples. This does not lock or copy
+	 * anything, the snapshot is immutable
+	 * 
+	 * @return Uncovered positive examples (all positive examples if they have not been set)
+	 */
+	public ParCELUncoveredPositiveExamples getUncoveredPositiveExampleSnapshot() {
+		ParCELUncoveredPositiveExamples snapshot;
+
+		// the snapshot is created lazily, it may be reset concurrently (new examples)
+		while ((snapshot = this.uncoveredPositiveExampleSnapshot.get()) == null) {
+			BitSet bits;
+			Set<Individual> uncovered = this.uncoveredPositiveExamples;
+
+			if (uncovered != null) {
+				synchronized (uncovered) {
+					bits = getCoverageEngine().positiveExamplesToBitSet(uncovered);
+				}
+			} else
+				bits = getCoverageEngine().allPositiveExamples();
+
+			// another thread may have published a snapshot in the meantime
+			this.uncoveredPositiveExampleSnapshot.compareAndSet(null, createSnapshot(bits));
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Remove the positive examples covered by a new partial definition from the uncovered positive
+	 * examples. The new snapshot is published by compare-and-set, i.e. concurrent updates are
+	 * never lost and readers are never blocked
+	 * 
+	 * @param coveredPositiveExamples
+	 *            Positive examples covered by the partial definition (bitset of the coverage
+	 *            engine)
+	 * 
+	 * @return Number of positive examples that were uncovered before and are covered now
+	 */
+	public int removeCoveredPositiveExamples(BitSet coveredPositiveExamples) {
+		while (true) {
+			ParCELUncoveredPositiveExamples current = getUncoveredPositiveExampleSnapshot();
+			ParCELUncoveredPositiveExamples next = current.remove(coveredPositiveExamples);
+
+			if (next == current)
+				return 0;
+
+			if (this.uncoveredPositiveExampleSnapshot.compareAndSet(current, next))
+				return current.size() - next.size();
+		}
+	}
+
+	/**
+	 * Remove the positive examples covered by a new partial definition from the uncovered positive
+	 * examples, see {@link #removeCoveredPositiveExamples(BitSet)}
+	 * 
+	 * @param coveredPositiveExamples
+	 *            Positive examples covered by the partial definition
+	 * 
+	 * @return Number of positive examples that were uncovered before and are covered now
+	 */
+	public int removeCoveredPositiveExamples(Collection<Individual> coveredPositiveExamples) {
+		return removeCoveredPositiveExamples(getCoverageEngine().positiveExamplesToBitSet(
+				coveredPositiveExamples));
+	}
+
+	/**
+	 * Get the uncovered positive examples as a set of individuals (e.g. for logging)
+	 * 
+	 * @return A new set containing the currently uncovered positive examples
+	 */
+	public Set<Individual> getUncoveredPositiveExamples() {
+		return getCoverageEngine().bitSetToPositiveExamples(
+				getUncoveredPositiveExampleSnapshot().getBits());
+	}
+
+	private synchronized ParCELUncoveredPositiveExamples createSnapshot(BitSet bits) {
+		return new ParCELUncoveredPositiveExamples(bits, ++uncoveredPositiveExampleVersion);
 	}
 
 	public Set<Individual> getPositiveExamples() {
@@ -548,6 +633,8 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 
 	public void setPositiveExamples(Set<Individual> positiveExamples) {
 		this.positiveExamples = positiveExamples;
+		this.coverageEngine = null;
+		this.uncoveredPositiveExampleSnapshot.set(null);
 	}
 
 	public Set<Individual> getNegativeExamples() {
@@ -556,10 +643,29 @@ public class ParCELPosNegLP extends AbstractLearningProblem {
 
 	public void setNegativeExamples(Set<Individual> negativeExamples) {
 		this.negativeExamples = negativeExamples;
+		this.coverageEngine = null;
 	}
 
+	/**
+	 * Set the currently uncovered positive examples. This must be called again whenever the given
+	 * set is changed so that the bitset used in the accuracy calculation is updated. Learners that
+	 * only remove examples should use {@link #removeCoveredPositiveExamples(BitSet)} instead,
+	 * which neither copies nor locks the set
+	 * 
+	 * @param uncoveredPositiveExamples
+	 *            Set of uncovered positive examples
+	 */
 	public void setUncoveredPositiveExamples(Set<Individual> uncoveredPositiveExamples) {
 		this.uncoveredPositiveExamples = uncoveredPositiveExamples;
+
+		ParCELUncoveredPositiveExamples snapshot = null;
+		if (uncoveredPositiveExamples != null && positiveExamples != null) {
+			synchronized (uncoveredPositiveExamples) {
+				snapshot = createSnapshot(getCoverageEngine().positiveExamplesToBitSet(
+						uncoveredPositiveExamples));
+			}
+		}
+		this.uncoveredPositiveExampleSnapshot.set(snapshot);
 	}
 
 	/**
@@ -17,6 +17,7 @@ import org.dllearner.core.owl.DatatypeProperty;
 import org.dllearner.core.owl.Description;
 import org.dllearner.refinementoperators.RefinementOperator;
 import org.dllearner.refinementoperators.RhoDRDown2008;
+import org.dllearner.refinementoperators.RhoDRDown2008Knowledge;
 
 public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<RefinementOperator> {
 		
@@ -31,6 +32,10 @@ public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<R
 	private boolean useDisjunction = true;
 	private boolean useHasValue = true;
 	
+	//knowledge of the refinement operators (M, top refinements, etc.), which is computed 
+	//	by the first operator and shared by all operators created afterwards
+	private RhoDRDown2008Knowledge knowledge = null;
+	
 	
 	Logger logger = Logger.getLogger(this.getClass());	
 	
@@ -68,14 +73,43 @@ public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<R
 	@Override
 	public RefinementOperator makeObject() throws Exception {
 		
-		//clone a new class heirarchy to avoid the competition between refinement operators
-		ClassHierarchy clonedClassHierarchy = this.classHierarchy.clone();
+		RhoDRDown2008 refinementOperator;
+		RhoDRDown2008Knowledge sharedKnowledge;
+		
+		synchronized (this) {
+			if (this.knowledge == null) {
+				//clone a new class heirarchy to avoid the competition with the learner,
+				//	the cloned one is only read by the refinement operators
+				refinementOperator = createRefinementOperator(this.classHierarchy.clone());
+				
+				//init the refinement operator, this computes the shared knowledge
+				refinementOperator.init();
+				this.knowledge = refinementOperator.getKnowledge();
+				
+				if (logger.isDebugEnabled())
+					logger.info("A new refinement operator had been created");
+				
+				return refinementOperator;
+			}
+			
+			sharedKnowledge = this.knowledge;
+		}
+		
+		//the other refinement operators use the knowledge computed by the first one
+		refinementOperator = createRefinementOperator(sharedKnowledge.getClassHierarchy());
+		refinementOperator.setKnowledge(sharedKnowledge);
+		refinementOperator.init();
 		
 		if (logger.isDebugEnabled())
-			logger.info("A new refinement operator had been created");
+			logger.info("A new refinement operator had been created (shared knowledge)");
 		
+		return refinementOperator;
+	}
+	
+	
+	private RhoDRDown2008 createRefinementOperator(ClassHierarchy classHierarchy) {
 		//create a new RhoDRDown and return
-		RhoDRDown2008 refinementOperator = new RhoDRDown2008(this.reasoner, clonedClassHierarchy, this.startclass);
+		RhoDRDown2008 refinementOperator = new RhoDRDown2008(this.reasoner, classHierarchy, this.startclass);
 		
 		refinementOperator.setAllowDisjunction(this.useDisjunction);
 		refinementOperator.setUseNegation(this.useNegation);
@@ -86,10 +120,6 @@ public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<R
 		if (this.splits != null)
 			refinementOperator.setSplits(this.splits);
 		
-		
-		//init the refinement operator;
-		refinementOperator.init();
-		
 		return refinementOperator;
 	}
 
@@ -101,6 +131,11 @@ public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<R
 
 	public void setUseNegation(boolean useNegation) {
 		this.useNegation = useNegation;
+		
+		//the knowledge must be computed again for the new setting
+		synchronized (this) {
+			this.knowledge = null;
+		}
 	}
 
 
@@ -111,10 +146,20 @@ public class ParCELRefinementOperatorFactory extends BasePoolableObjectFactory<R
 
 	public void setUseDisjunction(boolean useDisjunction) {
 		this.useDisjunction = useDisjunction;
+		
+		//the knowledge must be computed again for the new setting
+		synchronized (this) {
+			this.knowledge = null;
+		}
 	}
 	
 	public void setUseHasValue(boolean useHasValue) {
 		this.useHasValue = useHasValue;
+		
+		//the knowledge must be computed again for the new setting
+		synchronized (this) {
+			this.knowledge = null;
+		}
 	}
 	
 	public boolean getUseHasValue() {
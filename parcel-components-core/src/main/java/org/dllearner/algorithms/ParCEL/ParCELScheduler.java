@@ -0,0 +1,205 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scheduler used by the ParCEL learners to dispatch search tree nodes to the worker pool.<br>
+ * Instead of polling, the learner blocks until something that may let it continue happens: new
+ * nodes are added into the search tree, a task is finished (i.e. the worker pool has capacity
+ * again), the learner is stopped or done, or the deadline (max execution time) is reached.<br>
+ *
+ * Every event increases a version number. The learner reads the version before checking its
+ * conditions and then waits for a newer version, so that no event between the check and the
+ * wait can be missed. Events only take the lock if somebody is waiting: a waiter registers
+ * itself before it reads the version again and an event increases the version before it checks
+ * for waiters, so at least one of them sees the other.
+ *
+ */
+public class ParCELScheduler {
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition stateChanged = lock.newCondition();
+
+	// max. number of tasks submitted to the worker pool and not yet finished (queued + running)
+	private final int maxActiveTasks;
+	private int activeTasks = 0;
+
+	private final AtomicLong version = new AtomicLong();
+
+	// number of threads blocked in awaitChange()
+	private volatile int noOfWaiters = 0;
+
+	// deadline in System.nanoTime(), Long.MAX_VALUE if there is no deadline
+	private volatile long deadline = Long.MAX_VALUE;
+
+	/**
+	 * Create a scheduler
+	 *
+	 * @param maxActiveTasks
+	 *            Max. number of tasks that can be in the worker pool (queued or running) at the
+	 *            same time
+	 */
+	public ParCELScheduler(int maxActiveTasks) {
+		this.maxActiveTasks = maxActiveTasks;
+	}
+
+	/**
+	 * Create a worker pool whose tasks are tracked by this scheduler, i.e. the capacity of the
+	 * pool is updated and the learner is woken up whenever a task is finished
+	 *
+	 * @return A new worker pool
+	 */
+	public ThreadPoolExecutor createWorkerPool(int corePoolSize, int maxPoolSize,
+			long keepAliveTime, BlockingQueue<Runnable> taskQueue, ThreadFactory threadFactory) {
+		return new ThreadPoolExecutor(corePoolSize, maxPoolSize, keepAliveTime,
+				TimeUnit.MILLISECONDS, taskQueue, threadFactory) {
+
+			@Override
+			public void execute(Runnable task) {
+				taskSubmitted();
+				try {
+					super.execute(task);
+				} catch (RejectedExecutionException re) {
+					taskFinished();
+					throw re;
+				}
+			}
+
+			@Override
+			protected void afterExecute(Runnable task, Throwable t) {
+				super.afterExecute(task, t);
+				taskFinished();
+			}
+		};
+	}
+
+	/**
+	 * Start the timer of the learner
+	 *
+	 * @param maxExecutionTimeInSeconds
+	 *            Max. execution time, 0 means no limit
+	 */
+	public void startTimer(int maxExecutionTimeInSeconds) {
+		if (maxExecutionTimeInSeconds > 0)
+			deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxExecutionTimeInSeconds);
+		else
+			deadline = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Check if the deadline is reached
+	 *
+	 * @return True if the max execution time is over
+	 */
+	public boolean isDeadlineReached() {
+		return deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Get the current version, this must be called before the conditions that are waited for are
+	 * checked
+	 *
+	 * @return Current version
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Notify the scheduler about an event that the learner may be waiting for: new nodes in the
+	 * search tree, learner stopped or done
+	 */
+	public void signal() {
+		version.incrementAndGet();
+		wakeUpWaiters();
+	}
+
+	private void wakeUpWaiters() {
+		if (noOfWaiters == 0)
+			return;
+
+		lock.lock();
+		try {
+			stateChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Check if there is capacity for a new task in the worker pool
+	 *
+	 * @return True if a new task can be submitted
+	 */
+	public boolean hasCapacity() {
+		lock.lock();
+		try {
+			return activeTasks < maxActiveTasks;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Block until the version is different from the given one or the deadline is reached
+	 *
+	 * @param lastVersion
+	 *            Version read before the conditions were checked
+	 *
+	 * @throws InterruptedException
+	 */
+	public void awaitChange(long lastVersion) throws InterruptedException {
+		lock.lock();
+		noOfWaiters++;
+		try {
+			while (version.get() == lastVersion) {
+				if (deadline == Long.MAX_VALUE)
+					stateChanged.await();
+				else {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0)
+						return;
+					stateChanged.awaitNanos(remaining);
+				}
+			}
+		} finally {
+			noOfWaiters--;
+			lock.unlock();
+		}
+	}
+
+	public int getNumberOfActiveTasks() {
+		lock.lock();
+		try {
+			return activeTasks;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void taskSubmitted() {
+		lock.lock();
+		try {
+			activeTasks++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void taskFinished() {
+		lock.lock();
+		try {
+			activeTasks--;
+		} finally {
+			lock.unlock();
+		}
+		signal();
+	}
+}
@@ -0,0 +1,70 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.BitSet;
+
+/**
+ * Immutable snapshot of the currently uncovered positive examples, represented as a bitset of the
+ * coverage engine (see {@link ParCELCoverageEngine}).<br>
+ * The learning problem publishes a new snapshot (with a higher version) whenever a partial
+ * definition removes some positive examples, so that workers can use a snapshot without copying
+ * or locking it.
+ *
+ */
+public class ParCELUncoveredPositiveExamples {
+
+	private final BitSet bits;
+	private final int size;
+	private final long version;
+
+	/**
+	 * Create a snapshot. The bitset must not be modified afterwards
+	 *
+	 * @param bits
+	 *            Uncovered positive examples
+	 * @param version
+	 *            Version of the snapshot
+	 */
+	public ParCELUncoveredPositiveExamples(BitSet bits, long version) {
+		this.bits = bits;
+		this.size = bits.cardinality();
+		this.version = version;
+	}
+
+	/**
+	 * Create the next version of this snapshot in which the given examples are removed
+	 *
+	 * @param coveredPositiveExamples
+	 *            Positive examples covered by a new partial definition
+	 *
+	 * @return New snapshot or this snapshot if none of the given examples is uncovered
+	 */
+	public ParCELUncoveredPositiveExamples remove(BitSet coveredPositiveExamples) {
+		if (!bits.intersects(coveredPositiveExamples))
+			return this;
+
+		BitSet newBits = (BitSet) bits.clone();
+		newBits.andNot(coveredPositiveExamples);
+
+		return new ParCELUncoveredPositiveExamples(newBits, version + 1);
+	}
+
+	/**
+	 * Get the uncovered positive examples. The returned bitset must not be modified
+	 *
+	 * @return Uncovered positive examples
+	 */
+	public BitSet getBits() {
+		return bits;
+	}
+
+	/**
+	 * @return Number of uncovered positive examples
+	 */
+	public int size() {
+		return size;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+}
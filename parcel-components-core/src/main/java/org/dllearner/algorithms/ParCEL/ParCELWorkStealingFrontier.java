@@ -0,0 +1,138 @@
+package org.dllearner.algorithms.ParCEL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Search frontier used in the work-stealing mode of the ParCEL learner.<br>
+ * The shared frontier is the search tree itself (best-first order given by the heuristic). In
+ * addition, each worker has a local deque: when it is empty, the worker takes a small batch of
+ * best nodes from the search tree, processes the first one and keeps the rest locally. A worker
+ * that finds neither local nodes nor nodes in the search tree steals from the tail of the deques
+ * of the other workers.<br>
+ * Workers add the new nodes directly into the search tree (a concurrent set), the scheduler only
+ * takes a lock to wake up the workers if some of them are waiting for nodes.
+ *
+ */
+public class ParCELWorkStealingFrontier {
+
+	// shared frontier
+	private final NavigableSet<ParCELNode> searchTree;
+
+	// local deques, one for each worker
+	private final List<LinkedBlockingDeque<ParCELNode>> localDeques;
+
+	// number of nodes taken from the search tree at a time
+	private final int batchSize;
+
+	// used to wake up the workers waiting for nodes
+	private final ParCELScheduler scheduler;
+
+	/**
+	 * Create a frontier
+	 *
+	 * @param searchTree
+	 *            Search tree (shared frontier)
+	 * @param numberOfWorkers
+	 *            Number of workers, each of them has its own deque
+	 * @param batchSize
+	 *            Number of nodes a worker takes from the search tree when its deque is empty
+	 * @param scheduler
+	 *            Scheduler the workers wait on for new nodes
+	 */
+	public ParCELWorkStealingFrontier(NavigableSet<ParCELNode> searchTree, int numberOfWorkers,
+			int batchSize, ParCELScheduler scheduler) {
+		this.searchTree = searchTree;
+		this.batchSize = Math.max(1, batchSize);
+		this.scheduler = scheduler;
+
+		this.localDeques = new ArrayList<LinkedBlockingDeque<ParCELNode>>(numberOfWorkers);
+		for (int i = 0; i < numberOfWorkers; i++)
+			this.localDeques.add(new LinkedBlockingDeque<ParCELNode>());
+	}
+
+	/**
+	 * Get the next node for a worker: from its own deque, from the search tree or from the deque
+	 * of another worker (in this order)
+	 *
+	 * @param worker
+	 *            Index of the worker
+	 *
+	 * @return Next node to be processed or null if there is no node left
+	 */
+	public ParCELNode nextNode(int worker) {
+		LinkedBlockingDeque<ParCELNode> localDeque = localDeques.get(worker);
+
+		ParCELNode node = localDeque.pollFirst();
+		if (node != null)
+			return node;
+
+		// take a batch of the best nodes from the shared frontier
+		node = searchTree.pollLast();
+		if (node != null) {
+			for (int i = 1; i < batchSize; i++) {
+				ParCELNode next = searchTree.pollLast();
+				if (next == null)
+					break;
+				localDeque.offerLast(next);
+			}
+			return node;
+		}
+
+		// steal from the tail of the other workers' deques
+		int noOfWorkers = localDeques.size();
+		for (int i = 1; i < noOfWorkers; i++) {
+			node = localDeques.get((worker + i) % noOfWorkers).pollLast();
+			if (node != null)
+				return node;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Add new nodes into the search tree and wake up the waiting workers, if any
+	 *
+	 * @param nodes
+	 *            New nodes
+	 */
+	public void addNodes(Collection<ParCELNode> nodes) {
+		searchTree.addAll(nodes);
+		scheduler.signal();
+	}
+
+	/**
+	 * Put all nodes that are still in the local deques back into the search tree, e.g. when the
+	 * learner is stopped
+	 *
+	 * @return Number of nodes returned to the search tree
+	 */
+	public int returnNodes() {
+		int count = 0;
+
+		for (LinkedBlockingDeque<ParCELNode> localDeque : localDeques) {
+			ParCELNode node;
+			while ((node = localDeque.pollFirst()) != null) {
+				searchTree.add(node);
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Get the number of nodes in the local deques
+	 *
+	 * @return Number of nodes taken from the search tree but not yet processed
+	 */
+	public int getNumberOfLocalNodes() {
+		int count = 0;
+		for (LinkedBlockingDeque<ParCELNode> localDeque : localDeques)
+			count += localDeque.size();
+		return count;
+	}
+}
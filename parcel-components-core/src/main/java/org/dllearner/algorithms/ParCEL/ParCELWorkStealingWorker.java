@@ -0,0 +1,96 @@
+package org.dllearner.algorithms.ParCEL;
+
+import org.apache.log4j.Logger;
+import org.dllearner.refinementoperators.RefinementOperator;
+
+/**
+ * Long-lived ParCEL worker used in the work-stealing mode. Instead of being created for a single
+ * node by the learner, it takes the nodes itself from the frontier until the learner terminates.
+ * The refinement operator is borrowed once for the whole life time of the worker.
+ *
+ */
+public class ParCELWorkStealingWorker extends ParCELWorkerAbstract {
+
+	private ParCELearner learner;
+	private ParCELRefinementOperatorPool refinementOperatorPool;
+	private ParCELPosNegLP learningProblem;
+
+	private ParCELWorkStealingFrontier frontier;
+	private ParCELScheduler scheduler;
+
+	// index of the worker, i.e. of its deque in the frontier
+	private int index;
+
+	private Logger logger = Logger.getLogger(this.getClass());
+
+	/**
+	 * Create a long-lived worker
+	 *
+	 * @param learner
+	 *            The learner, used for the callbacks and for checking the termination
+	 * @param refinementOperatorPool
+	 *            Pool to borrow the refinement operator from
+	 * @param learningProblem
+	 *            Learning problem used to evaluate the refinements
+	 * @param frontier
+	 *            Frontier the nodes are taken from
+	 * @param scheduler
+	 *            Scheduler used to wait for new nodes
+	 * @param index
+	 *            Index of the worker in the frontier
+	 * @param name
+	 *            Name of the worker (for tracing purpose only)
+	 */
+	public ParCELWorkStealingWorker(ParCELearner learner,
+			ParCELRefinementOperatorPool refinementOperatorPool, ParCELPosNegLP learningProblem,
+			ParCELWorkStealingFrontier frontier, ParCELScheduler scheduler, int index, String name) {
+		super();
+
+		this.learner = learner;
+		this.refinementOperatorPool = refinementOperatorPool;
+		this.learningProblem = learningProblem;
+		this.frontier = frontier;
+		this.scheduler = scheduler;
+		this.index = index;
+		this.name = name;
+	}
+
+	@Override
+	public void run() {
+		RefinementOperator refinementOperator;
+
+		try {
+			refinementOperator = refinementOperatorPool.borrowObject();
+		} catch (Exception e) {
+			logger.error("[" + name + "] Cannot borrow a refinement operator", e);
+			return;
+		}
+
+		ParCELWorker worker = new ParCELWorker(learner, refinementOperator, learningProblem,
+				null, name);
+		worker.setFrontier(frontier);
+
+		try {
+			while (!learner.isTerminated() && !scheduler.isDeadlineReached()) {
+				// the version must be read before the frontier is checked so that the nodes
+				// added after the checking wake the worker up
+				long version = scheduler.getVersion();
+
+				ParCELNode node = frontier.nextNode(index);
+
+				if (node == null)
+					scheduler.awaitChange(version);
+				else
+					worker.processNode(node);
+			}
+		} catch (InterruptedException e) {
+			// the learner is stopped
+		} finally {
+			try {
+				refinementOperatorPool.returnObject(refinementOperator);
+			} catch (Exception e) {
+				logger.error("[" + name + "] Cannot return the borrowed refinement operator", e);
+			}
+		}
+	}
+}
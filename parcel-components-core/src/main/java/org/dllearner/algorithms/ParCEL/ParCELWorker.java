@@ -2,12 +2,16 @@ package org.dllearner.algorithms.ParCEL;
 
 import java.util.HashSet;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
 import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Thing;
 import org.dllearner.refinementoperators.RefinementOperator;
+import org.dllearner.refinementoperators.RhoDRDown2008;
+import org.dllearner.utilities.owl.ConceptComparator;
 
 /**
  * ParCEL worker which find and evaluate the refinements for a given node. 
@@ -33,6 +37,9 @@ public class ParCELWorker extends ParCELWorkerAbstract {
 	// the node to be processed
 	private ParCELNode nodeToProcess;
 
+	// frontier of the work-stealing mode, the new nodes are added into it directly
+	private ParCELWorkStealingFrontier frontier = null;
+
 	private Logger logger = Logger.getLogger(this.getClass());
 
 	// these properties can be referred in Reducer. However, we put it here for faster access
@@ -116,13 +123,25 @@ public class ParCELWorker extends ParCELWorkerAbstract {
 	 */
 	@Override
 	public void run() {
+		processNode(this.nodeToProcess);
+	}
+
+	/**
+	 * Process a node: refine it, evaluate the refinements and return the partial definitions and
+	 * new nodes to the learner. This is also used by the long-lived workers in the work-stealing
+	 * mode, which process many nodes using the same worker
+	 * 
+	 * @param nodeToProcess
+	 *            Node to be processed
+	 */
+	public void processNode(ParCELNode nodeToProcess) {
 
 		if (logger.isTraceEnabled())
 			logger.trace("[ParCEL-Worker] Processing node ("
 					+ ParCELStringUtilities.replaceString(nodeToProcess.toString(), this.baseURI,
 							this.prefix));
 
-		TreeSet<Description> refinements; // will hold the refinement result (set of Descriptions)
+		Iterator<Description> refinements = null; // iterates over the refinement result
 
 		HashSet<ParCELExtraNode> definitionsFound = new HashSet<ParCELExtraNode>(); // hold the
 																					// partial
@@ -134,122 +153,180 @@ public class ParCELWorker extends ParCELWorkerAbstract {
 
 		int horizExp = nodeToProcess.getHorizontalExpansion();
 
-		// 1. refine node
-		refinements = refineNode(nodeToProcess);
+		// the refinement operator is kept while the refinements are generated and is returned to
+		// the pool even if the processing fails
+		boolean refinementOperatorBorrowed = borrowRefinementOperator();
 
-		if (refinements != null) {
-			if (logger.isTraceEnabled())
-				logger.trace("Refinement result ("
-						+ refinements.size()
-						+ "): "
-						+ ParCELStringUtilities.replaceString(refinements.toString(), this.baseURI,
-								this.prefix));
+		int noOfRefinements = 0;
+		try {
+			// 1. refine node
+			refinements = refineNode(nodeToProcess);
+
+			// 2. process the refinement result: calculate the accuracy and completeness and add
+			// the new expression into the search tree. The refinements are evaluated while they
+			// are generated and the processing is stopped if the learner is not running anymore
+			// (done, timeout)
+			while (refinements != null && refinements.hasNext() && learner.isRunning()) {
+				Description refinement = refinements.next();
+				int refinementLength = refinement.getLength();
+				noOfRefinements++;
+
+				if (logger.isTraceEnabled())
+					logger.trace("Refinement: "
+							+ ParCELStringUtilities.replaceString(refinement.toString(),
+									this.baseURI, this.prefix));
+
+				// we ignore all refinements with lower length (may it happen?)
+				// (this also avoids duplicate children)
+				if (refinementLength > horizExp) {
+
+					// calculate accuracy, correctness, positive examples covered by the
+					// description, resulted in a node
+					ParCELExtraNode addedNode = checkAndCreateNewNode(refinement, nodeToProcess);
+
+					// make decision on the new node (new search tree node or new partial
+					// definition)
+					if (addedNode != null) {
+
+						// PARTIAL DEFINITION (correct and not necessary to be complete)
+						if (addedNode.getCorrectness() >= 1.0d - learner.getNoiseAllowed()) {
+							addedNode.setGenerationTime(System.currentTimeMillis());
+							addedNode.setExtraInfo(learner.getTotalDescriptions());
+							definitionsFound.add(addedNode);
+						}
+						// DESCRIPTION
+						else
+							newNodes.add((ParCELNode) addedNode);
+					} // if (node != null), i.e. weak description
+				}
+			} // while (refinements.hasNext())
+		} catch (Exception e) {
+			logger.error("[" + this.name + "] Failed to process node: "
+					+ ParCELStringUtilities.replaceString(nodeToProcess.toString(), this.baseURI,
+							this.prefix), e);
+			learner.workerFailed(e);
+		} finally {
+			if (refinementOperatorBorrowed)
+				returnRefinementOperator();
 		}
-		
-		// 2. process the refinement result: calculate the accuracy and completeness and add the new
-		// expression into the search tree
-		while (refinements != null && refinements.size() > 0) {
-			Description refinement = refinements.pollFirst();
-			int refinementLength = refinement.getLength();
-
-			// we ignore all refinements with lower length (may it happen?)
-			// (this also avoids duplicate children)
-			if (refinementLength > horizExp) {
-
-				// calculate accuracy, correctness, positive examples covered by the description,
-				// resulted in a node
-				long starttime = System.currentTimeMillis();
-				ParCELExtraNode addedNode = checkAndCreateNewNode(refinement, nodeToProcess);
-
-				// make decision on the new node (new search tree node or new partial definition)
-				if (addedNode != null) {
-
-					// PARTIAL DEFINITION (correct and not necessary to be complete)
-					if (addedNode.getCorrectness() >= 1.0d - learner.getNoiseAllowed()) { 
-						addedNode.setGenerationTime(System.currentTimeMillis());
-						addedNode.setExtraInfo(learner.getTotalDescriptions());
-						definitionsFound.add(addedNode);
-					}
-					// DESCRIPTION
-					else
-						newNodes.add((ParCELNode) addedNode);
-				} // if (node != null), i.e. weak description
-			}
-		} // while (refinements.size > 0)
+
+		if (refinements != null)
+			nodeToProcess.setRefinementCount(noOfRefinements);
 
 		horizExp = nodeToProcess.getHorizontalExpansion();
 
 		learner.updateMaxHorizontalExpansion(horizExp);
 
+		// the node is not in the search tree, so it can be re-scored
+		nodeToProcess.resetScore();
 		newNodes.add(nodeToProcess);
 
 		if (definitionsFound.size() > 0)
 			learner.newPartialDefinitionsFound(definitionsFound);
 
-		learner.newRefinementDescriptions(newNodes);
+		if (frontier != null)
+			frontier.addNodes(newNodes);
+		else
+			learner.newRefinementDescriptions(newNodes);
+
+	}
 
+	/**
+	 * Set the frontier of the work-stealing mode, the new nodes are then added into the frontier
+	 * instead of being passed to the learner
+	 * 
+	 * @param frontier
+	 *            Frontier shared by the long-lived workers
+	 */
+	void setFrontier(ParCELWorkStealingFrontier frontier) {
+		this.frontier = frontier;
 	}
 
 	/**
 	 * Refine a node using RhoDRDown. The refined node will be increased the max horizontal
-	 * expansion value by 1
+	 * expansion value by 1.<br>
+	 * If the refinement operator is a RhoDRDown2008, the refinements are generated lazily, i.e.
+	 * while they are iterated. Duplicates are removed using a set of the generated refinements,
+	 * which is not necessary for the refinements of TOP as they are distinct
 	 * 
 	 * @param node
 	 *            Node to be refined
 	 * 
-	 * @return Set of descriptions that are the results of refinement
+	 * @return Iterator over the descriptions that are the results of refinement
 	 */
-	private TreeSet<Description> refineNode(ParCELNode node) {
+	private Iterator<Description> refineNode(ParCELNode node) {
 		int horizExp = node.getHorizontalExpansion();
 
 		if (logger.isTraceEnabled())
 			logger.trace("[" + this.name + "] Refining: "
 					+ ParCELStringUtilities.replaceString(node.toString(), baseURI, prefix));
 
-		boolean refirementOperatorBorrowed = false;
-
-		// borrow refinement operator if necessary
-		if (this.refinementOperator == null) {
-			if (this.refinementOperatorPool == null) {
-				logger.error("Neither refinement operator nor refinement operator pool provided");
-				return null;
-			} else {
-				try {
-					// logger.info("borrowing a refinement operator (" +
-					// refinementOperatorPool.getNumIdle() + ")");
-					this.refinementOperator = this.refinementOperatorPool.borrowObject();
-					refirementOperatorBorrowed = true;
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}
+		if (this.refinementOperator == null)
+			return null;
 
-		TreeSet<Description> refinements = null;
+		Iterator<Description> refinements = null;
 		try {
-			refinements = (TreeSet<Description>) refinementOperator.refine(
-					node.getDescription(), horizExp + 1);
-		
+			if (refinementOperator instanceof RhoDRDown2008) {
+				Description description = node.getDescription();
+				TreeSet<Description> seen = (description instanceof Thing) ? null
+						: new TreeSet<Description>(new ConceptComparator());
+
+				refinements = ((RhoDRDown2008) refinementOperator).refineLazily(description,
+						horizExp + 1, seen);
+			} else
+				refinements = refinementOperator.refine(node.getDescription(), horizExp + 1)
+						.iterator();
+
 			node.incHorizontalExpansion();
-			node.setRefinementCount(refinements.size());
 		}
 		catch (Exception e) {
-			e.printStackTrace();
+			logger.error("[" + this.name + "] Failed to refine node: "
+					+ ParCELStringUtilities.replaceString(node.toString(), baseURI, prefix), e);
 		}
 
-		// return the refinement operator
-		if (refirementOperatorBorrowed) {
-			try {
-				if (refinementOperator != null)
-					refinementOperatorPool.returnObject(refinementOperator);
-				else
-					logger.error("Cannot return the borrowed refinement operator");
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+		return refinements;
+	}
+
+	/**
+	 * Borrow a refinement operator from the pool if no refinement operator was given
+	 * 
+	 * @return True if a refinement operator has been borrowed, false otherwise
+	 */
+	private boolean borrowRefinementOperator() {
+		if (this.refinementOperator != null)
+			return false;
+
+		if (this.refinementOperatorPool == null) {
+			logger.error("Neither refinement operator nor refinement operator pool provided");
+			return false;
 		}
 
-		return refinements;
+		try {
+			// logger.info("borrowing a refinement operator (" +
+			// refinementOperatorPool.getNumIdle() + ")");
+			this.refinementOperator = this.refinementOperatorPool.borrowObject();
+			return true;
+		} catch (Exception e) {
+			logger.error("[" + this.name + "] Cannot borrow a refinement operator from the pool", e);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Return the borrowed refinement operator to the pool
+	 */
+	private void returnRefinementOperator() {
+		try {
+			if (refinementOperator != null)
+				refinementOperatorPool.returnObject(refinementOperator);
+			else
+				logger.error("Cannot return the borrowed refinement operator");
+		} catch (Exception e) {
+			logger.error("[" + this.name + "] Cannot return the refinement operator to the pool", e);
+		}
+
+		this.refinementOperator = null;
 	}
 
 	/**
@@ -282,7 +359,9 @@ public class ParCELWorker extends ParCELWorkerAbstract {
 		ParCELExtraNode newNode = new ParCELExtraNode(parentNode, description,
 				accurateAndCorrectness.accuracy, accurateAndCorrectness.correctness,
 				accurateAndCorrectness.completeness,
-				accurateAndCorrectness.coveredPossitiveExamples);
+				accurateAndCorrectness.coveredPossitiveExamples,
+				accurateAndCorrectness.coveredPositiveExampleBits,
+				accurateAndCorrectness.coveredNegativeExampleBits);
 
 		if (parentNode != null)
 			parentNode.addChild(newNode);
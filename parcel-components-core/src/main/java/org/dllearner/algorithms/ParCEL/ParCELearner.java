@@ -17,7 +17,6 @@ import java.lang.management.ManagementFactory;
 import java.text.DecimalFormat;
 import java.util.Collection;
 
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -28,8 +27,8 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -49,7 +48,7 @@ import org.dllearner.core.owl.Individual;
 import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Thing;
 import org.dllearner.refinementoperators.RefinementOperator;
-import org.dllearner.utilities.owl.ConceptComparator;
+import org.dllearner.utilities.owl.InternedDescriptionSet;
 import org.dllearner.utilities.owl.EvaluatedDescriptionComparator;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -81,6 +80,19 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	 */
 	BlockingQueue<Runnable> taskQueue;
 
+	/**
+	 * dispatches the nodes in the search tree to the worker pool
+	 */
+	private ParCELScheduler scheduler;
+
+	/**
+	 * frontier used by the long-lived workers in the work-stealing mode
+	 */
+	private ParCELWorkStealingFrontier frontier = null;
+
+	// number of nodes a long-lived worker takes from the search tree at a time
+	private static final int WORK_STEALING_BATCH_SIZE = 4;
+
 	// examples
 	private Set<Individual> positiveExamples;
 	private Set<Individual> negativeExamples;
@@ -97,11 +109,11 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 	
 	/**
-	 * Holds the uncovered positive example, this will be updated when the worker found a partial
-	 * definition since the callback method "definitionFound" is synchronized", there is no need to
-	 * create a thread-safe for this set
+	 * The uncovered positive examples are held by the learning problem as an immutable, versioned
+	 * bitset snapshot (see {@link ParCELUncoveredPositiveExamples}). It is updated by
+	 * compare-and-set when a partial definition is found and read by the workers without locking
 	 */
-	private HashSet<Individual> uncoveredPositiveExamples;
+	private ParCELPosNegLP parcelLearningProblem;
 
 	/**
 	 * The description and root node of the search tree
@@ -115,19 +127,25 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	/**
 	 * The learner is stopped (reasons: done, timeout, out of memory, etc.)
 	 */
-	private boolean stop = false;
+	private volatile boolean stop = false;
 
 	
 	/**
 	 * All positive examples are covered
 	 */
-	private boolean done = false;
+	private volatile boolean done = false;
 
 	
 	/**
 	 * Learner get timeout
 	 */
-	private boolean timeout = false;
+	private volatile boolean timeout = false;
+
+	
+	/**
+	 * Error of a worker which aborted the learning (null if no worker failed)
+	 */
+	private volatile Throwable workerFailure = null;
 	
 	
 	// configuration for worker pool
@@ -136,6 +154,15 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	private int maxTaskQueueLength = 2000;
 	private long keepAliveTime = 100; 	// ms
 
+	// ------------------------------------------------
+	// MBeans for debugging purpose: each learner has its own names as several learners may
+	// run at the same time (e.g. the folds of a fold-parallel cross validation)
+	// ------------------------------------------------
+	private static final AtomicInteger noOfLearners = new AtomicInteger(0);
+	private final int learnerId = noOfLearners.incrementAndGet();
+	private ObjectName parCELearnerBean = null;
+	private ObjectName reasoningStatisticsBean = null;
+
 	// ------------------------------------------------
 	// variables for statistical purpose
 	// ------------------------------------------------
@@ -169,7 +196,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		super(learningProblem, reasoningService);
 
 		// default compactor used by this algorithm
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();
 	}
 
 	/**
@@ -179,7 +206,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	public ParCELearner() {
 		super();
 		
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();
 		// this.compactor = new PDLLGenerationTimeCompactor();
 		// this.compactor = new PDLLDefinitionLengthCompactor();
 	}
@@ -210,12 +237,11 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		positiveExamples = ((ParCELPosNegLP) learningProblem).getPositiveExamples();
 		negativeExamples = ((ParCELPosNegLP) learningProblem).getNegativeExamples();
 
-		// clone the positive examples for this set to avoid affecting the Learning Problem
-		// this will be used to check the coverage of the partial definition (completeness)
-		this.uncoveredPositiveExamples = new HashSet<Individual>();
-		this.uncoveredPositiveExamples.addAll(this.positiveExamples);
-
-		((ParCELPosNegLP) this.learningProblem).setUncoveredPositiveExamples(this.positiveExamples);
+		// all positive examples are uncovered at the beginning. the learning problem keeps them as
+		// a bitset snapshot, which is used to check the coverage of the partial definitions
+		// (completeness)
+		this.parcelLearningProblem = (ParCELPosNegLP) this.learningProblem;
+		this.parcelLearningProblem.setUncoveredPositiveExamples(this.positiveExamples);
 
 		// initial heuristic which will be used by reducer to sort the search tree
 		// the heuristic need to get some constant from the configurator for scoring the description
@@ -232,10 +258,6 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		noiseAllowed = this.noisePercentage/100d;
 		//----------------------
 
-		// initial the existing uncovered positive examples
-		((ParCELPosNegLP) this.learningProblem)
-				.setUncoveredPositiveExamples(uncoveredPositiveExamples);
-
 		// ----------------------------------
 		// create refinement operator pool
 		// ----------------------------------
@@ -319,29 +341,28 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	public void start() {
 
 		
-		// register a MBean for debugging purpose
-		try {
-			ObjectName parCELearnerBean = new ObjectName(
-					"org.dllearner.algorithms.ParCEL.ParCELearnerMBean:type=ParCELearnerBean");
-			MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-			if (!mbs.isRegistered(parCELearnerBean))
-				mbs.registerMBean(this, parCELearnerBean);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		// register MBeans for debugging purpose
+		registerMBeans();
 		
 		stop = false;
 		done = false;
 		timeout = false;
+		workerFailure = null;
 	
 		//allDescriptions = new TreeSet<Description>(new ConceptComparator());		
-		allDescriptions = new ConcurrentSkipListSet<Description>(new ConceptComparator());
+		// reuse the set of a previous run so that its interned nodes are released
+		if (allDescriptions == null)
+			allDescriptions = new InternedDescriptionSet();
+		else
+			allDescriptions.clear();
 		
 		searchTree = new ConcurrentSkipListSet<ParCELNode>(heuristic);
 		
 		//System.out.println("[ParCELLearner] Heuristic ExpansionPenaltyFactor: " + ((ParCELDefaultHeuristic)heuristic).getExpansionPenaltyFactor());
 
-		partialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCorrectnessComparator());
+		// the workers add the partial definitions concurrently
+		partialDefinitions = new ConcurrentSkipListSet<ParCELExtraNode>(
+				new ParCELCorrectnessComparator());
 
 		maxAccuracy = 0;		//currently max accuracy	
 		this.noOfCompactedPartialDefinition = 0;
@@ -364,8 +385,11 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		// taskQueue = new ArrayBlockingQueue<Runnable>(maxTaskQueueLength);
 		taskQueue = new LinkedBlockingQueue<Runnable>(maxTaskQueueLength);
 
-		workerPool = new ThreadPoolExecutor(minNumberOfWorker, maxNumberOfWorker, keepAliveTime,
-				TimeUnit.MILLISECONDS, taskQueue, new ParCELWorkerThreadFactory());
+		// the scheduler limits the number of queued and running tasks and wakes the learner up
+		// when new nodes are added, tasks are finished, the learner is done or timeout
+		scheduler = new ParCELScheduler(maxTaskQueueLength + maxNumberOfWorker);
+		workerPool = scheduler.createWorkerPool(minNumberOfWorker, maxNumberOfWorker,
+				keepAliveTime, taskQueue, new ParCELWorkerThreadFactory());
 
 
 		if (logger.isInfoEnabled())
@@ -374,6 +398,23 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 		// start time of the learner
 		miliStarttime = System.currentTimeMillis();
+		scheduler.startTimer(this.maxExecutionTimeInSeconds);
+
+		// in the work-stealing mode, long-lived workers take the nodes from the search tree
+		// themselves and the learner only monitors the termination conditions
+		if (workStealing) {
+			frontier = new ParCELWorkStealingFrontier(searchTree, maxNumberOfWorker,
+					WORK_STEALING_BATCH_SIZE, scheduler);
+
+			for (int i = 0; i < maxNumberOfWorker; i++)
+				workerPool.execute(new ParCELWorkStealingWorker(this, this.refinementOperatorPool,
+						(ParCELPosNegLP) learningProblem, frontier, scheduler, i, "ParCELWorker-" + i));
+
+			if (logger.isInfoEnabled())
+				logger.info("Work-stealing mode, " + maxNumberOfWorker + " workers started");
+		}
+		else
+			frontier = null;
 
 		// ----------------------------------------------------------
 		// perform the learning process until the conditions for
@@ -381,35 +422,35 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		// ----------------------------------------------------------
 		while (!isTerminateCriteriaSatisfied()) {
 
+			// the version must be read before the conditions are checked so that the events
+			// happen after the checking wake the learner up
+			long version = scheduler.getVersion();
+
 			// -------------------
 			// check for timeout
 			// -------------------
-			timeout = (this.maxExecutionTimeInSeconds > 0 && (System.currentTimeMillis() - miliStarttime) > this.maxExecutionTimeInSeconds * 1000);
+			timeout = scheduler.isDeadlineReached();
 
 			if (timeout)
 				break;
 
+			// wait until the worker pool has capacity and the search tree is not empty
 			ParCELNode nodeToProcess = null;
-			
-			nodeToProcess = searchTree.pollLast();
-			
 
-			// TODO: why this? why "blocking" concept does not help in this case?
-			// remove this checking will exploit the heap memory and no definition found
-			// NOTE: i) instead of using sleep, can we use semaphore here?
-			// ii) if using semaphore or blocking, timeout checking may not be performed on time?
-			while ((workerPool.getQueue().size() >= maxTaskQueueLength) && !done) {
+			if (!workStealing && scheduler.hasCapacity())
+				nodeToProcess = searchTree.pollLast();
+
+			if (nodeToProcess == null) {
 				try {
-					Thread.sleep(20);
+					scheduler.awaitChange(version);
 				} catch (InterruptedException e) {
-					e.printStackTrace();
+					logger.error(e);
+					break;
 				}
+				continue;
 			}
 
-			//NOTE: the above WHILE loop and the following IF statement require checking "done" 
-			//		condition to prevent waiting for the full+finish job or the full+terminating workerpool 
-			
-			if ((nodeToProcess != null) && !done && !workerPool.isShutdown() && !workerPool.isTerminating()) {
+			if (!done && !workerPool.isShutdown() && !workerPool.isTerminating()) {
 				try {
 					this.createNewTask(nodeToProcess);
 				} catch (RejectedExecutionException re) {
@@ -425,13 +466,17 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 		stop();
 
+		if (workerFailure != null)
+			logger.error("Learning is aborted at " + this.miliLearningTime
+					+ "ms because a worker failed", workerFailure);
+
 		// -------------------------------
 		// post-learning processing
 		// -------------------------------
 		if (logger.isInfoEnabled()) {
 			synchronized (partialDefinitions) {
 				double acc = (this.negativeExamples.size() + this.positiveExamples.size() - 
-						this.uncoveredPositiveExamples.size())/
+						this.getNoOfUncoveredPositiveExamples())/
 						(double) (this.positiveExamples.size() + this.negativeExamples.size());
 				
 				if (this.getCurrentlyOveralMaxCompleteness() == 1)
@@ -444,20 +489,20 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 							+ df.format(acc));
 
 					logger.info("Uncovered positive examples left "
-							+ this.uncoveredPositiveExamples.size()
+							+ this.getNoOfUncoveredPositiveExamples()
 							+ " - "
 							+ ParCELStringUtilities.replaceString(
-									this.uncoveredPositiveExamples.toString(), this.baseURI,
+									this.parcelLearningProblem.getUncoveredPositiveExamples().toString(), this.baseURI,
 									this.prefix));
 				} else {
 					logger.info("Learning is manually terminated at " + this.miliLearningTime
 							+ "ms. Overall completeness: "
 							+ df.format(this.getCurrentlyOveralMaxCompleteness()));
 					logger.info("Uncovered positive examples left "
-							+ this.uncoveredPositiveExamples.size()
+							+ this.getNoOfUncoveredPositiveExamples()
 							+ " - "
 							+ ParCELStringUtilities.replaceString(
-									this.uncoveredPositiveExamples.toString(), this.baseURI,
+									this.parcelLearningProblem.getUncoveredPositiveExamples().toString(), this.baseURI,
 									this.prefix));
 				}
 				
@@ -492,8 +537,51 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 			}	//synchronise partial definitions for reduction
 		}
 
+		unregisterMBeans();
+
 	} // start()
 
+
+	/**
+	 * Register the learner and the reasoning statistics of the reasoner shared by the workers as
+	 * MBeans, named by the id of the learner
+	 */
+	private void registerMBeans() {
+		try {
+			MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+
+			parCELearnerBean = new ObjectName(
+					"org.dllearner.algorithms.ParCEL.ParCELearnerMBean:type=ParCELearnerBean,id="
+							+ learnerId);
+			mbs.registerMBean(this, parCELearnerBean);
+
+			reasoningStatisticsBean = new ObjectName(
+					"org.dllearner.core.ReasoningStatisticsMBean:type=ReasoningStatistics,learner="
+							+ learnerId);
+			mbs.registerMBean(reasoner.getStatistics(), reasoningStatisticsBean);
+		} catch (Exception e) {
+			logger.warn("Cannot register the MBeans of the learner " + learnerId, e);
+		}
+	}
+
+
+	/**
+	 * Unregister the MBeans registered by {@link #registerMBeans()}
+	 */
+	private void unregisterMBeans() {
+		MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName bean : new ObjectName[] { parCELearnerBean, reasoningStatisticsBean }) {
+			try {
+				if (bean != null && mbs.isRegistered(bean))
+					mbs.unregisterMBean(bean);
+			} catch (Exception e) {
+				logger.warn("Cannot unregister the MBean " + bean, e);
+			}
+		}
+		parCELearnerBean = null;
+		reasoningStatisticsBean = null;
+	}
+
 	
 	//create a new task given a PDLLNode
 	private void createNewTask(ParCELNode nodeToProcess) {
@@ -530,27 +618,24 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 			//re-calculate the generation time of pdef
 			def.setGenerationTime(def.getGenerationTime() - miliStarttime);
 			
-			synchronized (uncoveredPositiveExamples) {
-				uncoveredPositiveExamplesRemoved = this.uncoveredPositiveExamples.size();
-				this.uncoveredPositiveExamples.removeAll(def.getCoveredPositiveExamples());
-				uncoveredPositiveExamplesSize = this.uncoveredPositiveExamples.size();
-			}	//end of uncovere dPositive examples synchronise 
+			// no lock is needed: the learning problem publishes a new snapshot by compare-and-set
+			if (def.getCoveredPositiveExampleBits() != null)
+				uncoveredPositiveExamplesRemoved = parcelLearningProblem
+						.removeCoveredPositiveExamples(def.getCoveredPositiveExampleBits());
+			else
+				uncoveredPositiveExamplesRemoved = parcelLearningProblem
+						.removeCoveredPositiveExamples(def.getCoveredPositiveExamples());
 
-			uncoveredPositiveExamplesRemoved -= uncoveredPositiveExamplesSize;
+			uncoveredPositiveExamplesSize = getNoOfUncoveredPositiveExamples();
 
 			if (uncoveredPositiveExamplesRemoved > 0) {
 
 				// set the generation time for the new partial definition
 				//def.setGenerationTime(System.currentTimeMillis() - miliStarttime);	//this is set by workers
-				synchronized (partialDefinitions) {
-					partialDefinitions.add(def);
-				}
+				partialDefinitions.add(def);
 
 				// for used in bean (for tracing purpose)
-				this.noOfUncoveredPositiveExamples -= uncoveredPositiveExamplesRemoved;
-
-				((ParCELPosNegLP) this.learningProblem)
-						.setUncoveredPositiveExamples(uncoveredPositiveExamples);
+				this.noOfUncoveredPositiveExamples = uncoveredPositiveExamplesSize;
 
 				if (logger.isTraceEnabled()) {
 					logger.trace("PARTIAL definition found: "
@@ -584,6 +669,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 			// check if the complete definition found
 			if (uncoveredPositiveExamplesSize <= uncoveredPositiveExampleAllowed) {
 				this.done = true;
+				scheduler.signal();
 				// stop();
 			}
 
@@ -605,6 +691,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	@Override
 	public void newRefinementDescriptions(Set<ParCELNode> newNodes) {
 			searchTree.addAll(newNodes);
+			scheduler.signal();
 	}
 
 	
@@ -628,12 +715,43 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	 *         found, or timeout), false otherwise
 	 */
 	private boolean isTerminateCriteriaSatisfied() {
-		return stop || done == true || timeout;
+		return stop || done == true || timeout || workerFailure != null;
 		//return stop || done || timeout;// ||
 		// (Runtime.getRuntime().totalMemory() >= this.maxHeapSize
 		// && Runtime.getRuntime().freeMemory() < this.outOfMemory);
 	}
 
+	/**
+	 * Check if the learner is terminated, used by the long-lived workers in the work-stealing
+	 * mode
+	 */
+	boolean isTerminated() {
+		return isTerminateCriteriaSatisfied();
+	}
+
+	/**
+	 * Called by a worker which failed to process a node: the learning is aborted as the search
+	 * would be incomplete (the failure is available from {@link #getWorkerFailure()})
+	 * 
+	 * @param e
+	 *            The error of the worker
+	 */
+	synchronized void workerFailed(Throwable e) {
+		if (workerFailure == null) {
+			workerFailure = e;
+			scheduler.signal();
+		}
+	}
+
+	/**
+	 * Get the error of the worker which aborted the learning
+	 * 
+	 * @return The error or null if no worker failed
+	 */
+	public Throwable getWorkerFailure() {
+		return workerFailure;
+	}
+
 	/**
 	 * ============================================================================================
 	 * Set heuristic will be used
@@ -656,6 +774,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 		if (!stop) {
 			stop = true;
+			scheduler.signal();
 			workerPool.shutdownNow();
 			
 			//wait until all workers are terminated
@@ -666,6 +785,10 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 			catch (InterruptedException ie) {
 				logger.error(ie);
 			}
+
+			// put the nodes taken by the long-lived workers back into the search tree
+			if (frontier != null)
+				frontier.returnNodes();
 		}
 	}
 
@@ -756,7 +879,16 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	 * @return Overall completeness so far
 	 */
 	public double getCurrentlyOveralMaxCompleteness() {
-		return 1 - (uncoveredPositiveExamples.size() / (double) positiveExamples.size());
+		return 1 - (getNoOfUncoveredPositiveExamples() / (double) positiveExamples.size());
+	}
+
+	/**
+	 * Get the number of positive examples that are not covered by any partial definition
+	 * 
+	 * @return Number of uncovered positive examples in the current snapshot
+	 */
+	private int getNoOfUncoveredPositiveExamples() {
+		return parcelLearningProblem.getUncoveredPositiveExampleSnapshot().size();
 	}
 
 	/**
@@ -775,7 +907,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 	// methods related to the compactness: get compact definition, set compactor
 	public SortedSet<ParCELExtraNode> getReducedPartialDefinition(ParCELReducer reducer) {
 		return reducer.reduce(partialDefinitions, positiveExamples,
-				uncoveredPositiveExamples.size());
+				getNoOfUncoveredPositiveExamples());
 	}
 
 	public SortedSet<ParCELExtraNode> getReducedPartialDefinition() {
@@ -800,7 +932,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 	@Override
 	public boolean isRunning() {
-		return !stop && !done && !timeout;
+		return !stop && !done && !timeout && workerFailure == null;
 	}
 
 	public int getSearchTreeSize() {
@@ -862,6 +994,10 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 		this.splitter = splitter;
 	}
 
+	public ParCELDoubleSplitterAbstract getSplitter() {
+		return this.splitter;
+	}
+
 	public int getNoOfReducedPartialDefinition() {
 		return this.noOfCompactedPartialDefinition;
 	}
@@ -907,7 +1043,7 @@ public class ParCELearner extends ParCELAbstract implements ParCELearnerMBean {
 
 	@Override
 	public double getCurrentlyBestAccuracy() {		
-		return 	((positiveExamples.size() - uncoveredPositiveExamples.size()) + negativeExamples.size()) /
+		return 	((positiveExamples.size() - getNoOfUncoveredPositiveExamples()) + negativeExamples.size()) /
 				(double)(positiveExamples.size() + negativeExamples.size());
 	}
 	
@@ -15,4 +15,7 @@ public interface ParCELearnerMBean {
 	public int getWorkerPoolSize();
 	public int getSearchTreeSize();
 	public int getCurrentlyMaxExpansion();
+	public long getExtensionCacheHits();
+	public long getExtensionCacheMisses();
+	public int getExtensionCacheSize();
 }
@@ -209,6 +209,8 @@ public class ParCELWorkerExV12 implements Runnable {
 			learner.updateMaxHorizontalExpansion(horizExp);
 		}
 		
+		// the node is not in the search tree, so it can be re-scored
+		nodeToProcess.resetScore();
 		newNodes.add(nodeToProcess);
 
 
@@ -339,6 +341,8 @@ public class ParCELWorkerExV12 implements Runnable {
 		// newNode.setCompleteness(evaluationResult.getCompleteness());
 		// newNode.setCoveredPositiveExamples(evaluationResult.getCoveredPossitiveExamples());
 		newNode.setCoveredNegativeExamples(evaluationResult.getCoveredNegativeExamples());
+		newNode.setCoveredPositiveExampleBits(evaluationResult.getCoveredPositiveExampleBits());
+		newNode.setCoveredNegativeExampleBits(evaluationResult.getCoveredNegativeExampleBits());
 
 		if (parentNode != null)
 			parentNode.addChild(newNode);
@@ -255,8 +255,11 @@ public class ParCELWorkerExV2 implements Runnable {
 			newPD.setType(ParCELExNodeTypes.PARTIAL_DEFINITION_REFINED_NODE);	//4 - (refined node + counter pdef) 
 			newPartialDefinitions.add(newPD);
 		}
-		else
+		else {
+			// the node is not in the search tree, so it can be re-scored
+			nodeToProcess.resetScore();
 			newNodes.add(nodeToProcess);
+		}
 		
 
 		if (newPartialDefinitions.size() > 0)
@@ -380,6 +383,8 @@ public class ParCELWorkerExV2 implements Runnable {
 				evaluationResult.getAccuracy(), evaluationResult.getCorrectness(),
 				evaluationResult.getCompleteness(), evaluationResult.getCoveredPossitiveExamples(),
 				evaluationResult.getCoveredNegativeExamples()); 
+		newNode.setCoveredPositiveExampleBits(evaluationResult.getCoveredPositiveExampleBits());
+		newNode.setCoveredNegativeExampleBits(evaluationResult.getCoveredNegativeExampleBits());
 
 		// newNode.setCorrectness(evaluationResult.getCorrectness());
 		// newNode.setCompleteness(evaluationResult.getCompleteness());
@@ -29,7 +29,6 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
@@ -38,13 +37,14 @@ import org.dllearner.algorithms.ParCEL.ParCELDefaultHeuristic;
 import org.dllearner.algorithms.ParCEL.ParCELExtraNode;
 import org.dllearner.algorithms.ParCEL.ParCELCoveredNegativeExampleComparator;
 import org.dllearner.algorithms.ParCEL.ParCELHeuristic;
-import org.dllearner.algorithms.ParCEL.ParCELImprovedCoverageGreedyReducer;
+import org.dllearner.algorithms.ParCEL.ParCELImprovedCoverageGreedyBitSetReducer;
 //import org.dllearner.algorithms.ParCEL.ParCELImprovedCoverageGreedyReducer_V2;
 
 import org.dllearner.algorithms.ParCEL.ParCELNode;
 import org.dllearner.algorithms.ParCEL.ParCELPosNegLP;
 import org.dllearner.algorithms.ParCEL.ParCELReducer;
 import org.dllearner.algorithms.ParCEL.ParCELRefinementOperatorPool;
+import org.dllearner.algorithms.ParCEL.ParCELScheduler;
 import org.dllearner.algorithms.ParCEL.ParCELScore;
 import org.dllearner.algorithms.ParCEL.ParCELStringUtilities;
 import org.dllearner.algorithms.ParCEL.split.ParCELDoubleSplitterAbstract;
@@ -63,6 +63,7 @@ import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Thing;
 import org.dllearner.refinementoperators.RefinementOperator;
 import org.dllearner.utilities.owl.ConceptComparator;
+import org.dllearner.utilities.owl.InternedDescriptionSet;
 
 import org.dllearner.utilities.owl.EvaluatedDescriptionComparator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -86,6 +87,11 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 	 */
 	BlockingQueue<Runnable> taskQueue;
 	
+	/**
+	 * dispatches the nodes in the search tree to the worker pool
+	 */
+	private ParCELScheduler scheduler;
+	
 	
 	
 	/**
@@ -183,7 +189,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		super(learningProblem, reasoningService);
 		
 		//default compactor used by this algorithm
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();			
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();			
 	}
 	
 
@@ -194,7 +200,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 	public ParCELearnerExV12() {
 		super();
 		//this.compactor = new PDLLGenerationTimeCompactor();		
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();
 		//this.compactor = new PDLLDefinitionLengthCompactor();
 	}
 	/**=========================================================================================================<br>
@@ -362,8 +368,11 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		//taskQueue = new ArrayBlockingQueue<Runnable>(maxTaskQueueLength);		
 		taskQueue = new LinkedBlockingQueue<Runnable>(maxTaskQueueLength);
 			
-		workerPool = new ThreadPoolExecutor(minNumberOfWorker, maxNumberOfWorker, keepAliveTime, 
-				TimeUnit.MILLISECONDS, taskQueue, new ParCELWorkerThreadFactory());
+		//the scheduler limits the number of queued and running tasks and wakes the learner up  
+		//	when new nodes are added, tasks are finished, the learner is done or timeout
+		scheduler = new ParCELScheduler(maxTaskQueueLength + maxNumberOfWorker);
+		workerPool = scheduler.createWorkerPool(minNumberOfWorker, maxNumberOfWorker, keepAliveTime, 
+				taskQueue, new ParCELWorkerThreadFactory());
 		
 	
 		if (logger.isInfoEnabled())
@@ -373,6 +382,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		
 		//start time of reducer, statistical purpose only
 		miliStarttime = System.currentTimeMillis();
+		scheduler.startTimer(this.maxExecutionTimeInSeconds);
 		
 		//----------------------------------------------------------
 		// perform the learning process until the conditions for 
@@ -380,31 +390,35 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		//----------------------------------------------------------
 		while (!isTerminateCriteriaSatisfied()) {
 
+			//the version must be read before the conditions are checked so that the events 
+			//	happen after the checking wake the learner up
+			long version = scheduler.getVersion();
+
 			//-------------------
 			//check for timeout
             //-------------------
-			timeout = (this.maxExecutionTimeInSeconds > 0 && (System.currentTimeMillis() - miliStarttime) > this.maxExecutionTimeInSeconds*1000);
+			timeout = scheduler.isDeadlineReached();
 				
 			if (timeout)
 				break;
 			
-			ParCELNode nodeToProcess;
+			//wait until the worker pool has capacity and the search tree is not empty
+			ParCELNode nodeToProcess = null;
 			
-			nodeToProcess = searchTree.pollLast();
-					
-			//TODO: why this? why "blocking" concept does not help in this case?
-			//remove this checking will exploit the heap memory and no definition found
-			//NOTE: i) instead of using sleep, can we use semaphore here?
-			//		ii) if using semaphore or blocking, timeout checking may not be performed on time?
-			 while ((workerPool.getQueue().size() >= maxTaskQueueLength)) {                
-                 try {
-                         Thread.sleep(20);
-                 } catch (InterruptedException e) {
-                         e.printStackTrace();
-                 }
-			 }
+			if (scheduler.hasCapacity())
+				nodeToProcess = searchTree.pollLast();
+			
+			if (nodeToProcess == null) {
+				try {
+					scheduler.awaitChange(version);
+				} catch (InterruptedException e) {
+					logger.error(e);
+					break;
+				}
+				continue;
+			}
 			
-			if ((nodeToProcess != null) && !workerPool.isShutdown() && !workerPool.isTerminating()) {
+			if (!workerPool.isShutdown() && !workerPool.isTerminating()) {
 				try {
 					this.createNewTask(nodeToProcess);
 				}
@@ -672,6 +686,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 				//check if the complete definition found
 				if (uncoveredPositiveExamplesSize <= uncoveredPositiveExampleAllowed) {
 					this.done = true;
+					scheduler.signal();
 					//stop();
 				}
 
@@ -713,8 +728,10 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 
 								
 				//check if the complete definition found
-				if (uncoveredPositiveExamplesSize <= uncoveredPositiveExampleAllowed) 
+				if (uncoveredPositiveExamplesSize <= uncoveredPositiveExampleAllowed) {
 					this.done = true;
+					scheduler.signal();
+				}
 			}
 			else 
 				logger.info("Potential partial definition existed :" + def.getDescription());
@@ -770,6 +787,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 				//complete counter definition found
 				if (this.coveredNegativeExamples.size() >= this.negativeExamples.size()) {
 					this.counterDone = true;
+					scheduler.signal();
 					//this.stop();
 				}
 			}
@@ -790,6 +808,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 	@Override
 	public void newRefinementDescriptions(Set<ParCELNode> newNodes) {		
 		searchTree.addAll(newNodes);
+		scheduler.signal();
 	}
 
 	
@@ -803,7 +822,11 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		this.searchTree = new ConcurrentSkipListSet<ParCELNode>(heuristic);
 		
 		//allDescriptions = new TreeSet<Description>(new ConceptComparator());
-		this.allDescriptions = new ConcurrentSkipListSet<Description>(new ConceptComparator());
+		// reuse the set of a previous run so that its interned nodes are released
+		if (this.allDescriptions == null)
+			this.allDescriptions = new InternedDescriptionSet();
+		else
+			this.allDescriptions.clear();
 		
 		this.partialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCompletenessComparator());
 		this.counterPartialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCoveredNegativeExampleComparator());
@@ -855,6 +878,7 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 		
 		if (!stop) {			
 			stop = true;
+			scheduler.signal();
 			
 			List<Runnable> waitingTasks = workerPool.shutdownNow();
 
@@ -1072,6 +1096,10 @@ public class ParCELearnerExV12 extends ParCELExAbstract implements ParCELearnerM
 	public void setSplitter(ParCELDoubleSplitterAbstract splitter) {
 		this.splitter = splitter;
 	}
+
+	public ParCELDoubleSplitterAbstract getSplitter() {
+		return this.splitter;
+	}
 	
 
 	public int getNoOfReducedPartialDefinition() {
@@ -29,7 +29,6 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
@@ -38,11 +37,12 @@ import org.dllearner.algorithms.ParCEL.ParCELDefaultHeuristic;
 import org.dllearner.algorithms.ParCEL.ParCELExtraNode;
 import org.dllearner.algorithms.ParCEL.ParCELCorrectnessComparator;
 import org.dllearner.algorithms.ParCEL.ParCELHeuristic;
-import org.dllearner.algorithms.ParCEL.ParCELImprovedCoverageGreedyReducer;
+import org.dllearner.algorithms.ParCEL.ParCELImprovedCoverageGreedyBitSetReducer;
 import org.dllearner.algorithms.ParCEL.ParCELNode;
 import org.dllearner.algorithms.ParCEL.ParCELPosNegLP;
 import org.dllearner.algorithms.ParCEL.ParCELReducer;
 import org.dllearner.algorithms.ParCEL.ParCELRefinementOperatorPool;
+import org.dllearner.algorithms.ParCEL.ParCELScheduler;
 import org.dllearner.algorithms.ParCEL.ParCELScore;
 import org.dllearner.algorithms.ParCEL.ParCELStringUtilities;
 import org.dllearner.algorithms.ParCEL.ParCELWorkerThreadFactory;
@@ -61,7 +61,7 @@ import org.dllearner.core.owl.Individual;
 import org.dllearner.core.owl.NamedClass;
 import org.dllearner.core.owl.Thing;
 import org.dllearner.refinementoperators.RefinementOperator;
-import org.dllearner.utilities.owl.ConceptComparator;
+import org.dllearner.utilities.owl.InternedDescriptionSet;
 import org.dllearner.utilities.owl.EvaluatedDescriptionComparator;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -100,6 +100,11 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 	 * contains tasks submitted to thread pool
 	 */
 	BlockingQueue<Runnable> taskQueue;
+	
+	/**
+	 * dispatches the nodes in the search tree to the worker pool
+	 */
+	private ParCELScheduler scheduler;
 										
 
 	
@@ -196,7 +201,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		super(learningProblem, reasoningService);
 		
 		//default compactor used by this algorithm
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();
 		//this.reducer = new ParCELPredScoreReducer();
 	}
 	
@@ -208,7 +213,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 	public ParCELearnerExV2() {
 		super();
 		//this.compactor = new PDLLGenerationTimeCompactor();		
-		this.reducer = new ParCELImprovedCoverageGreedyReducer();
+		this.reducer = new ParCELImprovedCoverageGreedyBitSetReducer();
 		//this.compactor = new PDLLDefinitionLengthCompactor();
 		//this.reducer = new ParCELPredScoreReducer();
 	}
@@ -380,8 +385,11 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		//taskQueue = new ArrayBlockingQueue<Runnable>(maxTaskQueueLength);		
 		taskQueue = new LinkedBlockingQueue<Runnable>(maxTaskQueueLength);
 			
-		workerPool = new ThreadPoolExecutor(minNumberOfWorker, maxNumberOfWorker, keepAliveTime, 
-				TimeUnit.MILLISECONDS, taskQueue, new ParCELWorkerThreadFactory());
+		//the scheduler limits the number of queued and running tasks and wakes the learner up  
+		//	when new nodes are added, tasks are finished, the learner is done or timeout
+		scheduler = new ParCELScheduler(maxTaskQueueLength + maxNumberOfWorker);
+		workerPool = scheduler.createWorkerPool(minNumberOfWorker, maxNumberOfWorker, keepAliveTime, 
+				taskQueue, new ParCELWorkerThreadFactory());
 		
 
 		
@@ -393,6 +401,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		
 		//start time of reducer, statistical purpose only
 		miliStarttime = System.currentTimeMillis();
+		scheduler.startTimer(this.maxExecutionTimeInSeconds);
 		
 		//----------------------------------------------------------
 		// perform the learning process until the conditions for 
@@ -400,32 +409,35 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		//----------------------------------------------------------
 		while (!isTerminateCriteriaSatisfied()) {
 
+			//the version must be read before the conditions are checked so that the events 
+			//	happen after the checking wake the learner up
+			long version = scheduler.getVersion();
+
 			//-------------------
 			//check for timeout
             //-------------------
-			timeout = (this.maxExecutionTimeInSeconds > 0 && (System.currentTimeMillis() - miliStarttime) > this.maxExecutionTimeInSeconds*1000);
+			timeout = scheduler.isDeadlineReached();
 				
 			if (timeout)
 				break;
 			
+			//wait until the worker pool has capacity and the search tree is not empty
+			ParCELNode nodeToProcess = null;
 			
-			ParCELNode nodeToProcess;
+			if (scheduler.hasCapacity())
+				nodeToProcess = searchTree.pollLast();
 			
-			nodeToProcess = searchTree.pollLast();
-					
-			//TODO: why this? why "blocking" concept does not help in this case?
-			//remove this checking will exploit the heap memory and no definition found
-			//NOTE: i) instead of using sleep, can we use semaphore here?
-			//		ii) if using semaphore or blocking, timeout checking may not be performed on time?
-			 while ((workerPool.getQueue().size() >= maxTaskQueueLength)) {                
-                 try {
-                         Thread.sleep(20);
-                 } catch (InterruptedException e) {
-                         e.printStackTrace();
-                 }
-			 }
+			if (nodeToProcess == null) {
+				try {
+					scheduler.awaitChange(version);
+				} catch (InterruptedException e) {
+					logger.error(e);
+					break;
+				}
+				continue;
+			}
 			
-			if ((nodeToProcess != null) && !workerPool.isShutdown() && !workerPool.isTerminating()) {
+			if (!workerPool.isShutdown() && !workerPool.isTerminating()) {
 				try {
 					this.createNewTask(nodeToProcess);
 				}
@@ -629,6 +641,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 				//check if the complete definition found
 				if (uncoveredPositiveExamplesSize <= uncoveredPositiveExampleAllowed) {
 					this.done = true;
+					scheduler.signal();
 					//stop();
 				}
 			}
@@ -686,6 +699,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 				//complete counter definition found
 				if (this.coveredNegativeExamples.size() >= this.negativeExamples.size()) {
 					this.counterDone = true;
+					scheduler.signal();
 					//this.stop();
 				}
 			}
@@ -706,6 +720,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 	 */
 	public void newRefinementDescriptions(Set<ParCELNode> newNodes) {		
 		searchTree.addAll(newNodes);
+		scheduler.signal();
 	}
 	
 	
@@ -731,7 +746,11 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		searchTree = new ConcurrentSkipListSet<ParCELNode>(heuristic);
 		
 		//allDescriptions = new TreeSet<Description>(new ConceptComparator());
-		allDescriptions = new ConcurrentSkipListSet<Description>(new ConceptComparator());
+		// reuse the set of a previous run so that its interned nodes are released
+		if (allDescriptions == null)
+			allDescriptions = new InternedDescriptionSet();
+		else
+			allDescriptions.clear();
 		
 		partialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCompletenessComparator());
 		counterPartialDefinitions = new TreeSet<ParCELExtraNode>(new ParCELCorrectnessComparator());
@@ -782,6 +801,7 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 		
 		if (!stop) {			
 			stop = true;
+			scheduler.signal();
 			
 			List<Runnable> waitingTasks = workerPool.shutdownNow();
 			
@@ -1016,6 +1036,10 @@ public class ParCELearnerExV2 extends ParCELExAbstract implements ParCELearnerMB
 	public void setSplitter(ParCELDoubleSplitterAbstract splitter) {
 		this.splitter = splitter;
 	}
+
+	public ParCELDoubleSplitterAbstract getSplitter() {
+		return this.splitter;
+	}
 	
 	public int getNoOfReducedPartialDefinition() {
 		return this.noOfReducedPartialDefinition;
@@ -0,0 +1,293 @@
+package org.dllearner.algorithms.Fortification;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.owl.Description;
+import org.dllearner.core.owl.Individual;
+import org.dllearner.reasoning.FastInstanceChecker;
+import org.dllearner.utilities.owl.ConceptComparator;
+
+/**
+ * Coverage of the descriptions used in the fortification of a fold (learnt concept and counter
+ * partial definitions) over the test and fortification training examples of the fold.<br>
+ * The coverage of each description is computed once, by one instance check over all individuals of
+ * the fold, and kept as a bitset of the individuals. The descriptions given to
+ * {@link #evaluate(Collection)} are computed in parallel if the reasoner can be used by several
+ * threads (see {@link #setNoOfThreads(int)}), the coverage of other descriptions is computed when
+ * it is first used. The fortification strategies, the multi-step fortification and
+ * the logging then read the coverage from the matrix instead of asking the reasoner again.
+ *
+ */
+public class FortificationEvaluationMatrix {
+
+	private static Logger logger = Logger.getLogger(FortificationEvaluationMatrix.class);
+
+	private final AbstractReasonerComponent reasoner;
+
+	// individuals of the fold and their bit index
+	private final SortedSet<Individual> individuals;
+	private final Map<Individual, Integer> index;
+	private final Individual[] indexedIndividuals;
+
+	// description --> covered individuals
+	private final ConcurrentMap<Description, BitSet> coverage = new ConcurrentSkipListMap<Description, BitSet>(
+			new ConceptComparator());
+
+	// set of individuals --> its bitset (the sets of a fold are used many times)
+	private final Map<Set<Individual>, BitSet> masks = new IdentityHashMap<Set<Individual>, BitSet>();
+
+	// one thread unless the reasoner is known to be thread-safe
+	private int noOfThreads;
+
+	/**
+	 * Create a matrix for the examples of a fold
+	 *
+	 * @param reasoner
+	 *            Reasoner used to compute the coverage
+	 * @param testSetPos
+	 *            Positive test examples
+	 * @param testSetNeg
+	 *            Negative test examples
+	 * @param fortificationSetPos
+	 *            Positive fortification training examples
+	 * @param fortificationSetNeg
+	 *            Negative fortification training examples
+	 */
+	public FortificationEvaluationMatrix(AbstractReasonerComponent reasoner,
+			Set<Individual> testSetPos, Set<Individual> testSetNeg,
+			Set<Individual> fortificationSetPos, Set<Individual> fortificationSetNeg) {
+		this.reasoner = reasoner;
+
+		// the instance checks of the fast instance checker only read its model (the workers of
+		// ParCEL share it as well), other reasoners may not be used by several threads
+		if (reasoner instanceof FastInstanceChecker)
+			this.noOfThreads = Runtime.getRuntime().availableProcessors();
+		else
+			this.noOfThreads = 1;
+
+		this.individuals = new TreeSet<Individual>();
+		this.individuals.addAll(testSetPos);
+		this.individuals.addAll(testSetNeg);
+		this.individuals.addAll(fortificationSetPos);
+		this.individuals.addAll(fortificationSetNeg);
+
+		this.index = new HashMap<Individual, Integer>(individuals.size() * 2);
+		this.indexedIndividuals = new Individual[individuals.size()];
+		for (Individual ind : individuals) {
+			indexedIndividuals[index.size()] = ind;
+			index.put(ind, index.size());
+		}
+	}
+
+	/**
+	 * Compute the coverage of the given descriptions in parallel (descriptions that have been
+	 * computed before are skipped)
+	 *
+	 * @param descriptions
+	 *            Descriptions, e.g. the learnt concept and the counter partial definitions
+	 *
+	 * @throws RuntimeException
+	 *             If the computation fails or the thread is interrupted (the computation is
+	 *             aborted and the interrupt flag is kept)
+	 */
+	public void evaluate(Collection<Description> descriptions) {
+		List<Description> missing = new ArrayList<Description>();
+		Set<Description> added = new TreeSet<Description>(new ConceptComparator());
+		for (Description d : descriptions) {
+			if (!coverage.containsKey(d) && added.add(d))
+				missing.add(d);
+		}
+
+		if (missing.size() == 0)
+			return;
+
+		long startTime = System.currentTimeMillis();
+
+		if (noOfThreads <= 1 || missing.size() == 1) {
+			for (Description d : missing)
+				getCoverage(d);
+		}
+		else {
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(noOfThreads,
+					missing.size()));
+			try {
+				List<Future<BitSet>> results = new ArrayList<Future<BitSet>>(missing.size());
+				for (final Description d : missing) {
+					results.add(executor.submit(new Callable<BitSet>() {
+						@Override
+						public BitSet call() {
+							return getCoverage(d);
+						}
+					}));
+				}
+
+				for (Future<BitSet> result : results)
+					result.get();
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Coverage computation interrupted", e);
+			} catch (ExecutionException e) {
+				executor.shutdownNow();
+				throw new RuntimeException(e.getCause());
+			} finally {
+				executor.shutdown();
+			}
+		}
+
+		if (logger.isDebugEnabled())
+			logger.debug("Coverage of " + missing.size() + " descriptions over " + individuals.size()
+					+ " individuals computed in " + (System.currentTimeMillis() - startTime) + "ms");
+	}
+
+	/**
+	 * Get the individuals of the fold covered by a description
+	 *
+	 * @param description
+	 *            Description
+	 *
+	 * @return Covered individuals (bitset over the individuals of the fold). The returned bitset
+	 *         must not be modified
+	 */
+	public BitSet getCoverage(Description description) {
+		BitSet bits = coverage.get(description);
+
+		if (bits == null) {
+			bits = toBitSet(reasoner.hasType(description, individuals));
+			BitSet old = coverage.putIfAbsent(description, bits);
+			if (old != null)
+				bits = old;
+		}
+
+		return bits;
+	}
+
+	/**
+	 * Get the bitset of a set of individuals of the fold
+	 *
+	 * @param set
+	 *            Set of individuals, e.g. the positive test examples
+	 *
+	 * @return Bitset of the individuals of the given set that belong to the fold. The returned
+	 *         bitset must not be modified
+	 */
+	public BitSet getBits(Set<Individual> set) {
+		synchronized (masks) {
+			BitSet bits = masks.get(set);
+			if (bits == null) {
+				bits = toBitSet(set);
+				masks.put(set, bits);
+			}
+			return bits;
+		}
+	}
+
+	/**
+	 * Get the individuals of a set covered by a description, i.e. the result of
+	 * {@link AbstractReasonerComponent#hasType(Description, Set)}
+	 *
+	 * @param description
+	 *            Description
+	 * @param set
+	 *            Set of individuals
+	 *
+	 * @return A new set of covered individuals, which can be modified by the caller
+	 */
+	public SortedSet<Individual> getCoveredIndividuals(Description description, Set<Individual> set) {
+		BitSet covered = (BitSet) getCoverage(description).clone();
+		covered.and(getBits(set));
+
+		SortedSet<Individual> result = toIndividuals(covered);
+
+		// individuals which do not belong to the fold are checked by the reasoner
+		if (!containsAll(set))
+			result.addAll(reasoner.hasType(description, unindexed(set)));
+
+		return result;
+	}
+
+	/**
+	 * Get the number of individuals of a set covered by a description
+	 */
+	public int getNoOfCoveredIndividuals(Description description, Set<Individual> set) {
+		if (!containsAll(set))
+			return getCoveredIndividuals(description, set).size();
+
+		BitSet covered = (BitSet) getCoverage(description).clone();
+		covered.and(getBits(set));
+		return covered.cardinality();
+	}
+
+	/**
+	 * Convert a bitset of this matrix into the set of individuals
+	 */
+	public SortedSet<Individual> toIndividuals(BitSet bits) {
+		SortedSet<Individual> result = new TreeSet<Individual>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			result.add(indexedIndividuals[i]);
+		return result;
+	}
+
+	/**
+	 * Check whether all individuals of a set belong to the fold
+	 */
+	public boolean containsAll(Set<Individual> set) {
+		return getBits(set).cardinality() == set.size();
+	}
+
+	private Set<Individual> unindexed(Set<Individual> set) {
+		Set<Individual> result = new TreeSet<Individual>();
+		for (Individual ind : set) {
+			if (!index.containsKey(ind))
+				result.add(ind);
+		}
+		return result;
+	}
+
+	private BitSet toBitSet(Set<Individual> set) {
+		BitSet bits = new BitSet(indexedIndividuals.length);
+		for (Individual ind : set) {
+			Integer id = index.get(ind);
+			if (id != null)
+				bits.set(id);
+		}
+		return bits;
+	}
+
+	public int getNoOfThreads() {
+		return noOfThreads;
+	}
+
+	/**
+	 * @param noOfThreads
+	 *            Number of threads used to compute the coverage in {@link #evaluate(Collection)}.
+	 *            Use more than one thread only if the reasoner can be used by several threads
+	 *            (the default is the number of processors for the fast instance checker and 1 for
+	 *            other reasoners)
+	 */
+	public void setNoOfThreads(int noOfThreads) {
+		this.noOfThreads = Math.max(1, noOfThreads);
+	}
+
+	public int getNoOfIndividuals() {
+		return indexedIndividuals.length;
+	}
+}
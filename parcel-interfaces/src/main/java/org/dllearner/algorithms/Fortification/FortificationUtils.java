@@ -1,6 +1,7 @@
 package org.dllearner.algorithms.Fortification;
 
 import java.text.DecimalFormat;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -516,6 +517,31 @@ public class FortificationUtils {
 	public static FortificationResult fortifyAccuracyMultiSteps(AbstractReasonerComponent rs, Description concept, 
 			SortedSet<CELOE.PartialDefinition> cpdefs, Set<Individual> testSetPos, Set<Individual> testSetNeg, boolean negated) {
 		
+		Set<Individual> noFortificationExamples = new HashSet<Individual>();
+		FortificationEvaluationMatrix matrix = new FortificationEvaluationMatrix(rs, testSetPos, testSetNeg, 
+				noFortificationExamples, noFortificationExamples);
+		
+		return fortifyAccuracyMultiSteps(matrix, concept, cpdefs, testSetPos, testSetNeg, negated);
+	}
+	
+	
+	/**
+	 * Calculate the fortification accuracy with 5%, 10%, 20%, 30%, 40% and 50% of cpdef
+	 * 	and for each cpdef as well, using the coverage in the evaluation matrix of the fold 
+	 * 	(see {@link #fortifyAccuracyMultiSteps(AbstractReasonerComponent, Description, SortedSet, Set, Set, boolean)})<br>
+	 * 
+	 * @param matrix Coverage of the concept and the counter partial definitions
+	 * @param concept Learned concept
+	 * @param cpdefs Set of counter partial definitions
+	 * @param testSetPos Set of positive examples 
+	 * @param testSetNeg Set of negative examples
+	 * 
+	 * @return Accuracy, completeness and correctness of the fortification. The first value is the value without fortification, 
+	 * 	the 6 next value is for fortification with 5%, 10%, 20%, 30%, 40% and 50% of the best counter partial definitions. 
+	 */
+	public static FortificationResult fortifyAccuracyMultiSteps(FortificationEvaluationMatrix matrix, Description concept, 
+			SortedSet<CELOE.PartialDefinition> cpdefs, Set<Individual> testSetPos, Set<Individual> testSetNeg, boolean negated) {
+		
 			
 		double[] fortificationStepByPercent = {0.05, 0.1, 0.2, 0.3, 0.4, 0.5};	//do the fortification at 5, 10, 20, 30, 40, and 50%
 		int noOfFortificationStep = fortificationStepByPercent.length;
@@ -544,18 +570,30 @@ public class FortificationUtils {
 		int posSize = testSetPos.size();
 		int negSize = testSetNeg.size();
 		
-		Set<Individual> conceptCp = rs.hasType(concept, testSetPos);
-		Set<Individual> conceptCn = rs.hasType(concept, testSetNeg);
+		//test examples which do not belong to the matrix are not supported in the bitset calculation 
+		if (!matrix.containsAll(testSetPos) || !matrix.containsAll(testSetNeg))
+			throw new IllegalArgumentException("Test examples are not in the evaluation matrix");
+		
+		BitSet posBits = matrix.getBits(testSetPos);
+		BitSet negBits = matrix.getBits(testSetNeg);
 		
-		double orgPrecision = ((conceptCp.size() + conceptCn.size()) == 0)? 
-				0 : conceptCp.size() / (double)(conceptCp.size() + conceptCn.size());
-		double orgRecall = conceptCp.size() / (double)posSize;
+		BitSet conceptCp = (BitSet)matrix.getCoverage(concept).clone();
+		BitSet conceptCn = (BitSet)conceptCp.clone();
+		conceptCp.and(posBits);
+		conceptCn.and(negBits);
+		
+		int conceptCpSize = conceptCp.cardinality();
+		int conceptCnSize = conceptCn.cardinality();
+		
+		double orgPrecision = ((conceptCpSize + conceptCnSize) == 0)? 
+				0 : conceptCpSize / (double)(conceptCpSize + conceptCnSize);
+		double orgRecall = conceptCpSize / (double)posSize;
 		double orgFmeasure = 100 * Heuristics.getFScore(orgRecall, orgPrecision);
 		
 		//store the original accuracy into the first element of the returning result 
-		fortCompletenessPercentage[0] = 100 * conceptCp.size() / (double)posSize;
-		fortCorrectnessPercentage[0] = 100 * ((negSize - conceptCn.size()) / (double)negSize);
-		fortAccuracyPercentage[0] = 100 * (conceptCp.size() + negSize - conceptCn.size()) / (double)(posSize + negSize);
+		fortCompletenessPercentage[0] = 100 * conceptCpSize / (double)posSize;
+		fortCorrectnessPercentage[0] = 100 * ((negSize - conceptCnSize) / (double)negSize);
+		fortAccuracyPercentage[0] = 100 * (conceptCpSize + negSize - conceptCnSize) / (double)(posSize + negSize);
 		fortFmeasurePercentage[0] = orgFmeasure;
 		
 		
@@ -566,11 +604,15 @@ public class FortificationUtils {
 		int fortPercentageStep = 0;		
 		
 		//accumulated cp and cn
-		Set<Individual> accumulateFortificationCp = new HashSet<Individual>();	//number of pos covered by the fortification
-		Set<Individual> accumulateFortificationCn = new HashSet<Individual>();	//number of neg covered by the fortification
+		BitSet accumulateFortificationCp = new BitSet();	//pos covered by the fortification
+		BitSet accumulateFortificationCn = new BitSet();	//neg covered by the fortification
+		
+		//common pos/neg covered by the learnt concept and the accumulated cpdef
+		BitSet commonCp = new BitSet();
+		BitSet commonCn = new BitSet();
 		
-		int priorNoOfAccumulatedCp = conceptCp.size();
-		int priorNoOfAccumulatedCn = conceptCn.size();
+		int priorNoOfAccumulatedCp = conceptCpSize;
+		int priorNoOfAccumulatedCn = conceptCnSize;
 		
 		for (CELOE.PartialDefinition orgCpd : cpdefs) {
 			
@@ -585,37 +627,36 @@ public class FortificationUtils {
 			cpdefUsed++;	//number of cpdef used
 			
 			//calculate cn , cp of the cpdef
-			Set<Individual> cpdefCp = rs.hasType(cpd, testSetPos);
-			Set<Individual> cpdefCn = rs.hasType(cpd, testSetNeg);
-
+			BitSet cpdefCoverage = matrix.getCoverage(cpd);
 
 			//accumulate cn, cp
-			accumulateFortificationCp.addAll(cpdefCp);	
-			accumulateFortificationCn.addAll(cpdefCn);	
+			accumulateFortificationCp.or(cpdefCoverage);
+			accumulateFortificationCp.and(posBits);
+			accumulateFortificationCn.or(cpdefCoverage);
+			accumulateFortificationCn.and(negBits);
 						
 			//----------------------------------------
-			//calculate the cp and cn
-			Set<Individual> cpTmp = new HashSet<Individual>();
-			Set<Individual> cnTmp = new HashSet<Individual>();
-			cpTmp.addAll(accumulateFortificationCp);
-			cnTmp.addAll(accumulateFortificationCn);
-			
 			//find the common pos/neg covered by the learnt concept and cpdef 
-			cpTmp.removeAll(conceptCp);		//find the common covered pos between concept and cpdef
-			cnTmp.removeAll(conceptCn);		//find the common covered neg between concept and cpdef
+			commonCp.clear();
+			commonCp.or(accumulateFortificationCp);
+			commonCp.and(conceptCp);
+			commonCn.clear();
+			commonCn.or(accumulateFortificationCn);
+			commonCn.and(conceptCn);
 			
-			int updatedCp = conceptCp.size() - (accumulateFortificationCp.size() - cpTmp.size());		//some pos may be removed by cpdef
-			int updatedCn = conceptCn.size() - (accumulateFortificationCn.size() - cnTmp.size());		//some neg may be covered by cpdef
+			int updatedCp = conceptCpSize - commonCp.cardinality();		//some pos may be removed by cpdef
+			int updatedCn = conceptCnSize - commonCn.cardinality();		//some neg may be covered by cpdef
 			
 			//-----------------------------------------------
 			//DISPLAY the cpdefs that change the accuracy
 			//	Debugging purpose
 			//-----------------------------------------------
 			//if (cpTmp.size() < fortificationCp.size() || cnTmp.size() < fortificationCn.size()) {
-			if ((priorNoOfAccumulatedCp != updatedCp) || (priorNoOfAccumulatedCn != updatedCn)) {
+			if (logger.isDebugEnabled() && ((priorNoOfAccumulatedCp != updatedCp) || (priorNoOfAccumulatedCn != updatedCn))) {
 				logger.debug(cpdefUsed + ". " + orgCpd.getId() + ". " 
 						+ FortificationUtils.getCpdefString(orgCpd, null, null)
-						+ ", cp=" + cpdefCp + ", cn=" + cpdefCn
+						+ ", cp=" + matrix.getCoveredIndividuals(cpd, testSetPos) 
+						+ ", cn=" + matrix.getCoveredIndividuals(cpd, testSetNeg)
 						//+ ", removed pos=" + (fortificationCp.size() - cpTmp.size()) 
 						//+ ", removed neg=" + (fortificationCn.size() - cnTmp.size()));
 						+ ", removed pos=" + (priorNoOfAccumulatedCp - updatedCp) 
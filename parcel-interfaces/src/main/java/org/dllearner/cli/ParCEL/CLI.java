@@ -91,6 +91,12 @@ public class CLI {
 	@ConfigOption(name = "reducers", defaultValue="null", description="Use this indicate the reducer (used for ParCEL and ParCELEx only)")
 	private Set<ParCELReducer> reducers = null;
 
+	@ConfigOption(name = "parallelFolds", defaultValue="1", description="Number of folds learnt at the same time, each by its own learner (used for ParCEL and ParCELEx cross validation and CELOE cross validation with fortification, not with multiple reducers)")
+	private int parallelFolds = 1;
+	
+	@ConfigOption(name = "noOfCores", defaultValue="0", description="Number of cores shared by the folds learnt at the same time (0: all available cores)")
+	private int noOfCores = 0;
+
 	
 	public CLI() {
 		
@@ -168,10 +174,11 @@ public class CLI {
 					logger.info("Cross validation with FORTIFICATION");
 					
 					if (la instanceof ParCELExAbstract)
-						new ParCELExFortifiedCrossValidation3Phases(la, lp, rs, nrOfFolds, false, noOfRuns);
+						new ParCELExFortifiedCrossValidation3Phases(la, lp, rs, nrOfFolds, false, noOfRuns, 
+								parallelFolds, noOfCores);
 					else 
 						new ParCELFortifiedCrossValidation3PhasesFair(la, lp, rs, nrOfFolds, 
-								false, noOfRuns, fortificationTimeout, fairComparison);
+								false, noOfRuns, fortificationTimeout, fairComparison, parallelFolds, noOfCores);
 				}
 				
 				//---------------------------
@@ -183,7 +190,7 @@ public class CLI {
 					
 					//check multiple reducers options
 					if (this.reducers == null)
-						new ParCELCrossValidation(la, lp, rs, nrOfFolds, false, noOfRuns); 
+						new ParCELCrossValidation(la, lp, rs, nrOfFolds, false, noOfRuns, parallelFolds, noOfCores); 
 					else {
 						String reducersStr = "";
 						for (ParCELReducer r : reducers)
@@ -226,7 +233,8 @@ public class CLI {
 					if (this.fortification) {
 						logger.info("Cross validation with FORTIFICATION");
 						new CELOEFortifiedCrossValidation3PhasesFair(la, lp, rs, nrOfFolds, false, noOfRuns, 
-								fortificationNoise, fortificationTimeout, fairComparison, stopOnFirstDefinition);
+								fortificationNoise, fortificationTimeout, fairComparison, stopOnFirstDefinition, 
+								parallelFolds, noOfCores);
 					}
 					else {
 						logger.info("Cross validation with NO FORTIFICATION");
@@ -424,6 +432,22 @@ public class CLI {
 		this.stopOnFirstDefinition = stopOnFirstDefinition;
 	}
 
+	public int getParallelFolds() {
+		return parallelFolds;
+	}
+
+	public void setParallelFolds(int parallelFolds) {
+		this.parallelFolds = parallelFolds;
+	}
+
+	public int getNoOfCores() {
+		return noOfCores;
+	}
+
+	public void setNoOfCores(int noOfCores) {
+		this.noOfCores = noOfCores;
+	}
+
 	
 	
 }
@@ -1,6 +1,7 @@
 package org.dllearner.cli.ParCEL;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -70,6 +71,30 @@ public class ParCELCrossValidation extends CrossValidation {
 	 */
 	public ParCELCrossValidation(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs,
 			int folds, boolean leaveOneOut, int noOfRuns) {
+		this(la, lp, rs, folds, leaveOneOut, noOfRuns, 1, 0);
+	}
+
+	/**
+	 * This is for ParCEL cross validation in which several folds can be learnt at the same time.
+	 * Each of these folds is learnt by its own copy of the learner and learning problem (see
+	 * {@link ParCELFoldComponentFactory}), all folds share the reasoner. The results are aggregated
+	 * in the order of the runs and folds, i.e. the statistics do not depend on the order in which
+	 * the folds finish
+	 * 
+	 * @param la
+	 * @param lp
+	 * @param rs
+	 * @param folds
+	 * @param leaveOneOut
+	 * @param kkFold Number of k-fold runs, i.e. the validation will run kk times of k-fold validations
+	 * @param parallelFolds Number of folds learnt at the same time (1: one fold after another,
+	 * 	using the given learner and learning problem)
+	 * @param noOfCores Number of cores shared by the folds learnt at the same time, each of them
+	 * 	uses noOfCores/parallelFolds workers (0: all available cores)
+	 */
+	public ParCELCrossValidation(final AbstractCELA la, final ParCELPosNegLP lp, 
+			final AbstractReasonerComponent rs, int folds, boolean leaveOneOut, int noOfRuns,
+			int parallelFolds, int noOfCores) {
 
 		super(); // do nothing
 
@@ -79,10 +104,10 @@ public class ParCELCrossValidation extends CrossValidation {
 		DecimalFormat df = new DecimalFormat();	
 
 		// the training and test sets used later on
-		List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
-		List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
-		List<Set<Individual>> testSetsPos = new LinkedList<Set<Individual>>();
-		List<Set<Individual>> testSetsNeg = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> testSetsPos = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> testSetsNeg = new LinkedList<Set<Individual>>();
 
 		// get examples and shuffle them too
 		Set<Individual> posExamples = lp.getPositiveExamples();
@@ -152,6 +177,24 @@ public class ParCELCrossValidation extends CrossValidation {
 		// run the algorithm
 		int terminatedBypartialDefinition=0, terminatedByCounterPartialDefinitions=0;
 
+		//---------------------------------
+		//fold-parallel mode: the folds of all runs are submitted at once and learnt by their own
+		//learners, the results are taken below in the order of the runs and folds 
+		//---------------------------------
+		ParCELParallelFolds<ParCELPosNegLP, FoldResult> foldLearning = new ParCELParallelFolds<ParCELPosNegLP, FoldResult>(
+				la, lp, rs, noOfRuns, folds, parallelFolds, noOfCores, 
+				new ParCELParallelFolds.FoldLearner<ParCELPosNegLP, FoldResult>() {
+					@Override
+					public FoldResult learn(AbstractCELA la, ParCELPosNegLP lp, int fold) throws ComponentInitException {
+						return runFold(la, lp, rs, trainingSetsPos.get(fold), trainingSetsNeg.get(fold),
+								testSetsPos.get(fold), testSetsNeg.get(fold), fold);
+					}
+				});
+
+		if (foldLearning.isParallel())
+			outputWriter("Fold-parallel cross validation: " + parallelFolds + " folds at the same time, " 
+					+ foldLearning.getNumberOfWorkersPerFold() + " worker(s) per fold");
+
 		//---------------------------------
 		//k-fold cross validation
 		//---------------------------------
@@ -254,164 +297,55 @@ public class ParCELCrossValidation extends CrossValidation {
 			for(int currFold=0; (currFold<folds); currFold++) {
 
 				if (this.interupted) {
+					foldLearning.shutdown();
 					outputWriter("Cross validation has been interupted");
 					return;
 				}
 
-				//Set<String> pos = Datastructures.individualSetToStringSet(trainingSetsPos.get(currFold));
-				//Set<String> neg = Datastructures.individualSetToStringSet(trainingSetsNeg.get(currFold));
-				lp.setPositiveExamples(trainingSetsPos.get(currFold));
-				lp.setNegativeExamples(trainingSetsNeg.get(currFold));
-
-				try {			
-					lp.init();
-					la.init();
-				} catch (ComponentInitException e) {
-					e.printStackTrace();
-				}
-
-				long algorithmStartTime = System.nanoTime();
+				FoldResult result;
 				try {
-					la.start();
+					result = foldLearning.getResult(kk, currFold);
 				}
-				catch (OutOfMemoryError e) {
-					System.out.println("out of memory at " + (System.currentTimeMillis() - algorithmStartTime)/1000 + "s");
+				catch (Exception e) {
+					//the fold could not be learnt (e.g. the learner cannot be initialised)
+					logger.error("Fold " + currFold + " failed", e);
+					foldLearning.shutdown();
+					outputWriter("Cross validation has been interupted: " + e);
+					return;
 				}
 
-				long algorithmDuration = System.nanoTime() - algorithmStartTime;
-				runtime.addNumber(algorithmDuration/(double)1000000000);
-				
-				//learning time, does not include the reduction time
-				long learningMili = ((ParCELAbstract)la).getLearningTime();
-				learningTime.addNumber(learningMili);
-
-				Description concept = ((ParCELAbstract)la).getUnionCurrenlyBestDescription(); 
-
-				Set<Individual> tmp = rs.hasType(concept, trainingSetsPos.get(currFold));
-				Set<Individual> tmp2 = Helper.difference(trainingSetsPos.get(currFold), tmp);
-				Set<Individual> tmp3 = rs.hasType(concept, trainingSetsNeg.get(currFold));
-
-				outputWriter("training set errors pos (" + tmp2.size() + "): " + tmp2);
-				outputWriter("training set errors neg (" + tmp3.size() + "): " + tmp3);
-
-
-				tmp = rs.hasType(concept, testSetsPos.get(currFold));
-				tmp2 = Helper.difference(testSetsPos.get(currFold), tmp);
-				tmp3 = rs.hasType(concept, testSetsNeg.get(currFold));
-
-				outputWriter("test set errors pos: " + tmp2);
-				outputWriter("test set errors neg: " + tmp3);
-
-				// calculate training accuracies 
-				int trainingCorrectPosClassified = getCorrectPosClassified(rs, concept, trainingSetsPos.get(currFold));
-				int trainingCorrectNegClassified = getCorrectNegClassified(rs, concept, trainingSetsNeg.get(currFold));
-				int trainingCorrectExamples = trainingCorrectPosClassified + trainingCorrectNegClassified;
-				double trainingAccuracy = 100*((double)trainingCorrectExamples/(trainingSetsPos.get(currFold).size()+
-						trainingSetsNeg.get(currFold).size()));			
-
-				double trainingCompleteness = 100*(double)trainingCorrectPosClassified/trainingSetsPos.get(currFold).size();
-				double trainingCorrectness = 100*(double)trainingCorrectNegClassified/trainingSetsNeg.get(currFold).size();
-
-				accuracyTraining.addNumber(trainingAccuracy);
-				trainingCompletenessStat.addNumber(trainingCompleteness);
-				trainingCorrectnessStat.addNumber(trainingCorrectness);
-
-				// calculate test accuracies
-				int correctPosClassified = getCorrectPosClassified(rs, concept, testSetsPos.get(currFold));
-				int correctNegClassified = getCorrectNegClassified(rs, concept, testSetsNeg.get(currFold));
-				int correctExamples = correctPosClassified + correctNegClassified;
-				double currAccuracy = 100*((double)correctExamples/(testSetsPos.get(currFold).size()+
-						testSetsNeg.get(currFold).size()));
-
-				double testingCompleteness = 100*(double)correctPosClassified/testSetsPos.get(currFold).size();
-				double testingCorrectness = 100*(double)correctNegClassified/testSetsNeg.get(currFold).size();
-
-				accuracy.addNumber(currAccuracy);
-				testingCompletenessStat.addNumber(testingCompleteness);
-				testingCorrectnessStat.addNumber(testingCorrectness);
-
-
-				// calculate training F-Score
-				int negAsPosTraining = rs.hasType(concept, trainingSetsNeg.get(currFold)).size();
-				double precisionTraining = trainingCorrectPosClassified + negAsPosTraining == 0 ? 0 : trainingCorrectPosClassified / (double) (trainingCorrectPosClassified + negAsPosTraining);
-				double recallTraining = trainingCorrectPosClassified / (double) trainingSetsPos.get(currFold).size();
-				fMeasureTraining.addNumber(100*Heuristics.getFScore(recallTraining, precisionTraining));
-				// calculate test F-Score
-				int negAsPos = rs.hasType(concept, testSetsNeg.get(currFold)).size();
-				double precision = correctPosClassified + negAsPos == 0 ? 0 : correctPosClassified / (double) (correctPosClassified + negAsPos);
-				double recall = correctPosClassified / (double) testSetsPos.get(currFold).size();
-				//			System.out.println(precision);System.out.println(recall);
-				fMeasure.addNumber(100*Heuristics.getFScore(recall, precision));			
-
-				length.addNumber(concept.getLength());
-				totalNumberOfDescriptions.addNumber(la.getTotalNumberOfDescriptionsGenerated());
-
-				outputWriter("Fold " + currFold + ":");
-				outputWriter("  training: " + trainingCorrectPosClassified + "/" + trainingSetsPos.get(currFold).size() + 
-						" positive and " + trainingCorrectNegClassified + "/" + trainingSetsNeg.get(currFold).size() + " negative examples");
-				outputWriter("  testing: " + correctPosClassified + "/" + testSetsPos.get(currFold).size() + " correct positives, " 
-						+ correctNegClassified + "/" + testSetsNeg.get(currFold).size() + " correct negatives");
-				//outputWriter("  concept: " + concept);
-				outputWriter("  accuracy: " + df.format(currAccuracy) +  
-						"% (corr:"+ df.format(testingCorrectness) + 
-						"%, comp:" + testingCompleteness + "%) --- " + 
-						df.format(trainingAccuracy) + "% (corr:"+ trainingCorrectness + 
-						", comp:" + trainingCompleteness + "%) on training set)");
-				outputWriter("  definition length: " + df.format(concept.getLength()));
-				outputWriter("  runtime: " + df.format(algorithmDuration/(double)1000000000) + "s");
-				outputWriter("  learning time: " + df.format(learningMili/(double)1000) + "s");				
-				outputWriter("  total number of descriptions: " + la.getTotalNumberOfDescriptionsGenerated());
-				
-				
-				double minDescriptions = 0;
-				double minLearningTime = 0;
-				for (ParCELExtraNode pdef : ((ParCELAbstract)la).getReducedPartialDefinition()) {
-					if (pdef.getExtraInfo() > minDescriptions) {
-						minDescriptions = pdef.getExtraInfo();
-						minLearningTime = pdef.getGenerationTime();
-					}
-					
-				}
-				
-				//outputWriter("  minimal number of descriptions needed: " + minDescriptions);
-				minimalDescriptionNeeded.addNumber(minDescriptions);
-				learningTimeForBestDescription.addNumber(minLearningTime);
-									
-				
-				if (la instanceof ParCELAbstract) {
-					int pn = ((ParCELAbstract)la).getNoOfReducedPartialDefinition();
-					this.noOfPartialDef.addNumber(pn);
-					outputWriter("  number of partial definitions: " + pn + "/" + ((ParCELAbstract)la).getNumberOfPartialDefinitions());
-
-					double pl = concept.getLength()/(double)pn;
-					this.partialDefinitionLength.addNumber(pl);
-					outputWriter("  avarage partial definition length: " + pl);		
-
-					//show more information on counter partial definitions
-					
-					if (la instanceof ParCELExAbstract) {
-						ParCELExAbstract pdllexla = (ParCELExAbstract)la;
-						/*
-						outputWriter("  number of partial definitions for each type: 1:" + pdllexla.getNumberOfPartialDefinitions(1) + 
-								"; 2:" + pdllexla.getNumberOfPartialDefinitions(2) + 
-								"; 3:" + pdllexla.getNumberOfPartialDefinitions(3) +
-								"; 4:" + pdllexla.getNumberOfPartialDefinitions(4));
-						*/
-						outputWriter("  number of counter partial definition used: " + pdllexla.getNumberOfCounterPartialDefinitionUsed() + "/" + pdllexla.getNumberOfCounterPartialDefinitions());
-						
-						//check how did the learner terminate: by partial definition or counter partial definition
-						if (pdllexla.terminatedByCounterDefinitions()) {
-							outputWriter("  terminated by counter partial definitions");
-							terminatedByCounterPartialDefinitions++;
-						}
-						else if (pdllexla.terminatedByPartialDefinitions()) {
-							outputWriter("  terminated by partial definitions");
-							terminatedBypartialDefinition++;
-						}
-						else
-							outputWriter("  neither terminated by partial definition nor counter partial definition");
-					}
+				for (String line : result.output)
+					outputWriter(line);
+
+				runtime.addNumber(result.runtime);
+				learningTime.addNumber(result.learningTime);
+
+				accuracyTraining.addNumber(result.trainingAccuracy);
+				trainingCompletenessStat.addNumber(result.trainingCompleteness);
+				trainingCorrectnessStat.addNumber(result.trainingCorrectness);
+
+				accuracy.addNumber(result.testingAccuracy);
+				testingCompletenessStat.addNumber(result.testingCompleteness);
+				testingCorrectnessStat.addNumber(result.testingCorrectness);
+
+				fMeasureTraining.addNumber(result.trainingFMeasure);
+				fMeasure.addNumber(result.testingFMeasure);
+
+				length.addNumber(result.length);
+				totalNumberOfDescriptions.addNumber(result.noOfDescriptions);
+
+				minimalDescriptionNeeded.addNumber(result.minDescriptions);
+				learningTimeForBestDescription.addNumber(result.minLearningTime);
+
+				if (result.parcel) {
+					this.noOfPartialDef.addNumber(result.noOfPartialDef);
+					this.partialDefinitionLength.addNumber(result.partialDefinitionLength);
 				}
+
+				if (result.terminatedByCounterPartialDefinitions)
+					terminatedByCounterPartialDefinitions++;
+				else if (result.terminatedByPartialDefinitions)
+					terminatedBypartialDefinition++;
 				
 				outputWriter("----------");
 				outputWriter("Aggregate data from fold 0 to fold " + currFold);
@@ -432,11 +366,13 @@ public class ParCELCrossValidation extends CrossValidation {
 				
 				
 				//sleep after each run (fer MBean collecting information purpose)
-				try {
-					Thread.sleep(5000);
-				}
-				catch (InterruptedException e) {
-					e.printStackTrace();
+				if (!foldLearning.isParallel()) {
+					try {
+						Thread.sleep(5000);
+					}
+					catch (InterruptedException e) {
+						e.printStackTrace();
+					}
 				}
 
 			}	//for k folds
@@ -642,6 +578,222 @@ public class ParCELCrossValidation extends CrossValidation {
 	}
 
 
+	/**
+	 * Values of a fold which are added into the statistics and the output of the fold. The output
+	 * is written when the result is aggregated so that the output of the folds learnt at the same
+	 * time is not interleaved
+	 */
+	protected static class FoldResult {
+		double runtime;
+		long learningTime;
+
+		double trainingAccuracy;
+		double trainingCompleteness;
+		double trainingCorrectness;
+
+		double testingAccuracy;
+		double testingCompleteness;
+		double testingCorrectness;
+
+		double trainingFMeasure;
+		double testingFMeasure;
+
+		int length;
+		long noOfDescriptions;
+
+		double minDescriptions;
+		double minLearningTime;
+
+		//ParCEL only
+		boolean parcel = false;
+		int noOfPartialDef;
+		double partialDefinitionLength;
+
+		//ParCELEx only
+		boolean terminatedByPartialDefinitions = false;
+		boolean terminatedByCounterPartialDefinitions = false;
+
+		List<String> output = new LinkedList<String>();
+	}
+
+
+	/**
+	 * Learn a fold and evaluate the learnt definition on the training and testing sets of the fold
+	 * 
+	 * @param la Learner of the fold
+	 * @param lp Learning problem of the fold, its examples will be set to the training sets
+	 * @param rs Reasoner
+	 * @param trainingPos Positive training examples
+	 * @param trainingNeg Negative training examples
+	 * @param testPos Positive testing examples
+	 * @param testNeg Negative testing examples
+	 * @param currFold Fold number
+	 * 
+	 * @return Result of the fold
+	 * 
+	 * @throws ComponentInitException If the learning problem or the learner cannot be initialised
+	 */
+	protected FoldResult runFold(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs,
+			Set<Individual> trainingPos, Set<Individual> trainingNeg, 
+			Set<Individual> testPos, Set<Individual> testNeg, int currFold) throws ComponentInitException {
+
+		DecimalFormat df = new DecimalFormat();
+		FoldResult result = new FoldResult();
+
+		lp.setPositiveExamples(trainingPos);
+		lp.setNegativeExamples(trainingNeg);
+
+		lp.init();
+		la.init();
+
+		long algorithmStartTime = System.nanoTime();
+		try {
+			la.start();
+		}
+		catch (OutOfMemoryError e) {
+			System.out.println("out of memory at " + (System.currentTimeMillis() - algorithmStartTime)/1000 + "s");
+		}
+
+		long algorithmDuration = System.nanoTime() - algorithmStartTime;
+		result.runtime = algorithmDuration/(double)1000000000;
+
+		//learning time, does not include the reduction time
+		long learningMili = ((ParCELAbstract)la).getLearningTime();
+		result.learningTime = learningMili;
+
+		Description concept = ((ParCELAbstract)la).getUnionCurrenlyBestDescription(); 
+
+		Set<Individual> tmp = rs.hasType(concept, trainingPos);
+		Set<Individual> tmp2 = Helper.difference(trainingPos, tmp);
+		Set<Individual> tmp3 = rs.hasType(concept, trainingNeg);
+
+		result.output.add("training set errors pos (" + tmp2.size() + "): " + tmp2);
+		result.output.add("training set errors neg (" + tmp3.size() + "): " + tmp3);
+
+
+		tmp = rs.hasType(concept, testPos);
+		tmp2 = Helper.difference(testPos, tmp);
+		tmp3 = rs.hasType(concept, testNeg);
+
+		result.output.add("test set errors pos: " + tmp2);
+		result.output.add("test set errors neg: " + tmp3);
+
+		// calculate training accuracies 
+		int trainingCorrectPosClassified = getCorrectPosClassified(rs, concept, trainingPos);
+		int trainingCorrectNegClassified = getCorrectNegClassified(rs, concept, trainingNeg);
+		int trainingCorrectExamples = trainingCorrectPosClassified + trainingCorrectNegClassified;
+		double trainingAccuracy = 100*((double)trainingCorrectExamples/(trainingPos.size()+
+				trainingNeg.size()));			
+
+		double trainingCompleteness = 100*(double)trainingCorrectPosClassified/trainingPos.size();
+		double trainingCorrectness = 100*(double)trainingCorrectNegClassified/trainingNeg.size();
+
+		result.trainingAccuracy = trainingAccuracy;
+		result.trainingCompleteness = trainingCompleteness;
+		result.trainingCorrectness = trainingCorrectness;
+
+		// calculate test accuracies
+		int correctPosClassified = getCorrectPosClassified(rs, concept, testPos);
+		int correctNegClassified = getCorrectNegClassified(rs, concept, testNeg);
+		int correctExamples = correctPosClassified + correctNegClassified;
+		double currAccuracy = 100*((double)correctExamples/(testPos.size()+
+				testNeg.size()));
+
+		double testingCompleteness = 100*(double)correctPosClassified/testPos.size();
+		double testingCorrectness = 100*(double)correctNegClassified/testNeg.size();
+
+		result.testingAccuracy = currAccuracy;
+		result.testingCompleteness = testingCompleteness;
+		result.testingCorrectness = testingCorrectness;
+
+
+		// calculate training F-Score
+		int negAsPosTraining = rs.hasType(concept, trainingNeg).size();
+		double precisionTraining = trainingCorrectPosClassified + negAsPosTraining == 0 ? 0 : trainingCorrectPosClassified / (double) (trainingCorrectPosClassified + negAsPosTraining);
+		double recallTraining = trainingCorrectPosClassified / (double) trainingPos.size();
+		result.trainingFMeasure = 100*Heuristics.getFScore(recallTraining, precisionTraining);
+		// calculate test F-Score
+		int negAsPos = rs.hasType(concept, testNeg).size();
+		double precision = correctPosClassified + negAsPos == 0 ? 0 : correctPosClassified / (double) (correctPosClassified + negAsPos);
+		double recall = correctPosClassified / (double) testPos.size();
+		//			System.out.println(precision);System.out.println(recall);
+		result.testingFMeasure = 100*Heuristics.getFScore(recall, precision);			
+
+		result.length = concept.getLength();
+		result.noOfDescriptions = la.getTotalNumberOfDescriptionsGenerated();
+
+		result.output.add("Fold " + currFold + ":");
+		result.output.add("  training: " + trainingCorrectPosClassified + "/" + trainingPos.size() + 
+				" positive and " + trainingCorrectNegClassified + "/" + trainingNeg.size() + " negative examples");
+		result.output.add("  testing: " + correctPosClassified + "/" + testPos.size() + " correct positives, " 
+				+ correctNegClassified + "/" + testNeg.size() + " correct negatives");
+		//result.output.add("  concept: " + concept);
+		result.output.add("  accuracy: " + df.format(currAccuracy) +  
+				"% (corr:"+ df.format(testingCorrectness) + 
+				"%, comp:" + testingCompleteness + "%) --- " + 
+				df.format(trainingAccuracy) + "% (corr:"+ trainingCorrectness + 
+				", comp:" + trainingCompleteness + "%) on training set)");
+		result.output.add("  definition length: " + df.format(concept.getLength()));
+		result.output.add("  runtime: " + df.format(algorithmDuration/(double)1000000000) + "s");
+		result.output.add("  learning time: " + df.format(learningMili/(double)1000) + "s");				
+		result.output.add("  total number of descriptions: " + la.getTotalNumberOfDescriptionsGenerated());
+
+
+		double minDescriptions = 0;
+		double minLearningTime = 0;
+		for (ParCELExtraNode pdef : ((ParCELAbstract)la).getReducedPartialDefinition()) {
+			if (pdef.getExtraInfo() > minDescriptions) {
+				minDescriptions = pdef.getExtraInfo();
+				minLearningTime = pdef.getGenerationTime();
+			}
+
+		}
+
+		//result.output.add("  minimal number of descriptions needed: " + minDescriptions);
+		result.minDescriptions = minDescriptions;
+		result.minLearningTime = minLearningTime;
+
+
+		if (la instanceof ParCELAbstract) {
+			int pn = ((ParCELAbstract)la).getNoOfReducedPartialDefinition();
+			result.parcel = true;
+			result.noOfPartialDef = pn;
+			result.output.add("  number of partial definitions: " + pn + "/" + ((ParCELAbstract)la).getNumberOfPartialDefinitions());
+
+			double pl = concept.getLength()/(double)pn;
+			result.partialDefinitionLength = pl;
+			result.output.add("  avarage partial definition length: " + pl);		
+
+			//show more information on counter partial definitions
+
+			if (la instanceof ParCELExAbstract) {
+				ParCELExAbstract pdllexla = (ParCELExAbstract)la;
+				/*
+				outputWriter("  number of partial definitions for each type: 1:" + pdllexla.getNumberOfPartialDefinitions(1) + 
+						"; 2:" + pdllexla.getNumberOfPartialDefinitions(2) + 
+						"; 3:" + pdllexla.getNumberOfPartialDefinitions(3) +
+						"; 4:" + pdllexla.getNumberOfPartialDefinitions(4));
+				*/
+				result.output.add("  number of counter partial definition used: " + pdllexla.getNumberOfCounterPartialDefinitionUsed() + "/" + pdllexla.getNumberOfCounterPartialDefinitions());
+
+				//check how did the learner terminate: by partial definition or counter partial definition
+				if (pdllexla.terminatedByCounterDefinitions()) {
+					result.output.add("  terminated by counter partial definitions");
+					result.terminatedByCounterPartialDefinitions = true;
+				}
+				else if (pdllexla.terminatedByPartialDefinitions()) {
+					result.output.add("  terminated by partial definitions");
+					result.terminatedByPartialDefinitions = true;
+				}
+				else
+					result.output.add("  neither terminated by partial definition nor counter partial definition");
+			}
+		}
+
+		return result;
+	}
+
+
 	/*
 	private String getOrderUnit(int order) {
 		switch (order) {
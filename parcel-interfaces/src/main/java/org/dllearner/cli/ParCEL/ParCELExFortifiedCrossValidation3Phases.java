@@ -11,6 +11,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
+import org.dllearner.algorithms.Fortification.FortificationEvaluationMatrix;
 import org.dllearner.algorithms.Fortification.FortificationUtils;
 import org.dllearner.algorithms.Fortification.JaccardSimilarity;
 import org.dllearner.algorithms.ParCEL.ParCELAbstract;
@@ -140,6 +141,18 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 	public ParCELExFortifiedCrossValidation3Phases(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs,
 			int folds, boolean leaveOneOut, int noOfRuns) {
 
+		this(la, lp, rs, folds, leaveOneOut, noOfRuns, 1, 0);
+	}
+	
+	/**
+	 * Cross validation which can learn several folds at the same time (see {@link ParCELParallelFolds})
+	 * 
+	 * @param parallelFolds Number of folds learnt at the same time (1: one fold after another)
+	 * @param noOfCores Number of cores shared by the folds learnt at the same time (0: all available cores)
+	 */
+	public ParCELExFortifiedCrossValidation3Phases(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs,
+			int folds, boolean leaveOneOut, int noOfRuns, int parallelFolds, int noOfCores) {
+
 		super(); // do nothing
 
 		//--------------------------
@@ -148,8 +161,8 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 		DecimalFormat df = new DecimalFormat();	
 
 		// the training and test sets used later on
-		List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
-		List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> testSetsPos = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> testSetsNeg = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> fortificationSetsPos = new LinkedList<Set<Individual>>();
@@ -367,6 +380,25 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 		outputWriter("Total time for creating and binding ontology: " + ontologyLoadDuration/1000000000d + "ms");
 
 		
+		//---------------------------------
+		//fold-parallel mode: the folds of all runs are submitted at once and learnt by their own
+		//learners, the results are taken below in the order of the runs and folds. The evaluation
+		//and fortification of the folds is done one after another (the Pellet reasoner is shared)
+		//---------------------------------
+		ParCELParallelFolds<ParCELPosNegLP, FoldResult> foldLearning = new ParCELParallelFolds<ParCELPosNegLP, FoldResult>(
+				la, lp, rs, noOfRuns, folds, parallelFolds, noOfCores, 
+				new ParCELParallelFolds.FoldLearner<ParCELPosNegLP, FoldResult>() {
+					@Override
+					public FoldResult learn(AbstractCELA la, ParCELPosNegLP lp, int fold) {
+						return learnFold(la, lp, trainingSetsPos.get(fold), trainingSetsNeg.get(fold));
+					}
+				});
+		
+		if (foldLearning.isParallel())
+			outputWriter("Fold-parallel cross validation: " + parallelFolds + " folds at the same time, " 
+					+ foldLearning.getNumberOfWorkersPerFold() + " worker(s) per fold");
+		
+		
 		for (int kk=0; kk < noOfRuns; kk++) {
 
 			//general statistics
@@ -460,88 +492,61 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 
 				if (this.interupted) {
+					foldLearning.shutdown();
 					outputWriter("Cross validation has been interupted");
 					return;
 				}
 				
-				//-----------------------------------------------------
-				//	1. Learn the DEFINITIONS
-				//		Both pdef and cpdef may be generated
-				//-----------------------------------------------------				
-				outputWriter("** Phase 1 - Learning definition");				
-				outputWriter("Timeout="	+ ((ParCELExAbstract)la).getMaxExecutionTimeInSeconds() + "s");
-				
-				//set training example sets
-				lp.setPositiveExamples(trainingSetsPos.get(currFold));
-				lp.setNegativeExamples(trainingSetsNeg.get(currFold));
-
-				try {			
-					lp.init();
-					la.init();
-				} catch (ComponentInitException e) {
-					e.printStackTrace();
-				}
-
-				long algorithmStartTime = System.nanoTime();
+				//1. learn the definitions (both pdef and cpdef may be generated)
+				//2. reverse the pos/neg and learn again if the number of cpdefs is too small, see learnFold()
+				FoldResult foldResult;
 				try {
-					la.start();
+					foldResult = foldLearning.getResult(kk, currFold);
 				}
-				catch (OutOfMemoryError e) {
-					System.out.println("Out of memory at " + (System.currentTimeMillis() - algorithmStartTime)/1000 + "s");
+				catch (Exception e) {
+					logger.error("Fold " + currFold + " failed", e);
+					foldLearning.shutdown();
+					outputWriter("Cross validation has been interupted: " + e);
+					return;
 				}
-
-				long algorithmDuration = System.nanoTime() - algorithmStartTime;
+				
+				for (String line : foldResult.output)
+					outputWriter(line);
+				
+				long algorithmDuration = foldResult.algorithmDuration;
 				runtime.addNumber(algorithmDuration/(double)1000000000);
 				
 				//learning time, does not include the reduction time
-				long learningMili = ((ParCELAbstract)la).getLearningTime();
+				long learningMili = foldResult.learningMili;
 				learningTime.addNumber(learningMili/(double)1000);
-
-				
-				//--------------------------------
-				//	FINISH learning
-				//--------------------------------
-				
-
-				//cast the la into ParCELExAbstract for easier accessing
-				ParCELExAbstract parcelEx = (ParCELExAbstract)la;
-
 				
 				//get the learned DEFINITION (union)
-				Description concept = parcelEx.getUnionCurrenlyBestDescription(); 
+				Description concept = foldResult.concept; 
 				
 				length.addNumber(concept.getLength());
 				
-				outputWriter("Learning finished.  Total number of pdefs: " + parcelEx.getPartialDefinitions().size() + ". Number of pdef used: " + parcelEx.getNoOfReducedPartialDefinition());
-				
 				//cpdef: some stat information
-				int noOfUsedCpdef = parcelEx.getNumberOfCounterPartialDefinitionUsed();
-				int noOfCpdef = parcelEx.getCounterPartialDefinitions().size();
+				int noOfUsedCpdef = foldResult.noOfUsedCpdef;
+				int noOfCpdef = foldResult.noOfCpdef;
 				noOfCpdefStat.addNumber(noOfCpdef);				
 				noOfCpdefUsedStat.addNumber(noOfUsedCpdef);
 				
 				//pdef: some stat information
-				//Set<ParCELExtraNode> partialDefinitions = parcelEx.getReducedPartialDefinition();
-				long noOfPdef = parcelEx.getNumberOfPartialDefinitions();
-				long noOfUsedPdef = parcelEx.getNoOfReducedPartialDefinition();
+				long noOfPdef = foldResult.noOfPdef;
+				long noOfUsedPdef = foldResult.noOfUsedPdef;
 				double avgPdefLength = concept.getLength() / (double)noOfUsedPdef;
 				noOfPdefStat.addNumber(noOfPdef);
 				noOfUsedPdefStat.addNumber(noOfUsedPdef);
 				avgUsedPartialDefinitionLengthStat.addNumber(avgPdefLength);
 				
 				//descriptions
-				totalNumberOfDescriptions.addNumber(parcelEx.getTotalNumberOfDescriptionsGenerated());
-				
-				
-				//print the coverage of the counter partial definitions
-				outputWriter("Number of counter partial definitions: " + noOfCpdef);
-				
+				totalNumberOfDescriptions.addNumber(foldResult.noOfDescriptionGenerated);
 				
-				//--------------------------------------
-				//get the COUNTER PARTIAL DEFINITIONs
-				//--------------------------------------
 				//sorted by training coverage by default
-				TreeSet<CELOE.PartialDefinition> counterPartialDefinitions = new TreeSet<CELOE.PartialDefinition>(new FortificationUtils.CoverageComparator());
+				TreeSet<CELOE.PartialDefinition> counterPartialDefinitions = foldResult.counterPartialDefinitions;
+				
+				for (Double cpdefCoverage : foldResult.cpdefTrainingCoverages)
+					avgCpdefCoverageTrainingStat.addNumber(cpdefCoverage);
 
 				//-------------------------------
 				//training sets
@@ -551,74 +556,6 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 				
 				int trainingPosSize = curFoldPosTrainingSet.size() ;
 				int trainingNegSize = curFoldNegTrainingSet.size();
-				
-				
-				//-----------------------
-				// 2. Check if any CPDEFs generated
-				// 	Note that this algorithm generate both pdefs and cpdef 
-				//	However, sometime there is no cpdef as the definition had been found "too" fast
-				//	Therefore, we will reverse training set to produce some cpdef if necessary
-				//-----------------------
-
-				if (noOfCpdef < 5) {
-					//================================================================
-					//2. Phase 2: Learn Counter Partial Definitions
-					// 		Reverse the pos/neg and let the learner start
-					//================================================================
-					
-					outputWriter("* Number of counter partial definitions is too small, reverse the examples and learn again!!!");
-					
-					//reverse the pos/neg examples
-					lp.setPositiveExamples(trainingSetsNeg.get(currFold));
-					lp.setNegativeExamples(trainingSetsPos.get(currFold));
-
-					//re-initialize the learner
-					try {			
-						lp.init();
-						la.init();
-					} catch (ComponentInitException e) {
-						e.printStackTrace();
-					}
-					
-					outputWriter("\n** Phase 2 - Learning COUNTER PARTIAL DEFINITIONS");				
-					outputWriter("Timeout="	+ ((ParCELExAbstract)la).getMaxExecutionTimeInSeconds() + "s");
-
-					//start the learner
-					long algorithmStartTime1 = System.nanoTime();
-					try {
-						la.start();
-					}
-					catch (OutOfMemoryError e) {
-						System.out.println("out of memory at " + (System.currentTimeMillis() - algorithmStartTime1)/1000 + "s");
-					}
-										
-					
-					
-					//calculate the counter partial definitions' avg. coverage 
-					//(note that the positive and negative examples are swapped)
-					for (ParCELExtraNode cpdef : ((ParCELExAbstract)la).getPartialDefinitions()) {
-						
-						int trainingCp = cpdef.getCoveredPositiveExamples().size();	//positive examples of cpdef is the 
-								
-						counterPartialDefinitions.add(new CELOE.PartialDefinition(new Negation(cpdef.getDescription()), trainingCp));		
-						
-						avgCpdefCoverageTrainingStat.addNumber(trainingCp/(double)trainingSetsNeg.get(currFold).size());						
-					}
-					
-					outputWriter("Finish learning, number of counter partial definitions: " + counterPartialDefinitions.size());
-				}				
-				else {				
-					//calculate the counter partial definitions' avg coverage
-					for (ParCELExtraNode cpdef : parcelEx.getCounterPartialDefinitions()) {
-						
-						int trainingCn = cpdef.getCoveredNegativeExamples().size();
-								
-						counterPartialDefinitions.add(new CELOE.PartialDefinition(cpdef.getDescription(), trainingCn));		
-						
-						avgCpdefCoverageTrainingStat.addNumber(trainingCn/(double)trainingPosSize);						
-					}
-
-				}				
 
 				
 				outputWriter("------------------------------");
@@ -664,13 +601,26 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 				//calculate the coverage
 				Set<Individual> curFoldPosTestSet = testSetsPos.get(currFold);
 				Set<Individual> curFoldNegTestSet = testSetsNeg.get(currFold);
+
+				//coverage of the learnt concept and the counter partial definitions over the test and 
+				//fortification training examples: computed once (in parallel) and used by all the
+				//fortification strategies and the output below
+				FortificationEvaluationMatrix evaluationMatrix = new FortificationEvaluationMatrix(rs, 
+						curFoldPosTestSet, curFoldNegTestSet, 
+						fortificationSetsPos.get(currFold), fortificationSetsNeg.get(currFold));
+				
+				List<Description> evaluatedDescriptions = new LinkedList<Description>();
+				evaluatedDescriptions.add(concept);
+				for (CELOE.PartialDefinition cpdef : counterPartialDefinitions)
+					evaluatedDescriptions.add(cpdef.getDescription().getChild(0));
+				evaluationMatrix.evaluate(evaluatedDescriptions);
 				
 				int testingPosSize = curFoldPosTestSet.size();
 				int testingNegSize = curFoldNegTestSet.size();
 				
-				Set<Individual> cpTest = rs.hasType(concept, curFoldPosTestSet);		//positive examples covered by the learned concept
+				Set<Individual> cpTest = evaluationMatrix.getCoveredIndividuals(concept, curFoldPosTestSet);		//positive examples covered by the learned concept
 				Set<Individual> upTest = Helper.difference(curFoldPosTestSet, cpTest);	//false negative (pos as neg)
-				Set<Individual> cnTest = rs.hasType(concept, curFoldNegTestSet);		//false positive (neg as pos)
+				Set<Individual> cnTest = evaluationMatrix.getCoveredIndividuals(concept, curFoldNegTestSet);		//false positive (neg as pos)
 
 			
 				//calculate test accuracies
@@ -763,19 +713,19 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 					//--------------------
 					
 					//cp and cn of the current cpdef
-					Set<Individual> cpdefCp = rs.hasType(cpdef, curFoldPosTestSet);
-					Set<Individual> cpdefCn = rs.hasType(cpdef, curFoldNegTestSet);
+					Set<Individual> cpdefCp = evaluationMatrix.getCoveredIndividuals(cpdef, curFoldPosTestSet);
+					Set<Individual> cpdefCn = evaluationMatrix.getCoveredIndividuals(cpdef, curFoldNegTestSet);
 					
 					
 					//--------------------------------
 					//Fortification Validation (FV)
 					//--------------------------------
-					Set<Individual> fortCp = rs.hasType(cpdef, fortificationTrainingPos);
-					Set<Individual> fortCn = rs.hasType(cpdef, fortificationTrainingNeg);
+					Set<Individual> fortCp = evaluationMatrix.getCoveredIndividuals(cpdef, fortificationTrainingPos);
+					Set<Individual> fortCn = evaluationMatrix.getCoveredIndividuals(cpdef, fortificationTrainingNeg);
 
 
-					Set<Individual> conceptCp = rs.hasType(concept, fortificationTrainingPos);
-					Set<Individual> conceptCn = rs.hasType(concept, fortificationTrainingNeg);					
+					Set<Individual> conceptCp = evaluationMatrix.getCoveredIndividuals(concept, fortificationTrainingPos);
+					Set<Individual> conceptCn = evaluationMatrix.getCoveredIndividuals(concept, fortificationTrainingNeg);					
 
 					int cp = fortCp.size();
 					int cn = fortCn.size();
@@ -790,7 +740,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 					double fortificationValidationScore = FortificationUtils.fortificationScore(pelletReasoner, cpdef, concept, 
 							cp, cn, fortificationTrainingPos.size(), fortificationTrainingNeg.size(), 
-							cp-commonCp.size(), cn-commonCn.size(), ((ParCELExAbstract)la).getMaximumHorizontalExpansion());
+							cp-commonCp.size(), cn-commonCn.size(), foldResult.maxHorizontalExpansion);
 
 					
 					//----------------------------
@@ -857,13 +807,13 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 						changed = "(" + (cpChanged?"-":"") + (cnChanged?"+":"") + ")";
 
 						outputWriter(count++ + changed + ". " + FortificationUtils.getCpdefString(negCpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef, curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef, curFoldNegTestSet));
+								+ ", cp=" + cpdefCp
+								+ ", cn=" + cpdefCn);
 					}
 					else if (logger.isDebugEnabled()) {
 						logger.debug(count++ + changed + ". " + FortificationUtils.getCpdefString(negCpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef, curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef, curFoldNegTestSet));
+								+ ", cp=" + cpdefCp
+								+ ", cn=" + cpdefCn);
 					}
 					/*
 					if (cpChanged || cnChanged)
@@ -953,7 +903,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, counterPartialDefinitions, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, counterPartialDefinitions, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -992,7 +942,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, similarityAndOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, similarityAndOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1030,7 +980,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, fortificationValidationCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, fortificationValidationCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1060,7 +1010,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, similarityNegPosCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, similarityNegPosCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1090,7 +1040,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, jaccardOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, jaccardOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1120,7 +1070,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, jaccardDistanceCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, jaccardDistanceCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1151,7 +1101,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, combinationScoreCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, combinationScoreCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1181,7 +1131,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, randomCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
+						evaluationMatrix, concept, randomCpdef, curFoldPosTestSet, curFoldNegTestSet, true);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1230,7 +1180,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 						Description cpdef = negCpdef.getDescription().getChild(0);
 						
 						//set of neg examples covered by the counter partial definition
-						Set<Individual> desCoveredNeg = new HashSet<Individual>(rs.hasType(cpdef, curFoldNegTestSet));
+						Set<Individual> desCoveredNeg = new HashSet<Individual>(evaluationMatrix.getCoveredIndividuals(cpdef, curFoldNegTestSet));
 						
 						//if the current counter partial definition can help to remove some neg examples
 						//int oldNoOfCoveredNeg=tempCoveredNeg.size();
@@ -1240,7 +1190,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 							selectedCounterPartialDefinitions.add(negCpdef);
 							
 							//check if it may remove some positive examples or not
-							Set<Individual> desCoveredPos = new HashSet<Individual>(rs.hasType(cpdef, curFoldPosTestSet));
+							Set<Individual> desCoveredPos = new HashSet<Individual>(evaluationMatrix.getCoveredIndividuals(cpdef, curFoldPosTestSet));
 							tempUncoveredPos.addAll(desCoveredPos);
 							
 							//count the total number of counter partial definition selected and their total length
@@ -1315,8 +1265,8 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 					for (CELOE.PartialDefinition cpdef : selectedCounterPartialDefinitions) {
 						
 						outputWriter(count++ + cpdef.getId() + ". " + cpdef.getId() + " " + FortificationUtils.getCpdefString(cpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef.getDescription(), curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef.getDescription(), curFoldNegTestSet));	
+								+ ", cp=" + evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldPosTestSet)
+								+ ", cn=" + evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldNegTestSet));	
 					}	
 					
 				}				
@@ -1408,7 +1358,7 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 				//general learning statistics
 				outputWriter("  runtime: " + df.format(algorithmDuration/(double)1000000000) + "s");
 				outputWriter("  learning time: " + df.format(learningMili/(double)1000) + "s");
-				outputWriter("  total number of descriptions: " + la.getTotalNumberOfDescriptionsGenerated());
+				outputWriter("  total number of descriptions: " + foldResult.noOfDescriptionGenerated);
 				outputWriter("  total number pdef: " + noOfPdef + " (used by parcelex: " + noOfUsedPdef + ")");
 				outputWriter("  total number of cpdef: " + noOfCpdef + " (used by parcelex: " + noOfUsedCpdef + ")");
 				
@@ -2167,6 +2117,188 @@ public class ParCELExFortifiedCrossValidation3Phases extends CrossValidation {
 		
 
 	}	//constructor
+	
+	
+	/**
+	 * Values of a fold which are learnt by the learner of the fold and the output of the learning
+	 * phases. The output is written when the result is aggregated so that the output of the folds
+	 * learnt at the same time is not interleaved
+	 */
+	protected static class FoldResult {
+		long algorithmDuration;
+		long learningMili;
+		
+		Description concept;
+		long noOfDescriptionGenerated;
+		int maxHorizontalExpansion;
+		
+		long noOfPdef;
+		long noOfUsedPdef;
+		int noOfCpdef;
+		int noOfUsedCpdef;
+		
+		TreeSet<CELOE.PartialDefinition> counterPartialDefinitions;
+		List<Double> cpdefTrainingCoverages = new LinkedList<Double>();
+		
+		List<String> output = new LinkedList<String>();
+	}
+	
+	
+	/**
+	 * Learn the definition of a fold (phase 1) and, if the learner generated too few counter
+	 * partial definitions, learn the counter partial definitions with the reversed examples (phase 2)  
+	 * 
+	 * @param la Learner of the fold
+	 * @param lp Learning problem of the fold, its examples will be set to the training sets
+	 * @param trainingPos Positive training examples
+	 * @param trainingNeg Negative training examples
+	 * 
+	 * @return Result of the fold
+	 */
+	protected FoldResult learnFold(AbstractCELA la, ParCELPosNegLP lp, 
+			Set<Individual> trainingPos, Set<Individual> trainingNeg) {
+		
+		FoldResult result = new FoldResult();
+		
+		//-----------------------------------------------------
+		//	1. Learn the DEFINITIONS
+		//		Both pdef and cpdef may be generated
+		//-----------------------------------------------------				
+		result.output.add("** Phase 1 - Learning definition");				
+		result.output.add("Timeout="	+ ((ParCELExAbstract)la).getMaxExecutionTimeInSeconds() + "s");
+		
+		//set training example sets
+		lp.setPositiveExamples(trainingPos);
+		lp.setNegativeExamples(trainingNeg);
+
+		try {			
+			lp.init();
+			la.init();
+		} catch (ComponentInitException e) {
+			e.printStackTrace();
+		}
+
+		long algorithmStartTime = System.nanoTime();
+		try {
+			la.start();
+		}
+		catch (OutOfMemoryError e) {
+			System.out.println("Out of memory at " + (System.currentTimeMillis() - algorithmStartTime)/1000 + "s");
+		}
+
+		result.algorithmDuration = System.nanoTime() - algorithmStartTime;
+		
+		//learning time, does not include the reduction time
+		result.learningMili = ((ParCELAbstract)la).getLearningTime();
+
+		
+		//--------------------------------
+		//	FINISH learning
+		//--------------------------------
+		
+
+		//cast the la into ParCELExAbstract for easier accessing
+		ParCELExAbstract parcelEx = (ParCELExAbstract)la;
+
+		
+		//get the learned DEFINITION (union)
+		result.concept = parcelEx.getUnionCurrenlyBestDescription(); 
+		
+		result.output.add("Learning finished.  Total number of pdefs: " + parcelEx.getPartialDefinitions().size() + ". Number of pdef used: " + parcelEx.getNoOfReducedPartialDefinition());
+		
+		//cpdef: some stat information
+		result.noOfUsedCpdef = parcelEx.getNumberOfCounterPartialDefinitionUsed();
+		result.noOfCpdef = parcelEx.getCounterPartialDefinitions().size();
+		
+		//pdef: some stat information
+		result.noOfPdef = parcelEx.getNumberOfPartialDefinitions();
+		result.noOfUsedPdef = parcelEx.getNoOfReducedPartialDefinition();
+		
+		//descriptions
+		result.noOfDescriptionGenerated = parcelEx.getTotalNumberOfDescriptionsGenerated();
+		result.maxHorizontalExpansion = parcelEx.getMaximumHorizontalExpansion();
+		
+		
+		//print the coverage of the counter partial definitions
+		result.output.add("Number of counter partial definitions: " + result.noOfCpdef);
+		
+		
+		//--------------------------------------
+		//get the COUNTER PARTIAL DEFINITIONs
+		//--------------------------------------
+		//sorted by training coverage by default
+		result.counterPartialDefinitions = new TreeSet<CELOE.PartialDefinition>(new FortificationUtils.CoverageComparator());
+		
+		
+		//-----------------------
+		// 2. Check if any CPDEFs generated
+		// 	Note that this algorithm generate both pdefs and cpdef 
+		//	However, sometime there is no cpdef as the definition had been found "too" fast
+		//	Therefore, we will reverse training set to produce some cpdef if necessary
+		//-----------------------
+
+		if (result.noOfCpdef < 5) {
+			//================================================================
+			//2. Phase 2: Learn Counter Partial Definitions
+			// 		Reverse the pos/neg and let the learner start
+			//================================================================
+			
+			result.output.add("* Number of counter partial definitions is too small, reverse the examples and learn again!!!");
+			
+			//reverse the pos/neg examples
+			lp.setPositiveExamples(trainingNeg);
+			lp.setNegativeExamples(trainingPos);
+
+			//re-initialize the learner
+			try {			
+				lp.init();
+				la.init();
+			} catch (ComponentInitException e) {
+				e.printStackTrace();
+			}
+			
+			result.output.add("\n** Phase 2 - Learning COUNTER PARTIAL DEFINITIONS");				
+			result.output.add("Timeout="	+ ((ParCELExAbstract)la).getMaxExecutionTimeInSeconds() + "s");
+
+			//start the learner
+			long algorithmStartTime1 = System.nanoTime();
+			try {
+				la.start();
+			}
+			catch (OutOfMemoryError e) {
+				System.out.println("out of memory at " + (System.currentTimeMillis() - algorithmStartTime1)/1000 + "s");
+			}
+								
+			
+			
+			//calculate the counter partial definitions' avg. coverage 
+			//(note that the positive and negative examples are swapped)
+			for (ParCELExtraNode cpdef : ((ParCELExAbstract)la).getPartialDefinitions()) {
+				
+				int trainingCp = cpdef.getCoveredPositiveExamples().size();	//positive examples of cpdef is the 
+						
+				result.counterPartialDefinitions.add(new CELOE.PartialDefinition(new Negation(cpdef.getDescription()), trainingCp));		
+				
+				result.cpdefTrainingCoverages.add(trainingCp/(double)trainingNeg.size());						
+			}
+			
+			result.output.add("Finish learning, number of counter partial definitions: " + result.counterPartialDefinitions.size());
+		}				
+		else {				
+			//calculate the counter partial definitions' avg coverage
+			for (ParCELExtraNode cpdef : parcelEx.getCounterPartialDefinitions()) {
+				
+				int trainingCn = cpdef.getCoveredNegativeExamples().size();
+						
+				result.counterPartialDefinitions.add(new CELOE.PartialDefinition(cpdef.getDescription(), trainingCn));		
+				
+				result.cpdefTrainingCoverages.add(trainingCn/(double)trainingPos.size());						
+			}
+
+		}
+		
+		return result;
+	}
 
 }
 
@@ -0,0 +1,145 @@
+package org.dllearner.cli.ParCEL;
+
+import org.dllearner.core.AbstractCELA;
+import org.dllearner.core.AbstractLearningProblem;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+/**
+ * Create the learning problem and learning algorithm of a fold in the fold-parallel cross
+ * validation. The components of a fold are copies of the configured components (same classes and
+ * same configuration options) that share the reasoner of the configured components, so that
+ * several folds can be learnt at the same time. The components configured for a learner (heuristic,
+ * reducer, splitter and refinement operator) may keep state, so each fold gets its own copies of
+ * them as well.<br>
+ * The reasoner must not be modified by the learners (it is used read-only by all folds).
+ *
+ */
+public class ParCELFoldComponentFactory {
+
+	// properties which are not copied: the reasoner is shared, the examples are set for each fold
+	private static final String[] LEARNING_PROBLEM_IGNORED_PROPERTIES = { "reasoner",
+			"positiveExamples", "negativeExamples", "uncoveredPositiveExamples" };
+
+	// the refinement operator keeps the state of a learner, the heuristic, the compactor (reducer),
+	// the splitter and the configured operator (CELOE) are copied separately
+	private static final String[] LEARNER_IGNORED_PROPERTIES = { "reasoner", "learningProblem",
+			"refinementOperator", "heuristic", "compactor", "splitter", "operator" };
+
+	// properties of the components of a learner which are not copied
+	private static final String[] COMPONENT_IGNORED_PROPERTIES = { "reasoner", "positiveExamples",
+			"negativeExamples" };
+
+	private final AbstractReasonerComponent reasoner;
+
+	/**
+	 * Create a factory for the components of the folds
+	 *
+	 * @param reasoner
+	 *            Reasoner shared by all folds
+	 */
+	public ParCELFoldComponentFactory(AbstractReasonerComponent reasoner) {
+		this.reasoner = reasoner;
+	}
+
+	/**
+	 * Create a copy of a learning problem. The examples are not copied and the copy must be
+	 * initialised after the examples of the fold are set
+	 *
+	 * @param lp
+	 *            Configured learning problem
+	 *
+	 * @return New learning problem of the same class and configuration
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends AbstractLearningProblem> T createLearningProblem(T lp) {
+		T copy = (T) BeanUtils.instantiateClass(lp.getClass());
+		BeanUtils.copyProperties(lp, copy, LEARNING_PROBLEM_IGNORED_PROPERTIES);
+		copy.setReasoner(reasoner);
+
+		return copy;
+	}
+
+	/**
+	 * Create a copy of a learning algorithm for the given learning problem. The copy must be
+	 * initialised before it is started
+	 *
+	 * @param la
+	 *            Configured learning algorithm
+	 * @param lp
+	 *            Learning problem of the fold (see {@link #createLearningProblem(AbstractLearningProblem)})
+	 *
+	 * @return New learning algorithm of the same class and configuration
+	 */
+	public AbstractCELA createLearner(AbstractCELA la, AbstractLearningProblem lp) {
+		AbstractCELA copy = BeanUtils.instantiateClass(la.getClass());
+		BeanUtils.copyProperties(la, copy, LEARNER_IGNORED_PROPERTIES);
+
+		BeanWrapper source = new BeanWrapperImpl(la);
+		BeanWrapper target = new BeanWrapperImpl(copy);
+
+		// the heuristic caches the scores of the nodes of a learner
+		copyComponent(source, "heuristic", target, "heuristic");
+
+		// ParCEL learners have no setter for the reducer, it is set by the compactor property
+		copyComponent(source, "reducer", target, "compactor");
+
+		// the splitter is initialised with the examples of a learner
+		copyComponent(source, "splitter", target, "splitter");
+
+		// the refinement operator of CELOE caches the refinements of a learner
+		copyComponent(source, "operator", target, "operator");
+
+		copy.setLearningProblem(lp);
+		copy.setReasoner(reasoner);
+
+		return copy;
+	}
+
+	/**
+	 * Set a copy (same class and configuration) of a component of the configured learner to the
+	 * learner of a fold. The copy uses the shared reasoner if the component has a reasoner. Nothing
+	 * is set if the learners do not have the properties or no component has been configured
+	 */
+	private void copyComponent(BeanWrapper source, String sourceProperty,
+			BeanWrapper target, String targetProperty) {
+		if (!source.isReadableProperty(sourceProperty) || !target.isWritableProperty(targetProperty))
+			return;
+
+		Object component = source.getPropertyValue(sourceProperty);
+		if (component == null)
+			return;
+
+		Object componentCopy = BeanUtils.instantiateClass(component.getClass());
+		BeanUtils.copyProperties(component, componentCopy, COMPONENT_IGNORED_PROPERTIES);
+
+		BeanWrapper componentWrapper = new BeanWrapperImpl(componentCopy);
+		if (componentWrapper.isWritableProperty("reasoner"))
+			componentWrapper.setPropertyValue("reasoner", reasoner);
+
+		target.setPropertyValue(targetProperty, componentCopy);
+	}
+
+	/**
+	 * Split the cores between the folds which are learnt at the same time
+	 *
+	 * @param noOfCores
+	 *            Number of cores used by the cross validation (0 means all available cores)
+	 * @param parallelFolds
+	 *            Number of folds learnt at the same time
+	 *
+	 * @return Number of workers of each fold (at least 1)
+	 */
+	public static int getNumberOfWorkersPerFold(int noOfCores, int parallelFolds) {
+		if (noOfCores <= 0)
+			noOfCores = Runtime.getRuntime().availableProcessors();
+
+		return Math.max(1, noOfCores / Math.max(1, parallelFolds));
+	}
+
+	public AbstractReasonerComponent getReasoner() {
+		return reasoner;
+	}
+}
@@ -11,6 +11,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
+import org.dllearner.algorithms.Fortification.FortificationEvaluationMatrix;
 import org.dllearner.algorithms.Fortification.FortificationUtils;
 import org.dllearner.algorithms.Fortification.JaccardSimilarity;
 import org.dllearner.algorithms.ParCEL.ParCELAbstract;
@@ -129,14 +130,28 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 	public ParCELFortifiedCrossValidation3PhasesFair(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs, int folds,
 			boolean leaveOneOut, int noOfRuns, int fortificationTimeout, boolean fairComparison) {
 		
+		this(la, lp, rs, folds, leaveOneOut, noOfRuns, fortificationTimeout, fairComparison, 1, 0);
+	}
+	
+	
+	/**
+	 * Cross validation which can learn several folds at the same time (see {@link ParCELParallelFolds})
+	 * 
+	 * @param parallelFolds Number of folds learnt at the same time (1: one fold after another)
+	 * @param noOfCores Number of cores shared by the folds learnt at the same time (0: all available cores)
+	 */
+	public ParCELFortifiedCrossValidation3PhasesFair(AbstractCELA la, ParCELPosNegLP lp, AbstractReasonerComponent rs, int folds,
+			boolean leaveOneOut, int noOfRuns, final int fortificationTimeout, final boolean fairComparison, 
+			int parallelFolds, int noOfCores) {
+		
 		DecimalFormat df = new DecimalFormat();
 		
 		String baseURI = rs.getBaseURI();
 		Map<String, String> prefixes = rs.getPrefixes();
 
 		// the training and test sets used later on
-		List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
-		List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsPos = new LinkedList<Set<Individual>>();
+		final List<Set<Individual>> trainingSetsNeg = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> testSetsPos = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> testSetsNeg = new LinkedList<Set<Individual>>();
 		List<Set<Individual>> fortificationSetsPos = new LinkedList<Set<Individual>>();
@@ -326,6 +341,26 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 		//----------------------------------------------------------------------
 		
 		
+		//---------------------------------
+		//fold-parallel mode: the folds of all runs are submitted at once and learnt by their own
+		//learners, the results are taken below in the order of the runs and folds. The evaluation
+		//and fortification of the folds is done one after another (the Pellet reasoner is shared)
+		//---------------------------------
+		ParCELParallelFolds<ParCELPosNegLP, FoldResult> foldLearning = new ParCELParallelFolds<ParCELPosNegLP, FoldResult>(
+				la, lp, rs, noOfRuns, folds, parallelFolds, noOfCores, 
+				new ParCELParallelFolds.FoldLearner<ParCELPosNegLP, FoldResult>() {
+					@Override
+					public FoldResult learn(AbstractCELA la, ParCELPosNegLP lp, int fold) {
+						return learnFold(la, lp, trainingSetsPos.get(fold), trainingSetsNeg.get(fold), 
+								fortificationTimeout, fairComparison);
+					}
+				});
+		
+		if (foldLearning.isParallel())
+			outputWriter("Fold-parallel cross validation: " + parallelFolds + " folds at the same time, " 
+					+ foldLearning.getNumberOfWorkersPerFold() + " worker(s) per fold");
+		
+		
 		for (int kk = 0; kk < noOfRuns; kk++) {
 
 			//stat. variables for each fold ==> need to be re-created after each fold
@@ -425,168 +460,53 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 				//1. reserve the pos/neg examples and start the learner to get the counter partial definitions
 				//2. store the counter partial definitions
 				//3. reserve the pos/neg back to the original set and start the learner again to get the definition
+				//	(and again with a longer timeout for the fair comparison if needed), see learnFold()
 				//4. do the test step and apply the fortification if necessary 
 
-				
-				//-----------------------------------------------------
-				//	1. Learn COUNTER PARTIAL DEFINITIONS 
-				//		Reverse the pos/neg and let the learner starts  
-				//-----------------------------------------------------
-				
-				//reverse the pos/neg examples
-				lp.setNegativeExamples(trainingSetsPos.get(currFold));
-				lp.setPositiveExamples(trainingSetsNeg.get(currFold));
-
-				//init the learner
+				FoldResult foldResult;
 				try {
-					lp.init();
-					la.init();
-				} catch (ComponentInitException e) {
-					e.printStackTrace();
+					foldResult = foldLearning.getResult(kk, currFold);
+				}
+				catch (Exception e) {
+					logger.error("Fold " + currFold + " failed", e);
+					foldLearning.shutdown();
+					outputWriter("Cross validation has been interupted: " + e);
+					return;
 				}
 				
-				//Timeout values. There may be 2 timeout values: for cpdef step and pdef step
-				// Note that ParCEL does not need noise for cpdef generation
-				int orgTimeout = ((ParCELAbstract)la).getMaxExecutionTimeInSeconds();
-				
-				outputWriter("** Phase 1 - Learning counter partial definition");				
-				outputWriter("Timeout=" + (fortificationTimeout > 0? fortificationTimeout : orgTimeout));
-				
-				
-				//adjust fortification timeout
-				if (fortificationTimeout > 0)
-					((ParCELAbstract)la).setMaxExecutionTimeInSeconds(fortificationTimeout);
-					
-				
-				//start the learner
-				long algorithmStartTimeCpdef = System.nanoTime();
-				la.start();
-				long algorithmDurationCpdef = System.nanoTime() - algorithmStartTimeCpdef;
-								
-				
-				//get and store the counter partial definitions
+				for (String line : foldResult.output)
+					outputWriter(line);
 				
 				/**
 				 * all counter partial definition sorted by the training neg. coverage (coverage of training neg. example)
 				 */
-				TreeSet<CELOE.PartialDefinition> counterPartialDefinitions = new TreeSet<CELOE.PartialDefinition>(new FortificationUtils.CoverageComparator()); 
-				
-				
-				//counterPartialDefinitions.addAll(((ParCELAbstract)la).getPartialDefinitions());
-				//get the cpdefs, conversion is needed
-				for (ParCELExtraNode cpdef : ((ParCELAbstract)la).getPartialDefinitions()) {
-					int trainingCn = cpdef.getCoveredPositiveExamples().size();	//since pos and neg are reversed, cn = cp'
-					
-					counterPartialDefinitions.add(new CELOE.PartialDefinition(cpdef.getDescription(), trainingCn));
-				}
-							
-				
-				outputWriter("Finish learning, number of partial definitions: " + counterPartialDefinitions.size());
-				
+				TreeSet<CELOE.PartialDefinition> counterPartialDefinitions = foldResult.counterPartialDefinitions;
 				noOfCounterPartialDefinitions.addNumber(counterPartialDefinitions.size());
-					
-				
-				//-----------------------------------------------------
-				//	2. Do the NORMAL learn: learn definition for pos
-				//		Re-assign the pos/neg and restart the learner
-				//-----------------------------------------------------
-	
-				//set the pos/neg examples
-				lp.setPositiveExamples(trainingSetsPos.get(currFold));
-				lp.setNegativeExamples(trainingSetsNeg.get(currFold));
-
-				
-				//init the learner
-				try {
-					lp.init();
-					la.init(); 
-				} catch (ComponentInitException e) {
-					e.printStackTrace();
-				}
-								
-				//set the noise + timeout to the original values
-				((ParCELAbstract)la).setMaxExecutionTimeInSeconds(orgTimeout);
-				
 				
-				outputWriter("** Phase 2 - Learning the main concept");
-				outputWriter("Timeout=" + orgTimeout);
-				
-			
-				//-----------------------------
-				//start learning the 2nd phase
-				//-----------------------------
-				long algorithmStartTimePdef = System.nanoTime();
-				la.start();
-				long algorithmDurationPdef = System.nanoTime() - algorithmStartTimePdef;
+				long algorithmDurationCpdef = foldResult.algorithmDurationCpdef;
+				long algorithmDurationPdef = foldResult.algorithmDurationPdef;
 				runtime.addNumber(algorithmDurationPdef / (double) 1000000000);
 				
 				fortifiedRuntime.addNumber((algorithmDurationCpdef + algorithmDurationPdef)/1000000000d);
-								
-				//----------------------------
-				//FINISHED learning
-				//----------------------------
 				
 				//get the learned concept
-				Description concept = ((ParCELAbstract)la).getUnionCurrenlyBestDescription();
+				Description concept = foldResult.concept;
 				
-				long noOfDescriptionGenerated = la.getTotalNumberOfDescriptionsGenerated();
+				long noOfDescriptionGenerated = foldResult.noOfDescriptionGenerated;
 				
 				totalNumberOfDescriptions.addNumber(noOfDescriptionGenerated);
-				noOfPartialDefinitionStat.addNumber(((ParCELAbstract)la).getNumberOfPartialDefinitions());
-				noOfReducedPartialDefinitionStat.addNumber(((ParCELAbstract)la).getNoOfReducedPartialDefinition());
-				avgPdefLengthStat.addNumber(concept.getLength()/(double)((ParCELAbstract)la).getNoOfReducedPartialDefinition());
+				noOfPartialDefinitionStat.addNumber(foldResult.noOfPartialDefinitions);
+				noOfReducedPartialDefinitionStat.addNumber(foldResult.noOfReducedPartialDefinitions);
+				avgPdefLengthStat.addNumber(concept.getLength()/(double)foldResult.noOfReducedPartialDefinitions);
 				
-				//----------------------------------------------
-				//check if another "FAIR" evaluation is needed
-				//----------------------------------------------
-				boolean fairEvaluationNeeded = false;
-				Description conceptFair = null;
+				//"FAIR" evaluation
+				boolean fairEvaluationNeeded = foldResult.fairEvaluationNeeded;
+				Description conceptFair = foldResult.conceptFair;
 				
-				if (fairComparison && algorithmDurationPdef/(double) 1000000000 >= ((ParCELAbstract)la).getMaxExecutionTimeInSeconds()) {
-					fairEvaluationNeeded = true;
-					
-					
-					int fairLearningTimeout = orgTimeout;
-					if (fortificationTimeout == 0)
-						fairLearningTimeout *= 2;
-					else 
-						fairLearningTimeout += fortificationTimeout;
-					
-					
-					outputWriter("** Phase 3 - Learning the main concept again with double timeout value (for fair comparison): " 
-							+ fairLearningTimeout + "s");
-					
-					//init the learner
-					//set the pos/neg examples
-					lp.setPositiveExamples(trainingSetsPos.get(currFold));
-					lp.setNegativeExamples(trainingSetsNeg.get(currFold));
-					try {
-						lp.init();
-						la.init();
-					} catch (ComponentInitException e) {
-						e.printStackTrace();
-					}
-					
-					//set the fair learning timeout
-					((ParCELAbstract)la).setMaxExecutionTimeInSeconds(fairLearningTimeout);
-					
-					
-					//-----------------------------
-					//start learning the 2nd phase
-					//-----------------------------
-					long algorithmStartTimeFair = System.nanoTime();
-					la.start();
-					long algorithmDurationFair = System.nanoTime() - algorithmStartTimeFair;
-					fairLearningTimeStat.addNumber(algorithmDurationFair / (double) 1000000000);
-					
-					//reset the timeout value
-					((ParCELAbstract)la).setMaxExecutionTimeInSeconds(orgTimeout);
-					
-					conceptFair = ((ParCELAbstract)la).getUnionCurrenlyBestDescription();
-				}
-				else {
+				if (fairEvaluationNeeded)
+					fairLearningTimeStat.addNumber(foldResult.algorithmDurationFair / (double) 1000000000);
+				else
 					fairLearningTimeStat.addNumber(algorithmDurationPdef);
-				}
 				
 				
 				//----------------------------
@@ -623,12 +543,27 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 				//---------------------
 				Set<Individual> curFoldPosTestSet = testSetsPos.get(currFold);
 				Set<Individual> curFoldNegTestSet = testSetsNeg.get(currFold); 
+
+				//coverage of the learnt concept and the counter partial definitions over the test and 
+				//fortification training examples: computed once (in parallel) and used by all the
+				//fortification strategies and the output below
+				FortificationEvaluationMatrix evaluationMatrix = new FortificationEvaluationMatrix(rs, 
+						curFoldPosTestSet, curFoldNegTestSet, 
+						fortificationSetsPos.get(currFold), fortificationSetsNeg.get(currFold));
+				
+				List<Description> evaluatedDescriptions = new LinkedList<Description>();
+				evaluatedDescriptions.add(concept);
+				if (conceptFair != null)
+					evaluatedDescriptions.add(conceptFair);
+				for (CELOE.PartialDefinition cpdef : counterPartialDefinitions)
+					evaluatedDescriptions.add(cpdef.getDescription());
+				evaluationMatrix.evaluate(evaluatedDescriptions);
 				
 
 				//calculate testing coverage
-				Set<Individual> cpTest = rs.hasType(concept, curFoldPosTestSet);			//cp
+				Set<Individual> cpTest = evaluationMatrix.getCoveredIndividuals(concept, curFoldPosTestSet);			//cp
 				Set<Individual> upTest = Helper.difference(curFoldPosTestSet, cpTest);		//up: false negative
-				Set<Individual> cnTest = rs.hasType(concept, curFoldNegTestSet);			//cn
+				Set<Individual> cnTest = evaluationMatrix.getCoveredIndividuals(concept, curFoldNegTestSet);			//cn
 			
 				// calculate test accuracies
 				int correctTestPosClassified = cpTest.size(); 	//covered positive examples		//curFoldPosTestSet.size() - upTest.size();	//getCorrectPosClassified(rs, concept,	curFoldPosTestSet);
@@ -668,9 +603,9 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 				
 				if (fairEvaluationNeeded) {
 					//calculate FAIR coverage
-					Set<Individual> cpFair = rs.hasType(conceptFair, curFoldPosTestSet);			//cp
+					Set<Individual> cpFair = evaluationMatrix.getCoveredIndividuals(conceptFair, curFoldPosTestSet);			//cp
 					//Set<Individual> upFair = Helper.difference(curFoldPosTestSet, cpTest);		//up
-					Set<Individual> cnFair = rs.hasType(conceptFair, curFoldNegTestSet);			//cn
+					Set<Individual> cnFair = evaluationMatrix.getCoveredIndividuals(conceptFair, curFoldNegTestSet);			//cn
 				
 					// calculate FAIR accuracy
 					int correctFairPosClassified = cpFair.size(); 	//covered positive examples		//curFoldPosTestSet.size() - upTest.size();	//getCorrectPosClassified(rs, concept,	curFoldPosTestSet);
@@ -748,19 +683,19 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 					//--------------------
 					//blind fortification
 					//--------------------
-					Set<Individual> cpdefCp = rs.hasType(cpdef.getDescription(), curFoldPosTestSet);
-					Set<Individual> cpdefCn = rs.hasType(cpdef.getDescription(), curFoldNegTestSet);
+					Set<Individual> cpdefCp = evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldPosTestSet);
+					Set<Individual> cpdefCn = evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldNegTestSet);
 					
 
 					//--------------------------------
 					//Fortification Validation (FV)
 					//--------------------------------
-					Set<Individual> fortCp = rs.hasType(cpdef.getDescription(), fortificationTrainingPos);
-					Set<Individual> fortCn = rs.hasType(cpdef.getDescription(), fortificationTrainingNeg);
+					Set<Individual> fortCp = evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), fortificationTrainingPos);
+					Set<Individual> fortCn = evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), fortificationTrainingNeg);
 
 
-					Set<Individual> conceptCp = rs.hasType(concept, fortificationTrainingPos);
-					Set<Individual> conceptCn = rs.hasType(concept, fortificationTrainingNeg);	
+					Set<Individual> conceptCp = evaluationMatrix.getCoveredIndividuals(concept, fortificationTrainingPos);
+					Set<Individual> conceptCn = evaluationMatrix.getCoveredIndividuals(concept, fortificationTrainingNeg);	
 
 					
 					int cp = fortCp.size();
@@ -773,7 +708,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 					
 					double fortificationValidationScore = FortificationUtils.fortificationScore(pelletReasoner, cpdef.getDescription(), concept, 
 							cp, cn, fortificationTrainingPos.size(), fortificationTrainingNeg.size(), 
-							cp-fortCp.size(), cn-fortCn.size(), ((ParCELAbstract)la).getMaximumHorizontalExpansion());
+							cp-fortCp.size(), cn-fortCn.size(), foldResult.maxHorizontalExpansion);
 					
 					
 					//----------------------------
@@ -841,13 +776,13 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 						changed = "(" + (cpChanged?"-":"") + (cnChanged?"+":"") + ")";
 
 						outputWriter(count++ + changed + ". " + FortificationUtils.getCpdefString(cpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef.getDescription(), curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef.getDescription(), curFoldNegTestSet));
+								+ ", cp=" + cpdefCp
+								+ ", cn=" + cpdefCn);
 					}
 					else if (logger.isDebugEnabled()) {
 						logger.debug(count++ + changed + ". " + FortificationUtils.getCpdefString(cpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef.getDescription(), curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef.getDescription(), curFoldNegTestSet));
+								+ ", cp=" + cpdefCp
+								+ ", cn=" + cpdefCn);
 					}
 					/*
 					if (cpChanged || cnChanged)
@@ -930,7 +865,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, counterPartialDefinitions, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, counterPartialDefinitions, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -960,7 +895,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, similarityAndOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, similarityAndOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -990,7 +925,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, fortificationValidationCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, fortificationValidationCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1020,7 +955,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, similarityNegPosCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, similarityNegPosCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1050,7 +985,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, jaccardOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, jaccardOverlapCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1080,7 +1015,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, jaccardDistanceCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, jaccardDistanceCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1111,7 +1046,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, combinationScoreCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, combinationScoreCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1142,7 +1077,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 
 				//counter partial definition is sorted by training coverage by default ==> don't need to sort the cpdef set				
 				multiStepFortificationResult[INDEX] = FortificationUtils.fortifyAccuracyMultiSteps(
-						rs, concept, randomCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
+						evaluationMatrix, concept, randomCpdef, curFoldPosTestSet, curFoldNegTestSet, false);
 
 				//accumulate the accuracy, fmeasure,... for the TRAINING_COVERAGE strategy at 5%, 10%, 20%,...
 				for (int i=0; i<6; i++) {	//6: the number of steps: 5%, 10%, 20%,..., 50%
@@ -1188,7 +1123,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 					for (CELOE.PartialDefinition cpdef : counterPartialDefinitions) {
 						
 						//set of neg examples covered by the counter partial definition
-						Set<Individual> desCoveredNeg = new HashSet<Individual>(rs.hasType(cpdef.getDescription(), curFoldNegTestSet));
+						Set<Individual> desCoveredNeg = new HashSet<Individual>(evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldNegTestSet));
 						
 						//if the current counter partial definition can help to remove some neg examples
 						//int oldNoOfCoveredNeg=tempCoveredNeg.size();
@@ -1198,7 +1133,7 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 							selectedCounterPartialDefinitions.add(cpdef);
 							
 							//check if it may remove some positive examples or not
-							Set<Individual> desCoveredPos = new HashSet<Individual>(rs.hasType(cpdef.getDescription(), curFoldPosTestSet));
+							Set<Individual> desCoveredPos = new HashSet<Individual>(evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldPosTestSet));
 							tempUncoveredPos.addAll(desCoveredPos);
 							
 							//count the total number of counter partial definition selected and their total length
@@ -1271,8 +1206,8 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 					for (CELOE.PartialDefinition cpdef : selectedCounterPartialDefinitions) {
 						
 						outputWriter(count++ + cpdef.getId() + ". " + FortificationUtils.getCpdefString(cpdef, baseURI, prefixes)
-								+ ", cp=" + rs.hasType(cpdef.getDescription(), curFoldPosTestSet)
-								+ ", cn=" + rs.hasType(cpdef.getDescription(), curFoldNegTestSet));
+								+ ", cp=" + evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldPosTestSet)
+								+ ", cn=" + evaluationMatrix.getCoveredIndividuals(cpdef.getDescription(), curFoldNegTestSet));
 
 					}
 										
@@ -2022,6 +1957,193 @@ public class ParCELFortifiedCrossValidation3PhasesFair extends CrossValidation {
 	}
 
 
+	/**
+	 * Values of a fold which are learnt by the learner of the fold and the output of the learning
+	 * phases. The output is written when the result is aggregated so that the output of the folds
+	 * learnt at the same time is not interleaved
+	 */
+	protected static class FoldResult {
+		TreeSet<CELOE.PartialDefinition> counterPartialDefinitions;
+		long algorithmDurationCpdef;
+		long algorithmDurationPdef;
+		
+		Description concept;
+		long noOfDescriptionGenerated;
+		long noOfPartialDefinitions;
+		long noOfReducedPartialDefinitions;
+		int maxHorizontalExpansion;
+		
+		boolean fairEvaluationNeeded = false;
+		Description conceptFair = null;
+		long algorithmDurationFair;
+		
+		List<String> output = new LinkedList<String>();
+	}
+	
+	
+	/**
+	 * Learn the counter partial definitions (phase 1), the definition (phase 2) and, if needed for
+	 * the fair comparison, the definition again with the timeout of both phases (phase 3) of a fold 
+	 * 
+	 * @param la Learner of the fold
+	 * @param lp Learning problem of the fold, its examples will be set to the training sets
+	 * @param trainingPos Positive training examples
+	 * @param trainingNeg Negative training examples
+	 * @param fortificationTimeout Timeout of phase 1 (0: timeout of the learner)
+	 * @param fairComparison Learn the definition again if phase 2 reached the timeout
+	 * 
+	 * @return Result of the fold
+	 */
+	protected FoldResult learnFold(AbstractCELA la, ParCELPosNegLP lp, 
+			Set<Individual> trainingPos, Set<Individual> trainingNeg, 
+			int fortificationTimeout, boolean fairComparison) {
+		
+		FoldResult result = new FoldResult();
+		
+		//-----------------------------------------------------
+		//	1. Learn COUNTER PARTIAL DEFINITIONS 
+		//		Reverse the pos/neg and let the learner starts  
+		//-----------------------------------------------------
+		
+		//reverse the pos/neg examples
+		lp.setNegativeExamples(trainingPos);
+		lp.setPositiveExamples(trainingNeg);
+
+		//init the learner
+		try {
+			lp.init();
+			la.init();
+		} catch (ComponentInitException e) {
+			e.printStackTrace();
+		}
+		
+		//Timeout values. There may be 2 timeout values: for cpdef step and pdef step
+		// Note that ParCEL does not need noise for cpdef generation
+		int orgTimeout = ((ParCELAbstract)la).getMaxExecutionTimeInSeconds();
+		
+		result.output.add("** Phase 1 - Learning counter partial definition");				
+		result.output.add("Timeout=" + (fortificationTimeout > 0? fortificationTimeout : orgTimeout));
+		
+		
+		//adjust fortification timeout
+		if (fortificationTimeout > 0)
+			((ParCELAbstract)la).setMaxExecutionTimeInSeconds(fortificationTimeout);
+			
+		
+		//start the learner
+		long algorithmStartTimeCpdef = System.nanoTime();
+		la.start();
+		result.algorithmDurationCpdef = System.nanoTime() - algorithmStartTimeCpdef;
+						
+		
+		//get and store the counter partial definitions
+		result.counterPartialDefinitions = new TreeSet<CELOE.PartialDefinition>(new FortificationUtils.CoverageComparator()); 
+		
+		//get the cpdefs, conversion is needed
+		for (ParCELExtraNode cpdef : ((ParCELAbstract)la).getPartialDefinitions()) {
+			int trainingCn = cpdef.getCoveredPositiveExamples().size();	//since pos and neg are reversed, cn = cp'
+			
+			result.counterPartialDefinitions.add(new CELOE.PartialDefinition(cpdef.getDescription(), trainingCn));
+		}
+					
+		
+		result.output.add("Finish learning, number of partial definitions: " + result.counterPartialDefinitions.size());
+			
+		
+		//-----------------------------------------------------
+		//	2. Do the NORMAL learn: learn definition for pos
+		//		Re-assign the pos/neg and restart the learner
+		//-----------------------------------------------------
+
+		//set the pos/neg examples
+		lp.setPositiveExamples(trainingPos);
+		lp.setNegativeExamples(trainingNeg);
+
+		
+		//init the learner
+		try {
+			lp.init();
+			la.init(); 
+		} catch (ComponentInitException e) {
+			e.printStackTrace();
+		}
+						
+		//set the noise + timeout to the original values
+		((ParCELAbstract)la).setMaxExecutionTimeInSeconds(orgTimeout);
+		
+		
+		result.output.add("** Phase 2 - Learning the main concept");
+		result.output.add("Timeout=" + orgTimeout);
+		
+	
+		//-----------------------------
+		//start learning the 2nd phase
+		//-----------------------------
+		long algorithmStartTimePdef = System.nanoTime();
+		la.start();
+		result.algorithmDurationPdef = System.nanoTime() - algorithmStartTimePdef;
+						
+		//----------------------------
+		//FINISHED learning
+		//----------------------------
+		
+		//get the learned concept
+		result.concept = ((ParCELAbstract)la).getUnionCurrenlyBestDescription();
+		
+		result.noOfDescriptionGenerated = la.getTotalNumberOfDescriptionsGenerated();
+		result.noOfPartialDefinitions = ((ParCELAbstract)la).getNumberOfPartialDefinitions();
+		result.noOfReducedPartialDefinitions = ((ParCELAbstract)la).getNoOfReducedPartialDefinition();
+		result.maxHorizontalExpansion = ((ParCELAbstract)la).getMaximumHorizontalExpansion();
+		
+		//----------------------------------------------
+		//check if another "FAIR" evaluation is needed
+		//----------------------------------------------
+		if (fairComparison && result.algorithmDurationPdef/(double) 1000000000 >= ((ParCELAbstract)la).getMaxExecutionTimeInSeconds()) {
+			result.fairEvaluationNeeded = true;
+			
+			
+			int fairLearningTimeout = orgTimeout;
+			if (fortificationTimeout == 0)
+				fairLearningTimeout *= 2;
+			else 
+				fairLearningTimeout += fortificationTimeout;
+			
+			
+			result.output.add("** Phase 3 - Learning the main concept again with double timeout value (for fair comparison): " 
+					+ fairLearningTimeout + "s");
+			
+			//init the learner
+			//set the pos/neg examples
+			lp.setPositiveExamples(trainingPos);
+			lp.setNegativeExamples(trainingNeg);
+			try {
+				lp.init();
+				la.init();
+			} catch (ComponentInitException e) {
+				e.printStackTrace();
+			}
+			
+			//set the fair learning timeout
+			((ParCELAbstract)la).setMaxExecutionTimeInSeconds(fairLearningTimeout);
+			
+			
+			//-----------------------------
+			//start learning the 2nd phase
+			//-----------------------------
+			long algorithmStartTimeFair = System.nanoTime();
+			la.start();
+			result.algorithmDurationFair = System.nanoTime() - algorithmStartTimeFair;
+			
+			//reset the timeout value
+			((ParCELAbstract)la).setMaxExecutionTimeInSeconds(orgTimeout);
+			
+			result.conceptFair = ((ParCELAbstract)la).getUnionCurrenlyBestDescription();
+		}
+		
+		return result;
+	}
+
+
 	/*
 	class URIComparator implements Comparator<Individual> {
 		@Override
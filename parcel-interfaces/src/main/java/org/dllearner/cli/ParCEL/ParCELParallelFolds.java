@@ -0,0 +1,163 @@
+package org.dllearner.cli.ParCEL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dllearner.algorithms.ParCEL.ParCELAbstract;
+import org.dllearner.core.AbstractCELA;
+import org.dllearner.core.AbstractLearningProblem;
+import org.dllearner.core.AbstractReasonerComponent;
+
+/**
+ * Learn the folds of a cross validation, either one after another or several folds at the same
+ * time.<br>
+ * In the fold-parallel mode, the folds of all runs are submitted at once and each fold is learnt by
+ * its own copy of the learner and learning problem (see {@link ParCELFoldComponentFactory}), all
+ * folds share the reasoner. Otherwise, a fold is learnt by the given learner and learning problem
+ * when its result is requested.<br>
+ * The results are requested in the order of the runs and folds, so the output and statistics of a
+ * cross validation do not depend on the mode or on the order in which the folds finish.
+ *
+ * @param <L>
+ *            Type of the learning problem
+ * @param <R>
+ *            Type of the result of a fold
+ */
+public class ParCELParallelFolds<L extends AbstractLearningProblem, R> {
+
+	/**
+	 * Learn a fold using the given learner and learning problem. The learning problem and the
+	 * learner must be (re)initialised with the examples of the fold before the learner is started
+	 */
+	public interface FoldLearner<L extends AbstractLearningProblem, R> {
+		public R learn(AbstractCELA la, L lp, int fold) throws Exception;
+	}
+
+	private final AbstractCELA la;
+	private final L lp;
+	private final FoldLearner<L, R> foldLearner;
+	private final int folds;
+
+	private final int workersPerFold;
+
+	private ExecutorService foldExecutor = null;
+	private List<Future<R>> foldResults = null;
+
+	/**
+	 * Create the fold learning. In the fold-parallel mode, the folds are submitted immediately
+	 *
+	 * @param la
+	 *            Configured learner
+	 * @param lp
+	 *            Configured learning problem
+	 * @param rs
+	 *            Reasoner shared by all folds
+	 * @param noOfRuns
+	 *            Number of k-fold runs
+	 * @param folds
+	 *            Number of folds of each run
+	 * @param parallelFolds
+	 *            Number of folds learnt at the same time (1: one fold after another, using the
+	 *            given learner and learning problem)
+	 * @param noOfCores
+	 *            Number of cores shared by the folds learnt at the same time, each of them uses
+	 *            noOfCores/parallelFolds workers (0: all available cores)
+	 * @param foldLearner
+	 *            Learning of a fold
+	 */
+	public ParCELParallelFolds(final AbstractCELA la, final L lp, AbstractReasonerComponent rs,
+			int noOfRuns, int folds, int parallelFolds, int noOfCores,
+			final FoldLearner<L, R> foldLearner) {
+		this.la = la;
+		this.lp = lp;
+		this.foldLearner = foldLearner;
+		this.folds = folds;
+
+		if (parallelFolds <= 1) {
+			this.workersPerFold = 0;
+			return;
+		}
+
+		this.workersPerFold = ParCELFoldComponentFactory.getNumberOfWorkersPerFold(noOfCores,
+				parallelFolds);
+		final ParCELFoldComponentFactory factory = new ParCELFoldComponentFactory(rs);
+
+		foldExecutor = Executors.newFixedThreadPool(parallelFolds);
+		foldResults = new ArrayList<Future<R>>(noOfRuns * folds);
+
+		for (int kk = 0; kk < noOfRuns; kk++) {
+			for (int currFold = 0; currFold < folds; currFold++) {
+				final int fold = currFold;
+
+				foldResults.add(foldExecutor.submit(new Callable<R>() {
+					@Override
+					public R call() throws Exception {
+						L foldLp = factory.createLearningProblem(lp);
+						AbstractCELA foldLa = factory.createLearner(la, foldLp);
+
+						if (foldLa instanceof ParCELAbstract)
+							((ParCELAbstract) foldLa).setNumberOfWorkers(workersPerFold);
+
+						return foldLearner.learn(foldLa, foldLp, fold);
+					}
+				}));
+			}
+		}
+
+		foldExecutor.shutdown();
+	}
+
+	/**
+	 * Get the result of a fold. In the sequential mode, the fold is learnt by the configured
+	 * learner now
+	 *
+	 * @param run
+	 *            Run of the fold
+	 * @param fold
+	 *            Fold
+	 *
+	 * @return Result of the fold
+	 *
+	 * @throws Exception
+	 *             If the fold could not be learnt (e.g. the learner cannot be initialised)
+	 */
+	public R getResult(int run, int fold) throws Exception {
+		if (foldResults == null)
+			return foldLearner.learn(la, lp, fold);
+
+		try {
+			return foldResults.get(run * folds + fold).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop learning the remaining folds, e.g. if the cross validation is interrupted
+	 */
+	public void shutdown() {
+		if (foldExecutor != null)
+			foldExecutor.shutdownNow();
+	}
+
+	/**
+	 * @return True if several folds are learnt at the same time
+	 */
+	public boolean isParallel() {
+		return foldResults != null;
+	}
+
+	/**
+	 * @return Number of workers of each fold in the fold-parallel mode
+	 */
+	public int getNumberOfWorkersPerFold() {
+		return workersPerFold;
+	}
+}